@@ -29,6 +29,7 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.stream.IntStream;
 
 import org.aavso.tools.vstar.data.DateInfo;
 import org.aavso.tools.vstar.data.InvalidObservation;
@@ -84,15 +85,25 @@ public abstract class TESSObservationRetrieverBase extends AbstractObservationRe
         }
     }
 
-    private class RawObservationData {
-        int row;
-        double time;
-        double intensity;
-        double error;
-        Integer quality;
+    // The columns of a light curve read from one FITS file, with magnitudes
+    // computed for the rows with valid flux.
+    private static class LightCurve {
+        String objName;
+        SeriesType seriesType;
+        double refMag;
+        String refMagDescription;
+        int rowCount;
+        double[] time;
+        double[] flux;
+        double[] fluxErr;
+        int[] quality;
+        boolean[] valid;
+        double[] mag;
+        double[] magErr;
     }
 
     private List<BasicHDU[]> hdusList = null;
+    private List<String> inputNames = null;
 
     private String objName = null;
 
@@ -102,6 +113,7 @@ public abstract class TESSObservationRetrieverBase extends AbstractObservationRe
         super(hostPlugin.getVelaFilterStr());
         this.hostPlugin = hostPlugin;
         this.hdusList = new ArrayList<BasicHDU[]>();
+        this.inputNames = new ArrayList<String>();
     }
 
     /**
@@ -151,19 +163,30 @@ public abstract class TESSObservationRetrieverBase extends AbstractObservationRe
 
         setJDflavour(JDflavour.BJD);
 
-        // BasicHDU initialization occurs in getNumberOfRecords
-        for (int i = 0; i < hdusList.size(); i++) {
+        // BasicHDU initialization occurs in getNumberOfRecords.
+        // The light curves of several files (e.g. sectors) are read in
+        // parallel, then their observations are collected in file order.
+        LightCurve[] lightCurves = new LightCurve[hdusList.size()];
+
+        IntStream.range(0, hdusList.size()).parallel().forEach(i -> {
             try {
-                retrieveObservations(hdusList.get(i));
+                lightCurves[i] = readLightCurve(hdusList.get(i));
             } catch (Exception e) {
-                InputStream stream = hostPlugin.getInputStreams().get(i);
-                String inputName = hostPlugin.nameFromStream(stream);
-                MessageBox.showErrorDialog("FITS Read Error", String.format("Not a valid FITS file: %s", inputName));
+                lightCurves[i] = null;
+            }
+        });
+
+        for (int i = 0; i < lightCurves.length && !wasInterrupted(); i++) {
+            if (lightCurves[i] != null) {
+                collectObservations(lightCurves[i]);
+            } else {
+                MessageBox.showErrorDialog("FITS Read Error",
+                        String.format("Not a valid FITS file: %s", inputNames.get(i)));
             }
         }
     }
 
-    private void retrieveObservations(BasicHDU[] hdus) throws FitsException, ObservationReadError {
+    private LightCurve readLightCurve(BasicHDU[] hdus) throws FitsException, ObservationReadError {
 
         if (!validateFITS(hdus)) {
             throw new ObservationReadError();
@@ -172,16 +195,14 @@ public abstract class TESSObservationRetrieverBase extends AbstractObservationRe
         // KEPLER, TESS, QLP and LightKurve FITS
         if (hdus.length > 1 && hdus[0] instanceof ImageHDU && hdus[1] instanceof BinaryTableHDU) {
 
-            // Lists to store observations before median level adjust
-            List<RawObservationData> rawObsList = new ArrayList<RawObservationData>();
-            List<InvalidObservation> invalidObsList = new ArrayList<InvalidObservation>();
+            LightCurve lightCurve = new LightCurve();
 
             ImageHDU imageHDU = (ImageHDU) hdus[0];
 
-            objName = imageHDU.getObject();
-            SeriesType seriesType = getSeriesType(hdus);
-            double refMag = getRefMagnitude(hdus);
-            String refMagDescription = getRefMagnitudeDescription(hdus);
+            lightCurve.objName = imageHDU.getObject();
+            lightCurve.seriesType = getSeriesType(hdus);
+            lightCurve.refMag = getRefMagnitude(hdus);
+            lightCurve.refMagDescription = getRefMagnitudeDescription(hdus);
 
             BinaryTableHDU tableHDU = (BinaryTableHDU) hdus[1];
 
@@ -195,95 +216,141 @@ public abstract class TESSObservationRetrieverBase extends AbstractObservationRe
                 throw new ObservationReadError("Cannot find determine reference epoch");
             }
 
-            for (int row = 0; row < tableHDU.getNRows() && !wasInterrupted(); row++) {
-                try {
-                    double barytime = ((double[]) tableHDU.getElement(row, timeColumn))[0];
-                    double bjd = barytime + timeRef;
-
-                    float flux = ((float[]) tableHDU.getElement(row, fluxColumn))[0];
-                    float flux_err = 0;
-                    if (fluxErrColumn >= 0) {
-                        flux_err = ((float[]) tableHDU.getElement(row, fluxErrColumn))[0];
-                    }
-                    Integer qualityFlags = null;
-                    if (qalityFlagsColumn >= 0) {
-                        qualityFlags = ((int[]) tableHDU.getElement(row, qalityFlagsColumn))[0];
-                    }
-
-                    if (!Float.isInfinite(flux) && !Float.isInfinite(flux_err) && !Float.isNaN(flux)
-                            && !Float.isNaN(flux_err) && (flux > 0)) {
-                        RawObservationData rawObs = new RawObservationData();
-                        rawObs.row = row;
-                        rawObs.time = bjd;
-                        rawObs.intensity = flux;
-                        rawObs.error = flux_err;
-                        rawObs.quality = qualityFlags;
-
-                        rawObsList.add(rawObs);
-                    } else {
-                        throw new ObservationReadErrorFITS("Invalid flux or flux error", bjd, flux, flux_err);
-                    }
-                } catch (Exception e) {
-                    String input;
-                    if (e instanceof ObservationReadErrorFITS) {
-                        input = String.format(Locale.ENGLISH, "Time = %f, Flux = %f, Flux error = %f",
-                                ((ObservationReadErrorFITS) e).getTime(), ((ObservationReadErrorFITS) e).getFlux(),
-                                ((ObservationReadErrorFITS) e).getFluxError());
-                    } else {
-                        input = "";
-                    }
-                    String error = e.getLocalizedMessage();
-                    InvalidObservation ob = new InvalidObservation(input, error);
-                    ob.setRecordNumber(row);
-                    invalidObsList.add(ob);
+            // Read whole columns rather than one element at a time.
+            int rowCount = tableHDU.getNRows();
+            lightCurve.rowCount = rowCount;
+            lightCurve.time = readDoubleColumn(tableHDU, timeColumn);
+            lightCurve.flux = readDoubleColumn(tableHDU, fluxColumn);
+            lightCurve.fluxErr = fluxErrColumn >= 0 ? readDoubleColumn(tableHDU, fluxErrColumn)
+                    : new double[rowCount];
+            lightCurve.quality = qalityFlagsColumn >= 0 ? readIntColumn(tableHDU, qalityFlagsColumn) : null;
+
+            double[] time = lightCurve.time;
+            double[] flux = lightCurve.flux;
+            double[] fluxErr = lightCurve.fluxErr;
+
+            // Barycentric time to BJD and flux validity.
+            boolean[] valid = new boolean[rowCount];
+            int validCount = 0;
+            for (int row = 0; row < rowCount; row++) {
+                time[row] += timeRef;
+                valid[row] = !Double.isInfinite(flux[row]) && !Double.isInfinite(fluxErr[row])
+                        && !Double.isNaN(flux[row]) && !Double.isNaN(fluxErr[row]) && (flux[row] > 0);
+                if (valid[row]) {
+                    validCount++;
                 }
             }
+            lightCurve.valid = valid;
 
             // Calculating magShift (median of all points)
             double magShift = 15.0; // arbitrary value
-            if (refMag != INVALID_MAG) {
-                double flux[] = new double[rawObsList.size()];
-                for (int i = 0; i < rawObsList.size(); i++) {
-                    flux[i] = rawObsList.get(i).intensity;
+            if (lightCurve.refMag != INVALID_MAG) {
+                double validFlux[] = new double[validCount];
+                for (int row = 0, i = 0; row < rowCount; row++) {
+                    if (valid[row]) {
+                        validFlux[i++] = flux[row];
+                    }
                 }
                 Median median = new Median();
-                double median_flux = median.evaluate(flux);
+                double median_flux = median.evaluate(validFlux);
                 double median_inst_mag = -2.5 * Math.log10(median_flux);
-                magShift = refMag - median_inst_mag;
+                magShift = lightCurve.refMag - median_inst_mag;
             }
 
-            for (RawObservationData rawObs : rawObsList) {
-                double mag = magShift - 2.5 * Math.log10(rawObs.intensity);
-                double magErr = 1.086 * rawObs.error / rawObs.intensity;
+            double[] mag = new double[rowCount];
+            double[] magErr = new double[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                if (valid[row]) {
+                    mag[row] = magShift - 2.5 * Math.log10(flux[row]);
+                    magErr[row] = 1.086 * fluxErr[row] / flux[row];
+                }
+            }
+            lightCurve.mag = mag;
+            lightCurve.magErr = magErr;
+
+            return lightCurve;
+        } else {
+            throw new ObservationReadError();
+        }
+    }
+
+    private void collectObservations(LightCurve lightCurve) throws ObservationReadError {
+
+        objName = lightCurve.objName;
 
+        String name;
+        if (objName != null && !"".equals(objName.trim())) {
+            name = objName;
+        } else {
+            name = hostPlugin.getInputName();
+        }
+
+        for (int row = 0; row < lightCurve.rowCount && !wasInterrupted(); row++) {
+            if (lightCurve.valid[row]) {
                 ValidObservation ob = new ValidObservation();
-                if (objName != null && !"".equals(objName.trim())) {
-                    ob.setName(objName);
-                } else {
-                    ob.setName(hostPlugin.getInputName());
-                }
-                ob.setDateInfo(new DateInfo(rawObs.time));
-                ob.setMagnitude(new Magnitude(mag, magErr));
-                ob.setBand(seriesType);
-                ob.setRecordNumber(rawObs.row);
-                if (refMagDescription != null && refMag != INVALID_MAG) {
-                    ob.addDetail("HEADER_MAG", refMag, refMagDescription);
+                ob.setName(name);
+                ob.setDateInfo(new DateInfo(lightCurve.time[row]));
+                ob.setMagnitude(new Magnitude(lightCurve.mag[row], lightCurve.magErr[row]));
+                ob.setBand(lightCurve.seriesType);
+                ob.setRecordNumber(row);
+                if (lightCurve.refMagDescription != null && lightCurve.refMag != INVALID_MAG) {
+                    ob.addDetail("HEADER_MAG", lightCurve.refMag, lightCurve.refMagDescription);
                 }
-                ;
-                ob.addDetail("FLUX", rawObs.intensity, "Flux");
-                if (qalityFlagsColumn >= 0 && rawObs.quality != null) {
-                    ob.addDetail("QUALITY", rawObs.quality, "Quality");
+                ob.addDetail("FLUX", lightCurve.flux[row], "Flux");
+                if (lightCurve.quality != null) {
+                    ob.addDetail("QUALITY", lightCurve.quality[row], "Quality");
                 }
                 collectObservation(ob);
                 incrementProgress();
             }
+        }
 
-            for (InvalidObservation ob : invalidObsList) {
+        for (int row = 0; row < lightCurve.rowCount && !wasInterrupted(); row++) {
+            if (!lightCurve.valid[row]) {
+                String input = String.format(Locale.ENGLISH, "Time = %f, Flux = %f, Flux error = %f",
+                        lightCurve.time[row], lightCurve.flux[row], lightCurve.fluxErr[row]);
+                InvalidObservation ob = new InvalidObservation(input, "Invalid flux or flux error");
+                ob.setRecordNumber(row);
                 addInvalidObservation(ob);
                 incrementProgress();
             }
+        }
+    }
+
+    // Read a floating point column as a whole.
+    private static double[] readDoubleColumn(BinaryTableHDU tableHDU, int column) throws FitsException {
+        Object data = tableHDU.getColumn(column);
+
+        if (data instanceof double[]) {
+            // Copied, since times are adjusted in place.
+            return ((double[]) data).clone();
+        } else if (data instanceof float[]) {
+            float[] floatData = (float[]) data;
+            double[] doubleData = new double[floatData.length];
+            for (int i = 0; i < floatData.length; i++) {
+                doubleData[i] = floatData[i];
+            }
+            return doubleData;
         } else {
-            throw new ObservationReadError();
+            throw new FitsException("Column " + column + " is not a floating point column");
+        }
+    }
+
+    // Read an integer column as a whole.
+    private static int[] readIntColumn(BinaryTableHDU tableHDU, int column) throws FitsException {
+        Object data = tableHDU.getColumn(column);
+
+        if (data instanceof int[]) {
+            return (int[]) data;
+        } else if (data instanceof short[]) {
+            short[] shortData = (short[]) data;
+            int[] intData = new int[shortData.length];
+            for (int i = 0; i < shortData.length; i++) {
+                intData[i] = shortData[i];
+            }
+            return intData;
+        } else {
+            throw new FitsException("Column " + column + " is not an integer column");
         }
     }
 
@@ -291,24 +358,34 @@ public abstract class TESSObservationRetrieverBase extends AbstractObservationRe
     public Integer getNumberOfRecords() throws ObservationReadError {
 
         hdusList.clear();
+        inputNames.clear();
 
-        for (InputStream fitsStream : hostPlugin.getInputStreams()) {
+        // The files are read in parallel, then errors are reported in order.
+        List<InputStream> fitsStreams = hostPlugin.getInputStreams();
+        BasicHDU[][] hdusArray = new BasicHDU[fitsStreams.size()][];
+        String[] errors = new String[fitsStreams.size()];
+
+        IntStream.range(0, fitsStreams.size()).parallel().forEach(i -> {
+            InputStream fitsStream = fitsStreams.get(i);
             try {
                 Fits fits = new Fits(fitsStream);
                 BasicHDU[] hdus = fits.read();
                 if (hdus.length > 1 && hdus[1] instanceof BinaryTableHDU) {
-                    hdusList.add(hdus);
+                    hdusArray[i] = hdus;
                 } else {
-                    String msg =
-                            String.format("Not a valid FITS file: %s",
-                                    hostPlugin.nameFromStream(fitsStream));
-                    MessageBox.showErrorDialog("FITS Read Error", msg);
+                    errors[i] = String.format("Not a valid FITS file: %s", hostPlugin.nameFromStream(fitsStream));
                 }
             } catch (Exception e) {
-                String msg =
-                        String.format("Error reading file: %s",
-                                hostPlugin.nameFromStream(fitsStream));
-                MessageBox.showErrorDialog("FITS Read Error", msg);
+                errors[i] = String.format("Error reading file: %s", hostPlugin.nameFromStream(fitsStream));
+            }
+        });
+
+        for (int i = 0; i < fitsStreams.size(); i++) {
+            if (hdusArray[i] != null) {
+                hdusList.add(hdusArray[i]);
+                inputNames.add(hostPlugin.nameFromStream(fitsStreams.get(i)));
+            } else {
+                MessageBox.showErrorDialog("FITS Read Error", errors[i]);
             }
         }
 
@@ -40,6 +40,7 @@ import org.aavso.tools.vstar.data.validation.UncertaintyValueValidator;
 import org.aavso.tools.vstar.exception.ObservationReadError;
 import org.aavso.tools.vstar.exception.ObservationValidationError;
 import org.aavso.tools.vstar.input.AbstractObservationRetriever;
+import org.aavso.tools.vstar.input.text.MappedLineScanner;
 import org.aavso.tools.vstar.plugin.InputType;
 import org.aavso.tools.vstar.plugin.ObservationSourcePluginBase;
 // 12/02/2018 C. Kotnik
@@ -114,6 +115,9 @@ public class AAVSOUploadFileFormatObservationSource extends ObservationSourcePlu
 		private String dateType;
 		private String obsType;
 		private List<String> lines;
+		private int lineIndex;
+		private MappedLineScanner scanner;
+		private Integer lineCount;
 
 		private JulianDayValidator julianDayValidator;
 		private MagnitudeFieldValidator magnitudeFieldValidator;
@@ -137,7 +141,7 @@ public class AAVSOUploadFileFormatObservationSource extends ObservationSourcePlu
 			transformedValidator = new TransformedValidator();
 
 			// What should the range be for CCD/PEP, Visual/PTG?
-			magnitudeValueValidator = new MagnitudeValueValidator(new InclusiveRangePredicate(-10, 25));
+			magnitudeValueValidator = new MagnitudeValueValidator(MagnitudeFieldValidator.MAGNITUDE_RANGE);
 
 			this.commentCodeValidator = new CommentCodeValidator(CommentType.getRegex());
 		}
@@ -150,52 +154,86 @@ public class AAVSOUploadFileFormatObservationSource extends ObservationSourcePlu
 			int lineNum = 1;
 			int obNum = 1;
 
-			for (String line : lines) {
-				try {
-					if (line != null) {
-						// Remove any CR or LF characters.
-						line = line.replaceFirst("\n", "").replaceFirst("\r", "");
-
-						line = removeNegativeBytes(line);
-
-						// Process current line.
-						if (!isEmpty(line)) {
-							if (line.startsWith("#")) {
-								handleDirective(line);
-							} else {
-								String[] fields = line.split(delimiter);
-								collectObservation(readNextObservation(fields, obNum));
-								obNum++;
+			try {
+				while (nextLine()) {
+					String line = currentLine();
+					try {
+						if (line != null) {
+							// Remove any CR or LF characters.
+							line = line.replaceFirst("\n", "").replaceFirst("\r", "");
+
+							line = removeNegativeBytes(line);
+
+							// Process current line.
+							if (!isEmpty(line)) {
+								if (line.startsWith("#")) {
+									handleDirective(line);
+								} else {
+									String[] fields = line.split(delimiter);
+									collectObservation(readNextObservation(fields, obNum));
+									obNum++;
+								}
 							}
-						}
-						lineNum++;
+							lineNum++;
 
-						incrementProgress();
+							incrementProgress();
+						}
+					} catch (Exception e) {
+						// Create an invalid observation.
+						// Record the line number rather than observation number for
+						// error reporting purposes, but still increment the latter.
+						String error = e.getLocalizedMessage();
+						InvalidObservation ob = new InvalidObservation(line, error);
+						ob.setRecordNumber(lineNum);
+						obNum++;
+						addInvalidObservation(ob);
 					}
-				} catch (Exception e) {
-					// Create an invalid observation.
-					// Record the line number rather than observation number for
-					// error reporting purposes, but still increment the latter.
-					String error = e.getLocalizedMessage();
-					InvalidObservation ob = new InvalidObservation(line, error);
-					ob.setRecordNumber(lineNum);
-					obNum++;
-					addInvalidObservation(ob);
+				}
+			} finally {
+				if (scanner != null) {
+					scanner.close();
 				}
 			}
 		}
 
 		@Override
 		public Integer getNumberOfRecords() throws ObservationReadError {
-			if (lines == null) {
+			if (lineCount == null) {
 				try {
-					readLines();
+					// A local file is memory-mapped and its lines decoded one
+					// at a time, otherwise all lines are read.
+					scanner = MappedLineScanner.create(getInputStreams().get(0));
+					if (scanner != null) {
+						lineCount = scanner.countLines();
+					} else {
+						readLines();
+						lineCount = lines.size();
+					}
 				} catch (IOException e) {
 					throw new ObservationReadError("Error reading lines");
 				}
 			}
 
-			return lines.size();
+			return lineCount;
+		}
+
+		// Advance to the next line of the source.
+		private boolean nextLine() throws ObservationReadError {
+			getNumberOfRecords();
+
+			if (scanner != null) {
+				try {
+					return scanner.nextLine();
+				} catch (IOException e) {
+					throw new ObservationReadError("Error reading lines");
+				}
+			} else {
+				return lineIndex++ < lines.size();
+			}
+		}
+
+		private String currentLine() {
+			return scanner != null ? scanner.getLine() : lines.get(lineIndex - 1);
 		}
 
 		// Read all lines from the source.
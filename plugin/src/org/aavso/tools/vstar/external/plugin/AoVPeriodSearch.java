@@ -19,16 +19,15 @@ package org.aavso.tools.vstar.external.plugin;
 
 import java.awt.Component;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import javax.swing.JDialog;
 import javax.swing.JPanel;
 
-import org.aavso.tools.vstar.data.DateInfo;
-import org.aavso.tools.vstar.data.Magnitude;
 import org.aavso.tools.vstar.data.SeriesType;
 import org.aavso.tools.vstar.data.ValidObservation;
 import org.aavso.tools.vstar.exception.AlgorithmError;
@@ -53,17 +52,16 @@ import org.aavso.tools.vstar.ui.mediator.message.PeriodAnalysisSelectionMessage;
 import org.aavso.tools.vstar.ui.model.list.PeriodAnalysisDataTableModel;
 import org.aavso.tools.vstar.ui.model.plot.ObservationAndMeanPlotModel;
 import org.aavso.tools.vstar.ui.model.plot.PeriodAnalysis2DPlotModel;
-import org.aavso.tools.vstar.ui.model.plot.PhaseTimeElementEntity;
-import org.aavso.tools.vstar.util.comparator.StandardPhaseComparator;
 import org.aavso.tools.vstar.util.model.Harmonic;
 import org.aavso.tools.vstar.util.model.PeriodAnalysisDerivedMultiPeriodicModel;
 import org.aavso.tools.vstar.util.notification.Listener;
 import org.aavso.tools.vstar.util.period.IPeriodAnalysisAlgorithm;
 import org.aavso.tools.vstar.util.period.IPeriodAnalysisDatum;
 import org.aavso.tools.vstar.util.period.PeriodAnalysisCoordinateType;
+import org.aavso.tools.vstar.util.period.PeriodAnalysisResultSeries;
+import org.aavso.tools.vstar.util.period.TopHitsHeap;
+import org.aavso.tools.vstar.util.period.aov.AoVEngine;
 import org.aavso.tools.vstar.util.period.dcdft.PeriodAnalysisDataPoint;
-import org.aavso.tools.vstar.util.stats.BinningResult;
-import org.aavso.tools.vstar.util.stats.DescStats;
 import org.aavso.tools.vstar.util.stats.PhaseCalcs;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.plot.DatasetRenderingOrder;
@@ -81,16 +79,17 @@ import org.jfree.chart.plot.DatasetRenderingOrder;
  * 
  * http://iopscience.iop.org/1538-4357/460/2/L107/pdf/1538-4357_460_2_L107.pdf
  * 
- * o Top hits performance!<br/>
  * o Create a piecewise model from means (see Foster)? Polynomial? Spline?<br/>
- * o Parallelise!<br/>
  */
 public class AoVPeriodSearch extends PeriodAnalysisPluginBase {
 
     private final static int MAX_TOP_HITS = 20;
 
+    // Split the trial period grid across cores?
+    private final static boolean USE_MULTI_THREAD_VERSION = true;
+
     private boolean firstInvocation;
-    private boolean interrupted;
+    private volatile boolean interrupted;
     private boolean cancelled;
     private boolean legalParams;
 
@@ -340,16 +339,18 @@ public class AoVPeriodSearch extends PeriodAnalysisPluginBase {
 
         private List<ValidObservation> obs;
 
-        private List<Double> frequencies;
+        private PeriodAnalysisResultSeries results;
+
+        private PeriodAnalysisResultSeries.Column frequencies;
         private ArrayList<Double> orderedFrequencies;
 
-        private List<Double> periods;
+        private PeriodAnalysisResultSeries.Column periods;
         private ArrayList<Double> orderedPeriods;
 
-        private List<Double> fValues;
+        private PeriodAnalysisResultSeries.Column fValues;
         private ArrayList<Double> orderedFValues;
 
-        private List<Double> pValues;
+        private PeriodAnalysisResultSeries.Column pValues;
         private ArrayList<Double> orderedPValues;
 
         // private double smallestFValue;
@@ -358,16 +359,19 @@ public class AoVPeriodSearch extends PeriodAnalysisPluginBase {
         public AoVAlgorithm(List<ValidObservation> obs) {
             this.obs = obs;
 
-            frequencies = new ArrayList<Double>();
+            results = new PeriodAnalysisResultSeries(PeriodAnalysisCoordinateType.FREQUENCY,
+                    PeriodAnalysisCoordinateType.PERIOD, F_STATISTIC, P_VALUE);
+
+            frequencies = results.getColumn(PeriodAnalysisCoordinateType.FREQUENCY);
             orderedFrequencies = new ArrayList<Double>();
 
-            periods = new ArrayList<Double>();
+            periods = results.getColumn(PeriodAnalysisCoordinateType.PERIOD);
             orderedPeriods = new ArrayList<Double>();
 
-            fValues = new ArrayList<Double>();
+            fValues = results.getColumn(F_STATISTIC);
             orderedFValues = new ArrayList<Double>();
 
-            pValues = new ArrayList<Double>();
+            pValues = results.getColumn(P_VALUE);
             orderedPValues = new ArrayList<Double>();
 
             // smallestFValue = Double.MAX_VALUE;
@@ -381,22 +385,11 @@ public class AoVPeriodSearch extends PeriodAnalysisPluginBase {
 
         @Override
         public Map<PeriodAnalysisCoordinateType, List<Double>> getResultSeries() {
-            Map<PeriodAnalysisCoordinateType, List<Double>> results = new LinkedHashMap<PeriodAnalysisCoordinateType, List<Double>>();
-
-            results.put(PeriodAnalysisCoordinateType.FREQUENCY, frequencies);
-            results.put(PeriodAnalysisCoordinateType.PERIOD, periods);
-            results.put(F_STATISTIC, fValues);
-            results.put(P_VALUE, pValues);
-
-            return results;
+            return results.asMap();
         }
 
         @Override
         public Map<PeriodAnalysisCoordinateType, List<Double>> getTopHits() {
-            // TODO: create top hits by sorting doubles in descending order
-            // pairs of doubles;
-            // limit to MAX_TOP_HITS = 100
-
             Map<PeriodAnalysisCoordinateType, List<Double>> topHits = new LinkedHashMap<PeriodAnalysisCoordinateType, List<Double>>();
 
             topHits.put(PeriodAnalysisCoordinateType.FREQUENCY, orderedFrequencies);
@@ -432,57 +425,86 @@ public class AoVPeriodSearch extends PeriodAnalysisPluginBase {
 
                 interrupted = false;
 
-                // Duplicate the obs (just JD and mag) so we can set phases
-                // without disturbing the original observation object.
-                // TODO: for a multi-threaded range-subset approach, we would
-                // need to do this once for each thread
-                List<ValidObservation> phObs = copyObs(obs);
+                // Extract just JD and magnitude; each worker's AoV engine
+                // bins phases from its own copy of these arrays. No
+                // observations are created from these, so nothing else
+                // (e.g. uncertainty) is lost; the F-statistic and p-value
+                // depend only on the binned magnitudes, as they did with
+                // DescStats.createSymmetricBinnedObservations().
+                double[] times = new double[obs.size()];
+                double[] mags = new double[obs.size()];
+
+                for (int i = 0; i < obs.size() && !interrupted; i++) {
+                    ValidObservation ob = obs.get(i);
+                    times[i] = ob.getJD();
+                    mags[i] = ob.getMag();
+                }
 
                 // Choose an epoch value.
-                double epoch = PhaseCalcs.epochStrategyMap.get("alpha").determineEpoch(phObs);
-
-                // Iterate over the periods in the range at the specified
-                // resolution.
-
-                // TODO: multi-core approach => iterate over a subset of the
-                // period range but over all observations, where the full set
-                // is copied for each core (set phases, sort mutate obs and
-                // list...); top-hits will have to be combined and ordered once
-                // at end as part of or before prune operation; instead, could
-                // just iterate over a subset of observations; this would only
-                // give a large speedup if many observations; such a for-loop
-                // unrolling would be simpler and less memory intensive though;
-                // may be worth trying first
+                double epoch = PhaseCalcs.epochStrategyMap.get("alpha").determineEpoch(obs);
 
+                // Create the trial period grid. Accumulating the resolution
+                // yields the same periods as a serial sweep would.
+                PeriodAnalysisResultSeries.Column trialPeriods = new PeriodAnalysisResultSeries.Column();
                 for (double period = minPeriod; period <= maxPeriod; period += resolution) {
-                    if (interrupted)
-                        break;
+                    trialPeriods.add(period);
+                }
 
-                    PhaseCalcs.setPhases(phObs, epoch, period);
+                double[] sweepPeriods = trialPeriods.toDoubleArray();
 
-                    Collections.sort(phObs, StandardPhaseComparator.instance);
+                double[] sweepFValues = new double[sweepPeriods.length];
+                double[] sweepPValues = new double[sweepPeriods.length];
 
-                    // Note: 1 / bins = 1 cycle divided into N bins
-                    BinningResult binningResult = DescStats.createSymmetricBinnedObservations(phObs,
-                            PhaseTimeElementEntity.instance, 1.0 / bins);
+                // Iterate over the periods in the range at the specified
+                // resolution, either splitting the period grid across cores
+                // or on the current thread.
+                AoVSweepTask sweep = new AoVSweepTask(times, mags, epoch, sweepPeriods, sweepFValues, sweepPValues, 0,
+                        sweepPeriods.length, sweepThreshold(sweepPeriods.length));
+
+                if (USE_MULTI_THREAD_VERSION && sweepPeriods.length > 1) {
+                    ForkJoinPool pool = new ForkJoinPool();
+                    try {
+                        pool.invoke(sweep);
+                    } finally {
+                        pool.shutdown();
+                    }
+                } else {
+                    sweep.sweep();
+                }
 
-                    // Collect results
-                    // PMAK, Issue #152:
-                    // Use fixInf() to prevent
-                    // 'java.lang.IllegalArgumentException: Must be finite'
-                    // error in AoV chart when period = 0
-                    frequencies.add(fixInf(1.0 / period));
-                    periods.add(period);
-                    fValues.add(fixInf(binningResult.getFValue()));
-                    pValues.add(fixInf(binningResult.getPValue()));
+                if (!interrupted) {
+                    // Collect results in period order, tracking the highest
+                    // F-statistics as we go.
+                    TopHitsHeap topHits = new TopHitsHeap(MAX_TOP_HITS, true);
 
-                    updateOrderedValues();
-                }
+                    for (int i = 0; i < sweepPeriods.length; i++) {
+                        // PMAK, Issue #152:
+                        // Use fixInf() to prevent
+                        // 'java.lang.IllegalArgumentException: Must be finite'
+                        // error in AoV chart when period = 0
+                        double fValue = fixInf(sweepFValues[i]);
+
+                        frequencies.add(fixInf(1.0 / sweepPeriods[i]));
+                        periods.add(sweepPeriods[i]);
+                        fValues.add(fValue);
+                        pValues.add(fixInf(sweepPValues[i]));
 
-                pruneTopHits();
+                        topHits.offer(fValue, i);
+                    }
+
+                    collectTopHits(topHits);
+                }
             }
         }
 
+        // Returns the number of trial periods below which a sweep task is
+        // not split further, aiming for a few tasks per core so that work
+        // is balanced even if some period ranges are slower than others.
+        private int sweepThreshold(int numPeriods) {
+            int tasks = Runtime.getRuntime().availableProcessors() * 4;
+            return Math.max(1, numPeriods / tasks);
+        }
+
         // replace +-Infinity by NaN
         private double fixInf(double v) {
             if (Double.isInfinite(v))
@@ -491,56 +513,14 @@ public class AoVPeriodSearch extends PeriodAnalysisPluginBase {
                 return v;
         }
 
-        private void updateOrderedValues() {
-            if (orderedFrequencies.isEmpty()) {
-                orderedFrequencies.add(frequencies.get(0));
-                orderedPeriods.add(periods.get(0));
-                orderedFValues.add(fValues.get(0));
-                orderedPValues.add(pValues.get(0));
-            } else {
-                int i = periods.size() - 1;
-
-                double frequency = frequencies.get(i);
-                double period = periods.get(i);
-                double fValue = fValues.get(i);
-                double pValue = pValues.get(i);
-
-                // Starting from highest fValue, find index to insert value
-                // and...
-                int index = 0;
-                for (int j = 0; j < orderedFValues.size(); j++) {
-                    if (fValue < orderedFValues.get(j)) {
-                        // Insertion index is one after the matched element's
-                        // index since the list's elements are in descending
-                        // order.
-                        index++;
-                    }
-                }
-
-                // ...apply to all ordered collections.
-                if (index >= 0) {
-                    orderedFrequencies.add(index, frequency);
-                    orderedPeriods.add(index, period);
-                    orderedFValues.add(index, fValue);
-                    orderedPValues.add(index, pValue);
-                } else {
-                    orderedFrequencies.add(0, frequency);
-                    orderedPeriods.add(0, period);
-                    orderedFValues.add(0, fValue);
-                    orderedPValues.add(0, pValue);
-                }
-            }
-        }
-
-        private void pruneTopHits() {
-            if (periods.size() > MAX_TOP_HITS) {
-                orderedFrequencies = new ArrayList<Double>(orderedFrequencies.subList(0, MAX_TOP_HITS));
-
-                orderedPeriods = new ArrayList<Double>(orderedPeriods.subList(0, MAX_TOP_HITS));
-
-                orderedFValues = new ArrayList<Double>(orderedFValues.subList(0, MAX_TOP_HITS));
-
-                orderedPValues = new ArrayList<Double>(orderedPValues.subList(0, MAX_TOP_HITS));
+        // Create the ordered top hit lists, by descending F-statistic.
+        // Results with an undefined F-statistic are excluded.
+        private void collectTopHits(TopHitsHeap topHits) {
+            for (int index : topHits.getOrderedIndices()) {
+                orderedFrequencies.add(frequencies.getDouble(index));
+                orderedPeriods.add(periods.getDouble(index));
+                orderedFValues.add(fValues.getDouble(index));
+                orderedPValues.add(pValues.getDouble(index));
             }
         }
 
@@ -550,26 +530,66 @@ public class AoVPeriodSearch extends PeriodAnalysisPluginBase {
         }
     }
 
-    // Return a copy of the specified observation list
-    private List<ValidObservation> copyObs(List<ValidObservation> obs) {
-        List<ValidObservation> copiedObs = new ArrayList<ValidObservation>();
+    // A fork-join task that computes AoV statistics for a contiguous range of
+    // the trial period grid, splitting the range until it is small enough to
+    // sweep directly. Each leaf task bins phases with its own AoV engine (and
+    // so its own copy of the time and magnitude data), and writes to a
+    // disjoint region of the result arrays.
+    @SuppressWarnings("serial")
+    class AoVSweepTask extends RecursiveAction {
+
+        private double[] times;
+        private double[] mags;
+        private double epoch;
+        private double[] periods;
+        private double[] fValues;
+        private double[] pValues;
+        private int from;
+        private int to;
+        private int threshold;
+
+        public AoVSweepTask(double[] times, double[] mags, double epoch, double[] periods, double[] fValues,
+                double[] pValues, int from, int to, int threshold) {
+            this.times = times;
+            this.mags = mags;
+            this.epoch = epoch;
+            this.periods = periods;
+            this.fValues = fValues;
+            this.pValues = pValues;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
 
-        for (ValidObservation ob : obs) {
-            if (interrupted)
-                break;
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                sweep();
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(
+                        new AoVSweepTask(times, mags, epoch, periods, fValues, pValues, from, mid, threshold),
+                        new AoVSweepTask(times, mags, epoch, periods, fValues, pValues, mid, to, threshold));
+            }
+        }
 
-            ValidObservation copiedOb = new ValidObservation();
+        /**
+         * Compute the F-statistic and p-value for each trial period in this
+         * task's range on the current thread.
+         */
+        public void sweep() {
+            AoVEngine engine = new AoVEngine(times, mags, bins);
 
-            double jd = ob.getDateInfo().getJulianDay();
-            copiedOb.setDateInfo(new DateInfo(jd));
+            for (int i = from; i < to; i++) {
+                if (interrupted)
+                    break;
 
-            Magnitude mag = new Magnitude(ob.getMagnitude().getMagValue(), ob.getMagnitude().getUncertainty());
-            copiedOb.setMagnitude(mag);
+                engine.analyse(epoch, periods[i]);
 
-            copiedObs.add(copiedOb);
+                fValues[i] = engine.getFValue();
+                pValues[i] = engine.getPValue();
+            }
         }
-
-        return copiedObs;
     }
 
     // Ask user for period min, max, resolution and number of bins.
@@ -24,7 +24,6 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -73,6 +72,8 @@ import org.aavso.tools.vstar.util.notification.Listener;
 import org.aavso.tools.vstar.util.period.IPeriodAnalysisAlgorithm;
 import org.aavso.tools.vstar.util.period.IPeriodAnalysisDatum;
 import org.aavso.tools.vstar.util.period.PeriodAnalysisCoordinateType;
+import org.aavso.tools.vstar.util.period.PeriodAnalysisResultSeries;
+import org.aavso.tools.vstar.util.period.TopHitsHeap;
 import org.aavso.tools.vstar.util.period.dcdft.PeriodAnalysisDataPoint;
 import org.aavso.tools.vstar.util.prefs.NumericPrecisionPrefs;
 import org.jfree.chart.JFreeChart;
@@ -620,10 +621,13 @@ public class DFTandSpectralWindow extends PeriodAnalysisPluginBase {
 	// DFT according to Deeming, T.J., 1975, Ap&SS, 36, 137
 	public static class DFTandSpectralWindowAlgorithm implements IPeriodAnalysisAlgorithm {
 
-		private List<Double> frequencies;
-		private List<Double> periods;
-		private List<Double> powers;
-		private List<Double> semiAmplitudes;
+		private PeriodAnalysisResultSeries results;
+		private PeriodAnalysisResultSeries.Column frequencies;
+		private PeriodAnalysisResultSeries.Column periods;
+		private PeriodAnalysisResultSeries.Column powers;
+		private PeriodAnalysisResultSeries.Column semiAmplitudes;
+		
+		private Map<PeriodAnalysisCoordinateType, List<Double>> topHits;
 		
 		double minFrequency, maxFrequency, resolution;
 		
@@ -642,10 +646,15 @@ public class DFTandSpectralWindow extends PeriodAnalysisPluginBase {
 			this.maxFrequency = maxFrequency;
 			this.resolution = resolution;
 			this.ftResult = ftResult;
-			frequencies = new ArrayList<Double>();
-			periods = new ArrayList<Double>();
-			powers = new ArrayList<Double>();
-			semiAmplitudes = new ArrayList<Double>();
+			results = new PeriodAnalysisResultSeries(
+					PeriodAnalysisCoordinateType.FREQUENCY,
+					PeriodAnalysisCoordinateType.PERIOD,
+					PeriodAnalysisCoordinateType.POWER,
+					PeriodAnalysisCoordinateType.SEMI_AMPLITUDE);
+			frequencies = results.getColumn(PeriodAnalysisCoordinateType.FREQUENCY);
+			periods = results.getColumn(PeriodAnalysisCoordinateType.PERIOD);
+			powers = results.getColumn(PeriodAnalysisCoordinateType.POWER);
+			semiAmplitudes = results.getColumn(PeriodAnalysisCoordinateType.SEMI_AMPLITUDE);
 		}
 
 		@Override
@@ -655,18 +664,20 @@ public class DFTandSpectralWindow extends PeriodAnalysisPluginBase {
 
 		@Override
 		public Map<PeriodAnalysisCoordinateType, List<Double>> getResultSeries() {
-			Map<PeriodAnalysisCoordinateType, List<Double>> results = new LinkedHashMap<PeriodAnalysisCoordinateType, List<Double>>();
-
-			results.put(PeriodAnalysisCoordinateType.FREQUENCY, frequencies);
-			results.put(PeriodAnalysisCoordinateType.PERIOD, periods);
-			results.put(PeriodAnalysisCoordinateType.POWER, powers);
-			results.put(PeriodAnalysisCoordinateType.SEMI_AMPLITUDE, semiAmplitudes);
-
-			return results;
+			return results.asMap();
 		}
 
 		@Override
 		public Map<PeriodAnalysisCoordinateType, List<Double>> getTopHits() {
+			if (topHits == null) {
+				topHits = createTopHits();
+			}
+
+			return topHits;
+		}
+
+		// Create the top hits (local maxima) ordered by descending power.
+		private Map<PeriodAnalysisCoordinateType, List<Double>> createTopHits() {
 
 			ArrayList<Double> hitFrequencies = new ArrayList<Double>();
 			ArrayList<Double> hitPeriods = new ArrayList<Double>();
@@ -675,20 +686,20 @@ public class DFTandSpectralWindow extends PeriodAnalysisPluginBase {
 
 			// Extracting top hits (local maxima)
 			if (frequencies.size() > 1) {
-				Map<Integer, Double> hitFrequenciesRaw = new HashMap<Integer, Double>();
-				Map<Integer, Double> hitPeriodsRaw = new HashMap<Integer, Double>();
-				ArrayList<IntDoublePair> hitPowersRaw = new ArrayList<IntDoublePair>();
-				Map<Integer, Double> hitSemiAmplitudesRaw = new HashMap<Integer, Double>();
-				
+				// Here we can limit the number of the top hits, however, is it worth to?
+				// set maxTopHits to -1 for the unrestricted number
+				int capacity = MAX_TOP_HITS >= 0 ? MAX_TOP_HITS : frequencies.size();
+				TopHitsHeap hits = new TopHitsHeap(capacity, true);
+
 				for (int i = 0; i < frequencies.size(); i++) {
 					boolean top = false;
 					if (i > 0 && i < frequencies.size() - 1) {
-						if (powers.get(i) > powers.get(i - 1) && powers.get(i) >= powers.get(i + 1)) {
+						if (powers.getDouble(i) > powers.getDouble(i - 1) && powers.getDouble(i) >= powers.getDouble(i + 1)) {
 							top = true;
 						}
 					} else if (i == 0) {
 						// Fourier transform is symmetric relative to 0 frequency because it continues to the negative frequencies.  
-						if (powers.get(i) > powers.get(i + 1)) {
+						if (powers.getDouble(i) > powers.getDouble(i + 1)) {
 							top = true;
 						}
 					} else if (i == frequencies.size() - 1) {
@@ -698,26 +709,15 @@ public class DFTandSpectralWindow extends PeriodAnalysisPluginBase {
 //						}
 					}
 					if (top) {
-						hitFrequenciesRaw.put(i, frequencies.get(i));
-						hitPeriodsRaw.put(i, periods.get(i));
-						hitPowersRaw.add(new IntDoublePair(i, powers.get(i)));
-						hitSemiAmplitudesRaw.put(i, semiAmplitudes.get(i));
+						hits.offer(powers.getDouble(i), i);
 					}
 				}
-				
-				hitPowersRaw.sort(new IntDoublePairComparator(false));
 
-				// Here we can limit the number of the top hits, however, is it worth to?
-				// set maxTopHits to -1 for the unrestricted number
-				int count = 0;
-				for (IntDoublePair pair : hitPowersRaw) {
-					if (MAX_TOP_HITS >= 0 && count >= MAX_TOP_HITS)
-						break;
-					hitFrequencies.add(hitFrequenciesRaw.get(pair.i));
-					hitPeriods.add(hitPeriodsRaw.get(pair.i));
-					hitPowers.add(pair.d);
-					hitSemiAmplitudes.add(hitSemiAmplitudesRaw.get(pair.i));
-					count++;
+				for (int i : hits.getOrderedIndices()) {
+					hitFrequencies.add(frequencies.getDouble(i));
+					hitPeriods.add(periods.getDouble(i));
+					hitPowers.add(powers.getDouble(i));
+					hitSemiAmplitudes.add(semiAmplitudes.getDouble(i));
 				}
 			}
 	
@@ -855,6 +855,8 @@ public class DFTandSpectralWindow extends PeriodAnalysisPluginBase {
 			} else {
 				singleThreadDFT(minFrequency, resolution, n_steps);
 			}
+			
+			topHits = createTopHits();
 		}
 		
 		private void singleThreadDFT(double minFrequency, double resolution, int n_steps) {
@@ -1420,34 +1422,6 @@ public class DFTandSpectralWindow extends PeriodAnalysisPluginBase {
 	    }
 	}
 
-	private static class IntDoublePair {
-		public int i;
-		public double d;
-		public IntDoublePair(int i, double d) {
-			this.i = i;
-			this.d = d;
-		}
-	}
-	
-	private static class IntDoublePairComparator implements Comparator<IntDoublePair> {
-		
-		private boolean direct;
-		
-	    public IntDoublePairComparator(boolean direct) {
-	    	this.direct = direct;
-		}
-
-		@Override
-	    public int compare(IntDoublePair a, IntDoublePair b) {
-	        if (a.d > b.d) 
-	        	return direct ? 1 : -1;
-	        else if (a.d < b.d)
-	        	return direct ? -1 : 1;
-	        else
-	        	return 0;
-	    }
-	}
-	
 //////////////////////////////////////////////////////////////////////////////
 // Unit test
 //////////////////////////////////////////////////////////////////////////////
@@ -31,6 +31,7 @@ import java.awt.Color;
 import org.aavso.tools.vstar.data.DateInfo;
 import org.aavso.tools.vstar.data.InvalidObservation;
 import org.aavso.tools.vstar.data.Magnitude;
+import org.aavso.tools.vstar.data.MagnitudeModifier;
 import org.aavso.tools.vstar.data.SeriesType;
 import org.aavso.tools.vstar.data.ValidObservation;
 import org.aavso.tools.vstar.data.ValidationType;
@@ -44,6 +45,7 @@ import org.aavso.tools.vstar.exception.ObservationReadError;
 import org.aavso.tools.vstar.exception.ObservationValidationError;
 import org.aavso.tools.vstar.exception.ObservationValidationWarning;
 import org.aavso.tools.vstar.input.AbstractObservationRetriever;
+import org.aavso.tools.vstar.input.text.MappedLineScanner;
 import org.aavso.tools.vstar.plugin.InputType;
 import org.aavso.tools.vstar.plugin.ObservationSourcePluginBase;
 import org.aavso.tools.vstar.ui.mediator.StarInfo;
@@ -51,6 +53,7 @@ import org.aavso.tools.vstar.util.Pair;
 
 import org.aavso.tools.vstar.vela.VeLaInterpreter;
 import org.aavso.tools.vstar.vela.VeLaValidObservationEnvironment;
+import org.aavso.tools.vstar.vela.AST;
 import org.aavso.tools.vstar.vela.Operand;
 import org.aavso.tools.vstar.vela.Type;
 import org.aavso.tools.vstar.vela.VeLaParseError;
@@ -183,16 +186,25 @@ public class FlexibleTextFileFormatObservationSource extends
 		private boolean ignoreValidationErrors = false;
 		private boolean escapingQuotes = false;
 		private List<String> lines = null;
+		private int lineIndex = 0;
+		private String line = null;
+		private MappedLineScanner scanner = null;
+		private Integer lineCount = null;
 		
 		private Hashtable<KnownFields, Integer> fieldMap; 
 
 		private JulianDayValidator julianDayValidator;
 		private MagnitudeFieldValidator magnitudeFieldValidator;
 		private UncertaintyValueValidator uncertaintyValueValidator;
+		private InclusiveRangePredicate magnitudeRange;
+		private InclusiveRangePredicate uncertaintyRange;
 		// private ObserverCodeValidator observerCodeValidator;
 		private ValflagValidator valflagValidator;
 
 		private VeLaInterpreter vela = null;
+		private boolean filterVeLaCompiled = false;
+		private AST filterVeLaAST = null;
+		private RuntimeException filterVeLaError = null;
 
 		/**
 		 * Constructor
@@ -201,7 +213,11 @@ public class FlexibleTextFileFormatObservationSource extends
 			super(getVelaFilterStr());
 			julianDayValidator = new JulianDayValidator();
 			magnitudeFieldValidator = new MagnitudeFieldValidator();
-			uncertaintyValueValidator = new UncertaintyValueValidator(new InclusiveRangePredicate(0, 1));
+			// Ranges of the magnitude and uncertainty validators, applied to
+			// values parsed directly.
+			magnitudeRange = MagnitudeFieldValidator.MAGNITUDE_RANGE;
+			uncertaintyRange = new InclusiveRangePredicate(0, 1);
+			uncertaintyValueValidator = new UncertaintyValueValidator(uncertaintyRange);
 			// observerCodeValidator = new ObserverCodeValidator();
 			valflagValidator = new ValflagValidator("G|D|T|P|U|V|Z");
 
@@ -220,16 +236,12 @@ public class FlexibleTextFileFormatObservationSource extends
 				int lineNum = 0;
 				boolean terminateReading = false;
 
-				for (String line : lines) {
-					if (wasInterrupted())
-						break;
+				while (!wasInterrupted() && nextLine()) {
 					lineNum++;
 					try {
-						if (line == null) continue;
-						line = line.replaceFirst("\n", "").replaceFirst("\r", "");
-						if (isNullOrEmpty(line)) continue;
-						if (line.startsWith("#")) {
-							Pair<Boolean, String> errorState = handleDirective(line);
+						if (isBlankLine()) continue;
+						if (lineStartsWith('#')) {
+							Pair<Boolean, String> errorState = handleDirective(currentLine());
 							if (errorState != null) {
 								if (errorState.first) {
 									terminateReading = true;
@@ -242,8 +254,7 @@ public class FlexibleTextFileFormatObservationSource extends
 								}
 							}
 						} else {
-							String[] fields = splitWithQuotes(line,	delimiter, multispaceDelimiter,	DEFAULT_QUOTEMARK, escapingQuotes);
-							ValidObservation ob = readNextObservation(fields);
+							ValidObservation ob = readNextObservation(splitLine());
 							if (ob != null) {
 								ob.setRecordNumber(lineNum);
 								collectObservation(ob);
@@ -255,7 +266,7 @@ public class FlexibleTextFileFormatObservationSource extends
 						String error = e.getMessage();
 						if (isNullOrEmpty(error))
 							error = e.toString();
-						InvalidObservation invalidOb = new InvalidObservation(line, error);
+						InvalidObservation invalidOb = new InvalidObservation(currentLine(), error);
 						invalidOb.setRecordNumber(lineNum);
 						addInvalidObservation(invalidOb);
 
@@ -268,7 +279,7 @@ public class FlexibleTextFileFormatObservationSource extends
 						String error = e.getMessage();
 						if (isNullOrEmpty(error))
 							error = e.toString();
-						InvalidObservation invalidOb = new InvalidObservation(line, error, true);
+						InvalidObservation invalidOb = new InvalidObservation(currentLine(), error, true);
 						invalidOb.setRecordNumber(lineNum);
 						addInvalidObservation(invalidOb);
 
@@ -292,19 +303,31 @@ public class FlexibleTextFileFormatObservationSource extends
 				}
 			} catch (Exception e) {
 				throw new ObservationReadError("Error while reading observation source.\n"	+ e.toString());
+			} finally {
+				if (scanner != null) {
+					scanner.close();
+				}
 			}
 		}
 
 		@Override
 		public Integer getNumberOfRecords() throws ObservationReadError {
-			if (lines == null) {
+			if (lineCount == null) {
 				try {
-					readLines();
+					// A local file is memory-mapped and scanned in place,
+					// otherwise all lines are read.
+					scanner = MappedLineScanner.create(getInputStreams().get(0));
+					if (scanner != null) {
+						lineCount = scanner.countLines();
+					} else {
+						readLines();
+						lineCount = lines.size();
+					}
 				} catch (IOException e) {
 					throw new ObservationReadError("Error reading lines");
 				}
 			}
-			return lines.size();
+			return lineCount;
 		}
 
 		// Read all lines from the source.
@@ -317,6 +340,45 @@ public class FlexibleTextFileFormatObservationSource extends
 			}
 		}
 
+		// Advance to the next line of the source.
+		private boolean nextLine() throws IOException, ObservationReadError {
+			getNumberOfRecords();
+
+			if (scanner != null) {
+				return scanner.nextLine();
+			} else if (lineIndex < lines.size()) {
+				line = lines.get(lineIndex++);
+				return true;
+			} else {
+				return false;
+			}
+		}
+
+		private String currentLine() {
+			return scanner != null ? scanner.getLine() : line;
+		}
+
+		private boolean isBlankLine() {
+			return scanner != null ? scanner.isBlankLine() : isNullOrEmpty(line);
+		}
+
+		private boolean lineStartsWith(char c) {
+			return scanner != null ? scanner.lineStartsWith(c) : line.startsWith(String.valueOf(c));
+		}
+
+		// Split the current line into fields. An unquoted line of a local
+		// file is split in place, so that numeric fields can be parsed and
+		// only stored fields decoded.
+		private LineFields splitLine() {
+			if (scanner != null && !scanner.lineContains(DEFAULT_QUOTEMARK)) {
+				scanner.split(delimiter, multispaceDelimiter);
+				return new ScannerLineFields(scanner);
+			} else {
+				return new StringLineFields(splitWithQuotes(currentLine(), delimiter, multispaceDelimiter,
+						DEFAULT_QUOTEMARK, escapingQuotes));
+			}
+		}
+
 		private Pair<String, String> splitDirective(String line) {
 			if (line == null || line.length() < 2)
 				return null;
@@ -384,6 +446,7 @@ public class FlexibleTextFileFormatObservationSource extends
 					defObsCode = pair.second;
 				} else if ("#VELAFILTER".equals(pair.first)) {
 					filterVeLa = pair.second;
+					filterVeLaCompiled = false;
 				} else if ("#DEFINESERIES".equals(pair.first)) {
 					String newSeries = pair.second;
 					if (!isNullOrEmpty(newSeries)) {
@@ -594,7 +657,7 @@ public class FlexibleTextFileFormatObservationSource extends
 		}
 
 		// Read the next observation.
-		private ValidObservation readNextObservation(String[] fields) 
+		private ValidObservation readNextObservation(LineFields fields) 
 				throws ObservationValidationError, ObservationValidationWarning {
 
 			String observationWarnings = null;
@@ -602,20 +665,31 @@ public class FlexibleTextFileFormatObservationSource extends
 			int timeColumn = fieldMap.get(KnownFields.TIME);
 			int magColumn = fieldMap.get(KnownFields.MAG);
 			if (timeColumn < 0 || magColumn < 0 || 
-					fields.length <= timeColumn	|| fields.length <= magColumn) {
+					fields.count() <= timeColumn	|| fields.count() <= magColumn) {
 				throw new ObservationValidationError(
 						"At least two fields expected: Time and Magnitude");
 			}
 
 			ValidObservation observation = new ValidObservation();
 
-			DateInfo dateInfo = julianDayValidator.validate(fields[timeColumn].trim());
+			// Plain decimal time and magnitude values are parsed directly,
+			// otherwise the validators are applied.
+			double time = fields.getDecimal(timeColumn, false);
+			if (Double.isNaN(time)) {
+				time = julianDayValidator.validate(fields.get(timeColumn)).getJulianDay();
+			}
 			// dateInfo.setJulianDay(dateInfo.getJulianDay() + dateAdd);
 			// observation.setDateInfo(dateInfo);
 			// Rev. 1630: DateInfo.setJulianDay() removed. Compatible code:
-			observation.setDateInfo(new DateInfo(dateInfo.getJulianDay() + dateAdd));
+			observation.setDateInfo(new DateInfo(time + dateAdd));
 
-			Magnitude magnitude = magnitudeFieldValidator.validate(fields[magColumn].trim());
+			Magnitude magnitude = null;
+			double mag = fields.getDecimal(magColumn, true);
+			if (magnitudeRange.holds(mag)) {
+				magnitude = new Magnitude(mag, MagnitudeModifier.NO_DELTA, !Magnitude.IS_UNCERTAIN);
+			} else {
+				magnitude = magnitudeFieldValidator.validate(fields.get(magColumn));
+			}
 			if (magnitude.isBrighterThan()) {
 				String error = "Was '>' intended (brighter than) or '<'?";
 				if (!ignoreValidationErrors) {
@@ -627,8 +701,14 @@ public class FlexibleTextFileFormatObservationSource extends
 			magnitude.setMagValue(magnitude.getMagValue() + magShift);
 
 			int magErrColumn = fieldMap.get(KnownFields.MAGERR);
-			if (magErrColumn >= 0 && fields.length > magErrColumn) {
-				String uncertaintyStr = fields[magErrColumn].trim();
+			double magErr = Double.NaN;
+			if (magErrColumn >= 0 && fields.count() > magErrColumn) {
+				magErr = fields.getDecimal(magErrColumn, false);
+			}
+			if (uncertaintyRange.holds(magErr)) {
+				magnitude.setUncertainty(magErr);
+			} else if (magErrColumn >= 0 && fields.count() > magErrColumn) {
+				String uncertaintyStr = fields.get(magErrColumn);
 				if (!isNullOrEmpty(uncertaintyStr)) {
 					try {
 						double uncertainty = uncertaintyValueValidator.validate(uncertaintyStr);
@@ -651,8 +731,8 @@ public class FlexibleTextFileFormatObservationSource extends
 
 			String obscode = defObsCode;
 			int obsCodeColumn = fieldMap.get(KnownFields.OBSCODE);
-			if (obsCodeColumn >= 0 && fields.length > obsCodeColumn) {
-				obscode = fields[obsCodeColumn].trim();
+			if (obsCodeColumn >= 0 && fields.count() > obsCodeColumn) {
+				obscode = fields.get(obsCodeColumn);
 				if (isNullOrEmpty(obscode)) {
 					obscode = defObsCode;
 				}
@@ -663,8 +743,8 @@ public class FlexibleTextFileFormatObservationSource extends
 			}
 
 			int flagColumn = fieldMap.get(KnownFields.FLAG);
-			if (flagColumn >= 0 && fields.length > flagColumn) {
-				String valflag = fields[flagColumn].trim();
+			if (flagColumn >= 0 && fields.count() > flagColumn) {
+				String valflag = fields.get(flagColumn);
 				if (!isNullOrEmpty(valflag)) {
 					try {
 						ValidationType validationType = valflagValidator.validate(valflag);
@@ -691,8 +771,8 @@ public class FlexibleTextFileFormatObservationSource extends
 			SeriesType band = SeriesType.Unspecified;
 			String filter = "";
 			int filterColumn = fieldMap.get(KnownFields.FILTER);
-			if (filterColumn >= 0 && fields.length > filterColumn) {
-				filter = fields[filterColumn].trim();
+			if (filterColumn >= 0 && fields.count() > filterColumn) {
+				filter = fields.get(filterColumn);
 			}
 			if (isNullOrEmpty(filter)) {
 				filter = defFilter;
@@ -704,8 +784,8 @@ public class FlexibleTextFileFormatObservationSource extends
 
 			String name = "";
 			int nameColumn = fieldMap.get(KnownFields.NAME);
-			if (nameColumn >= 0 && fields.length > nameColumn) {
-				name = fields[nameColumn].trim();
+			if (nameColumn >= 0 && fields.count() > nameColumn) {
+				name = fields.get(nameColumn);
 			}
 			if (isNullOrEmpty(name)) {
 				name = getStarInfo().getDesignation();
@@ -717,8 +797,8 @@ public class FlexibleTextFileFormatObservationSource extends
 			observation.setName(name);
 
 			int commentsColumn = fieldMap.get(KnownFields.COMMENTS);
-			if (commentsColumn >= 0 && fields.length > commentsColumn) {
-				String comments = fields[commentsColumn].trim();
+			if (commentsColumn >= 0 && fields.count() > commentsColumn) {
+				String comments = fields.get(commentsColumn);
 				observation.setComments(comments);
 			}
 
@@ -726,11 +806,26 @@ public class FlexibleTextFileFormatObservationSource extends
 				if (vela == null)
 					vela = new VeLaInterpreter();
 
+				// The filter is compiled once and evaluated for each
+				// observation. A compilation error is reported for each.
+				if (!filterVeLaCompiled) {
+					filterVeLaAST = null;
+					filterVeLaError = null;
+					try {
+						filterVeLaAST = vela.compile(filterVeLa);
+					} catch (VeLaParseError | VeLaEvalError e) {
+						filterVeLaError = e;
+					}
+					filterVeLaCompiled = true;
+				}
+
 				boolean includeObservation = true;
 				vela.pushEnvironment(new VeLaValidObservationEnvironment(
 						observation));
 				try {
-					Optional<Operand> result = vela.program(filterVeLa);
+					if (filterVeLaError != null)
+						throw filterVeLaError;
+					Optional<Operand> result = vela.program(filterVeLaAST);
 					if (result.isPresent()) {
 						if (result.get().getType() == Type.BOOLEAN) {
 							includeObservation = result.get().booleanVal();
@@ -884,4 +979,59 @@ public class FlexibleTextFileFormatObservationSource extends
 		}
 
 	}
+
+	// The fields of an observation line.
+	private interface LineFields {
+		// The number of fields.
+		int count();
+
+		// The field with leading and trailing whitespace removed.
+		String get(int i);
+
+		// The field as a plain decimal number, or NaN if it must be validated
+		// as a string (see MappedLineScanner.parseDecimal()).
+		double getDecimal(int i, boolean allowSign);
+	}
+
+	// Fields split from a line string.
+	private static class StringLineFields implements LineFields {
+		private String[] fields;
+
+		StringLineFields(String[] fields) {
+			this.fields = fields;
+		}
+
+		public int count() {
+			return fields.length;
+		}
+
+		public String get(int i) {
+			return fields[i].trim();
+		}
+
+		public double getDecimal(int i, boolean allowSign) {
+			return Double.NaN;
+		}
+	}
+
+	// Fields split in place by a memory-mapped line scanner.
+	private static class ScannerLineFields implements LineFields {
+		private MappedLineScanner scanner;
+
+		ScannerLineFields(MappedLineScanner scanner) {
+			this.scanner = scanner;
+		}
+
+		public int count() {
+			return scanner.getFieldCount();
+		}
+
+		public String get(int i) {
+			return scanner.getTrimmedField(i);
+		}
+
+		public double getDecimal(int i, boolean allowSign) {
+			return scanner.parseDecimal(i, allowSign);
+		}
+	}
 }
\ No newline at end of file
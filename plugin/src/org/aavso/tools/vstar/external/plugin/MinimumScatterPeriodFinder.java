@@ -55,6 +55,7 @@ import org.aavso.tools.vstar.util.notification.Listener;
 import org.aavso.tools.vstar.util.period.IPeriodAnalysisAlgorithm;
 import org.aavso.tools.vstar.util.period.IPeriodAnalysisDatum;
 import org.aavso.tools.vstar.util.period.PeriodAnalysisCoordinateType;
+import org.aavso.tools.vstar.util.period.TopHitsHeap;
 import org.aavso.tools.vstar.util.period.dcdft.PeriodAnalysisDataPoint;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.plot.DatasetRenderingOrder;
@@ -426,9 +427,13 @@ public class MinimumScatterPeriodFinder extends PeriodAnalysisPluginBase {
 
 		private List<Double> power;
 
+		private TopHitsHeap topHits;
+
 		public PeriodFinderAlgorithm(List<ValidObservation> obs) {
 			this.obs = obs;
 
+			topHits = new TopHitsHeap(MAX_TOP_HITS, false);
+
 			frequencies = new LinkedList<Double>();
 			orderedFrequencies = new ArrayList<Double>();
 
@@ -558,8 +563,6 @@ public class MinimumScatterPeriodFinder extends PeriodAnalysisPluginBase {
 				// frequencies.add(1.0 / period);
 				// periods.add(period);
 				// scatterValues.add(fValue);
-				//
-				// updateOrderedValues();
 				// }
 
 				// Create a power series where elements are a fraction of
@@ -574,7 +577,7 @@ public class MinimumScatterPeriodFinder extends PeriodAnalysisPluginBase {
 				// }).sorted(Collections.reverseOrder())
 				// .collect(Collectors.toList());
 
-				pruneTopHits();
+				collectTopHits();
 			}
 		}
 
@@ -613,70 +616,32 @@ public class MinimumScatterPeriodFinder extends PeriodAnalysisPluginBase {
 				if (scatter < bestMatch) {
 					bestMatch = scatter;
 					period = trialPeriod;
-					// Collect results
+					// Collect results. Only trial periods that improve upon
+					// the best scatter so far are collected, typically a few
+					// dozen however many periods are tried, so boxed lists
+					// suffice here (unlike the per-trial series of DC DFT
+					// and AoV; see PeriodAnalysisResultSeries).
 					frequencies.addFirst(1.0 / period);
 					periods.addFirst(period);
 					scatterValues.addFirst(scatter);
 					segmentSumValues.addFirst(sumSegs);
-					updateOrderedValues();
-				}
-			}
-		}
-
-		private void updateOrderedValues() {
-			if (orderedFrequencies.isEmpty()) {
-				orderedFrequencies.add(frequencies.get(0));
-				orderedPeriods.add(periods.get(0));
-				orderedScatterValues.add(scatterValues.get(0));
-				orderedSegmentSumValues.add(segmentSumValues.get(0));
-			} else {
-				int i = 0;
-
-				double frequency = frequencies.get(i);
-				double period = periods.get(i);
-				double scatterValue = scatterValues.get(i);
-				double segmentSumValue = segmentSumValues.get(i);
-
-				// Starting from highest scatter value, find index to insert
-				// value and...
-				int index = 0;
-				for (int j = 0; j < orderedScatterValues.size(); j++) {
-					if (scatterValue > orderedScatterValues.get(j)) {
-						// Insertion index is one after the matched element's
-						// index since the list's elements are in ascending
-						// order.
-						index++;
-					}
-				}
-
-				// ...apply to all ordered collections.
-				if (index >= 0) {
-					orderedFrequencies.add(index, frequency);
-					orderedPeriods.add(index, period);
-					orderedScatterValues.add(index, scatterValue);
-					orderedSegmentSumValues.add(index, segmentSumValue);
-				} else {
-					orderedFrequencies.add(0, frequency);
-					orderedPeriods.add(0, period);
-					orderedScatterValues.add(0, scatterValue);
-					orderedSegmentSumValues.add(0, segmentSumValue);
+					topHits.offer(scatter, scatterValues.size() - 1);
 				}
 			}
 		}
 
-		private void pruneTopHits() {
-			if (periods.size() > MAX_TOP_HITS) {
-				orderedFrequencies = new ArrayList<Double>(
-						orderedFrequencies.subList(0, MAX_TOP_HITS));
-
-				orderedPeriods = new ArrayList<Double>(orderedPeriods.subList(
-						0, MAX_TOP_HITS));
-
-				orderedScatterValues = new ArrayList<Double>(
-						orderedScatterValues.subList(0, MAX_TOP_HITS));
-
-				orderedSegmentSumValues = new ArrayList<Double>(
-						orderedSegmentSumValues.subList(0, MAX_TOP_HITS));
+		// Create the ordered top hit lists, by ascending scatter. Results are
+		// added to the start of each series, so the n-th result offered to
+		// the top hits heap is at index size-1-n.
+		private void collectTopHits() {
+			int lastIndex = scatterValues.size() - 1;
+
+			for (int n : topHits.getOrderedIndices()) {
+				int index = lastIndex - n;
+				orderedFrequencies.add(frequencies.get(index));
+				orderedPeriods.add(periods.get(index));
+				orderedScatterValues.add(scatterValues.get(index));
+				orderedSegmentSumValues.add(segmentSumValues.get(index));
 			}
 		}
 
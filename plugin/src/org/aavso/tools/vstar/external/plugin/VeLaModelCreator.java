@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.DoubleUnaryOperator;
 import java.util.stream.Collectors;
 
 import org.aavso.tools.vstar.data.DateInfo;
@@ -21,8 +22,9 @@ import org.aavso.tools.vstar.util.ApacheCommonsDerivativeBasedExtremaFinder;
 import org.aavso.tools.vstar.util.Tolerance;
 import org.aavso.tools.vstar.util.locale.LocaleProps;
 import org.aavso.tools.vstar.util.model.AbstractModel;
-import org.aavso.tools.vstar.util.prefs.NumericPrecisionPrefs;
+import org.aavso.tools.vstar.vela.AST;
 import org.aavso.tools.vstar.vela.Operand;
+import org.aavso.tools.vstar.vela.Operation;
 import org.aavso.tools.vstar.vela.Type;
 import org.aavso.tools.vstar.vela.VeLaInterpreter;
 import org.aavso.tools.vstar.vela.VeLaValidObservationEnvironment;
@@ -72,11 +74,15 @@ public class VeLaModelCreator extends ModelCreatorPluginBase {
     class VeLaUnivariateRealFunction implements DifferentiableUnivariateRealFunction {
 
         private VeLaInterpreter vela;
-        private String funcName;
+        private AST function;
+        private Optional<DoubleUnaryOperator> compiledFunction;
 
         public VeLaUnivariateRealFunction(VeLaInterpreter vela, String funcName) {
             this.vela = vela;
-            this.funcName = funcName;
+            this.function = new AST(funcName, Operation.SYMBOL);
+
+            // A numeric function is compiled, otherwise it is interpreted.
+            this.compiledFunction = vela.compileRealFunction(funcName);
         }
 
         /**
@@ -89,7 +95,15 @@ public class VeLaModelCreator extends ModelCreatorPluginBase {
          */
         @Override
         public double value(double t) throws FunctionEvaluationException {
-            String funCall = funcName + "(" + NumericPrecisionPrefs.formatTime(t) + ")";
+            if (compiledFunction.isPresent()) {
+                return compiledFunction.get().applyAsDouble(t);
+            }
+
+            // Call the function with the time value as a literal rather
+            // than parsing a function call string for each value.
+            AST funCall = new AST(Operation.FUNCALL, function);
+            funCall.addChild(new AST(Double.toString(t), new Operand(Type.REAL, t)));
+
             Optional<Operand> result = vela.program(funCall);
             if (result.isPresent()) {
                 return result.get().doubleVal();
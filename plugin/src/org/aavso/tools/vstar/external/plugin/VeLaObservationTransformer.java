@@ -37,6 +37,7 @@ import org.aavso.tools.vstar.ui.undo.IUndoableAction;
 import org.aavso.tools.vstar.ui.vela.VeLaDialog;
 import org.aavso.tools.vstar.util.Pair;
 import org.aavso.tools.vstar.util.notification.Listener;
+import org.aavso.tools.vstar.vela.AST;
 import org.aavso.tools.vstar.vela.Operand;
 import org.aavso.tools.vstar.vela.Type;
 import org.aavso.tools.vstar.vela.VeLaInterpreter;
@@ -101,6 +102,10 @@ public class VeLaObservationTransformer extends ObservationTransformerPluginBase
                     }
                     // Note: there being no unconditional break here is on purpose!
                 case REDO:
+                    // The function call is compiled once and evaluated for
+                    // each observation.
+                    AST doCall = vela.compile("do()");
+
                     for (SeriesType seriesType : series) {
                         for (ValidObservation ob : seriesInfo.getObservations(seriesType)) {
                             // Store old magnitude for undo
@@ -122,9 +127,7 @@ public class VeLaObservationTransformer extends ObservationTransformerPluginBase
 
                             // ...and call the function with the current
                             // observation's magnitude and error values.
-                            String funCall = String.format("do()", magnitude.getMagValue(), magnitude.getUncertainty());
-
-                            Optional<Operand> result = vela.program(funCall);
+                            Optional<Operand> result = vela.program(doCall);
 
                             if (result.isPresent() && result.get().getType() == Type.LIST) {
                                 Operand op = result.get();
@@ -0,0 +1,642 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.data;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.aavso.tools.vstar.data.ValidObservation.JDflavour;
+
+/**
+ * <p>
+ * A columnar backing store for valid observations.
+ * </p>
+ *
+ * <p>
+ * Each observation added to the store occupies a row. Time, magnitude,
+ * uncertainty, phase and flag values are held in primitive arrays, while
+ * bands, comment codes, observation types and standard details (e.g.
+ * observer code, comparison stars, charts) are dictionary encoded, so that
+ * each distinct value is held once per store. Once added, an observation
+ * becomes a view over its row: its getters and setters read and write the
+ * store, and only non-standard details (e.g. from a plugin) remain with the
+ * observation itself.
+ * </p>
+ *
+ * <p>
+ * Rows are added by a single thread, normally all at once by compact(), before
+ * the observations are shared. Flag updates (e.g. exclusion, phase presence)
+ * are synchronised, since the flags of a row are held in a single word.
+ * </p>
+ */
+public class ObservationStore {
+
+	/**
+	 * The number of observations from which a dataset is compacted into a
+	 * store when loaded.
+	 */
+	public final static int MIN_COMPACTION_SIZE = 50000;
+
+	private final static int NONE = -1;
+
+	// Flag bits.
+	private final static short HAS_DATE = 1;
+	private final static short HAS_MAGNITUDE = 2;
+	private final static short UNCERTAIN = 4;
+	private final static short HAS_HQ_UNCERTAINTY = 8;
+	private final static short TRANSFORMED = 16;
+	private final static short HAS_HJD = 32;
+	private final static short HAS_STANDARD_PHASE = 64;
+	private final static short HAS_PREVIOUS_CYCLE_PHASE = 128;
+	private final static short EXCLUDED = 256;
+
+	private final static MagnitudeModifier[] magModifierValues = MagnitudeModifier
+			.values();
+	private final static ValidationType[] validationTypeValues = ValidationType
+			.values();
+	private final static MTypeType[] mTypeValues = MTypeType.values();
+	private final static JDflavour[] jdFlavourValues = JDflavour.values();
+
+	// Standard detail keys, in column order.
+	private final static String[] detailKeys;
+	private final static Map<String, Integer> detailKeyToColumn;
+
+	static {
+		detailKeys = ValidObservation.getStandardDetailKeys().toArray(
+				new String[0]);
+		Arrays.sort(detailKeys);
+
+		detailKeyToColumn = new HashMap<String, Integer>();
+		for (int i = 0; i < detailKeys.length; i++) {
+			detailKeyToColumn.put(detailKeys[i], i);
+		}
+	}
+
+	private int size;
+
+	private double[] jds;
+	private double[] mags;
+	private double[] uncertainties;
+	private double[] hqUncertainties;
+	private double[] hjds;
+	private double[] standardPhases;
+	private double[] previousCyclePhases;
+
+	private short[] flags;
+
+	private byte[] magModifiers;
+	private byte[] validationTypes;
+	private byte[] mTypes;
+	private byte[] jdFlavours;
+
+	private int[] bands;
+	private int[] series;
+	private int[] commentCodes;
+	private int[] obsTypes;
+
+	// Detail columns are only allocated once a row has the detail.
+	private int[][] detailColumns;
+
+	private Dictionary<SeriesType> seriesDictionary;
+	private Dictionary<CommentCodes> commentCodeDictionary;
+	private Dictionary<String> obsTypeDictionary;
+	private Dictionary<Property> detailDictionary;
+
+	/**
+	 * Constructor
+	 *
+	 * @param capacity
+	 *            The initial number of rows for which to allocate space.
+	 */
+	public ObservationStore(int capacity) {
+		capacity = Math.max(capacity, 16);
+
+		jds = new double[capacity];
+		mags = new double[capacity];
+		uncertainties = new double[capacity];
+		hqUncertainties = new double[capacity];
+		hjds = new double[capacity];
+		standardPhases = new double[capacity];
+		previousCyclePhases = new double[capacity];
+
+		flags = new short[capacity];
+
+		magModifiers = new byte[capacity];
+		validationTypes = new byte[capacity];
+		mTypes = new byte[capacity];
+		jdFlavours = new byte[capacity];
+
+		bands = new int[capacity];
+		series = new int[capacity];
+		commentCodes = new int[capacity];
+		obsTypes = new int[capacity];
+
+		detailColumns = new int[detailKeys.length][];
+
+		seriesDictionary = new Dictionary<SeriesType>();
+		commentCodeDictionary = new Dictionary<CommentCodes>();
+		obsTypeDictionary = new Dictionary<String>();
+		detailDictionary = new Dictionary<Property>();
+	}
+
+	/**
+	 * Create a store for the specified observations and add each to it, so
+	 * that each becomes a view over a row of the store.
+	 *
+	 * @param obs
+	 *            The observations to be compacted.
+	 * @return The store.
+	 */
+	public static ObservationStore compact(List<ValidObservation> obs) {
+		ObservationStore store = new ObservationStore(obs.size());
+
+		for (ValidObservation ob : obs) {
+			store.add(ob);
+		}
+
+		return store;
+	}
+
+	/**
+	 * Add an observation to the store as a new row, after which the
+	 * observation is a view over that row. The observation may belong to
+	 * another store, from which it is moved.
+	 *
+	 * @param ob
+	 *            The observation to be added.
+	 * @return The row index.
+	 */
+	public int add(ValidObservation ob) {
+		if (size == jds.length) {
+			grow();
+		}
+
+		int row = size++;
+
+		DateInfo dateInfo = ob.getDateInfo();
+		if (dateInfo != null) {
+			setJD(row, dateInfo.getJulianDay());
+		}
+
+		setMagnitude(row, ob.getMagnitude());
+		setHqUncertainty(row, ob.getHqUncertainty());
+		setHJD(row, ob.getHJD());
+		setStandardPhase(row, ob.getStandardPhase());
+		setPreviousCyclePhase(row, ob.getPreviousCyclePhase());
+		setFlag(row, TRANSFORMED, ob.isTransformed());
+		setFlag(row, EXCLUDED, ob.isExcluded());
+
+		setValidationType(row, ob.getValidationType());
+		setMType(row, ob.getMType());
+		setJDflavour(row, ob.getJDflavour());
+
+		bands[row] = seriesDictionary.encode(ob.getBand());
+		setSeries(row, ob.getSeries());
+		setCommentCode(row, ob.getCommentCode());
+		setObsType(row, ob.getObsType());
+
+		for (int column = 0; column < detailColumns.length; column++) {
+			if (detailColumns[column] != null) {
+				detailColumns[column][row] = NONE;
+			}
+		}
+
+		Map<String, Property> otherDetails = null;
+
+		for (Map.Entry<String, Property> entry : ob.getDetails().entrySet()) {
+			if (isDetailColumn(entry.getKey())) {
+				setDetail(row, entry.getKey(), entry.getValue());
+			} else {
+				if (otherDetails == null) {
+					otherDetails = new HashMap<String, Property>();
+				}
+				otherDetails.put(entry.getKey(), entry.getValue());
+			}
+		}
+
+		ob.bind(this, row, otherDetails);
+
+		return row;
+	}
+
+	/**
+	 * @return The number of rows in the store.
+	 */
+	public int size() {
+		return size;
+	}
+
+	// Row accessors, used by valid observation views.
+
+	DateInfo getDateInfo(int row) {
+		return hasFlag(row, HAS_DATE) ? new DateInfo(jds[row]) : null;
+	}
+
+	double getJD(int row) {
+		return jds[row];
+	}
+
+	void setJD(int row, double jd) {
+		jds[row] = jd;
+		setFlag(row, HAS_DATE, true);
+	}
+
+	void setDateInfo(int row, DateInfo dateInfo) {
+		if (dateInfo != null) {
+			setJD(row, dateInfo.getJulianDay());
+		} else {
+			setFlag(row, HAS_DATE, false);
+		}
+	}
+
+	Magnitude getMagnitude(int row) {
+		return hasFlag(row, HAS_MAGNITUDE) ? new RowMagnitude(this, row)
+				: null;
+	}
+
+	void setMagnitude(int row, Magnitude magnitude) {
+		if (magnitude != null) {
+			mags[row] = magnitude.getMagValue();
+			uncertainties[row] = magnitude.getUncertainty();
+			setMagModifier(row, magnitude.getMagModifier());
+			setFlag(row, UNCERTAIN, magnitude.isUncertain());
+			setFlag(row, HAS_MAGNITUDE, true);
+		} else {
+			setFlag(row, HAS_MAGNITUDE, false);
+		}
+	}
+
+	double getMag(int row) {
+		return mags[row];
+	}
+
+	void setMag(int row, double mag) {
+		mags[row] = mag;
+	}
+
+	double getUncertainty(int row) {
+		return uncertainties[row];
+	}
+
+	Double getHqUncertainty(int row) {
+		return hasFlag(row, HAS_HQ_UNCERTAINTY) ? hqUncertainties[row] : null;
+	}
+
+	void setHqUncertainty(int row, Double hqUncertainty) {
+		if (hqUncertainty != null) {
+			hqUncertainties[row] = hqUncertainty;
+		}
+		setFlag(row, HAS_HQ_UNCERTAINTY, hqUncertainty != null);
+	}
+
+	DateInfo getHJD(int row) {
+		return hasFlag(row, HAS_HJD) ? new DateInfo(hjds[row]) : null;
+	}
+
+	void setHJD(int row, DateInfo hJD) {
+		if (hJD != null) {
+			hjds[row] = hJD.getJulianDay();
+		}
+		setFlag(row, HAS_HJD, hJD != null);
+	}
+
+	Double getStandardPhase(int row) {
+		return hasFlag(row, HAS_STANDARD_PHASE) ? standardPhases[row] : null;
+	}
+
+	void setStandardPhase(int row, Double standardPhase) {
+		if (standardPhase != null) {
+			standardPhases[row] = standardPhase;
+		}
+		setFlag(row, HAS_STANDARD_PHASE, standardPhase != null);
+	}
+
+	Double getPreviousCyclePhase(int row) {
+		return hasFlag(row, HAS_PREVIOUS_CYCLE_PHASE) ? previousCyclePhases[row]
+				: null;
+	}
+
+	void setPreviousCyclePhase(int row, Double previousCyclePhase) {
+		if (previousCyclePhase != null) {
+			previousCyclePhases[row] = previousCyclePhase;
+		}
+		setFlag(row, HAS_PREVIOUS_CYCLE_PHASE, previousCyclePhase != null);
+	}
+
+	boolean isTransformed(int row) {
+		return hasFlag(row, TRANSFORMED);
+	}
+
+	void setTransformed(int row, boolean transformed) {
+		setFlag(row, TRANSFORMED, transformed);
+	}
+
+	boolean isExcluded(int row) {
+		return hasFlag(row, EXCLUDED);
+	}
+
+	void setExcluded(int row, boolean excluded) {
+		setFlag(row, EXCLUDED, excluded);
+	}
+
+	ValidationType getValidationType(int row) {
+		return decode(validationTypeValues, validationTypes[row]);
+	}
+
+	void setValidationType(int row, ValidationType validationType) {
+		validationTypes[row] = encode(validationType);
+	}
+
+	MTypeType getMType(int row) {
+		return decode(mTypeValues, mTypes[row]);
+	}
+
+	void setMType(int row, MTypeType mType) {
+		mTypes[row] = encode(mType);
+	}
+
+	JDflavour getJDflavour(int row) {
+		return decode(jdFlavourValues, jdFlavours[row]);
+	}
+
+	void setJDflavour(int row, JDflavour jdFlavour) {
+		jdFlavours[row] = encode(jdFlavour);
+	}
+
+	SeriesType getBand(int row) {
+		return seriesDictionary.decode(bands[row]);
+	}
+
+	void setBand(int row, SeriesType band) {
+		bands[row] = seriesDictionary.encode(band);
+		series[row] = bands[row];
+	}
+
+	SeriesType getSeries(int row) {
+		return seriesDictionary.decode(series[row]);
+	}
+
+	void setSeries(int row, SeriesType type) {
+		series[row] = seriesDictionary.encode(type);
+	}
+
+	CommentCodes getCommentCode(int row) {
+		return commentCodeDictionary.decode(commentCodes[row]);
+	}
+
+	void setCommentCode(int row, CommentCodes commentCode) {
+		commentCodes[row] = commentCodeDictionary.encode(commentCode);
+	}
+
+	String getObsType(int row) {
+		return obsTypeDictionary.decode(obsTypes[row]);
+	}
+
+	void setObsType(int row, String obsType) {
+		obsTypes[row] = obsTypeDictionary.encode(obsType);
+	}
+
+	/**
+	 * Is the specified detail key held in a column of the store?
+	 *
+	 * @param key
+	 *            The detail key.
+	 * @return Whether the key is a standard detail key.
+	 */
+	boolean isDetailColumn(String key) {
+		return detailKeyToColumn.containsKey(key);
+	}
+
+	Property getDetail(int row, String key) {
+		Integer column = detailKeyToColumn.get(key);
+		int[] codes = column != null ? detailColumns[column] : null;
+		return codes != null ? detailDictionary.decode(codes[row]) : null;
+	}
+
+	synchronized void setDetail(int row, String key, Property value) {
+		int column = detailKeyToColumn.get(key);
+
+		if (detailColumns[column] == null) {
+			detailColumns[column] = new int[jds.length];
+			Arrays.fill(detailColumns[column], NONE);
+		}
+
+		detailColumns[column][row] = detailDictionary.encode(value);
+	}
+
+	/**
+	 * Add the standard details of a row to a map.
+	 *
+	 * @param row
+	 *            The row.
+	 * @param details
+	 *            The map to which to add details.
+	 */
+	void getDetails(int row, Map<String, Property> details) {
+		for (int column = 0; column < detailColumns.length; column++) {
+			int[] codes = detailColumns[column];
+			if (codes != null && codes[row] != NONE) {
+				details.put(detailKeys[column], detailDictionary
+						.decode(codes[row]));
+			}
+		}
+	}
+
+	/**
+	 * Return the hash code of a map containing only the standard details of a
+	 * row, without creating the map.
+	 *
+	 * @param row
+	 *            The row.
+	 * @return The hash code.
+	 */
+	int getDetailsHashCode(int row) {
+		int hashCode = 0;
+
+		for (int column = 0; column < detailColumns.length; column++) {
+			int[] codes = detailColumns[column];
+			if (codes != null && codes[row] != NONE) {
+				hashCode += detailKeys[column].hashCode()
+						^ detailDictionary.decode(codes[row]).hashCode();
+			}
+		}
+
+		return hashCode;
+	}
+
+	// Helpers
+
+	private boolean hasFlag(int row, short flag) {
+		return (flags[row] & flag) != 0;
+	}
+
+	// Flags of a row share a word, so updates are synchronised to avoid
+	// losing one made concurrently by another thread.
+	private synchronized void setFlag(int row, short flag, boolean value) {
+		if (value) {
+			flags[row] |= flag;
+		} else {
+			flags[row] &= ~flag;
+		}
+	}
+
+	private MagnitudeModifier getMagModifier(int row) {
+		return decode(magModifierValues, magModifiers[row]);
+	}
+
+	private void setMagModifier(int row, MagnitudeModifier magModifier) {
+		magModifiers[row] = encode(magModifier);
+	}
+
+	private static byte encode(Enum<?> value) {
+		return (byte) (value != null ? value.ordinal() : NONE);
+	}
+
+	private static <T> T decode(T[] values, byte code) {
+		return code != NONE ? values[code] : null;
+	}
+
+	private synchronized void grow() {
+		int capacity = jds.length * 2;
+
+		jds = Arrays.copyOf(jds, capacity);
+		mags = Arrays.copyOf(mags, capacity);
+		uncertainties = Arrays.copyOf(uncertainties, capacity);
+		hqUncertainties = Arrays.copyOf(hqUncertainties, capacity);
+		hjds = Arrays.copyOf(hjds, capacity);
+		standardPhases = Arrays.copyOf(standardPhases, capacity);
+		previousCyclePhases = Arrays.copyOf(previousCyclePhases, capacity);
+
+		flags = Arrays.copyOf(flags, capacity);
+
+		magModifiers = Arrays.copyOf(magModifiers, capacity);
+		validationTypes = Arrays.copyOf(validationTypes, capacity);
+		mTypes = Arrays.copyOf(mTypes, capacity);
+		jdFlavours = Arrays.copyOf(jdFlavours, capacity);
+
+		bands = Arrays.copyOf(bands, capacity);
+		series = Arrays.copyOf(series, capacity);
+		commentCodes = Arrays.copyOf(commentCodes, capacity);
+		obsTypes = Arrays.copyOf(obsTypes, capacity);
+
+		for (int column = 0; column < detailColumns.length; column++) {
+			if (detailColumns[column] != null) {
+				detailColumns[column] = Arrays.copyOf(detailColumns[column],
+						capacity);
+			}
+		}
+	}
+
+	/**
+	 * A dictionary of distinct values, each of which is encoded as an index.
+	 * Values may be added while others are being decoded.
+	 */
+	private static class Dictionary<T> {
+		private Map<T, Integer> codes;
+		private volatile Object[] values;
+		private int size;
+
+		Dictionary() {
+			codes = new HashMap<T, Integer>();
+			values = new Object[16];
+			size = 0;
+		}
+
+		synchronized int encode(T value) {
+			if (value == null) {
+				return NONE;
+			}
+
+			Integer code = codes.get(value);
+
+			if (code == null) {
+				Object[] newValues = values;
+				if (size == newValues.length) {
+					newValues = Arrays.copyOf(newValues, size * 2);
+				}
+				newValues[size] = value;
+				values = newValues;
+
+				code = size++;
+				codes.put(value, code);
+			}
+
+			return code;
+		}
+
+		@SuppressWarnings("unchecked")
+		T decode(int code) {
+			return code != NONE ? (T) values[code] : null;
+		}
+	}
+
+	/**
+	 * A magnitude whose components are those of a row of the store.
+	 */
+	private static class RowMagnitude extends Magnitude {
+		private ObservationStore store;
+		private int row;
+
+		RowMagnitude(ObservationStore store, int row) {
+			this.store = store;
+			this.row = row;
+		}
+
+		@Override
+		public double getMagValue() {
+			return store.mags[row];
+		}
+
+		@Override
+		public void setMagValue(double magValue) {
+			store.mags[row] = magValue;
+		}
+
+		@Override
+		public MagnitudeModifier getMagModifier() {
+			return store.getMagModifier(row);
+		}
+
+		@Override
+		public void setMagModifier(MagnitudeModifier magModifier) {
+			store.setMagModifier(row, magModifier);
+		}
+
+		@Override
+		public boolean isUncertain() {
+			return store.hasFlag(row, UNCERTAIN);
+		}
+
+		@Override
+		public void setUncertain(boolean isUncertain) {
+			store.setFlag(row, UNCERTAIN, isUncertain);
+		}
+
+		@Override
+		public double getUncertainty() {
+			return store.uncertainties[row];
+		}
+
+		@Override
+		public void setUncertainty(double uncertainty) {
+			store.uncertainties[row] = uncertainty;
+		}
+	}
+}
@@ -17,14 +17,17 @@
  */
 package org.aavso.tools.vstar.data;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.WeakHashMap;
 
 import org.aavso.tools.vstar.ui.mediator.AnalysisType;
 import org.aavso.tools.vstar.ui.mediator.Mediator;
+import org.aavso.tools.vstar.util.WeakInterner;
 import org.aavso.tools.vstar.util.prefs.NumericPrecisionPrefs;
 
 /**
@@ -73,55 +76,37 @@ public class ValidObservation extends Observation {
 		}
 	}
 
-	// Julian Day, calendar date, and cache.
-	private DateInfo dateInfo = null;
-	private final static WeakHashMap<DateInfo, DateInfo> dateInfoCache;
+	// Date and HJD cache.
+	private final static WeakInterner<DateInfo> dateInfoCache;
 	static {
-		dateInfoCache = new WeakHashMap<DateInfo, DateInfo>();
+		dateInfoCache = new WeakInterner<DateInfo>("DateInfo", 24);
 	}
 
-	// Magnitude, uncertainty, fainter/brighter-than, and cache.
-	private Magnitude magnitude = null;
-	private final static WeakHashMap<Magnitude, Magnitude> magnitudeCache;
+	// Magnitude cache.
+	private final static WeakInterner<Magnitude> magnitudeCache;
 	static {
-		magnitudeCache = new WeakHashMap<Magnitude, Magnitude>();
+		magnitudeCache = new WeakInterner<Magnitude>("Magnitude", 40);
 	}
 
-	private Double hqUncertainty = null;
-	private SeriesType band = null;
-	private SeriesType series = null; // series and band may differ on copy
-
-	// Comment codes and cache.
-	private CommentCodes commentCode = null;
-	private final static WeakHashMap<CommentCodes, CommentCodes> commentCodeCache;
+	// Comment codes cache.
+	private final static WeakInterner<CommentCodes> commentCodeCache;
 	static {
-		commentCodeCache = new WeakHashMap<CommentCodes, CommentCodes>();
+		commentCodeCache = new WeakInterner<CommentCodes>("CommentCodes", 24);
 	}
 
-	private boolean transformed = false;
-	private ValidationType validationType = null;
-
-	// Heliocentric vs Geocentric Julian Date; uses dateInfo cache.
-	private DateInfo hJD = null;
-
-	private MTypeType mType = MTypeType.STD;
-
-	private String obsType = ObsType.UNKNOWN.getDescription();
-
-	// Phase values will be computed later, if a phase plot is requested.
-	// They may change over the lifetime of a ValidObservation instance
-	// since different epoch determination methods will result in different
-	// phase values.
-	private Double standardPhase = null;
-	private Double previousCyclePhase = null;
-
-	private boolean excluded = false;
-
-	private JDflavour jdFlavour = JDflavour.UNKNOWN;
+	// The values of this observation, unless it is a view over a row of a
+	// columnar store, in which case the store holds them and this is null.
+	private Values values = new Values();
 
 	// Optional string-based observation details.
 	private Map<String, Property> details;
 
+	// The columnar store and row of which this observation is a view, if any.
+	// The store then holds all values other than non-standard details, which
+	// remain in the details map, if there are any.
+	private ObservationStore store = null;
+	private int row;
+
 	// Optional observation detail titles, and shadow save collection.
 	private static Map<String, String> detailTitles = new HashMap<String, String>();
 	private static Map<String, String> savedDetailTitles = null;
@@ -203,10 +188,10 @@ public class ValidObservation extends Observation {
 	}
 
 	// A cache of detail values.
-	private static final WeakHashMap<Property, Property> detailValueCache;
+	private static final WeakInterner<Property> detailValueCache;
 
 	static {
-		detailValueCache = new WeakHashMap<Property, Property>();
+		detailValueCache = new WeakInterner<Property>("Property", 40);
 	}
 
 	/**
@@ -246,7 +231,7 @@ public class ValidObservation extends Observation {
 		ob.setStandardPhase(this.getStandardPhase());
 		ob.setPreviousCyclePhase(this.getPreviousCyclePhase());
 		ob.setExcluded(this.isExcluded());
-		ob.details = new HashMap<String, Property>(this.details);
+		ob.details = new HashMap<String, Property>(this.getDetails());
 
 		return ob;
 	}
@@ -264,7 +249,7 @@ public class ValidObservation extends Observation {
 	/**
 	 * Reset static non-cache maps and detail index in readiness for a new dataset.
 	 */
-	public static void reset() {
+	public static synchronized void reset() {
 		if (detailTitles != null) {
 			savedDetailTitles = new HashMap<String, String>(detailTitles);
 			detailTitles.clear();
@@ -293,7 +278,7 @@ public class ValidObservation extends Observation {
 	 * Restore static non-cache maps and detail index when a dataset load failure
 	 * occurs.
 	 */
-	public static void restore() {
+	public static synchronized void restore() {
 		// Don't restore to null values, e.g. in the case of a first observation
 		// load failure, the saved map values may still be at their default of
 		// null.
@@ -317,30 +302,70 @@ public class ValidObservation extends Observation {
 		detailIndex = savedDetailIndex;
 	}
 
+	/**
+	 * Make this observation a view over a row of a columnar store, which holds
+	 * its values from now on.
+	 * 
+	 * @param store        The store.
+	 * @param row          The row of the store.
+	 * @param otherDetails Details not held by the store; may be null.
+	 */
+	void bind(ObservationStore store, int row, Map<String, Property> otherDetails) {
+		this.store = store;
+		this.row = row;
+
+		values = null;
+		details = otherDetails;
+	}
+
+	/**
+	 * @return the columnar store of which this observation is a view, or null
+	 */
+	public ObservationStore getStore() {
+		return store;
+	}
+
 	// Getters and Setters
 
 	/**
-	 * Generic cached value getter.
+	 * Generic cached value getter. Observations may be created concurrently,
+	 * e.g. by text format reader worker threads.
 	 * 
 	 * @param <T>   The type of the cached value.
 	 * @param cache The cache in which to look for the value.
 	 * @param value The value to look up.
 	 * @return The present or future cached value.
 	 */
-	private static <T> T getCachedValue(WeakHashMap<T, T> cache, T value) {
-		if (cache.containsKey(value)) {
-			value = cache.get(value);
-		} else {
-			cache.put(value, value);
-		}
+	private static <T> T getCachedValue(WeakInterner<T> cache, T value) {
+		return cache.intern(value);
+	}
 
-		return value;
+	/**
+	 * @return the value caches shared by all observations, e.g. for
+	 *         reporting their hit rates and memory saved
+	 */
+	public static List<WeakInterner<?>> getValueCaches() {
+		List<WeakInterner<?>> caches = new ArrayList<WeakInterner<?>>();
+		caches.add(dateInfoCache);
+		caches.add(magnitudeCache);
+		caches.add(commentCodeCache);
+		caches.add(detailValueCache);
+		return caches;
 	}
 
 	/**
-	 * @return details map
+	 * @return details map; a copy, if this observation is backed by a store
 	 */
 	public Map<String, Property> getDetails() {
+		if (store != null) {
+			Map<String, Property> allDetails = new HashMap<String, Property>();
+			store.getDetails(row, allDetails);
+			if (details != null) {
+				allDetails.putAll(details);
+			}
+			return allDetails;
+		}
+
 		return details;
 	}
 
@@ -389,13 +414,22 @@ public class ValidObservation extends Observation {
 	public void addDetail(String key, Property value, String title) {
 		if (key != null && value != null) {
 			value = getCachedValue(detailValueCache, value);
-			details.put(key, value);
-			if (!detailTitles.containsKey(key)) {
-				detailTitles.put(key, title);
-				detailTypes.put(key, value.getClazz());
-				indexToDetailKey.put(detailIndex, key);
-				detailKeyToIndex.put(key, detailIndex);
-				detailIndex++;
+			if (store != null && store.isDetailColumn(key)) {
+				store.setDetail(row, key, value);
+			} else {
+				if (details == null) {
+					details = new HashMap<String, Property>();
+				}
+				details.put(key, value);
+			}
+			synchronized (ValidObservation.class) {
+				if (!detailTitles.containsKey(key)) {
+					detailTitles.put(key, title);
+					detailTypes.put(key, value.getClazz());
+					indexToDetailKey.put(detailIndex, key);
+					detailKeyToIndex.put(key, detailIndex);
+					detailIndex++;
+				}
 			}
 		}
 	}
@@ -453,7 +487,8 @@ public class ValidObservation extends Observation {
 	 *         string.
 	 */
 	public Property getDetail(String key) {
-		return detailExists(key) ? details.get(key) : Property.NO_VALUE;
+		Property value = findDetail(key);
+		return value != null ? value : Property.NO_VALUE;
 	}
 
 	/**
@@ -477,7 +512,7 @@ public class ValidObservation extends Observation {
 	 * @return Whether or not detail exists.
 	 */
 	public boolean detailExists(String key) {
-		return details.keySet().contains(key);
+		return findDetail(key) != null;
 	}
 
 	/**
@@ -521,29 +556,37 @@ public class ValidObservation extends Observation {
 	 * @return the dateInfo
 	 */
 	public DateInfo getDateInfo() {
-		return dateInfo;
+		return store != null ? store.getDateInfo(row) : values.dateInfo;
 	}
 
 	/**
 	 * @param dateInfo the dateInfo to set
 	 */
 	public void setDateInfo(DateInfo dateInfo) {
-		this.dateInfo = getCachedValue(dateInfoCache, dateInfo);
+		if (store != null) {
+			store.setDateInfo(row, dateInfo);
+		} else {
+			values.dateInfo = getCachedValue(dateInfoCache, dateInfo);
+		}
 	}
 
 	/**
 	 * @return the magnitude
 	 */
 	public Magnitude getMagnitude() {
-		return magnitude;
+		return store != null ? store.getMagnitude(row) : values.magnitude;
 	}
 
 	/**
 	 * @param magnitude the magnitude to set
 	 */
 	public void setMagnitude(Magnitude magnitude) {
-//		this.magnitude = getCachedValue(magnitudeCache, magnitude);
-		this.magnitude = magnitude;
+//		values.magnitude = getCachedValue(magnitudeCache, magnitude);
+		if (store != null) {
+			store.setMagnitude(row, magnitude);
+		} else {
+			values.magnitude = magnitude;
+		}
 	}
 
 	/**
@@ -551,7 +594,11 @@ public class ValidObservation extends Observation {
 	 */
 	public void setMag(double mag) {
 //		setMagnitude(new Magnitude(mag, magnitude.getUncertainty()));
-		this.magnitude.setMagValue(mag);
+		if (store != null) {
+			store.setMag(row, mag);
+		} else {
+			values.magnitude.setMagValue(mag);
+		}
 	}
 
 	/**
@@ -572,7 +619,7 @@ public class ValidObservation extends Observation {
 	 * @return whether this observation is discrepant
 	 */
 	public boolean isDiscrepant() {
-		return ValidationType.DISCREPANT.equals(validationType);
+		return ValidationType.DISCREPANT.equals(getValidationType());
 	}
 
 	/**
@@ -584,7 +631,7 @@ public class ValidObservation extends Observation {
 		// we are going from {G,D,P} -> D -> G -> D -> G ... so we are
 		// potentially losing information. This is a good candidate
 		// for undoable edits.
-		this.validationType = discrepant ? ValidationType.DISCREPANT : ValidationType.GOOD;
+		setValidationType(discrepant ? ValidationType.DISCREPANT : ValidationType.GOOD);
 	}
 
 	/**
@@ -605,78 +652,98 @@ public class ValidObservation extends Observation {
 	 * @return the validationType
 	 */
 	public ValidationType getValidationType() {
-		return validationType;
+		return store != null ? store.getValidationType(row) : values.validationType;
 	}
 
 	/**
 	 * @param validationType the validationType to set
 	 */
 	public void setValidationType(ValidationType validationType) {
-		this.validationType = validationType;
+		if (store != null) {
+			store.setValidationType(row, validationType);
+		} else {
+			values.validationType = validationType;
+		}
 	}
 
 	/**
 	 * @return the hqUncertainty
 	 */
 	public Double getHqUncertainty() {
-		return hqUncertainty;
+		return store != null ? store.getHqUncertainty(row) : values.hqUncertainty;
 	}
 
 	/**
 	 * @param hqUncertainty the hqUncertainty to set
 	 */
 	public void setHqUncertainty(Double hqUncertainty) {
-		this.hqUncertainty = hqUncertainty;
+		if (store != null) {
+			store.setHqUncertainty(row, hqUncertainty);
+		} else {
+			values.hqUncertainty = hqUncertainty;
+		}
 	}
 
 	/**
 	 * @return the band
 	 */
 	public SeriesType getBand() {
-		return band;
+		return store != null ? store.getBand(row) : values.band;
 	}
 
 	/**
 	 * @param band the band to set
 	 */
 	public void setBand(SeriesType band) {
-		this.band = band;
-		setSeries(band);
+		if (store != null) {
+			store.setBand(row, band);
+		} else {
+			values.band = band;
+			setSeries(band);
+		}
 	}
 
 	/**
 	 * @return the series with which this observation is associated
 	 */
 	public SeriesType getSeries() {
-		return series;
+		return store != null ? store.getSeries(row) : values.series;
 	}
 
 	/**
 	 * @param series the series with which this observation is associated
 	 */
 	public void setSeries(SeriesType series) {
-		this.series = series;
+		if (store != null) {
+			store.setSeries(row, series);
+		} else {
+			values.series = series;
+		}
 	}
 
 	/**
 	 * @return the commentCode
 	 */
 	public CommentCodes getCommentCode() {
-		return commentCode;
+		return store != null ? store.getCommentCode(row) : values.commentCode;
 	}
 
 	/**
 	 * @param commentCodeStr the comment code string to set
 	 */
 	public void setCommentCode(String commentCodeStr) {
-		this.commentCode = getCachedValue(commentCodeCache, new CommentCodes(commentCodeStr));
+		setCommentCode(new CommentCodes(commentCodeStr));
 	}
 
 	/**
 	 * @param commentCodes the comment codes to set
 	 */
 	public void setCommentCode(CommentCodes commentCodes) {
-		this.commentCode = getCachedValue(commentCodeCache, commentCodes);
+		if (store != null) {
+			store.setCommentCode(row, commentCodes);
+		} else {
+			values.commentCode = getCachedValue(commentCodeCache, commentCodes);
+		}
 	}
 
 	/**
@@ -739,14 +806,18 @@ public class ValidObservation extends Observation {
 	 * @return the transformed
 	 */
 	public boolean isTransformed() {
-		return transformed;
+		return store != null ? store.isTransformed(row) : values.transformed;
 	}
 
 	/**
 	 * @param transformed the transformed to set
 	 */
 	public void setTransformed(boolean transformed) {
-		this.transformed = transformed;
+		if (store != null) {
+			store.setTransformed(row, transformed);
+		} else {
+			values.transformed = transformed;
+		}
 	}
 
 	/**
@@ -798,14 +869,18 @@ public class ValidObservation extends Observation {
 	 * @return the hJD
 	 */
 	public DateInfo getHJD() {
-		return hJD;
+		return store != null ? store.getHJD(row) : values.hJD;
 	}
 
 	/**
 	 * @param hJD the hJD to set
 	 */
 	public void setHJD(DateInfo hJD) {
-		this.hJD = getCachedValue(dateInfoCache, hJD);
+		if (store != null) {
+			store.setHJD(row, hJD);
+		} else {
+			values.hJD = getCachedValue(dateInfoCache, hJD);
+		}
 	}
 
 	/**
@@ -826,14 +901,18 @@ public class ValidObservation extends Observation {
 	 * @return the mType
 	 */
 	public MTypeType getMType() {
-		return mType;
+		return store != null ? store.getMType(row) : values.mType;
 	}
 
 	/**
 	 * @param mType the mType to set
 	 */
 	public void setMType(MTypeType mType) {
-		this.mType = mType;
+		if (store != null) {
+			store.setMType(row, mType);
+		} else {
+			values.mType = mType;
+		}
 	}
 
 	/**
@@ -854,14 +933,18 @@ public class ValidObservation extends Observation {
 	 * @return the obsType
 	 */
 	public String getObsType() {
-		return obsType;
+		return store != null ? store.getObsType(row) : values.obsType;
 	}
 
 	/**
 	 * @param obsType the obsType to set
 	 */
 	public void setObsType(String obsType) {
-		this.obsType = obsType;
+		if (store != null) {
+			store.setObsType(row, obsType);
+		} else {
+			values.obsType = obsType;
+		}
 	}
 
 	/**
@@ -910,68 +993,84 @@ public class ValidObservation extends Observation {
 	 * @return the standardPhase
 	 */
 	public Double getStandardPhase() {
-		return standardPhase;
+		return store != null ? store.getStandardPhase(row) : values.standardPhase;
 	}
 
 	/**
 	 * @param standardPhase the standardPhase to set
 	 */
 	public void setStandardPhase(Double standardPhase) {
-		this.standardPhase = standardPhase;
+		if (store != null) {
+			store.setStandardPhase(row, standardPhase);
+		} else {
+			values.standardPhase = standardPhase;
+		}
 	}
 
 	/**
 	 * @return the previousCyclePhase
 	 */
 	public Double getPreviousCyclePhase() {
-		return previousCyclePhase;
+		return store != null ? store.getPreviousCyclePhase(row) : values.previousCyclePhase;
 	}
 
 	/**
 	 * @param previousCyclePhase the previousCyclePhase to set
 	 */
 	public void setPreviousCyclePhase(Double previousCyclePhase) {
-		this.previousCyclePhase = previousCyclePhase;
+		if (store != null) {
+			store.setPreviousCyclePhase(row, previousCyclePhase);
+		} else {
+			values.previousCyclePhase = previousCyclePhase;
+		}
 	}
 
 	/**
 	 * @return the excluded
 	 */
 	public boolean isExcluded() {
-		return excluded;
+		return store != null ? store.isExcluded(row) : values.excluded;
 	}
 
 	/**
 	 * @param excluded the excluded to set
 	 */
 	public void setExcluded(boolean excluded) {
-		this.excluded = excluded;
+		if (store != null) {
+			store.setExcluded(row, excluded);
+		} else {
+			values.excluded = excluded;
+		}
 	}
 
 	/**
 	 * @return true if Heliocentric
 	 */
 	public boolean isHeliocentric() {
-		return jdFlavour == JDflavour.HJD;
+		return getJDflavour() == JDflavour.HJD;
 	}
 
 	/**
 	 * @return true if Barycentric
 	 */
 	public boolean isBarycentric() {
-		return jdFlavour == JDflavour.BJD;
+		return getJDflavour() == JDflavour.BJD;
 	}
 
 	public JDflavour getJDflavour() {
-		return jdFlavour;
+		return store != null ? store.getJDflavour(row) : values.jdFlavour;
 	}
 
 	public void setJDflavour(JDflavour jdFlavour) {
-		this.jdFlavour = jdFlavour;
+		if (store != null) {
+			store.setJDflavour(row, jdFlavour);
+		} else {
+			values.jdFlavour = jdFlavour;
+		}
 	}
 
 	public String getTimeUnits() {
-		return jdFlavour.label;
+		return getJDflavour().label;
 	}
 
 	// Output formatting methods.
@@ -980,10 +1079,11 @@ public class ValidObservation extends Observation {
 		StringBuffer strBuf = new StringBuffer();
 
 		if (nonEmptyDetailExists(nameKey)) {
-			strBuf.append(details.get(nameKey));
+			strBuf.append(getDetail(nameKey));
 			strBuf.append("\n");
 		}
 
+		DateInfo dateInfo = getDateInfo();
 		if (dateInfo != null) {
 			strBuf.append(getTimeUnits());
 			strBuf.append(": ");
@@ -998,12 +1098,14 @@ public class ValidObservation extends Observation {
 		// If we are not in phase plot mode, we should not represent ourselves
 		// as having a phase.
 		if (Mediator.getInstance().getAnalysisType() == AnalysisType.PHASE_PLOT) {
+			Double standardPhase = getStandardPhase();
 			if (standardPhase != null) {
 				strBuf.append("Standard Phase: ");
 				strBuf.append(NumericPrecisionPrefs.formatTime(standardPhase));
 				strBuf.append("\n");
 			}
 
+			Double previousCyclePhase = getPreviousCyclePhase();
 			if (previousCyclePhase != null) {
 				strBuf.append("Previous Cycle Phase: ");
 				strBuf.append(NumericPrecisionPrefs.formatTime(previousCyclePhase));
@@ -1012,27 +1114,31 @@ public class ValidObservation extends Observation {
 		}
 
 		strBuf.append("Magnitude: ");
-		strBuf.append(magnitude.toString());
+		strBuf.append(getMagnitude().toString());
 		strBuf.append("\n");
 
+		Double hqUncertainty = getHqUncertainty();
 		if (hqUncertainty != null) {
 			strBuf.append("HQ Uncertainty: ");
 			strBuf.append(NumericPrecisionPrefs.formatMag(hqUncertainty));
 			strBuf.append("\n");
 		}
 
+		ValidationType validationType = getValidationType();
 		if (validationType != null) {
 			strBuf.append("Validation: ");
 			strBuf.append(validationType.toString());
 			strBuf.append("\n");
 		}
 
+		String obsType = getObsType();
 		if (obsType != null) {
 			strBuf.append("Observation Type: ");
 			strBuf.append(obsType);
 			strBuf.append("\n");
 		}
 
+		SeriesType band = getBand();
 		if (band != null) {
 			strBuf.append("Band: ");
 			strBuf.append(band.getDescription());
@@ -1041,10 +1147,11 @@ public class ValidObservation extends Observation {
 
 		if (nonEmptyDetailExists(obsCodeKey)) {
 			strBuf.append(detailTitles.get(obsCodeKey) + ": ");
-			strBuf.append(details.get(obsCodeKey));
+			strBuf.append(getDetail(obsCodeKey));
 			strBuf.append("\n");
 		}
 
+		CommentCodes commentCode = getCommentCode();
 		if (commentCode != null) {
 			String str = getCommentCode().getOrigString();
 			if (str.trim().length() != 0) {
@@ -1058,50 +1165,51 @@ public class ValidObservation extends Observation {
 
 		if (nonEmptyDetailExists(compStar1Key)) {
 			strBuf.append(detailTitles.get(compStar1Key) + ": ");
-			strBuf.append(details.get(compStar1Key));
+			strBuf.append(getDetail(compStar1Key));
 			strBuf.append("\n");
 		}
 
 		if (nonEmptyDetailExists(compStar2Key)) {
 			strBuf.append(detailTitles.get(compStar2Key) + ": ");
-			strBuf.append(details.get(compStar2Key));
+			strBuf.append(getDetail(compStar2Key));
 			strBuf.append("\n");
 		}
 
 		if (nonEmptyDetailExists(chartsKey)) {
 			strBuf.append(detailTitles.get(chartsKey) + ": ");
-			strBuf.append(details.get(chartsKey));
+			strBuf.append(getDetail(chartsKey));
 			strBuf.append("\n");
 		}
 
 		if (nonEmptyDetailExists(commentsKey)) {
 			strBuf.append(detailTitles.get(commentsKey) + ": ");
-			strBuf.append(details.get(commentsKey));
+			strBuf.append(getDetail(commentsKey));
 			strBuf.append("\n");
 		}
 
-		if (transformed) {
+		if (isTransformed()) {
 			strBuf.append("Transformed: yes\n");
 		}
 
 		if (nonEmptyDetailExists(airmassKey)) {
 			strBuf.append(detailTitles.get(airmassKey) + ": ");
-			strBuf.append(details.get(airmassKey));
+			strBuf.append(getDetail(airmassKey));
 			strBuf.append("\n");
 		}
 
 		if (nonEmptyDetailExists(cMagKey)) {
 			strBuf.append(detailTitles.get(cMagKey) + ": ");
-			strBuf.append(details.get(cMagKey));
+			strBuf.append(getDetail(cMagKey));
 			strBuf.append("\n");
 		}
 
 		if (nonEmptyDetailExists(kMagKey)) {
 			strBuf.append(detailTitles.get(kMagKey) + ": ");
-			strBuf.append(details.get(kMagKey));
+			strBuf.append(getDetail(kMagKey));
 			strBuf.append("\n");
 		}
 
+		DateInfo hJD = getHJD();
 		if (hJD != null) {
 			strBuf.append("Heliocentric Julian Day: ");
 			strBuf.append(NumericPrecisionPrefs.formatTime(hJD.getJulianDay()));
@@ -1110,33 +1218,34 @@ public class ValidObservation extends Observation {
 
 		if (nonEmptyDetailExists(groupKey)) {
 			strBuf.append(detailTitles.get(groupKey) + ": ");
-			strBuf.append(details.get(groupKey));
+			strBuf.append(getDetail(groupKey));
 			strBuf.append("\n");
 		}
 
 		if (nonEmptyDetailExists(pubrefKey)) {
 			strBuf.append(detailTitles.get(pubrefKey) + ": ");
-			strBuf.append(details.get(pubrefKey));
+			strBuf.append(getDetail(pubrefKey));
 			strBuf.append("\n");
 		}
 
 		if (nonEmptyDetailExists(digitizerKey)) {
 			strBuf.append(detailTitles.get(digitizerKey) + ": ");
-			strBuf.append(details.get(digitizerKey));
+			strBuf.append(getDetail(digitizerKey));
 			strBuf.append("\n");
 		}
 
 		if (nonEmptyDetailExists(creditKey)) {
 			strBuf.append(detailTitles.get(creditKey) + ": ");
-			strBuf.append(details.get(creditKey));
+			strBuf.append(getDetail(creditKey));
 			strBuf.append("\n");
 		}
 
 		// Add any remaining non-AAVSO details, e.g. for a plugin.
-		for (String key : details.keySet()) {
+		Map<String, Property> allDetails = getDetails();
+		for (String key : allDetails.keySet()) {
 			if (!standardDetailKeys.contains(key)) {
 				strBuf.append(detailTitles.get(key) + ": ");
-				strBuf.append(details.get(key));
+				strBuf.append(allDetails.get(key));
 				strBuf.append("\n");
 			}
 		}
@@ -1190,12 +1299,12 @@ public class ValidObservation extends Observation {
 		buf.append(delimiter);
 
 		if (nonEmptyDetailExists(obsCodeKey)) {
-			buf.append(quoteForCSVifNeeded(details.get(obsCodeKey).toString(), delimiter));
+			buf.append(quoteForCSVifNeeded(getDetail(obsCodeKey).toString(), delimiter));
 		}
 		buf.append(delimiter);
 
-		if (this.validationType != null) {
-			buf.append(this.validationType.getValflag());
+		if (this.getValidationType() != null) {
+			buf.append(this.getValidationType().getValflag());
 		}
 		buf.append("\n");
 
@@ -1252,7 +1361,7 @@ public class ValidObservation extends Observation {
 		buf.append(delimiter);
 
 		if (nonEmptyDetailExists(obsCodeKey)) {
-			buf.append(quoteForCSVifNeeded(details.get(obsCodeKey).toString(), delimiter));
+			buf.append(quoteForCSVifNeeded(getDetail(obsCodeKey).toString(), delimiter));
 		}
 		buf.append(delimiter);
 
@@ -1289,8 +1398,8 @@ public class ValidObservation extends Observation {
 		}
 		buf.append(delimiter);
 
-		if (this.validationType != null) {
-			buf.append(this.validationType.getValflag());
+		if (this.getValidationType() != null) {
+			buf.append(this.getValidationType().getValflag());
 		}
 		buf.append(delimiter);
 
@@ -1305,7 +1414,7 @@ public class ValidObservation extends Observation {
 		buf.append(delimiter);
 
 		if (this.getHJD() != null) {
-			buf.append(hJD.getJulianDay());
+			buf.append(this.getHJD().getJulianDay());
 		}
 		buf.append(delimiter);
 
@@ -1360,22 +1469,22 @@ public class ValidObservation extends Observation {
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + ((band == null) ? 0 : band.hashCode());
-		result = prime * result + ((commentCode == null) ? 0 : commentCode.hashCode());
-		result = prime * result + ((dateInfo == null) ? 0 : dateInfo.hashCode());
-		result = prime * result + ((details == null) ? 0 : details.hashCode());
-		result = prime * result + (excluded ? 1231 : 1237);
-		result = prime * result + ((hJD == null) ? 0 : hJD.hashCode());
-		result = prime * result + ((hqUncertainty == null) ? 0 : hqUncertainty.hashCode());
-		result = prime * result + ((jdFlavour == null) ? 0 : jdFlavour.hashCode());
-		result = prime * result + ((mType == null) ? 0 : mType.hashCode());
-		result = prime * result + ((magnitude == null) ? 0 : magnitude.hashCode());
-		result = prime * result + ((obsType == null) ? 0 : obsType.hashCode());
-		result = prime * result + ((previousCyclePhase == null) ? 0 : previousCyclePhase.hashCode());
-		result = prime * result + ((series == null) ? 0 : series.hashCode());
-		result = prime * result + ((standardPhase == null) ? 0 : standardPhase.hashCode());
-		result = prime * result + (transformed ? 1231 : 1237);
-		result = prime * result + ((validationType == null) ? 0 : validationType.hashCode());
+		result = prime * result + Objects.hashCode(getBand());
+		result = prime * result + Objects.hashCode(getCommentCode());
+		result = prime * result + Objects.hashCode(getDateInfo());
+		result = prime * result + getDetailsHashCode();
+		result = prime * result + (isExcluded() ? 1231 : 1237);
+		result = prime * result + Objects.hashCode(getHJD());
+		result = prime * result + Objects.hashCode(getHqUncertainty());
+		result = prime * result + Objects.hashCode(getJDflavour());
+		result = prime * result + Objects.hashCode(getMType());
+		result = prime * result + Objects.hashCode(getMagnitude());
+		result = prime * result + Objects.hashCode(getObsType());
+		result = prime * result + Objects.hashCode(getPreviousCyclePhase());
+		result = prime * result + Objects.hashCode(getSeries());
+		result = prime * result + Objects.hashCode(getStandardPhase());
+		result = prime * result + (isTransformed() ? 1231 : 1237);
+		result = prime * result + Objects.hashCode(getValidationType());
 		return result;
 	}
 
@@ -1387,91 +1496,132 @@ public class ValidObservation extends Observation {
 			return false;
 		if (getClass() != obj.getClass())
 			return false;
+		// Values are compared via their getters since either observation may
+		// be backed by a store.
 		ValidObservation other = (ValidObservation) obj;
-		if (band == null) {
-			if (other.band != null)
-				return false;
-		} else if (!band.equals(other.band))
+		if (!Objects.equals(getBand(), other.getBand()))
 			return false;
-		if (commentCode == null) {
-			if (other.commentCode != null)
-				return false;
-		} else if (!commentCode.equals(other.commentCode))
+		if (!Objects.equals(getCommentCode(), other.getCommentCode()))
 			return false;
-		if (dateInfo == null) {
-			if (other.dateInfo != null)
-				return false;
-		} else if (!dateInfo.equals(other.dateInfo))
+		if (!Objects.equals(getDateInfo(), other.getDateInfo()))
 			return false;
-		if (details == null) {
-			if (other.details != null)
-				return false;
-		} else if (!details.equals(other.details))
+		if (getDetailsHashCode() != other.getDetailsHashCode()
+				|| !Objects.equals(getDetails(), other.getDetails()))
 			return false;
-		if (excluded != other.excluded)
+		if (isExcluded() != other.isExcluded())
 			return false;
-		if (hJD == null) {
-			if (other.hJD != null)
-				return false;
-		} else if (!hJD.equals(other.hJD))
+		if (!Objects.equals(getHJD(), other.getHJD()))
 			return false;
-		if (hqUncertainty == null) {
-			if (other.hqUncertainty != null)
-				return false;
-		} else if (!hqUncertainty.equals(other.hqUncertainty))
+		if (!Objects.equals(getHqUncertainty(), other.getHqUncertainty()))
 			return false;
-		if (jdFlavour != other.jdFlavour)
+		if (getJDflavour() != other.getJDflavour())
 			return false;
-		if (mType != other.mType)
+		if (getMType() != other.getMType())
 			return false;
-		if (magnitude == null) {
-			if (other.magnitude != null)
-				return false;
-		} else if (!magnitude.equals(other.magnitude))
+		if (!Objects.equals(getMagnitude(), other.getMagnitude()))
 			return false;
-		if (obsType == null) {
-			if (other.obsType != null)
-				return false;
-		} else if (!obsType.equals(other.obsType))
+		if (!Objects.equals(getObsType(), other.getObsType()))
 			return false;
-		if (previousCyclePhase == null) {
-			if (other.previousCyclePhase != null)
-				return false;
-		} else if (!previousCyclePhase.equals(other.previousCyclePhase))
+		if (!Objects.equals(getPreviousCyclePhase(), other.getPreviousCyclePhase()))
 			return false;
-		if (series == null) {
-			if (other.series != null)
-				return false;
-		} else if (!series.equals(other.series))
+		if (!Objects.equals(getSeries(), other.getSeries()))
 			return false;
-		if (standardPhase == null) {
-			if (other.standardPhase != null)
-				return false;
-		} else if (!standardPhase.equals(other.standardPhase))
+		if (!Objects.equals(getStandardPhase(), other.getStandardPhase()))
 			return false;
-		if (transformed != other.transformed)
+		if (isTransformed() != other.isTransformed())
 			return false;
-		if (validationType != other.validationType)
+		if (getValidationType() != other.getValidationType())
 			return false;
 		return true;
 	}
 
-	// Convenience methods.
+	// Convenience methods. Unlike getDateInfo() and getMagnitude(), these do
+	// not create objects for an observation backed by a store, so should be
+	// preferred in frequently called code, e.g. plot coordinate sources.
 
 	public double getJD() {
-		return this.dateInfo.getJulianDay();
+		return store != null ? store.getJD(row) : values.dateInfo.getJulianDay();
 	}
 
 	public void setJD(double jd) {
-		setDateInfo(new DateInfo(jd));
+		if (store != null) {
+			store.setJD(row, jd);
+		} else {
+			setDateInfo(new DateInfo(jd));
+		}
 	}
 
 	public double getMag() {
-		return this.magnitude.getMagValue();
+		return store != null ? store.getMag(row) : values.magnitude.getMagValue();
+	}
+
+	public double getMagUncertainty() {
+		return store != null ? store.getUncertainty(row) : values.magnitude.getUncertainty();
+	}
+
+	/**
+	 * The values of an observation that is not backed by a store.
+	 */
+	private static class Values {
+		// Julian Day and calendar date.
+		DateInfo dateInfo = null;
+
+		// Magnitude, uncertainty, fainter/brighter-than.
+		Magnitude magnitude = null;
+
+		Double hqUncertainty = null;
+		SeriesType band = null;
+		SeriesType series = null; // series and band may differ on copy
+
+		CommentCodes commentCode = null;
+
+		boolean transformed = false;
+		ValidationType validationType = null;
+
+		// Heliocentric vs Geocentric Julian Date; uses dateInfo cache.
+		DateInfo hJD = null;
+
+		MTypeType mType = MTypeType.STD;
+
+		String obsType = ObsType.UNKNOWN.getDescription();
+
+		// Phase values will be computed later, if a phase plot is requested.
+		// They may change over the lifetime of a ValidObservation instance
+		// since different epoch determination methods will result in
+		// different phase values.
+		Double standardPhase = null;
+		Double previousCyclePhase = null;
+
+		boolean excluded = false;
+
+		JDflavour jdFlavour = JDflavour.UNKNOWN;
 	}
 
 	// Helpers
 
+	private Property findDetail(String key) {
+		Property value = null;
+
+		if (store != null && store.isDetailColumn(key)) {
+			value = store.getDetail(row, key);
+		} else if (details != null) {
+			value = details.get(key);
+		}
+
+		return value;
+	}
+
+	// The hash code of the details map, without creating a copy of it.
+	private int getDetailsHashCode() {
+		int hashCode = details != null ? details.hashCode() : 0;
+
+		if (store != null) {
+			hashCode += store.getDetailsHashCode(row);
+		}
+
+		return hashCode;
+	}
+
 	private boolean isEmpty(String s) {
 		return s == null || s.trim().length() == 0;
 	}
@@ -52,7 +52,7 @@ public class ErrorFieldMatcher extends DoubleFieldMatcher {
 	@Override
 	protected Double getValueUnderTest(ValidObservation ob) {
 		// Magnitude error is mandatory; it cannot be null.
-		return ob.getMagnitude().getUncertainty();
+		return ob.getMagUncertainty();
 	}
 
 	@Override
@@ -67,7 +67,6 @@ public class ErrorFieldMatcher extends DoubleFieldMatcher {
 
 	@Override
 	public String getTestValueFromObservation(ValidObservation ob) {
-		return NumericPrecisionPrefs.formatMag(ob.getMagnitude()
-				.getUncertainty());
+		return NumericPrecisionPrefs.formatMag(ob.getMagUncertainty());
 	}
 }
@@ -18,6 +18,7 @@
 package org.aavso.tools.vstar.data.validation;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.util.Map;
 
 import org.aavso.tools.vstar.data.DateInfo;
@@ -55,6 +56,15 @@ public class CommonTextFormatValidator {
 
 	protected String[] fields;
 
+	// Values of a previously read record to be validated instead of the
+	// current record, or null.
+	private String[] recordValues;
+
+	// Feeds records to be split to the reusable record reader, which is
+	// created on first use.
+	private RecordFeed recordFeed;
+	private CsvReader recordReader;
+
 	/**
 	 * Constructor.
 	 * 
@@ -93,6 +103,9 @@ public class CommonTextFormatValidator {
 		this.valflagValidator = new ValflagValidator(valflagPatternStr);
 
 		this.fields = null;
+		this.recordValues = null;
+		this.recordFeed = null;
+		this.recordReader = null;
 	}
 
 	/**
@@ -115,6 +128,70 @@ public class CommonTextFormatValidator {
 		return lineReader.getRawRecord();
 	}
 
+	/**
+	 * Split a raw record (see getRawRecord()) into values in the same way as
+	 * this validator's line reader. This permits records to be read by one
+	 * thread and split by another, with a validator per splitting thread.
+	 * 
+	 * The same CsvReader is used for each record, each being fed to it as a
+	 * terminated line. A CsvReader cannot continue after reaching the end of
+	 * its input, so a record that it would read beyond, i.e. an empty record
+	 * or one with an unterminated quoted value, is instead split by a
+	 * CsvReader of its own, with the reusable reader being replaced.
+	 * 
+	 * @param record
+	 *            The raw record.
+	 * @return The record's values.
+	 * @throws IOException
+	 *             If the record could not be split.
+	 */
+	public String[] split(String record) throws IOException {
+		if (recordReader == null) {
+			recordFeed = new RecordFeed();
+			recordReader = new CsvReader(recordFeed, lineReader.getDelimiter());
+		}
+
+		recordFeed.setRecord(record);
+
+		boolean read = recordReader.readRecord();
+
+		if (!recordFeed.isExhausted()) {
+			return read ? recordReader.getValues() : new String[0];
+		} else {
+			recordReader.close();
+			recordReader = null;
+
+			CsvReader singleRecordReader = CsvReader.parse(record);
+			singleRecordReader.setDelimiter(lineReader.getDelimiter());
+			try {
+				return singleRecordReader.readRecord() ? singleRecordReader
+						.getValues() : new String[0];
+			} finally {
+				singleRecordReader.close();
+			}
+		}
+	}
+
+	/**
+	 * Validate a previously read record's values (see split()) and either
+	 * return a ValidObservation instance, or throw an exception indicating the
+	 * error. This permits records to be read in batches ahead of validation.
+	 * 
+	 * @param values
+	 *            The record's values.
+	 * @return The validated ValidObservation object or null if one could not be
+	 *         created from the record's fields.
+	 */
+	public ValidObservation validate(String[] values) throws IOException,
+			ObservationValidationError, ObservationValidationWarning {
+		recordValues = values;
+		try {
+			return validate();
+		} finally {
+			recordValues = null;
+		}
+	}
+
 	/**
 	 * Validate an observation line and either return a ValidObservation
 	 * instance, or throw an exception indicating the error.
@@ -134,7 +211,11 @@ public class CommonTextFormatValidator {
 		ValidObservation observation = null;
 
 		// Get an array of fields split on the expected delimiter.
-		fields = fieldSplitter.getFields();
+		if (recordValues != null) {
+			fields = fieldSplitter.getFields(recordValues);
+		} else {
+			fields = fieldSplitter.getFields();
+		}
 
 		if (fields.length != 0) {
 			// Create a new valid observation, making the assumption
@@ -178,4 +259,51 @@ public class CommonTextFormatValidator {
 
 		return observation;
 	}
+
+	// A reader of one record at a time, each followed by a line terminator.
+	// Reading beyond a record exhausts the feed, after which it reports the
+	// end of input.
+	private static class RecordFeed extends Reader {
+
+		private String record;
+		private int position;
+		private boolean exhausted;
+
+		public RecordFeed() {
+			record = "";
+			position = 0;
+			exhausted = false;
+		}
+
+		public void setRecord(String record) {
+			this.record = record + "\n";
+			position = 0;
+		}
+
+		public boolean isExhausted() {
+			return exhausted;
+		}
+
+		@Override
+		public int read(char[] buf, int off, int len) {
+			if (len == 0) {
+				return 0;
+			}
+
+			if (exhausted || position == record.length()) {
+				exhausted = true;
+				return -1;
+			}
+
+			int n = Math.min(len, record.length() - position);
+			record.getChars(position, position + n, buf, off);
+			position += n;
+
+			return n;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
 }
@@ -31,6 +31,12 @@ public class MagnitudeFieldValidator extends AbstractStringValidator<Magnitude>
 	private static final String KIND = LocaleProps
 			.get("MAGNITUDE_VALIDATOR_KIND");
 
+	/**
+	 * The range of valid magnitude values.
+	 */
+	public static final InclusiveRangePredicate MAGNITUDE_RANGE = new InclusiveRangePredicate(
+			-10, 25);
+
 	private final int MAG_MODIFIER_INDEX = 0;
 	private final int MAG_INDEX = 1;
 	private final int UNCERTAINTY_INDEX = 2;
@@ -53,7 +59,7 @@ public class MagnitudeFieldValidator extends AbstractStringValidator<Magnitude>
 		this.regexValidator = new RegexValidator(
 				"^(<|>)?(\\-?\\d+(?:\\.\\d*)?(?:(?:e|E)(?:\\-|\\+)\\d+)?)(:)?$", KIND);
 		this.magnitudeValueValidator = new MagnitudeValueValidator(
-				new InclusiveRangePredicate(-10, 25));
+				MAGNITUDE_RANGE);
 	}
 
 	public Magnitude validate(String str) throws ObservationValidationError {
@@ -18,8 +18,16 @@
 
 package org.aavso.tools.vstar.input;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -32,6 +40,7 @@ import org.aavso.tools.vstar.data.SeriesType;
 import org.aavso.tools.vstar.data.ValidObservation;
 import org.aavso.tools.vstar.data.ValidObservation.JDflavour;
 import org.aavso.tools.vstar.exception.ObservationReadError;
+import org.aavso.tools.vstar.ui.VStar;
 import org.aavso.tools.vstar.ui.dialog.MessageBox;
 import org.aavso.tools.vstar.ui.mediator.Mediator;
 import org.aavso.tools.vstar.ui.mediator.StarInfo;
@@ -40,6 +49,8 @@ import org.aavso.tools.vstar.ui.mediator.message.ProgressType;
 import org.aavso.tools.vstar.ui.mediator.message.StopRequestMessage;
 import org.aavso.tools.vstar.util.locale.LocaleProps;
 import org.aavso.tools.vstar.util.notification.Listener;
+import org.aavso.tools.vstar.util.prefs.ObservationInputPrefs;
+import org.aavso.tools.vstar.vela.AST;
 import org.aavso.tools.vstar.vela.Operand;
 import org.aavso.tools.vstar.vela.Type;
 import org.aavso.tools.vstar.vela.VeLaEvalError;
@@ -57,15 +68,31 @@ public abstract class AbstractObservationRetriever {
 	public final String MAGNITUDE = LocaleProps.get("MAGNITUDE");
 
 	public final static int DEFAULT_CAPACITY = -1;
+	public final static int UNLIMITED_INVALID_OBSERVATIONS = -1;
 	public final static String NO_VELA_FILTER = "";
 
+	/**
+	 * The file to which invalid observations beyond the invalid observation
+	 * limit are written, if the corresponding observation input preference is
+	 * set.
+	 */
+	public final static String UNLISTED_INVALID_OBSERVATIONS_PATH = VStar.LOG_DIR
+			+ File.separator + "unlisted_invalid_observations.txt";
+
 	private final static boolean VERBOSE = false;
 	private final static boolean ADD_VSTAR_API = false;
+
+	private final static Comparator<ValidObservation> JD_COMPARATOR = Comparator
+			.comparingDouble(ValidObservation::getJD);
 	
 	private String velaFilterStr;
 
 	private VeLaInterpreter vela;
 
+	private AST velaFilter;
+
+	private boolean velaFilterCompiled;
+
 	private boolean velaErrorReported;
 
 	private double minMag;
@@ -91,6 +118,15 @@ public abstract class AbstractObservationRetriever {
 	 */
 	protected Map<SeriesType, List<ValidObservation>> validObservationCategoryMap;
 
+	// Valid observation lists to which observations have been appended out
+	// of JD order; these are sorted when next requested.
+	private Set<List<ValidObservation>> unsortedObservationLists;
+
+	private int invalidObservationLimit;
+	private int invalidObservationOverflowCount;
+	private File invalidObservationSpillFile;
+	private Writer invalidObservationSpillWriter;
+
 	/**
 	 * Constructor.
 	 * 
@@ -105,13 +141,15 @@ public abstract class AbstractObservationRetriever {
 		this.validObservations = new ArrayList<ValidObservation>();
 		this.invalidObservations = new ArrayList<InvalidObservation>();
 
-		// Optionally set the capacity of the valid observation list to speed up
-		// out-of-order insertion due to the shifting operations required.
+		// Optionally set the capacity of the valid observation list to avoid
+		// repeated reallocation as observations are added.
 		if (initialCapacity != DEFAULT_CAPACITY) {
 			this.validObservations.ensureCapacity(initialCapacity);
 		}
 
 		this.velaFilterStr = velaFilterStr.trim();
+		velaFilter = null;
+		velaFilterCompiled = false;
 		velaErrorReported = false;
 		vela = new VeLaInterpreter(VERBOSE, ADD_VSTAR_API, Collections.emptyList());
 
@@ -139,9 +177,22 @@ public abstract class AbstractObservationRetriever {
 		this.validObservationCategoryMap.put(SeriesType.Residuals,
 				new ArrayList<ValidObservation>());
 
+		unsortedObservationLists = Collections
+				.newSetFromMap(new IdentityHashMap<List<ValidObservation>, Boolean>());
+
 		this.minMag = Double.MAX_VALUE;
 		this.maxMag = -Double.MAX_VALUE;
 
+		// Bound the memory used by invalid observations, e.g. when a large
+		// file in the wrong format is read.
+		invalidObservationLimit = ObservationInputPrefs
+				.getInvalidObservationLimit();
+		invalidObservationOverflowCount = 0;
+		invalidObservationSpillFile = ObservationInputPrefs
+				.getWriteUnlistedInvalidObservations() ? new File(
+				UNLISTED_INVALID_OBSERVATIONS_PATH) : null;
+		invalidObservationSpillWriter = null;
+
 		interrupted = false;
 
 		jdFlavour = JDflavour.JD;
@@ -224,9 +275,10 @@ public abstract class AbstractObservationRetriever {
 	public abstract String getSourceName();
 
 	/**
-	 * @return the validObservations
+	 * @return the validObservations, sorted by JD
 	 */
 	public List<ValidObservation> getValidObservations() {
+		sortValidObservations();
 		return validObservations;
 	}
 
@@ -341,12 +393,15 @@ public abstract class AbstractObservationRetriever {
 	 */
 	public void setVelaFilter(String velaFilterStr) {
 		this.velaFilterStr = velaFilterStr;
+		velaFilter = null;
+		velaFilterCompiled = false;
 	}
 
 	/**
-	 * @return the validObservationCategoryMap
+	 * @return the validObservationCategoryMap, whose lists are sorted by JD
 	 */
 	public Map<SeriesType, List<ValidObservation>> getValidObservationCategoryMap() {
+		sortValidObservations();
 		return validObservationCategoryMap;
 	}
 
@@ -443,7 +498,7 @@ public abstract class AbstractObservationRetriever {
 		Mediator.getInstance()
 				.getProgressNotifier()
 				.notifyListeners(
-						new ProgressInfo(ProgressType.INCREMENT_PROGRESS, 2));
+						new ProgressInfo(ProgressType.INCREMENT_PROGRESS, steps));
 	}
 
 	/**
@@ -483,10 +538,16 @@ public abstract class AbstractObservationRetriever {
 		boolean include = true;
 
 		// If a VeLa filter string is present, apply it to each observation.
-		if (!NO_VELA_FILTER.equals(velaFilterStr)) {
+		// The filter is compiled once, when the first observation is
+		// collected.
+		if (!NO_VELA_FILTER.equals(velaFilterStr) && !velaFilterCompiled) {
+			compileVeLaFilter();
+		}
+
+		if (velaFilter != null) {
 			vela.pushEnvironment(new VeLaValidObservationEnvironment(ob));
 			try {
-				Optional<Operand> value = vela.program(velaFilterStr);
+				Optional<Operand> value = vela.program(velaFilter);
 				if (value.isPresent()) {
 					// There may be no value present because everything
 					// is commented or because no expression has been
@@ -503,12 +564,6 @@ public abstract class AbstractObservationRetriever {
 						}
 					}
 				}
-			} catch (VeLaParseError e) {
-				if (!velaErrorReported) {
-					MessageBox.showErrorDialog("Parse Error",
-							messageFromException(e));
-					velaErrorReported = true;
-				}
 			} catch (VeLaEvalError e) {
 				if (!velaErrorReported) {
 					MessageBox.showErrorDialog("Evaluation Error",
@@ -529,11 +584,98 @@ public abstract class AbstractObservationRetriever {
 	/**
 	 * Add an observation to the list of invalid observations.
 	 * 
+	 * If the invalid observation limit has been reached, the observation is
+	 * instead written to the spill file if there is one, or discarded, and
+	 * counted as an overflow in either case. This bounds the memory required to
+	 * read a large source containing many invalid observations.
+	 * 
 	 * @param ob
 	 *            The invalid observation to be added.
 	 */
 	protected void addInvalidObservation(InvalidObservation ob) {
-		invalidObservations.add(ob);
+		if (invalidObservationLimit == UNLIMITED_INVALID_OBSERVATIONS
+				|| invalidObservations.size() < invalidObservationLimit) {
+			invalidObservations.add(ob);
+		} else {
+			invalidObservationOverflowCount++;
+
+			if (invalidObservationSpillFile != null) {
+				spillInvalidObservation(ob);
+			}
+		}
+	}
+
+	/**
+	 * @return the maximum number of invalid observations retained in memory,
+	 *         or UNLIMITED_INVALID_OBSERVATIONS
+	 */
+	public int getInvalidObservationLimit() {
+		return invalidObservationLimit;
+	}
+
+	/**
+	 * Set the maximum number of invalid observations to be retained in memory.
+	 * 
+	 * @param limit
+	 *            The limit (at least zero), or UNLIMITED_INVALID_OBSERVATIONS.
+	 *            The default is the observation input preference.
+	 */
+	public void setInvalidObservationLimit(int limit) {
+		if (limit < 0 && limit != UNLIMITED_INVALID_OBSERVATIONS) {
+			throw new IllegalArgumentException(
+					"Invalid observation limit must not be negative: " + limit);
+		}
+
+		invalidObservationLimit = limit;
+	}
+
+	/**
+	 * @return the number of invalid observations not retained in memory due
+	 *         to the invalid observation limit
+	 */
+	public int getInvalidObservationOverflowCount() {
+		return invalidObservationOverflowCount;
+	}
+
+	/**
+	 * @return the file to which invalid observations beyond the limit are
+	 *         written, or null if they are discarded
+	 */
+	public File getInvalidObservationSpillFile() {
+		return invalidObservationSpillFile;
+	}
+
+	/**
+	 * Set the file to which invalid observations beyond the invalid observation
+	 * limit are written as tab-delimited lines of record number, "Error" or
+	 * "Warning", error message, and input line. The file is overwritten when
+	 * the first such observation is written.
+	 * 
+	 * @param file
+	 *            The spill file, or null to discard invalid observations beyond
+	 *            the limit. The default is determined by the observation input
+	 *            preferences.
+	 */
+	public void setInvalidObservationSpillFile(File file) {
+		closeInvalidObservationSpill();
+		invalidObservationSpillFile = file;
+	}
+
+	/**
+	 * Flush and close the invalid observation spill file, if open. A retriever
+	 * should call this when retrieval is complete; it is harmless to call it
+	 * more than once.
+	 */
+	public void closeInvalidObservationSpill() {
+		if (invalidObservationSpillWriter != null) {
+			try {
+				invalidObservationSpillWriter.close();
+			} catch (IOException e) {
+				// Nothing more can be done.
+			} finally {
+				invalidObservationSpillWriter = null;
+			}
+		}
 	}
 
 	/**
@@ -574,7 +716,7 @@ public abstract class AbstractObservationRetriever {
 			validObservationCategoryMap.put(category, validObsList);
 		}
 
-		insertObservation(validOb, validObsList);
+		appendObservation(validOb, validObsList);
 	}
 
 	/**
@@ -585,9 +727,9 @@ public abstract class AbstractObservationRetriever {
 	 *            The valid observation to be added.
 	 */
 	public void addValidObservation(ValidObservation ob) {
-		insertObservation(ob, validObservations);
+		appendObservation(ob, validObservations);
 
-		double uncert = ob.getMagnitude().getUncertainty();
+		double uncert = ob.getMagUncertainty();
 		// If uncertainty not given, get HQ uncertainty if present.
 		if (uncert == 0.0 && ob.getHqUncertainty() != null) {
 			uncert = ob.getHqUncertainty();
@@ -611,11 +753,12 @@ public abstract class AbstractObservationRetriever {
 	 * </p>
 	 * 
 	 * <p>
-	 * An observation source plug-in developer could, if so desired, completely
-	 * override this method if data is expected to be mostly out of order; in
-	 * the worst case, if all elements are out of order, the cost will be O(n^2)
-	 * due to the O(n) traversal being carried out n times for the number of
-	 * observations inserted.
+	 * In the worst case, if all elements are out of order, the cost will be
+	 * O(n^2) due to the O(n) traversal being carried out n times for the
+	 * number of observations inserted. The valid observation list and category
+	 * lists of this retriever are not maintained in this way: observations are
+	 * appended and the lists sorted once when requested (see
+	 * sortValidObservations()).
 	 * </p>
 	 * 
 	 * @param ob
@@ -645,6 +788,32 @@ public abstract class AbstractObservationRetriever {
 		}
 	}
 
+	/**
+	 * <p>
+	 * Sort the valid observation list and category lists by JD if
+	 * observations have been added out of order since they were last sorted.
+	 * This happens when the lists are requested, e.g. once retrieval is
+	 * complete, but may also be called by a subclass that needs sorted lists
+	 * during retrieval.
+	 * </p>
+	 * 
+	 * <p>
+	 * The sort is stable, so observations with the same JD remain in the
+	 * order in which they were added. It is a merge sort that takes advantage
+	 * of already sorted runs, e.g. the per-band or per-page sequences
+	 * delivered by many sources, so the cost for n observations is at most
+	 * O(n log n).
+	 * </p>
+	 */
+	public void sortValidObservations() {
+		if (!unsortedObservationLists.isEmpty()) {
+			for (List<ValidObservation> obs : unsortedObservationLists) {
+				obs.sort(JD_COMPARATOR);
+			}
+			unsortedObservationLists.clear();
+		}
+	}
+
 	/**
 	 * Skip any bytes at the start of a line that have an ordinal value of less
 	 * than zero, e.g. a byte-order mark sequence. This is likely to be an
@@ -667,6 +836,74 @@ public abstract class AbstractObservationRetriever {
 		return line;
 	}
 
+	// Write an invalid observation to the spill file, opening it if
+	// necessary. If the file cannot be written, spilling is abandoned and
+	// subsequent invalid observations beyond the limit are discarded.
+	private void spillInvalidObservation(InvalidObservation ob) {
+		try {
+			if (invalidObservationSpillWriter == null) {
+				invalidObservationSpillWriter = new BufferedWriter(
+						new OutputStreamWriter(new FileOutputStream(
+								invalidObservationSpillFile), "UTF-8"));
+			}
+
+			invalidObservationSpillWriter.write(Integer.toString(ob
+					.getRecordNumber()));
+			invalidObservationSpillWriter.write('\t');
+			invalidObservationSpillWriter.write(ob.isWarning() ? "Warning"
+					: "Error");
+			invalidObservationSpillWriter.write('\t');
+			invalidObservationSpillWriter.write(String.valueOf(ob.getError()));
+			invalidObservationSpillWriter.write('\t');
+			invalidObservationSpillWriter.write(String.valueOf(ob
+					.getInputLine()));
+			invalidObservationSpillWriter.write('\n');
+		} catch (IOException e) {
+			closeInvalidObservationSpill();
+			invalidObservationSpillFile = null;
+		}
+	}
+
+	// Append an observation to one of this retriever's valid observation
+	// lists, noting whether the list must be sorted before it is next
+	// requested.
+	private void appendObservation(ValidObservation ob,
+			List<ValidObservation> obs) {
+		int obListSize = obs.size();
+
+		if (obListSize != 0 && ob.getJD() < obs.get(obListSize - 1).getJD()) {
+			unsortedObservationLists.add(obs);
+		}
+
+		obs.add(ob);
+	}
+
+	/**
+	 * Compile the VeLa filter string. If the filter cannot be compiled, the
+	 * error is reported and no filter is applied.
+	 */
+	private void compileVeLaFilter() {
+		velaFilter = null;
+
+		try {
+			velaFilter = vela.compile(velaFilterStr);
+		} catch (VeLaParseError e) {
+			if (!velaErrorReported) {
+				MessageBox.showErrorDialog("Parse Error",
+						messageFromException(e));
+				velaErrorReported = true;
+			}
+		} catch (VeLaEvalError e) {
+			if (!velaErrorReported) {
+				MessageBox.showErrorDialog("Evaluation Error",
+						messageFromException(e));
+				velaErrorReported = true;
+			}
+		} finally {
+			velaFilterCompiled = true;
+		}
+	}
+
 	/**
 	 * Is the string empty?
 	 * 
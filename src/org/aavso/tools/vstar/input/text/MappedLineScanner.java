@@ -0,0 +1,586 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.input.text;
+
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * This class memory-maps a local text file and scans its lines and delimited
+ * fields directly in the mapped byte buffer.
+ *
+ * Lines are terminated as per BufferedReader.readLine(), i.e. by "\n", "\r" or
+ * "\r\n". Strings are only decoded for the lines and fields requested, and a
+ * plain decimal field can be parsed without creating a String at all (see
+ * parseDecimal()), so reading a large file does not require a String per line
+ * and per field.
+ *
+ * The charset must encode line terminators, delimiters and digits as ASCII
+ * does (see isSupportedCharset()), as UTF-8 and ISO-8859 charsets do. A file
+ * larger than the window size is mapped one window at a time, so no line may
+ * be as long as the window size, excluding its terminator.
+ *
+ * Each window is unmapped as soon as the next one is mapped, and the last when
+ * the scanner is closed, rather than when the buffer is garbage collected.
+ */
+public class MappedLineScanner implements Closeable {
+
+	public final static int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+	private final static int INITIAL_FIELD_CAPACITY = 16;
+
+	// Powers of ten that are exactly representable as doubles.
+	private final static double[] EXACT_POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3,
+			1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15,
+			1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	// The largest integer such that it and all smaller non-negative integers
+	// are exactly representable as doubles.
+	private final static long MAX_EXACT_MANTISSA = 1L << 53;
+
+	private final FileChannel channel;
+	private final long start;
+	private final long end;
+	private final Charset charset;
+	private final int windowSize;
+
+	private final ByteBuffer peekBuffer;
+
+	private MappedByteBuffer window;
+	private long windowOffset;
+	private int windowLimit;
+
+	private int pos;
+	private int lineStart;
+	private int lineEnd;
+	private int lineNumber;
+	private String line;
+
+	private int[] fieldStarts;
+	private int[] fieldEnds;
+	private int fieldCount;
+
+	/**
+	 * Create a scanner for the specified stream if it is a local file stream
+	 * and the platform's default charset, with which a Reader would decode the
+	 * stream, is supported. Scanning starts from the stream's current position.
+	 *
+	 * @param stream
+	 *            The input stream.
+	 * @return The scanner, or null if the stream cannot be scanned in this way,
+	 *         in which case it is left untouched.
+	 * @throws IOException
+	 *             If an error occurs while mapping the file.
+	 */
+	public static MappedLineScanner create(InputStream stream)
+			throws IOException {
+		MappedLineScanner scanner = null;
+
+		Charset charset = Charset.defaultCharset();
+
+		if (stream instanceof FileInputStream && isSupportedCharset(charset)) {
+			FileChannel channel = ((FileInputStream) stream).getChannel();
+			scanner = new MappedLineScanner(channel, channel.position(),
+					charset, DEFAULT_WINDOW_SIZE);
+		}
+
+		return scanner;
+	}
+
+	/**
+	 * Does the specified charset encode line terminators, delimiters and
+	 * digits as single ASCII bytes, such that lines and fields can be found
+	 * without decoding?
+	 *
+	 * @param charset
+	 *            The charset.
+	 * @return Whether or not the charset is supported.
+	 */
+	public static boolean isSupportedCharset(Charset charset) {
+		String ascii = "\r\n\t ,;:|\"#<>.+-0123456789eE";
+		return charset.canEncode()
+				&& Arrays.equals(ascii.getBytes(Charset.forName("US-ASCII")),
+						ascii.getBytes(charset));
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param channel
+	 *            The file channel to be scanned; this is not closed by the
+	 *            scanner.
+	 * @param start
+	 *            The file position from which to scan.
+	 * @param charset
+	 *            The charset with which to decode lines and fields.
+	 * @param windowSize
+	 *            The maximum number of bytes to be mapped at once.
+	 * @throws IOException
+	 *             If an error occurs while mapping the file.
+	 */
+	public MappedLineScanner(FileChannel channel, long start, Charset charset,
+			int windowSize) throws IOException {
+		this.channel = channel;
+		this.start = start;
+		this.end = channel.size();
+		this.charset = charset;
+		this.windowSize = windowSize;
+
+		fieldStarts = new int[INITIAL_FIELD_CAPACITY];
+		fieldEnds = new int[INITIAL_FIELD_CAPACITY];
+
+		peekBuffer = ByteBuffer.allocate(1);
+
+		window = null;
+		map(start);
+
+		pos = 0;
+		lineStart = 0;
+		lineEnd = 0;
+		lineNumber = 0;
+		line = null;
+		fieldCount = 0;
+	}
+
+	/**
+	 * Count the lines from the scanner's start position, without changing the
+	 * current line.
+	 *
+	 * @return The number of lines.
+	 * @throws IOException
+	 *             If an error occurs while mapping the file.
+	 */
+	public int countLines() throws IOException {
+		MappedLineScanner counter = new MappedLineScanner(channel, start,
+				charset, windowSize);
+
+		int count = 0;
+		try {
+			while (counter.nextLine()) {
+				count++;
+			}
+		} finally {
+			counter.close();
+		}
+
+		return count;
+	}
+
+	/**
+	 * Unmap the current window. The scanner may not be used after this.
+	 */
+	@Override
+	public void close() {
+		if (window != null) {
+			unmap(window);
+			window = null;
+		}
+	}
+
+	/**
+	 * Advance to the next line.
+	 *
+	 * @return Whether there was another line.
+	 * @throws IOException
+	 *             If an error occurs while mapping the file or a line is too
+	 *             long.
+	 */
+	public boolean nextLine() throws IOException {
+		line = null;
+		fieldCount = 0;
+
+		if (windowOffset + pos >= end) {
+			return false;
+		}
+
+		// Find the end of the line, mapping the next window if the line
+		// continues beyond the current one.
+		int i = pos;
+		while (true) {
+			while (i < windowLimit) {
+				byte b = window.get(i);
+				if (b == '\n' || b == '\r') {
+					break;
+				}
+				i++;
+			}
+
+			if (i < windowLimit || windowOffset + windowLimit >= end) {
+				break;
+			}
+
+			i -= shift(pos);
+		}
+
+		lineStart = pos;
+		lineEnd = i;
+
+		// Skip the terminator. If a "\r" ends the window, the byte after it
+		// is read from the file rather than mapping the next window, which
+		// would fail if the line fills the window. The next position may then
+		// be just beyond the window, from which the next line's search maps
+		// the next window.
+		if (i < windowLimit) {
+			if (window.get(i++) == '\r') {
+				if (i < windowLimit) {
+					if (window.get(i) == '\n') {
+						i++;
+					}
+				} else if (windowOffset + i < end
+						&& peek(windowOffset + i) == '\n') {
+					i++;
+				}
+			}
+		}
+
+		pos = i;
+		lineNumber++;
+
+		return true;
+	}
+
+	/**
+	 * @return The current line's number, starting from 1.
+	 */
+	public int getLineNumber() {
+		return lineNumber;
+	}
+
+	/**
+	 * @return The current line, without its terminator.
+	 */
+	public String getLine() {
+		if (line == null) {
+			line = decode(lineStart, lineEnd);
+		}
+
+		return line;
+	}
+
+	/**
+	 * @return Whether the current line is empty or contains only whitespace
+	 *         (as per String.trim()).
+	 */
+	public boolean isBlankLine() {
+		return trimStart(lineStart, lineEnd) == lineEnd;
+	}
+
+	/**
+	 * Does the current line start with the specified ASCII character?
+	 *
+	 * @param c
+	 *            The character.
+	 * @return Whether or not the line starts with the character.
+	 */
+	public boolean lineStartsWith(char c) {
+		return lineEnd > lineStart && window.get(lineStart) == (byte) c;
+	}
+
+	/**
+	 * Does the current line contain the specified ASCII character?
+	 *
+	 * @param c
+	 *            The character.
+	 * @return Whether or not the line contains the character.
+	 */
+	public boolean lineContains(char c) {
+		byte b = (byte) c;
+		for (int i = lineStart; i < lineEnd; i++) {
+			if (window.get(i) == b) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Split the current line into fields at each occurrence of the specified
+	 * ASCII delimiter. Quotes have no special meaning. There is always at least
+	 * one field.
+	 *
+	 * @param delimiter
+	 *            The delimiter.
+	 * @param multipleDelimiters
+	 *            Are consecutive delimiters treated as one?
+	 * @return The number of fields.
+	 */
+	public int split(char delimiter, boolean multipleDelimiters) {
+		byte delim = (byte) delimiter;
+
+		fieldCount = 0;
+		int fieldStart = lineStart;
+		int i = lineStart;
+
+		while (i < lineEnd) {
+			if (window.get(i) == delim) {
+				addField(fieldStart, i);
+				i++;
+				if (multipleDelimiters) {
+					while (i < lineEnd && window.get(i) == delim) {
+						i++;
+					}
+				}
+				fieldStart = i;
+			} else {
+				i++;
+			}
+		}
+
+		addField(fieldStart, lineEnd);
+
+		return fieldCount;
+	}
+
+	/**
+	 * @return The number of fields in the current line, as per the most recent
+	 *         split().
+	 */
+	public int getFieldCount() {
+		return fieldCount;
+	}
+
+	/**
+	 * Return the specified field with leading and trailing whitespace removed,
+	 * as per String.trim().
+	 *
+	 * @param field
+	 *            The field index.
+	 * @return The trimmed field.
+	 */
+	public String getTrimmedField(int field) {
+		checkField(field);
+
+		int from = trimStart(fieldStarts[field], fieldEnds[field]);
+		int to = trimEnd(from, fieldEnds[field]);
+
+		return decode(from, to);
+	}
+
+	/**
+	 * Parse the specified field, with leading and trailing whitespace removed,
+	 * as a plain decimal number of the form [-]ddd[.ddd], without creating a
+	 * String. The result is identical to that of Double.parseDouble().
+	 *
+	 * NaN is returned if the field does not have this form, or has too many
+	 * significant digits to be parsed exactly here, in which case the caller
+	 * should fall back to parsing the field's String value.
+	 *
+	 * @param field
+	 *            The field index.
+	 * @param allowSign
+	 *            Is a leading minus sign permitted?
+	 * @return The value, or NaN.
+	 */
+	public double parseDecimal(int field, boolean allowSign) {
+		checkField(field);
+
+		int i = trimStart(fieldStarts[field], fieldEnds[field]);
+		int to = trimEnd(i, fieldEnds[field]);
+
+		boolean negative = false;
+		if (allowSign && i < to && window.get(i) == '-') {
+			negative = true;
+			i++;
+		}
+
+		long mantissa = 0;
+		int intDigits = 0;
+		int fracDigits = 0;
+		boolean point = false;
+
+		for (; i < to; i++) {
+			byte b = window.get(i);
+			if (b >= '0' && b <= '9') {
+				mantissa = mantissa * 10 + (b - '0');
+				if (mantissa > MAX_EXACT_MANTISSA) {
+					return Double.NaN;
+				}
+				if (point) {
+					fracDigits++;
+				} else {
+					intDigits++;
+				}
+			} else if (b == '.' && !point) {
+				point = true;
+			} else {
+				return Double.NaN;
+			}
+		}
+
+		if (intDigits == 0 || (point && fracDigits == 0)
+				|| fracDigits >= EXACT_POWERS_OF_TEN.length) {
+			return Double.NaN;
+		}
+
+		// Both operands are exact, and IEEE division is correctly rounded, so
+		// this is the correctly rounded value of the decimal number.
+		double value = mantissa / EXACT_POWERS_OF_TEN[fracDigits];
+
+		return negative ? -value : value;
+	}
+
+	// Helpers
+
+	// Map the window starting at the specified file position, unmapping the
+	// current window.
+	private void map(long offset) throws IOException {
+		long length = Math.min(windowSize, end - offset);
+		MappedByteBuffer previous = window;
+		window = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+		windowOffset = offset;
+		windowLimit = (int) length;
+
+		if (previous != null) {
+			unmap(previous);
+		}
+	}
+
+	// Read the byte at the specified file position, without changing the
+	// channel's position.
+	private byte peek(long offset) throws IOException {
+		((Buffer) peekBuffer).clear();
+		while (peekBuffer.hasRemaining()) {
+			if (channel.read(peekBuffer, offset) < 0) {
+				throw new IOException("Unexpected end of file");
+			}
+		}
+
+		return peekBuffer.get(0);
+	}
+
+	// Map the window starting at the specified position in the current
+	// window, returning the number of bytes by which positions must be
+	// shifted.
+	private int shift(int from) throws IOException {
+		if (from == 0) {
+			throw new IOException("Line " + (lineNumber + 1)
+					+ " is too long (" + windowSize + " bytes or more)");
+		}
+
+		map(windowOffset + from);
+		pos -= from;
+
+		return from;
+	}
+
+	// Unmap the specified buffer, which must not be accessed afterwards. There
+	// is no public API for this, so the JDK's internal cleaner is invoked if it
+	// can be found (Java 9 or later, then Java 8), otherwise the buffer is left
+	// to be unmapped when garbage collected.
+	private static void unmap(MappedByteBuffer buffer) {
+		try {
+			Object unsafe = Unmapper.UNSAFE;
+			if (unsafe != null) {
+				Unmapper.INVOKE_CLEANER.invoke(unsafe, buffer);
+			} else {
+				Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+				cleanerMethod.setAccessible(true);
+				Object cleaner = cleanerMethod.invoke(buffer);
+				if (cleaner != null) {
+					cleaner.getClass().getMethod("clean").invoke(cleaner);
+				}
+			}
+		} catch (Exception e) {
+			// Leave the buffer to the garbage collector.
+		}
+	}
+
+	// Holder for the Java 9 or later means of unmapping buffers, initialised
+	// on first use.
+	private static class Unmapper {
+		static final Object UNSAFE;
+		static final Method INVOKE_CLEANER;
+
+		static {
+			Object unsafe = null;
+			Method invokeCleaner = null;
+
+			try {
+				Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+				invokeCleaner = unsafeClass.getMethod("invokeCleaner",
+						ByteBuffer.class);
+				Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+				theUnsafe.setAccessible(true);
+				unsafe = theUnsafe.get(null);
+			} catch (Exception e) {
+				// Before Java 9.
+				unsafe = null;
+				invokeCleaner = null;
+			}
+
+			UNSAFE = unsafe;
+			INVOKE_CLEANER = invokeCleaner;
+		}
+	}
+
+	private void addField(int from, int to) {
+		if (fieldCount == fieldStarts.length) {
+			fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+			fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+		}
+
+		fieldStarts[fieldCount] = from;
+		fieldEnds[fieldCount] = to;
+		fieldCount++;
+	}
+
+	private void checkField(int field) {
+		if (field < 0 || field >= fieldCount) {
+			throw new IndexOutOfBoundsException("Field: " + field
+					+ ", Fields: " + fieldCount);
+		}
+	}
+
+	private int trimStart(int from, int to) {
+		while (from < to && (window.get(from) & 0xff) <= ' ') {
+			from++;
+		}
+		return from;
+	}
+
+	private int trimEnd(int from, int to) {
+		while (to > from && (window.get(to - 1) & 0xff) <= ' ') {
+			to--;
+		}
+		return to;
+	}
+
+	private String decode(int from, int to) {
+		// Call limit() and position() via Buffer since, when compiled against
+		// Java 9 or later, the ByteBuffer overrides are not found on Java 8.
+		ByteBuffer bytes = window.duplicate();
+		((Buffer) bytes).limit(to);
+		((Buffer) bytes).position(from);
+
+		byte[] buf = new byte[to - from];
+		bytes.get(buf);
+
+		return new String(buf, charset);
+	}
+}
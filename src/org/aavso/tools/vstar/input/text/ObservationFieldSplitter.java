@@ -71,8 +71,25 @@ public class ObservationFieldSplitter {
 	 *                 simplify validation.
 	 */
 	public String[] getFields() throws IOException, ObservationValidationError {
-		String[] fields = lineReader.getValues();
+		return getFields(lineReader.getValues());
+	}
 
+	/**
+	 * Return the required number of fields for a previously read record's
+	 * values, appending with nulls if too few fields are present.
+	 * 
+	 * @param fields
+	 *            The record's values, e.g. as returned by CsvReader.getValues();
+	 *            quoted values are unquoted in place.
+	 * @return The fields in the record.
+	 * @throws ObservationValidationError
+	 *             If the number of fields does not fall into the required
+	 *             range.
+	 * @postcondition: The returned field array's length must be maxFields to
+	 *                 simplify validation.
+	 */
+	public String[] getFields(String[] fields)
+			throws ObservationValidationError {
 		if (fields.length < this.minFields/* || fields.length > this.maxFields*/) {
 			StringBuffer strBuf = new StringBuffer();
 			strBuf.append("The number of fields (");
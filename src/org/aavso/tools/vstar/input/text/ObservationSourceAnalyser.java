@@ -39,7 +39,9 @@ public class ObservationSourceAnalyser {
 	public static final String SPACE_DELIM = " +";
 
 	private LineNumberReader obsSource;
+	private MappedLineScanner scanner;
 	private String obsSourceIdentifier;
+	private String line;
 	private int lineCount;
 	private NewStarType newStarType;
 	private String delimiter;
@@ -55,6 +57,24 @@ public class ObservationSourceAnalyser {
 	public ObservationSourceAnalyser(LineNumberReader obsSource,
 			String obsSourceIdentifier) {
 		this.obsSource = obsSource;
+		this.scanner = null;
+		this.obsSourceIdentifier = obsSourceIdentifier;
+		this.lineCount = 0;
+	}
+
+	/**
+	 * Constructor for a memory-mapped local file. Lines after the one from
+	 * which the format is determined are counted without being decoded.
+	 * 
+	 * @param scanner
+	 *            The scanner for the observation source to be analysed.
+	 * @param obsSourceIdentifier
+	 *            An identifier for the source of the observations.
+	 */
+	public ObservationSourceAnalyser(MappedLineScanner scanner,
+			String obsSourceIdentifier) {
+		this.obsSource = null;
+		this.scanner = scanner;
 		this.obsSourceIdentifier = obsSourceIdentifier;
 		this.lineCount = 0;
 	}
@@ -66,12 +86,13 @@ public class ObservationSourceAnalyser {
 
 		boolean gleanedFormat = false;
 
-		String line = obsSource.readLine();
-		while (line != null) {
+		while (nextLine()) {
 			// Using one line of data, glean format information.
 			// Other than doing this once, just read all lines
 			// so we can get a line count.
 			if (!gleanedFormat) {
+				String line = currentLine();
+
 				// Ignore comment or blank line.
 				if (!line.startsWith("#") && !line.matches("^\\s*$")) {
 					// Try different delimiter types to guess CSV or TSV.
@@ -89,12 +110,29 @@ public class ObservationSourceAnalyser {
 					}
 				}
 			}
+		}
 
+		if (scanner != null) {
+			this.lineCount = scanner.getLineNumber();
+		} else {
+			this.lineCount = obsSource.getLineNumber();
+			obsSource.close();
+		}
+	}
+
+	// Advance to the next line of the source, returning whether there was
+	// one.
+	private boolean nextLine() throws IOException {
+		if (scanner != null) {
+			return scanner.nextLine();
+		} else {
 			line = obsSource.readLine();
+			return line != null;
 		}
+	}
 
-		this.lineCount = obsSource.getLineNumber();
-		obsSource.close();
+	private String currentLine() {
+		return scanner != null ? scanner.getLine() : line;
 	}
 
 	/**
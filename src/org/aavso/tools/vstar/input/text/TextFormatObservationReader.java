@@ -17,7 +17,18 @@
  */
 package org.aavso.tools.vstar.input.text;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.io.LineNumberReader;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.aavso.tools.vstar.data.InvalidObservation;
 import org.aavso.tools.vstar.data.MTypeType;
@@ -37,18 +48,36 @@ import org.aavso.tools.vstar.ui.mediator.StarInfo;
  */
 public class TextFormatObservationReader extends AbstractObservationRetriever {
 
+	private final static boolean USE_MULTI_THREAD_VERSION = true;
+
+	private final static int RECORD_BATCH_SIZE = 1000;
+
 	private LineNumberReader reader;
+	private MappedLineScanner scanner;
+	private Closeable source;
 
 	private ObservationSourceAnalyser analyser;
 
 	private String objName;
 
+	private int lineNum;
+	private int observationLineCount;
+
+	// The number of lines read for each batch not yet collected, for
+	// progress reporting.
+	private Deque<Integer> batchLineCounts;
+
+	// The number of worker threads, or 0 if records are split and validated
+	// by the reading thread.
+	private int workerThreads;
+
 	/**
 	 * Constructor
 	 * 
 	 * We pass the number of lines to be read to the base class to ensure a
 	 * large enough observation list capacity in the case where we an read
-	 * out-of-order dataset.
+	 * out-of-order dataset. If a VeLa filter is present, only a subset of the
+	 * lines may be retained, so the list is instead allowed to grow as needed.
 	 * 
 	 * @param reader
 	 *            The reader that is the source of the observation.
@@ -60,69 +89,129 @@ public class TextFormatObservationReader extends AbstractObservationRetriever {
 	 */
 	public TextFormatObservationReader(LineNumberReader reader,
 			ObservationSourceAnalyser analyser, String velaFilterStr) {
-		super(analyser.getLineCount(), velaFilterStr);
+		this(reader, null, reader, analyser, velaFilterStr);
+	}
+
+	/**
+	 * Constructor for a memory-mapped local file, whose lines are decoded one
+	 * at a time from the mapped file rather than via a Reader.
+	 * 
+	 * @param scanner
+	 *            The scanner for the source of the observations.
+	 * @param source
+	 *            The source to be closed when retrieval is complete, e.g. the
+	 *            file's input stream.
+	 * @param analyser
+	 *            An observation file analyser.
+	 * @param velaFilterStr
+	 *            The VeLa filter string to be applied for each observation
+	 *            before being added to the valid observation list.
+	 */
+	public TextFormatObservationReader(MappedLineScanner scanner,
+			Closeable source, ObservationSourceAnalyser analyser,
+			String velaFilterStr) {
+		this(null, scanner, source, analyser, velaFilterStr);
+	}
+
+	private TextFormatObservationReader(LineNumberReader reader,
+			MappedLineScanner scanner, Closeable source,
+			ObservationSourceAnalyser analyser, String velaFilterStr) {
+		super(NO_VELA_FILTER.equals(velaFilterStr.trim()) ? analyser
+				.getLineCount() : DEFAULT_CAPACITY, velaFilterStr);
 		this.reader = reader;
+		this.scanner = scanner;
+		this.source = source;
 		this.analyser = analyser;
+		this.workerThreads = USE_MULTI_THREAD_VERSION ? Runtime.getRuntime()
+				.availableProcessors() : 0;
 	}
 
 	/**
+	 * Set the number of worker threads used to split and validate records,
+	 * overriding the default of one per processor.
+	 * 
+	 * @param workerThreads
+	 *            The number of worker threads, or 0 to split and validate
+	 *            records on the reading thread (the single-threaded version).
+	 */
+	void setWorkerThreads(int workerThreads) {
+		this.workerThreads = workerThreads;
+	}
+
+	/**
+	 * Read records in batches of at most RECORD_BATCH_SIZE, validating each
+	 * batch and retaining only those observations that are accepted (see
+	 * collectObservation()) and any invalid observations up to the invalid
+	 * observation limit. Memory use is therefore proportional to the number of
+	 * retained observations, not to the size of the source. The source is
+	 * closed when retrieval is complete.
+	 * 
+	 * In the multi-threaded version, this thread reads batches while a pool of
+	 * worker threads splits and validates them. This thread collects each
+	 * batch's results in the original line order, so the resulting
+	 * observation lists are the same as for the single-threaded version.
+	 * 
 	 * @see org.aavso.tools.vstar.input.AbstractObservationRetriever#retrieveObservations()
 	 */
 	public void retrieveObservations() throws ObservationReadError {
 
+		ExecutorService executor = null;
+
 		try {
 			objName = null;
+			lineNum = 0;
+			observationLineCount = 0;
+			batchLineCounts = new ArrayDeque<Integer>();
 
-			CommonTextFormatValidator validator = this.analyser
-					.getTextFormatValidator(reader);
-
-			int lineNum = 0;
-
-			while (validator.next() && !wasInterrupted()) {
-				// Ignore comment, blank line or column header line
-				// (e.g. JD,Magnitude,...).
-				String line = validator.getRawRecord();
-				lineNum++;
-
-				if (!line.startsWith("#") && !line.matches("^\\s*$")
-						&& !isColumnHeaderLine(line)) {
-
-					try {
-						ValidObservation validOb = validator.validate();
-						if (validOb != null) {
-							addValidObservation(validOb, lineNum);
-						}
-					} catch (ObservationValidationError e) {
-						InvalidObservation invalidOb = new InvalidObservation(
-								validator.getRawRecord(), e.getMessage());
-						invalidOb.setRecordNumber(lineNum);
-						addInvalidObservation(invalidOb);
-					} catch (ObservationValidationWarning e) {
-						InvalidObservation invalidOb = new InvalidObservation(
-								validator.getRawRecord(), e.getMessage(), true);
-						invalidOb.setRecordNumber(lineNum);
-						addInvalidObservation(invalidOb);
-
-						addValidObservation(e.getObservation(), lineNum);
-					}
-				} else if (line.startsWith("#")) {
-					// Directives
-					String[] pair = line.toUpperCase().split("=");
-					if (pair.length == 2) {
-						if ("#NAME".equals(pair[0])) {
-							objName = pair[1];
-						}
+			ThreadLocal<CommonTextFormatValidator> validators = createValidators();
+
+			if (workerThreads > 0) {
+				executor = Executors.newFixedThreadPool(workerThreads);
+
+				// Bound the number of batches in flight, and so the memory
+				// required for records not yet collected.
+				int maxPendingBatches = workerThreads * 2;
+				Deque<Future<List<RawRecord>>> pending = new ArrayDeque<Future<List<RawRecord>>>();
+
+				List<RawRecord> batch;
+				while (!wasInterrupted() && (batch = readBatch()) != null) {
+					pending.addLast(executor.submit(new BatchValidationTask(
+							batch, validators)));
+
+					if (pending.size() >= maxPendingBatches) {
+						collectBatch(pending.removeFirst().get());
 					}
 				}
 
-				incrementProgress();
+				while (!wasInterrupted() && !pending.isEmpty()) {
+					collectBatch(pending.removeFirst().get());
+				}
+			} else {
+				List<RawRecord> batch;
+				while (!wasInterrupted() && (batch = readBatch()) != null) {
+					validateBatch(validators.get(), batch);
+					collectBatch(batch);
+				}
 			}
 		} catch (Throwable t) {
 			throw new ObservationReadError(
 					"Error when attempting to read observation source.");
 		} finally {
-			// TODO: once analyser moved into here
-			// lines.clear();
+			if (executor != null) {
+				executor.shutdownNow();
+			}
+
+			closeInvalidObservationSpill();
+
+			if (scanner != null) {
+				scanner.close();
+			}
+
+			try {
+				source.close();
+			} catch (IOException e) {
+				// Nothing more can be done.
+			}
 		}
 	}
 
@@ -158,6 +247,117 @@ public class TextFormatObservationReader extends AbstractObservationRetriever {
 
 	// Helpers
 
+	// Read the next batch of at most RECORD_BATCH_SIZE observation records,
+	// returning null if there are no more. Comment, blank, and column header
+	// lines (e.g. JD,Magnitude,...) are handled here since whether a line is
+	// a column header depends upon the lines preceding it. Records are only
+	// read here, not split into fields, so that splitting can be done by the
+	// worker threads. Each record occupies a single line. Empty lines are
+	// skipped without being counted, as they are by the validator's CSV
+	// reader.
+	private List<RawRecord> readBatch() throws IOException {
+		List<RawRecord> batch = new ArrayList<RawRecord>(RECORD_BATCH_SIZE);
+		int lines = 0;
+
+		String line;
+		while (batch.size() < RECORD_BATCH_SIZE && (line = readLine()) != null) {
+			if (line.isEmpty()) {
+				continue;
+			}
+
+			lineNum++;
+			lines++;
+
+			if (!line.startsWith("#") && !line.matches("^\\s*$")
+					&& !isColumnHeaderLine(line)) {
+				observationLineCount++;
+				batch.add(new RawRecord(lineNum, line));
+			} else if (line.startsWith("#")) {
+				// Directives
+				String[] pair = line.toUpperCase().split("=");
+				if (pair.length == 2) {
+					if ("#NAME".equals(pair[0])) {
+						objName = pair[1];
+					}
+				}
+			}
+		}
+
+		if (lines == 0) {
+			return null;
+		}
+
+		batchLineCounts.addLast(lines);
+
+		return batch;
+	}
+
+	// Read the next line of the source, returning null if there are no more.
+	private String readLine() throws IOException {
+		if (scanner != null) {
+			return scanner.nextLine() ? scanner.getLine() : null;
+		} else {
+			return reader.readLine();
+		}
+	}
+
+	// Split and validate each record in a batch, storing the results in the
+	// records.
+	private static void validateBatch(CommonTextFormatValidator validator,
+			List<RawRecord> batch) throws IOException {
+		for (RawRecord record : batch) {
+			try {
+				record.validOb = validator.validate(validator
+						.split(record.line));
+			} catch (ObservationValidationError e) {
+				record.invalidOb = new InvalidObservation(record.line,
+						e.getMessage());
+				record.invalidOb.setRecordNumber(record.lineNum);
+			} catch (ObservationValidationWarning e) {
+				record.invalidOb = new InvalidObservation(record.line,
+						e.getMessage(), true);
+				record.invalidOb.setRecordNumber(record.lineNum);
+				record.validOb = e.getObservation();
+			}
+		}
+	}
+
+	// Collect a validated batch's observations in line order.
+	private void collectBatch(List<RawRecord> batch)
+			throws ObservationReadError {
+		for (RawRecord record : batch) {
+			if (wasInterrupted()) {
+				break;
+			}
+
+			if (record.invalidOb != null) {
+				addInvalidObservation(record.invalidOb);
+			}
+
+			if (record.validOb != null) {
+				addValidObservation(record.validOb, record.lineNum);
+			}
+		}
+
+		incrementProgress(batchLineCounts.removeFirst());
+	}
+
+	// Validators are stateful, so each thread has its own. Validators read
+	// no records themselves; records are read by readBatch().
+	private ThreadLocal<CommonTextFormatValidator> createValidators() {
+		return new ThreadLocal<CommonTextFormatValidator>() {
+			@Override
+			protected CommonTextFormatValidator initialValue() {
+				try {
+					return analyser.getTextFormatValidator(new LineNumberReader(
+							new StringReader("")));
+				} catch (IOException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		};
+	}
+
 	private void addValidObservation(ValidObservation validOb, int lineNum)
 			throws ObservationReadError {
 		if (validOb.getMType() == MTypeType.STD) {
@@ -166,9 +366,46 @@ public class TextFormatObservationReader extends AbstractObservationRetriever {
 		}
 	}
 
-	// Is the specified line a column header?
+	// Is the specified line a column header? Only a line preceding all
+	// observation lines can be, whether or not those observations were
+	// retained.
 	private boolean isColumnHeaderLine(String line) {
-		return validObservations.isEmpty() && invalidObservations.isEmpty()
-				&& line.matches("^[A-Za-z].+$");
+		return observationLineCount == 0 && line.matches("^[A-Za-z].+$");
+	}
+
+	// A record read ahead of validation, and its validation results.
+	private static class RawRecord {
+		final int lineNum;
+		final String line;
+
+		ValidObservation validOb;
+		InvalidObservation invalidOb;
+
+		RawRecord(int lineNum, String line) {
+			this.lineNum = lineNum;
+			this.line = line;
+			validOb = null;
+			invalidOb = null;
+		}
+	}
+
+	// Validates a batch of records on a worker thread.
+	private static class BatchValidationTask implements
+			Callable<List<RawRecord>> {
+
+		private List<RawRecord> batch;
+		private ThreadLocal<CommonTextFormatValidator> validators;
+
+		BatchValidationTask(List<RawRecord> batch,
+				ThreadLocal<CommonTextFormatValidator> validators) {
+			this.batch = batch;
+			this.validators = validators;
+		}
+
+		@Override
+		public List<RawRecord> call() throws IOException {
+			validateBatch(validators.get(), batch);
+			return batch;
+		}
 	}
 }
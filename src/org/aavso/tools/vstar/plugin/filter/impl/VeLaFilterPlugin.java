@@ -26,6 +26,7 @@ import org.aavso.tools.vstar.ui.dialog.MessageBox;
 import org.aavso.tools.vstar.util.Logic;
 import org.aavso.tools.vstar.util.Pair;
 import org.aavso.tools.vstar.util.locale.LocaleProps;
+import org.aavso.tools.vstar.vela.AST;
 import org.aavso.tools.vstar.vela.Operand;
 import org.aavso.tools.vstar.vela.Type;
 import org.aavso.tools.vstar.vela.VeLaEvalError;
@@ -74,10 +75,12 @@ public class VeLaFilterPlugin extends CustomFilterPluginBase {
 			velaFilterExpr = dialog.getVeLaExpression();
 
 			try {
+				AST velaFilter = vela.compile(velaFilterExpr);
+
 				for (ValidObservation ob : obs) {
 					vela.pushEnvironment(new VeLaValidObservationEnvironment(ob));
 
-					Optional<Operand> result = vela.program(velaFilterExpr);
+					Optional<Operand> result = vela.program(velaFilter);
 					
 					boolean does_match = result.isPresent()
 							&& result.get().getType() == Type.BOOLEAN
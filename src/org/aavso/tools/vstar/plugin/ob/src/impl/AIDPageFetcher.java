@@ -0,0 +1,325 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.plugin.ob.src.impl;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+/**
+ * <p>
+ * Fetches and reads the pages of one or more AID web service URLs on a bounded
+ * pool of threads, so that pages are requested and read while the caller
+ * processes earlier pages. How a page is read, e.g. parsed into a document or
+ * just read into memory for the caller to parse, is determined by a page
+ * reader.
+ * </p>
+ *
+ * <p>
+ * The caller requests pages in the order it would otherwise fetch them: the
+ * pages of the first URL in turn until it finds there are no more, then those
+ * of the next URL, and so on. Only the caller knows whether a page is the last
+ * for its URL, so a request for the next page of the current URL is
+ * speculative; the first pages of the remaining URLs are always required. At
+ * most a fixed number of pages are requested ahead of the caller, bounding
+ * the memory held by parsed pages, and pages that turn out not to be required
+ * are discarded.
+ * </p>
+ */
+public class AIDPageFetcher<T> {
+
+	/**
+	 * Reads a page from a stream.
+	 */
+	public interface PageReader<T> {
+		/**
+		 * Read a page.
+		 *
+		 * @param stream
+		 *            The page's stream, with characters that are not legal in
+		 *            XML 1.0 replaced.
+		 * @return The page.
+		 */
+		T read(InputStream stream) throws IOException, SAXException,
+				ParserConfigurationException;
+	}
+
+	/**
+	 * Parses a page into a DOM document.
+	 */
+	public final static PageReader<Document> DOCUMENT_READER = new PageReader<Document>() {
+		@Override
+		public Document read(InputStream stream) throws IOException,
+				SAXException, ParserConfigurationException {
+			DocumentBuilderFactory factory = DocumentBuilderFactory
+					.newInstance();
+			DocumentBuilder builder = factory.newDocumentBuilder();
+
+			Document document = builder.parse(stream);
+			document.getDocumentElement().normalize();
+
+			return document;
+		}
+	};
+
+	/**
+	 * Reads a page's bytes, e.g. for the caller to parse as a stream.
+	 */
+	public final static PageReader<byte[]> BYTES_READER = new PageReader<byte[]>() {
+		@Override
+		public byte[] read(InputStream stream) throws IOException {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buf = new byte[8192];
+			int count;
+
+			while ((count = stream.read(buf)) != -1) {
+				out.write(buf, 0, count);
+			}
+
+			return out.toByteArray();
+		}
+	};
+
+	private List<String> urlStrs;
+	private int maxConcurrentRequests;
+	private PageReader<T> pageReader;
+
+	private ExecutorService executor;
+
+	// Requested pages, in request order.
+	private Map<PageKey, Future<T>> requests;
+
+	/**
+	 * Constructor
+	 *
+	 * @param urlStrs
+	 *            The URLs whose pages are to be fetched; the page number is
+	 *            appended to each.
+	 * @param maxConcurrentRequests
+	 *            The maximum number of pages to be requested at once; must be
+	 *            positive.
+	 * @param pageReader
+	 *            The page reader.
+	 */
+	public AIDPageFetcher(List<String> urlStrs, int maxConcurrentRequests,
+			PageReader<T> pageReader) {
+		if (maxConcurrentRequests <= 0) {
+			throw new IllegalArgumentException(
+					"Maximum number of concurrent requests must be positive: "
+							+ maxConcurrentRequests);
+		}
+
+		this.urlStrs = urlStrs;
+		this.maxConcurrentRequests = maxConcurrentRequests;
+		this.pageReader = pageReader;
+
+		executor = Executors.newFixedThreadPool(maxConcurrentRequests,
+				new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r, "AID page fetcher");
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+
+		requests = new LinkedHashMap<PageKey, Future<T>>();
+	}
+
+	/**
+	 * Return the specified page, waiting for it to be fetched and read if
+	 * necessary. Pages that precede this one in the order described above and
+	 * have not been returned are discarded.
+	 *
+	 * @param urlIndex
+	 *            The index of the URL in the URL list.
+	 * @param pageNum
+	 *            The page number, starting from 1.
+	 * @return The page.
+	 * @throws IOException
+	 *             If the page cannot be read.
+	 * @throws SAXException
+	 *             If the page cannot be parsed.
+	 * @throws ParserConfigurationException
+	 *             If no XML parser is available.
+	 * @throws InterruptedException
+	 *             If interrupted while waiting for the page.
+	 */
+	public T getPage(int urlIndex, int pageNum) throws IOException,
+			SAXException, ParserConfigurationException, InterruptedException {
+
+		PageKey key = new PageKey(urlIndex, pageNum);
+
+		discardPagesBefore(key);
+
+		Future<T> request = requests.remove(key);
+		if (request == null) {
+			request = executor.submit(createPageRequest(key));
+		}
+
+		requestPagesAfter(key);
+
+		try {
+			return request.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof SAXException) {
+				throw (SAXException) cause;
+			} else if (cause instanceof ParserConfigurationException) {
+				throw (ParserConfigurationException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else {
+				throw new IOException(cause);
+			}
+		}
+	}
+
+	/**
+	 * Discard outstanding requests and stop fetching threads.
+	 */
+	public void shutdown() {
+		for (Future<T> request : requests.values()) {
+			request.cancel(true);
+		}
+		requests.clear();
+
+		executor.shutdownNow();
+	}
+
+	// Helpers
+
+	private void discardPagesBefore(PageKey key) {
+		Iterator<Map.Entry<PageKey, Future<T>>> iter = requests
+				.entrySet().iterator();
+
+		while (iter.hasNext()) {
+			Map.Entry<PageKey, Future<T>> entry = iter.next();
+			if (entry.getKey().compareTo(key) < 0) {
+				entry.getValue().cancel(true);
+				iter.remove();
+			}
+		}
+	}
+
+	// Request pages the caller may ask for after the specified page, up to
+	// the maximum number of outstanding requests: the next page of the same
+	// URL, the first pages of the remaining URLs, then later pages of the
+	// same URL.
+	private void requestPagesAfter(PageKey key) {
+		List<PageKey> candidates = new ArrayList<PageKey>();
+
+		candidates.add(new PageKey(key.urlIndex, key.pageNum + 1));
+
+		for (int i = key.urlIndex + 1; i < urlStrs.size(); i++) {
+			candidates.add(new PageKey(i, 1));
+		}
+
+		for (int i = 2; i < maxConcurrentRequests; i++) {
+			candidates.add(new PageKey(key.urlIndex, key.pageNum + i));
+		}
+
+		for (PageKey candidate : candidates) {
+			if (requests.size() >= maxConcurrentRequests - 1) {
+				break;
+			}
+
+			if (!requests.containsKey(candidate)) {
+				requests.put(candidate,
+						executor.submit(createPageRequest(candidate)));
+			}
+		}
+	}
+
+	private Callable<T> createPageRequest(final PageKey key) {
+		final String urlStr = urlStrs.get(key.urlIndex) + "&page="
+				+ key.pageNum;
+
+		return new Callable<T>() {
+			@Override
+			public T call() throws Exception {
+				URL vsxUrl = new URL(urlStr);
+
+				InputStream stream = new BufferedInputStream(vsxUrl
+						.openStream());
+				try {
+					return pageReader.read(new UTF8FilteringInputStream(
+							stream));
+				} finally {
+					stream.close();
+				}
+			}
+		};
+	}
+
+	// A page of a URL, ordered by URL index then page number.
+	private static class PageKey implements Comparable<PageKey> {
+		int urlIndex;
+		int pageNum;
+
+		PageKey(int urlIndex, int pageNum) {
+			this.urlIndex = urlIndex;
+			this.pageNum = pageNum;
+		}
+
+		@Override
+		public int compareTo(PageKey other) {
+			int result = Integer.compare(urlIndex, other.urlIndex);
+			if (result == 0) {
+				result = Integer.compare(pageNum, other.pageNum);
+			}
+			return result;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * urlIndex + pageNum;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof PageKey)) {
+				return false;
+			}
+			PageKey other = (PageKey) obj;
+			return urlIndex == other.urlIndex && pageNum == other.pageNum;
+		}
+	}
+}
@@ -17,18 +17,16 @@
  */
 package org.aavso.tools.vstar.plugin.ob.src.impl;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.StringReader;
-import java.net.MalformedURLException;
-import java.net.URL;
 import java.util.List;
 import java.util.logging.Level;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.aavso.tools.vstar.data.DateInfo;
 import org.aavso.tools.vstar.data.InvalidObservation;
@@ -43,11 +41,6 @@ import org.aavso.tools.vstar.input.AbstractObservationRetriever;
 import org.aavso.tools.vstar.ui.VStar;
 import org.aavso.tools.vstar.ui.mediator.StarInfo;
 import org.aavso.tools.vstar.util.locale.LocaleProps;
-import org.w3c.dom.CharacterData;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import com.csvreader.CsvReader;
@@ -127,49 +120,51 @@ public class AIDWebServiceCSV2ObservationSourcePlugin extends
 				InterruptedException {
 
 			// Read observations over potentially many "pages" for each URL.
-			String urlStr = urlStrs.get(0);
+			// Pages are fetched ahead of those being read, then streamed into
+			// observations without building a document tree.
+			AIDPageFetcher<byte[]> fetcher = new AIDPageFetcher<byte[]>(
+					urlStrs, MAX_CONCURRENT_PAGE_REQUESTS,
+					AIDPageFetcher.BYTES_READER);
 
-			Integer pageNum = 1;
+			XMLInputFactory factory = createXMLInputFactory();
 
-			do {
-				try {
-					String currUrlStr = urlStr;
-					if (pageNum != null) {
-						currUrlStr += "&page=" + pageNum;
-					}
-
-					URL vsxUrl = new URL(currUrlStr);
-
-					DocumentBuilderFactory factory = DocumentBuilderFactory
-							.newInstance();
-					DocumentBuilder builder = factory.newDocumentBuilder();
-
-					InputStream stream = new UTF8FilteringInputStream(
-							vsxUrl.openStream());
-					Document document = builder.parse(stream);
-
-					document.getDocumentElement().normalize();
+			try {
+				Integer pageNum = 1;
 
-					pageNum = requestObservationDetails(document, pageNum);
+				do {
+					try {
+						byte[] page = fetcher.getPage(0, pageNum);
+
+						XMLStreamReader reader = factory
+								.createXMLStreamReader(new ByteArrayInputStream(
+										page));
+						try {
+							pageNum = requestObservationDetails(reader, pageNum);
+						} finally {
+							reader.close();
+						}
 
-				} catch (MalformedURLException e) {
-					throw new ObservationReadError(
-							"Unable to obtain information for "
-									+ info.getDesignation());
-				} catch (ParserConfigurationException e) {
-					throw new ObservationReadError(
-							"Unable to obtain information for "
-									+ info.getDesignation());
-				} catch (SAXException e) {
-					throw new ObservationReadError(
-							"Unable to obtain information for "
-									+ info.getDesignation());
-				} catch (IOException e) {
-					throw new ObservationReadError(
-							"Unable to obtain information for "
-									+ info.getDesignation());
-				}
-			} while (pageNum != null && !interrupted);
+					} catch (XMLStreamException e) {
+						throw new ObservationReadError(
+								"Unable to obtain information for "
+										+ info.getDesignation());
+					} catch (ParserConfigurationException e) {
+						throw new ObservationReadError(
+								"Unable to obtain information for "
+										+ info.getDesignation());
+					} catch (SAXException e) {
+						throw new ObservationReadError(
+								"Unable to obtain information for "
+										+ info.getDesignation());
+					} catch (IOException e) {
+						throw new ObservationReadError(
+								"Unable to obtain information for "
+										+ info.getDesignation());
+					}
+				} while (pageNum != null && !interrupted);
+			} finally {
+				fetcher.shutdown();
+			}
 		}
 
 		@Override
@@ -185,70 +180,47 @@ public class AIDWebServiceCSV2ObservationSourcePlugin extends
 		// Helpers
 
 		/**
-		 * Retrieve all observation details from the document.
+		 * Retrieve all observation details from a page as it is streamed. The
+		 * CSV content of the Data element is read as it is parsed rather than
+		 * being accumulated first.
 		 * 
-		 * @param document
-		 *            The document from which to extract observations.
+		 * @param reader
+		 *            The stream reader from which to extract observations.
 		 * @param pageNum
 		 *            The page number of the document to read.
 		 * @return The next page number to read or null if not a multi-page
 		 *         document.
 		 * @throws ObservationReadError
 		 *             If an error occurs when reading the document.
+		 * @throws XMLStreamException
+		 *             If the page cannot be parsed.
 		 */
-		private Integer requestObservationDetails(Document document,
-				Integer pageNum) throws ObservationReadError {
+		private Integer requestObservationDetails(XMLStreamReader reader,
+				Integer pageNum) throws ObservationReadError,
+				XMLStreamException {
 
 			// Has an observation count been supplied?
 			// If so, more observations remain than the ones about to be
-			// retrieved here.
+			// retrieved here. The count may precede or follow the data.
 			Integer obsCount = null;
+			boolean dataRead = false;
 
-			NodeList obsCountNodes = document.getElementsByTagName("Count");
-			if (obsCountNodes.getLength() != 0) {
-				Element obsCountElt = (Element) obsCountNodes.item(0);
-				obsCount = Integer.parseInt(obsCountElt.getTextContent());
-			}
-
-			if (obsCount == null) {
-				pageNum = null;
-			}
-
-			NodeList dataNodes = document.getElementsByTagName("Data");
-
-			if (dataNodes.getLength() != 0) {
-				Element dataElt = (Element) dataNodes.item(0);
-				String data = getCharacterDataFromElement(dataElt);
-
-				BufferedReader streamReader = new BufferedReader(
-						new StringReader(data));
-
-				try {
-					CsvReader csvReader = new CsvReader(streamReader);
-
-					if (csvReader.readHeaders()) {
-						int recordNum = 1;
-
-						while (csvReader.readRecord()) {
-							ValidObservation ob = retrieveNextObservation(
-									csvReader, recordNum);
-
-							if (ob != null) {
-								collectObservation(ob);
-							}
+			while (reader.hasNext() && !interrupted) {
+				if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+					continue;
+				}
 
-							incrementProgress();
+				String eltName = reader.getLocalName();
 
-							recordNum++;
-						}
-					} else {
-						throw new ObservationReadError(
-								"No CSV header in AID data stream");
-					}
-				} catch (Exception e) {
-					throw new ObservationReadError(e.getLocalizedMessage());
+				if ("Count".equals(eltName) && obsCount == null) {
+					obsCount = Integer.parseInt(reader.getElementText());
+				} else if ("Data".equals(eltName) && !dataRead) {
+					readData(reader);
+					dataRead = true;
 				}
-			} else {
+			}
+
+			if (obsCount == null || !dataRead) {
 				pageNum = null;
 			}
 
@@ -260,22 +232,42 @@ public class AIDWebServiceCSV2ObservationSourcePlugin extends
 		}
 
 		/**
-		 * Extract and return CDATA element text from the specified element.
+		 * Read observations from the CSV character data of the Data element at
+		 * which the stream reader is positioned.
 		 * 
-		 * @param e
-		 *            The element possibly containing CDATA
-		 * @return The element's CDATA text
+		 * @param reader
+		 *            The stream reader.
+		 * @throws ObservationReadError
+		 *             If an error occurs when reading the data.
 		 */
-		private String getCharacterDataFromElement(Element e) {
-			String data = "";
+		private void readData(XMLStreamReader reader)
+				throws ObservationReadError {
+			try {
+				CsvReader csvReader = new CsvReader(
+						new XMLElementTextReader(reader));
 
-			Node child = e.getFirstChild();
-			if (child instanceof CharacterData) {
-				CharacterData cd = (CharacterData) child;
-				data = cd.getData();
-			}
+				if (csvReader.readHeaders()) {
+					int recordNum = 1;
+
+					while (csvReader.readRecord()) {
+						ValidObservation ob = retrieveNextObservation(
+								csvReader, recordNum);
+
+						if (ob != null) {
+							collectObservation(ob);
+						}
+
+						incrementProgress();
 
-			return data;
+						recordNum++;
+					}
+				} else {
+					throw new ObservationReadError(
+							"No CSV header in AID data stream");
+				}
+			} catch (Exception e) {
+				throw new ObservationReadError(e.getLocalizedMessage());
+			}
 		}
 
 		/**
@@ -447,7 +439,7 @@ public class AIDWebServiceCSV2ObservationSourcePlugin extends
 				ob.setDigitizer(digitizer);
 				ob.setName(name);
 			} else {
-				invalidObservations.add(new InvalidObservation(id + "",
+				addInvalidObservation(new InvalidObservation(id + "",
 						"Invalid"));
 			}
 
@@ -19,13 +19,8 @@ package org.aavso.tools.vstar.plugin.ob.src.impl;
 
 import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.StringReader;
-import java.net.MalformedURLException;
-import java.net.URL;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.aavso.tools.vstar.data.DateInfo;
@@ -115,49 +110,41 @@ public class AIDWebServiceCSVObservationSourcePlugin extends
 				InterruptedException {
 
 			// Iterate over each series-based URL reading observations over
-			// potentially many "pages" for each URL.
-			for (String urlStr : urlStrs) {
-				Integer pageNum = 1;
+			// potentially many "pages" for each URL. Pages are fetched and
+			// parsed ahead of those being read.
+			AIDPageFetcher<Document> fetcher = new AIDPageFetcher<Document>(
+					urlStrs, MAX_CONCURRENT_PAGE_REQUESTS,
+					AIDPageFetcher.DOCUMENT_READER);
 
-				do {
-					try {
-						String currUrlStr = urlStr;
-						if (pageNum != null) {
-							currUrlStr += "&page=" + pageNum;
+			try {
+				for (int urlIndex = 0; urlIndex < urlStrs.size(); urlIndex++) {
+					Integer pageNum = 1;
+
+					do {
+						try {
+							Document document = fetcher.getPage(urlIndex,
+									pageNum);
+
+							pageNum = requestObservationDetails(document,
+									pageNum);
+
+						} catch (ParserConfigurationException e) {
+							throw new ObservationReadError(
+									"Unable to obtain information for "
+											+ info.getDesignation());
+						} catch (SAXException e) {
+							throw new ObservationReadError(
+									"Unable to obtain information for "
+											+ info.getDesignation());
+						} catch (IOException e) {
+							throw new ObservationReadError(
+									"Unable to obtain information for "
+											+ info.getDesignation());
 						}
-
-						URL vsxUrl = new URL(currUrlStr);
-
-						DocumentBuilderFactory factory = DocumentBuilderFactory
-								.newInstance();
-						DocumentBuilder builder = factory.newDocumentBuilder();
-
-						InputStream stream = new UTF8FilteringInputStream(
-								vsxUrl.openStream());
-						Document document = builder.parse(stream);
-
-						document.getDocumentElement().normalize();
-
-						pageNum = requestObservationDetails(document, pageNum);
-
-					} catch (MalformedURLException e) {
-						throw new ObservationReadError(
-								"Unable to obtain information for "
-										+ info.getDesignation());
-					} catch (ParserConfigurationException e) {
-						throw new ObservationReadError(
-								"Unable to obtain information for "
-										+ info.getDesignation());
-					} catch (SAXException e) {
-						throw new ObservationReadError(
-								"Unable to obtain information for "
-										+ info.getDesignation());
-					} catch (IOException e) {
-						throw new ObservationReadError(
-								"Unable to obtain information for "
-										+ info.getDesignation());
-					}
-				} while (pageNum != null && !interrupted);
+					} while (pageNum != null && !interrupted);
+				}
+			} finally {
+				fetcher.shutdown();
 			}
 		}
 
@@ -419,7 +406,7 @@ public class AIDWebServiceCSVObservationSourcePlugin extends
 				ob.setDigitizer(digitizer);
 				ob.setName(name);
 			} else {
-				invalidObservations.add(new InvalidObservation(id + "",
+				addInvalidObservation(new InvalidObservation(id + "",
 						"Invalid"));
 			}
 
@@ -21,6 +21,8 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.xml.stream.XMLInputFactory;
+
 import org.aavso.tools.vstar.data.MTypeType;
 import org.aavso.tools.vstar.data.Magnitude;
 import org.aavso.tools.vstar.data.MagnitudeModifier;
@@ -41,6 +43,9 @@ public abstract class AIDWebServiceObservationSourcePluginBase extends
 		ObservationSourcePluginBase {
 
 	protected static final int MAX_OBS_AT_ONCE = 50000;
+	protected static final int MAX_CONCURRENT_PAGE_REQUESTS = 4;
+	private static final String CDATA_CHUNK_SIZE_PROPERTY = "jdk.xml.cdataChunkSize";
+	private static final int CDATA_CHUNK_SIZE = 8192;
 	protected static final String BASE_URL = ResourceAccessor.getVsxApiUrlBase();
 	protected String view;
 	protected String method;
@@ -339,6 +344,29 @@ public abstract class AIDWebServiceObservationSourcePluginBase extends
 	 */
 	abstract protected String addURLs(String auid);
 
+	/**
+	 * Create a factory for streaming readers of the pages returned by the web
+	 * service. External entities are not resolved and, where the StAX
+	 * implementation permits, character data is reported in bounded chunks
+	 * rather than a CDATA section at a time.
+	 * 
+	 * @return The factory.
+	 */
+	protected XMLInputFactory createXMLInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
+				false);
+
+		try {
+			factory.setProperty(CDATA_CHUNK_SIZE_PROPERTY, CDATA_CHUNK_SIZE);
+		} catch (IllegalArgumentException e) {
+			// Not supported by this implementation.
+		}
+
+		return factory;
+	}
+
 	protected Double getPossiblyNullDouble(String valStr) {
 		Double num = null;
 
@@ -17,14 +17,14 @@
  */
 package org.aavso.tools.vstar.plugin.ob.src.impl;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.MalformedURLException;
-import java.net.URL;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.aavso.tools.vstar.data.DateInfo;
 import org.aavso.tools.vstar.data.InvalidObservation;
@@ -36,11 +36,6 @@ import org.aavso.tools.vstar.exception.ObservationReadError;
 import org.aavso.tools.vstar.input.AbstractObservationRetriever;
 import org.aavso.tools.vstar.ui.mediator.StarInfo;
 import org.aavso.tools.vstar.util.locale.LocaleProps;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 /**
@@ -107,49 +102,55 @@ public class AIDWebServiceXMLAttributeObservationSourcePlugin extends
 				InterruptedException {
 
 			// Iterate over each series-based URL reading observations over
-			// potentially many "pages" for each URL.
-			for (String urlStr : urlStrs) {
-				Integer pageNum = 1;
-
-				do {
-					try {
-						String currUrlStr = urlStr;
-						if (pageNum != null) {
-							currUrlStr += "&page=" + pageNum;
+			// potentially many "pages" for each URL. Pages are fetched ahead
+			// of those being read, then streamed into observations without
+			// building a document tree.
+			AIDPageFetcher<byte[]> fetcher = new AIDPageFetcher<byte[]>(
+					urlStrs, MAX_CONCURRENT_PAGE_REQUESTS,
+					AIDPageFetcher.BYTES_READER);
+
+			XMLInputFactory factory = createXMLInputFactory();
+
+			try {
+				for (int urlIndex = 0; urlIndex < urlStrs.size(); urlIndex++) {
+					Integer pageNum = 1;
+
+					do {
+						try {
+							byte[] page = fetcher.getPage(urlIndex, pageNum);
+
+							XMLStreamReader reader = factory
+									.createXMLStreamReader(new ByteArrayInputStream(
+											page));
+							try {
+								pageNum = requestObservationDetails(reader,
+										pageNum);
+							} finally {
+								reader.close();
+							}
+
+						} catch (XMLStreamException e) {
+							throw new ObservationReadError(
+									"Unable to obtain information for "
+											+ info.getDesignation());
+
+						} catch (ParserConfigurationException e) {
+							throw new ObservationReadError(
+									"Unable to obtain information for "
+											+ info.getDesignation());
+						} catch (SAXException e) {
+							throw new ObservationReadError(
+									"Unable to obtain information for "
+											+ info.getDesignation());
+						} catch (IOException e) {
+							throw new ObservationReadError(
+									"Unable to obtain information for "
+											+ info.getDesignation());
 						}
-
-						URL vsxUrl = new URL(currUrlStr);
-
-						DocumentBuilderFactory factory = DocumentBuilderFactory
-								.newInstance();
-						DocumentBuilder builder = factory.newDocumentBuilder();
-
-						InputStream stream = new UTF8FilteringInputStream(
-								vsxUrl.openStream());
-						Document document = builder.parse(stream);
-
-						document.getDocumentElement().normalize();
-
-						pageNum = requestObservationDetails(document, pageNum);
-
-					} catch (MalformedURLException e) {
-						throw new ObservationReadError(
-								"Unable to obtain information for "
-										+ info.getDesignation());
-					} catch (ParserConfigurationException e) {
-						throw new ObservationReadError(
-								"Unable to obtain information for "
-										+ info.getDesignation());
-					} catch (SAXException e) {
-						throw new ObservationReadError(
-								"Unable to obtain information for "
-										+ info.getDesignation());
-					} catch (IOException e) {
-						throw new ObservationReadError(
-								"Unable to obtain information for "
-										+ info.getDesignation());
-					}
-				} while (pageNum != null && !interrupted);
+					} while (pageNum != null && !interrupted);
+				}
+			} finally {
+				fetcher.shutdown();
 			}
 		}
 
@@ -166,56 +167,55 @@ public class AIDWebServiceXMLAttributeObservationSourcePlugin extends
 		// Helpers
 
 		/**
-		 * Retrieve all observation details from the document.
+		 * Retrieve all observation details from a page as it is streamed.
 		 * 
-		 * @param document
-		 *            The document from which to extract observations.
+		 * @param reader
+		 *            The stream reader from which to extract observations.
 		 * @param pageNum
 		 *            The page number of the document to read.
 		 * @return The next page number to read or null if not a multi-page
 		 *         document.
 		 * @throws ObservationReadError
 		 *             If an error occurs when reading the document.
+		 * @throws XMLStreamException
+		 *             If the page cannot be parsed.
 		 */
-		private Integer requestObservationDetails(Document document,
-				Integer pageNum) throws ObservationReadError {
+		private Integer requestObservationDetails(XMLStreamReader reader,
+				Integer pageNum) throws ObservationReadError,
+				XMLStreamException {
 
 			// Has an observation count been supplied?
 			// If so, more observations remain than the ones about to be
 			// retrieved here.
 			Integer obsCount = null;
+			int dataEltCount = 0;
 
-			NodeList dataNodes = document.getElementsByTagName("Data");
-
-			if (dataNodes.getLength() == 1) {
-				Element dataElt = (Element) dataNodes.item(0);
-				String count = dataElt.getAttribute("Count");
-				if (count != null && count.trim().length() != 0) {
-					obsCount = Integer.parseInt(count);
+			while (reader.hasNext() && !interrupted) {
+				if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+					continue;
 				}
-			}
-
-			if (obsCount == null) {
-				pageNum = null;
-			}
 
-			NodeList obsNodes = document.getElementsByTagName("Observation");
+				String eltName = reader.getLocalName();
 
-			for (int i = 0; i < obsNodes.getLength(); i++) {
-
-				if (interrupted)
-					break;
-
-				NamedNodeMap obsDetails = obsNodes.item(i).getAttributes();
+				if ("Data".equals(eltName)) {
+					dataEltCount++;
+					String count = reader.getAttributeValue(null, "Count");
+					if (count != null && count.trim().length() != 0) {
+						obsCount = Integer.parseInt(count);
+					}
+				} else if ("Observation".equals(eltName)) {
+					ValidObservation ob = retrieveObservation(reader);
 
-				ValidObservation ob = retrieveObservation(new NamedNodeMapSequence(
-						obsDetails));
+					if (ob != null) {
+						collectObservation(ob);
+					}
 
-				if (ob != null) {
-					collectObservation(ob);
+					incrementProgress();
 				}
+			}
 
-				incrementProgress();
+			if (obsCount == null || dataEltCount != 1) {
+				pageNum = null;
 			}
 
 			if (pageNum != null) {
@@ -226,16 +226,16 @@ public class AIDWebServiceXMLAttributeObservationSourcePlugin extends
 		}
 
 		/**
-		 * Given an XML node of some kind (Element, Node) corresponding to the
-		 * details of a single observation, retrieve that observation.
+		 * Given a stream reader positioned at the start of an Observation
+		 * element, retrieve that observation from the element's attributes.
 		 * 
-		 * @param obsDetails
-		 *            A sequence of observation details.
+		 * @param reader
+		 *            The stream reader.
 		 * @return The observation.
 		 * @throws ObservationReadError
 		 *             if an error occurred during observation processing.
 		 */
-		private ValidObservation retrieveObservation(INodeSequence obsDetails)
+		private ValidObservation retrieveObservation(XMLStreamReader reader)
 				throws ObservationReadError {
 
 			Integer id = null;
@@ -264,14 +264,13 @@ public class AIDWebServiceXMLAttributeObservationSourcePlugin extends
 			String digitizer = null;
 			String name = info.getDesignation();
 
-			for (int j = 0; j < obsDetails.getLength(); j++) {
+			for (int j = 0; j < reader.getAttributeCount(); j++) {
 
 				if (interrupted)
 					break;
 
-				Node detailNode = obsDetails.item(j);
-				String nodeName = detailNode.getNodeName();
-				String nodeValue = detailNode.getTextContent();
+				String nodeName = reader.getAttributeLocalName(j);
+				String nodeValue = reader.getAttributeValue(j);
 
 				if ("Id".equalsIgnoreCase(nodeName)) {
 					id = Integer.parseInt(nodeValue);
@@ -363,7 +362,7 @@ public class AIDWebServiceXMLAttributeObservationSourcePlugin extends
 				ob.setDigitizer(digitizer);
 				ob.setName(name);
 			} else {
-				invalidObservations.add(new InvalidObservation(id + "",
+				addInvalidObservation(new InvalidObservation(id + "",
 						"Invalid"));
 			}
 
@@ -17,17 +17,21 @@
  */
 package org.aavso.tools.vstar.plugin.ob.src.impl;
 
-import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 
 import org.aavso.tools.vstar.exception.ObservationReadError;
 import org.aavso.tools.vstar.input.AbstractObservationRetriever;
+import org.aavso.tools.vstar.input.text.MappedLineScanner;
 import org.aavso.tools.vstar.input.text.ObservationSourceAnalyser;
 import org.aavso.tools.vstar.input.text.TextFormatObservationReader;
 import org.aavso.tools.vstar.plugin.InputType;
@@ -45,6 +49,8 @@ import org.aavso.tools.vstar.util.locale.LocaleProps;
 public class TextFormatObservationSourcePlugin extends
 		ObservationSourcePluginBase {
 
+	private final static int SPOOL_BUFFER_SIZE = 64 * 1024;
+
 	private ObservationSourceAnalyser analyser;
 
 	@Override
@@ -80,46 +86,101 @@ public class TextFormatObservationSourcePlugin extends
 	@Override
 	public AbstractObservationRetriever getObservationRetriever() throws IOException, ObservationReadError {
 
-		AbstractObservationRetriever retriever = null;
+		// The source must be read twice, once by the analyser and once by
+		// the reader. A local file is read again in place, memory-mapped if
+		// its charset permits, otherwise the source is spooled to a temporary
+		// file rather than being held in memory. The file is deleted once
+		// observations have been retrieved.
+		InputStream stream = getInputStreams().get(0);
+
+		// Scanning does not change the file's position, so the reader's
+		// scanner starts where the analyser's did.
+		MappedLineScanner scanner = MappedLineScanner.create(stream);
+		if (scanner != null) {
+			try {
+				analyser = new ObservationSourceAnalyser(scanner,
+						getInputName());
+				analyser.analyse();
+			} finally {
+				scanner.close();
+			}
 
-		byte[] allBytes = null;
-		List<byte[]> byteArrayList = new ArrayList<byte[]>();
-		int total = 0;
+			return new TextFormatObservationReader(
+					MappedLineScanner.create(stream), stream, analyser,
+					getVelaFilterStr());
+		}
 
-		InputStream stream = getInputStreams().get(0);
+		if (stream instanceof FileInputStream) {
+			FileChannel channel = ((FileInputStream) stream).getChannel();
+			long start = channel.position();
 
-		BufferedReader streamReader = new BufferedReader(
-				new InputStreamReader(stream));
+			// The analyser closes its reader, but not the file.
+			analyse(createReader(new FilterInputStream(stream) {
+				@Override
+				public void close() {
+				}
+			}));
 
-		// Obtain bytes from stream in order to re-use in analyser and
-		// reader.
-		String line;
-		while ((line = streamReader.readLine()) != null) {
+			channel.position(start);
 
-			byte[] bytes = line.getBytes();
-			byteArrayList.add(bytes);
-			total += bytes.length + 1;
+			return new TextFormatObservationReader(createReader(stream),
+					analyser, getVelaFilterStr());
 		}
 
-		int i = 0;
-		allBytes = new byte[total];
-		for (byte[] bytes : byteArrayList) {
-			for (byte b : bytes) {
-				allBytes[i++] = b;
+		final File spoolFile = File.createTempFile("vstar", ".txt");
+		spoolFile.deleteOnExit();
+
+		try {
+			OutputStream spool = new BufferedOutputStream(new FileOutputStream(
+					spoolFile));
+			try {
+				byte[] buf = new byte[SPOOL_BUFFER_SIZE];
+				int n;
+				while ((n = stream.read(buf)) != -1) {
+					spool.write(buf, 0, n);
+				}
+			} finally {
+				spool.close();
 			}
-			allBytes[i++] = '\n';
+
+			analyse(createReader(new FileInputStream(spoolFile)));
+		} catch (IOException e) {
+			spoolFile.delete();
+			throw e;
+		} catch (ObservationReadError e) {
+			spoolFile.delete();
+			throw e;
 		}
 
-		// Analyse the observation file and create an observation retriever.
-		analyser = new ObservationSourceAnalyser(new LineNumberReader(
-				new InputStreamReader(new ByteArrayInputStream(allBytes))),
-				getInputName());
-		analyser.analyse();
+		return new TextFormatObservationReader(createReader(new FileInputStream(
+				spoolFile)),
+				analyser, getVelaFilterStr()) {
+			@Override
+			public void retrieveObservations() throws ObservationReadError {
+				try {
+					super.retrieveObservations();
+				} finally {
+					spoolFile.delete();
+				}
+			}
+		};
+	}
 
-		retriever = new TextFormatObservationReader(new LineNumberReader(
-				new InputStreamReader(new ByteArrayInputStream(allBytes))),
-				analyser, getVelaFilterStr());
+	// Helpers
+
+	// Analyse the observation source so that an observation retriever can
+	// be created.
+	private void analyse(LineNumberReader reader) throws IOException,
+			ObservationReadError {
+		try {
+			analyser = new ObservationSourceAnalyser(reader, getInputName());
+			analyser.analyse();
+		} finally {
+			reader.close();
+		}
+	}
 
-		return retriever;
+	private LineNumberReader createReader(InputStream stream) {
+		return new LineNumberReader(new InputStreamReader(stream));
 	}
 }
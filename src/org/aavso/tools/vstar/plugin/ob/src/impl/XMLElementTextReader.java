@@ -0,0 +1,125 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.plugin.ob.src.impl;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * A reader of the character data (text and CDATA sections) of an element, as
+ * it is streamed by an XML stream reader. This permits the content of a large
+ * element to be consumed incrementally, e.g. by a CSV reader, without first
+ * being accumulated into a string.
+ */
+public class XMLElementTextReader extends Reader {
+
+	private XMLStreamReader xmlReader;
+
+	// Depth of elements nested within the element being read.
+	private int depth;
+
+	private boolean done;
+
+	// Current chunk of character data and the position within it.
+	private char[] chunk;
+	private int chunkStart;
+	private int chunkEnd;
+
+	/**
+	 * Constructor
+	 *
+	 * @param xmlReader
+	 *            The XML stream reader, positioned at the start of the element
+	 *            whose character data is to be read. When this reader is
+	 *            exhausted, the XML stream reader is positioned at the end of
+	 *            the element.
+	 */
+	public XMLElementTextReader(XMLStreamReader xmlReader) {
+		this.xmlReader = xmlReader;
+		depth = 0;
+		done = false;
+		chunkStart = 0;
+		chunkEnd = 0;
+	}
+
+	@Override
+	public int read(char[] cbuf, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+
+		while (chunkStart == chunkEnd) {
+			if (done || !nextChunk()) {
+				return -1;
+			}
+		}
+
+		int count = Math.min(len, chunkEnd - chunkStart);
+		System.arraycopy(chunk, chunkStart, cbuf, off, count);
+		chunkStart += count;
+
+		return count;
+	}
+
+	@Override
+	public void close() throws IOException {
+		// The XML stream reader belongs to the caller.
+	}
+
+	// Advance to the next event with character data, returning false at the
+	// end of the element.
+	private boolean nextChunk() throws IOException {
+		try {
+			while (xmlReader.hasNext()) {
+				switch (xmlReader.next()) {
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.CDATA:
+				case XMLStreamConstants.SPACE:
+					chunk = xmlReader.getTextCharacters();
+					chunkStart = xmlReader.getTextStart();
+					chunkEnd = chunkStart + xmlReader.getTextLength();
+					return true;
+
+				case XMLStreamConstants.START_ELEMENT:
+					depth++;
+					break;
+
+				case XMLStreamConstants.END_ELEMENT:
+					if (depth == 0) {
+						done = true;
+						return false;
+					}
+					depth--;
+					break;
+
+				default:
+					break;
+				}
+			}
+		} catch (XMLStreamException e) {
+			throw new IOException(e.getMessage(), e);
+		}
+
+		done = true;
+		return false;
+	}
+}
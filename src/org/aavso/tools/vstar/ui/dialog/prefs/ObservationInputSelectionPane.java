@@ -0,0 +1,192 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.ui.dialog.prefs;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+import javax.swing.BorderFactory;
+import javax.swing.Box;
+import javax.swing.BoxLayout;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JPanel;
+import javax.swing.JSpinner;
+import javax.swing.JTextArea;
+import javax.swing.SpinnerNumberModel;
+
+import org.aavso.tools.vstar.input.AbstractObservationRetriever;
+import org.aavso.tools.vstar.util.locale.LocaleProps;
+import org.aavso.tools.vstar.util.prefs.ObservationInputPrefs;
+
+/**
+ * This preferences pane permits the selection of the maximum number of invalid
+ * observations retained when reading an observation source, and whether those
+ * beyond the limit are written to a file.
+ */
+@SuppressWarnings("serial")
+public class ObservationInputSelectionPane extends JPanel implements
+		IPreferenceComponent {
+
+	private JCheckBox limitInvalidObsCheckbox;
+	private JSpinner invalidObsLimitSpinner;
+	private JCheckBox writeUnlistedInvalidObsCheckbox;
+
+	/**
+	 * Constructor.
+	 */
+	public ObservationInputSelectionPane() {
+		super();
+
+		JPanel inputPane = new JPanel();
+		inputPane.setLayout(new BoxLayout(inputPane, BoxLayout.PAGE_AXIS));
+		inputPane.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+
+		JTextArea infoText = new JTextArea(
+				"Optionally specify the maximum number of invalid\n"
+						+ "observations to be listed when observations are\n"
+						+ "loaded. Any others are counted but not listed,\n"
+						+ "and may be written to:\n"
+						+ AbstractObservationRetriever.UNLISTED_INVALID_OBSERVATIONS_PATH);
+		infoText.setEditable(false);
+		infoText.setBorder(BorderFactory.createEtchedBorder());
+		inputPane.add(infoText);
+
+		inputPane.add(Box.createRigidArea(new Dimension(10, 30)));
+
+		limitInvalidObsCheckbox = new JCheckBox("Limit invalid observations?");
+		limitInvalidObsCheckbox.addActionListener(e -> {
+			updateEnabledState();
+		});
+		inputPane.add(limitInvalidObsCheckbox);
+
+		inputPane.add(Box.createRigidArea(new Dimension(10, 10)));
+
+		SpinnerNumberModel invalidObsLimitSpinnerModel = new SpinnerNumberModel(
+				ObservationInputPrefs.SUGGESTED_INVALID_OBSERVATION_LIMIT,
+				ObservationInputPrefs.MIN_INVALID_OBSERVATION_LIMIT,
+				ObservationInputPrefs.MAX_INVALID_OBSERVATION_LIMIT, 1000);
+		invalidObsLimitSpinner = new JSpinner(invalidObsLimitSpinnerModel);
+		invalidObsLimitSpinner.setBorder(BorderFactory
+				.createTitledBorder("Invalid observation limit"));
+		inputPane.add(invalidObsLimitSpinner);
+
+		inputPane.add(Box.createRigidArea(new Dimension(10, 10)));
+
+		writeUnlistedInvalidObsCheckbox = new JCheckBox(
+				"Write unlisted invalid observations to file?");
+		inputPane.add(writeUnlistedInvalidObsCheckbox);
+
+		inputPane.add(Box.createRigidArea(new Dimension(10, 10)));
+
+		// Add a local context button pane.
+		inputPane.add(createButtonPane());
+
+		this.add(inputPane);
+
+		reset();
+	}
+
+	protected JPanel createButtonPane() {
+		JPanel panel = new JPanel(new BorderLayout());
+
+		JButton setDefaultsButton = new JButton("Set Defaults");
+		setDefaultsButton
+				.addActionListener(createSetDefaultsButtonActionListener());
+		panel.add(setDefaultsButton, BorderLayout.LINE_START);
+
+		JButton applyButton = new JButton(LocaleProps.get("APPLY_BUTTON"));
+		applyButton.addActionListener(createApplyButtonActionListener());
+		panel.add(applyButton, BorderLayout.LINE_END);
+
+		return panel;
+	}
+
+	// Set defaults action button listener.
+	private ActionListener createSetDefaultsButtonActionListener() {
+		return new ActionListener() {
+			public void actionPerformed(ActionEvent e) {
+				ObservationInputPrefs.setDefaultObservationInputPrefs();
+				reset();
+			}
+		};
+	}
+
+	// Set apply button listener.
+	private ActionListener createApplyButtonActionListener() {
+		return new ActionListener() {
+			public void actionPerformed(ActionEvent e) {
+				update();
+			}
+		};
+	}
+
+	// The limit spinner and file checkbox only apply when invalid observations
+	// are limited.
+	private void updateEnabledState() {
+		boolean limited = limitInvalidObsCheckbox.isSelected();
+		invalidObsLimitSpinner.setEnabled(limited);
+		writeUnlistedInvalidObsCheckbox.setEnabled(limited);
+	}
+
+	/**
+	 * Updates the observation input preferences from the pane's values.
+	 */
+	@Override
+	public void update() {
+		if (limitInvalidObsCheckbox.isSelected()) {
+			ObservationInputPrefs
+					.setInvalidObservationLimit((Integer) invalidObsLimitSpinner
+							.getValue());
+		} else {
+			ObservationInputPrefs
+					.setInvalidObservationLimit(AbstractObservationRetriever.UNLIMITED_INVALID_OBSERVATIONS);
+		}
+
+		ObservationInputPrefs
+				.setWriteUnlistedInvalidObservations(writeUnlistedInvalidObsCheckbox
+						.isSelected());
+
+		ObservationInputPrefs.storeObservationInputPrefs();
+	}
+
+	/**
+	 * Prepare this pane for use by resetting whatever needs to be, namely the
+	 * checkboxes and spinner need to be updated from the preference values.
+	 */
+	@Override
+	public void reset() {
+		int limit = ObservationInputPrefs.getInvalidObservationLimit();
+
+		if (limit == AbstractObservationRetriever.UNLIMITED_INVALID_OBSERVATIONS) {
+			limitInvalidObsCheckbox.setSelected(false);
+			invalidObsLimitSpinner
+					.setValue(ObservationInputPrefs.SUGGESTED_INVALID_OBSERVATION_LIMIT);
+		} else {
+			limitInvalidObsCheckbox.setSelected(true);
+			invalidObsLimitSpinner.setValue(limit);
+		}
+
+		writeUnlistedInvalidObsCheckbox.setSelected(ObservationInputPrefs
+				.getWriteUnlistedInvalidObservations());
+
+		updateEnabledState();
+	}
+}
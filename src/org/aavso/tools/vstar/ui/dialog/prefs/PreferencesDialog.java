@@ -40,6 +40,8 @@ public class PreferencesDialog extends AbstractOkCancelDialog {
 	private StarGroupManagementPane starGroupManagementPane;
 	private PluginSettingsPane pluginSettingsPane;
 	private LocaleSelectionPane localeSelectionPane;
+	private VeLaSelectionPane velaSelectionPane;
+	private ObservationInputSelectionPane observationInputSelectionPane;
 	
 	/**
 	 * Constructor.
@@ -85,6 +87,12 @@ public class PreferencesDialog extends AbstractOkCancelDialog {
 
 		localeSelectionPane = new LocaleSelectionPane();
 		tabs.addTab("Locale", localeSelectionPane);
+
+		velaSelectionPane = new VeLaSelectionPane();
+		tabs.addTab("VeLa", velaSelectionPane);
+
+		observationInputSelectionPane = new ObservationInputSelectionPane();
+		tabs.addTab("Observation Input", observationInputSelectionPane);
 		
 		return tabs;
 	}
@@ -107,6 +115,8 @@ public class PreferencesDialog extends AbstractOkCancelDialog {
 		starGroupManagementPane.update();
 		pluginSettingsPane.update();
 		localeSelectionPane.update();
+		velaSelectionPane.update();
+		observationInputSelectionPane.update();
 		
 		this.setVisible(false);
 	}
@@ -122,6 +132,8 @@ public class PreferencesDialog extends AbstractOkCancelDialog {
 		starGroupManagementPane.reset();
 		pluginSettingsPane.reset();
 		localeSelectionPane.reset();
+		velaSelectionPane.reset();
+		observationInputSelectionPane.reset();
 	}
 
 	/**
@@ -0,0 +1,169 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.ui.dialog.prefs;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+import javax.swing.BorderFactory;
+import javax.swing.Box;
+import javax.swing.BoxLayout;
+import javax.swing.JButton;
+import javax.swing.JPanel;
+import javax.swing.JSpinner;
+import javax.swing.JTextArea;
+import javax.swing.SpinnerNumberModel;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+import org.aavso.tools.vstar.util.locale.LocaleProps;
+import org.aavso.tools.vstar.util.prefs.VeLaPrefs;
+import org.aavso.tools.vstar.vela.VeLaInterpreter;
+
+/**
+ * This preferences pane permits the selection of the maximum size of the VeLa
+ * interpreter's caches.
+ */
+@SuppressWarnings("serial")
+public class VeLaSelectionPane extends JPanel implements IPreferenceComponent {
+
+	private JSpinner cacheSizeSpinner;
+	private JTextArea statisticsText;
+
+	private Integer changedCacheSizeValue = null;
+
+	/**
+	 * Constructor.
+	 */
+	public VeLaSelectionPane() {
+		super();
+
+		JPanel velaPane = new JPanel();
+		velaPane.setLayout(new BoxLayout(velaPane, BoxLayout.PAGE_AXIS));
+		velaPane.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+
+		JTextArea infoText = new JTextArea(
+				"Specify the maximum number of parsed VeLa programs\n"
+						+ "and regular expressions to be cached.");
+		infoText.setEditable(false);
+		infoText.setBorder(BorderFactory.createEtchedBorder());
+		velaPane.add(infoText);
+
+		velaPane.add(Box.createRigidArea(new Dimension(10, 50)));
+
+		SpinnerNumberModel cacheSizeSpinnerModel = new SpinnerNumberModel(
+				VeLaPrefs.getCacheSize(), VeLaPrefs.MIN_CACHE_SIZE,
+				VeLaPrefs.MAX_CACHE_SIZE, 100);
+		cacheSizeSpinner = new JSpinner(cacheSizeSpinnerModel);
+		cacheSizeSpinner.setBorder(BorderFactory
+				.createTitledBorder("Cache size"));
+		velaPane.add(cacheSizeSpinner);
+		cacheSizeSpinner.addChangeListener(new ChangeListener() {
+			@Override
+			public void stateChanged(ChangeEvent e) {
+				changedCacheSizeValue = (Integer) cacheSizeSpinner.getValue();
+			}
+		});
+
+		velaPane.add(Box.createRigidArea(new Dimension(10, 10)));
+
+		statisticsText = new JTextArea();
+		statisticsText.setEditable(false);
+		statisticsText.setBorder(BorderFactory
+				.createTitledBorder("Cache statistics"));
+		velaPane.add(statisticsText);
+		updateStatistics();
+
+		velaPane.add(Box.createRigidArea(new Dimension(10, 10)));
+
+		// Add a local context button pane.
+		velaPane.add(createButtonPane());
+
+		this.add(velaPane);
+	}
+
+	protected JPanel createButtonPane() {
+		JPanel panel = new JPanel(new BorderLayout());
+
+		JButton setDefaultsButton = new JButton("Set Default Cache Size");
+		setDefaultsButton
+				.addActionListener(createSetDefaultsButtonActionListener());
+		panel.add(setDefaultsButton, BorderLayout.LINE_START);
+
+		JButton applyButton = new JButton(LocaleProps.get("APPLY_BUTTON"));
+		applyButton.addActionListener(createApplyButtonActionListener());
+		panel.add(applyButton, BorderLayout.LINE_END);
+
+		return panel;
+	}
+
+	// Set defaults action button listener.
+	private ActionListener createSetDefaultsButtonActionListener() {
+		return new ActionListener() {
+			public void actionPerformed(ActionEvent e) {
+				VeLaPrefs.setDefaultVeLaPrefs();
+				VeLaInterpreter.setCacheSize(VeLaPrefs.getCacheSize());
+				reset();
+			}
+		};
+	}
+
+	// Set apply button listener.
+	private ActionListener createApplyButtonActionListener() {
+		return new ActionListener() {
+			public void actionPerformed(ActionEvent e) {
+				update();
+			}
+		};
+	}
+
+	private void updateStatistics() {
+		statisticsText.setText(VeLaInterpreter.getCacheStatistics().replace(
+				"; ", "\n"));
+	}
+
+	/**
+	 * Updates the VeLa preferences with any changed values.
+	 */
+	@Override
+	public void update() {
+		if (changedCacheSizeValue != null) {
+			VeLaPrefs.setCacheSize(changedCacheSizeValue);
+			VeLaPrefs.storeVeLaPrefs();
+			VeLaInterpreter.setCacheSize(changedCacheSizeValue);
+			changedCacheSizeValue = null;
+		}
+
+		updateStatistics();
+	}
+
+	/**
+	 * Prepare this pane for use by resetting whatever needs to be, namely no
+	 * values are to be considered as having changed and the spinner needs to
+	 * be updated from the preference value.
+	 */
+	@Override
+	public void reset() {
+		cacheSizeSpinner.setValue(VeLaPrefs.getCacheSize());
+		// Setting the spinner's value notifies its change listener.
+		changedCacheSizeValue = null;
+		updateStatistics();
+	}
+}
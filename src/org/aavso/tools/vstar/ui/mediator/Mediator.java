@@ -30,20 +30,21 @@ import java.text.DateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
-import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
 import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
 
 import javax.swing.JDialog;
 import javax.swing.JTable.PrintMode;
+import javax.swing.SwingUtilities;
 import javax.swing.SwingWorker;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
 import org.aavso.tools.vstar.data.InvalidObservation;
+import org.aavso.tools.vstar.data.ObservationStore;
 import org.aavso.tools.vstar.data.SeriesType;
 import org.aavso.tools.vstar.data.ValidObservation;
 import org.aavso.tools.vstar.data.ValidObservation.JDflavour;
@@ -63,6 +64,7 @@ import org.aavso.tools.vstar.plugin.period.PeriodAnalysisPluginBase;
 import org.aavso.tools.vstar.ui.IMainUI;
 import org.aavso.tools.vstar.ui.NamedComponent;
 import org.aavso.tools.vstar.ui.TabbedDataPane;
+import org.aavso.tools.vstar.ui.VStar;
 import org.aavso.tools.vstar.ui.dialog.DelimitedFieldFileSaveChooser;
 import org.aavso.tools.vstar.ui.dialog.DiscrepantReportDialog;
 import org.aavso.tools.vstar.ui.dialog.DoubleField;
@@ -142,6 +144,7 @@ import org.aavso.tools.vstar.ui.task.PluginManagerOperationTask;
 import org.aavso.tools.vstar.ui.undo.IUndoableAction;
 import org.aavso.tools.vstar.ui.undo.UndoableActionManager;
 import org.aavso.tools.vstar.util.Triple;
+import org.aavso.tools.vstar.util.WeakInterner;
 import org.aavso.tools.vstar.util.comparator.JDComparator;
 import org.aavso.tools.vstar.util.comparator.PreviousCyclePhaseComparator;
 import org.aavso.tools.vstar.util.comparator.StandardPhaseComparator;
@@ -160,6 +163,7 @@ import org.aavso.tools.vstar.util.prefs.ChartPropertiesPrefs;
 import org.aavso.tools.vstar.util.prefs.NumericPrecisionPrefs;
 import org.aavso.tools.vstar.util.stats.BinningResult;
 import org.aavso.tools.vstar.util.stats.PhaseCalcs;
+import org.aavso.tools.vstar.util.stats.PhaseEngine;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.ChartUtils;
 import org.jfree.chart.JFreeChart;
@@ -187,7 +191,9 @@ public class Mediator {
     // so they could be used in places where currently the model must be
     // consulted instead; especially the first map, e.g. for period analysis.
     private Map<SeriesType, List<ValidObservation>> validObservationCategoryMap;
-    private Map<SeriesType, List<ValidObservation>> phasedValidObservationCategoryMap;
+
+    // Phases and phase-orders the observations of the current phase plot.
+    private PhaseEngine phaseEngine;
 
     // Current observation and mean plot model.
     // Period search (TODO: did I mean ANOVA vs period search?) needs access to
@@ -338,7 +344,7 @@ public class Mediator {
         this.validObsList = null;
         this.invalidObsList = null;
         this.validObservationCategoryMap = null;
-        this.phasedValidObservationCategoryMap = null;
+        this.phaseEngine = null;
         this.obsAndMeanPlotModel = null;
 
         this.analysisTypeMap = new HashMap<AnalysisType, AnalysisTypeChangeMessage>();
@@ -674,11 +680,9 @@ public class Mediator {
     }
 
     // When the period changes, create a new phase plot passing the pre-existing
-    // series visibility map if a previous phase plot was created.
-    //
-    // TODO: actually, it should only be necessary to a. set the phases with the
-    // new period and epoch (need to include the epoch in the message), and b.
-    // update the plot and table models.
+    // series visibility map if a previous phase plot was created. In that case,
+    // the previous phase plot is normally updated in place; see
+    // createPhasePlotArtefacts().
     private Listener<PeriodChangeMessage> createPeriodChangeListener() {
         return new Listener<PeriodChangeMessage>() {
             public void update(PeriodChangeMessage info) {
@@ -1201,8 +1205,40 @@ public class Mediator {
 
         List<ValidObservation> validObsList = starInfo.getRetriever().getValidObservations();
 
+        // Hold the observations of a large dataset in a columnar store to
+        // reduce memory use.
+        if (validObsList.size() >= ObservationStore.MIN_COMPACTION_SIZE) {
+            ObservationStore.compact(validObsList);
+        }
+
         List<InvalidObservation> invalidObsList = starInfo.getRetriever().getInvalidObservations();
 
+        // Tell the user if the invalid observation list is incomplete.
+        AbstractObservationRetriever retriever = starInfo.getRetriever();
+        retriever.closeInvalidObservationSpill();
+
+        int invalidObsOverflowCount = retriever.getInvalidObservationOverflowCount();
+        if (invalidObsOverflowCount > 0) {
+            String msg = String.format(
+                    "%d invalid observations are not listed (invalid observation limit: %d).",
+                    invalidObsOverflowCount, retriever.getInvalidObservationLimit());
+
+            File spillFile = retriever.getInvalidObservationSpillFile();
+            if (spillFile != null) {
+                msg += "\nThese were written to " + spillFile.getPath();
+            } else {
+                msg += "\nThe limit can be changed in the Observation Input preferences.";
+            }
+
+            MessageBox.showWarningDialog("Invalid Observations", msg);
+        }
+
+        // Report how well observation values were shared by this load.
+        for (WeakInterner<?> cache : ValidObservation.getValueCaches()) {
+            VStar.LOGGER.log(Level.INFO, cache.toString());
+            cache.resetStatistics();
+        }
+
         Map<SeriesType, List<ValidObservation>> newObsCategoryMap = starInfo.getRetriever()
                 .getValidObservationCategoryMap();
 
@@ -1346,11 +1382,8 @@ public class Mediator {
                 this.validObservationCategoryMap.clear();
             }
 
-            if (this.phasedValidObservationCategoryMap != null) {
-                // In case we did a phase plot, free this up.
-                this.phasedValidObservationCategoryMap.clear();
-                this.phasedValidObservationCategoryMap = null;
-            }
+            // In case we did a phase plot, free this up.
+            this.phaseEngine = null;
 
             // Throw away old artefacts from raw and phase plot,
             // if there was (at least) one.
@@ -1498,31 +1531,32 @@ public class Mediator {
             subTitle = periodAndEpochStr;
         }
 
-        // Here we modify the underlying ValidObservation objects which will
-        // affect both validObsList and validObservationCategoryMap. Some
-        // series are not in the main observation list, only in the map
-        // (e.g. model, residuals, filtered obs), so we handle those separately.
-        PhaseCalcs.setPhases(validObsList, epoch, period);
-        setPhasesForSeries(SeriesType.Model, epoch, period);
-        setPhasesForSeries(SeriesType.Residuals, epoch, period);
-        setPhasesForSeries(SeriesType.Filtered, epoch, period);
-
-        // We duplicate the valid observation category map
-        // so that it can vary from the main plot's over time.
-        // TODO: but is it ever mutated in the plot models? is it enough to
-        // duplicate and sort means?
-        Map<SeriesType, List<ValidObservation>> phasedValidObservationCategoryMap = new TreeMap<SeriesType, List<ValidObservation>>();
-
-        for (SeriesType series : validObservationCategoryMap.keySet()) {
-            List<ValidObservation> obs = validObservationCategoryMap.get(series);
-
-            List<ValidObservation> phasedObs = new ArrayList<ValidObservation>(obs);
-
-            Collections.sort(phasedObs, StandardPhaseComparator.instance);
+        // If there is a phase plot for the same observation series and series
+        // visibility, just update it for the new period and epoch.
+        AnalysisTypeChangeMessage lastPhasePlotMsg = analysisTypeMap.get(AnalysisType.PHASE_PLOT);
 
-            phasedValidObservationCategoryMap.put(series, phasedObs);
+        if (lastPhasePlotMsg != null && phaseEngine != null && phaseEngine.isCurrent(validObservationCategoryMap)
+                && lastPhasePlotMsg.getObsAndMeanChartPane() instanceof PhaseAndMeanPlotPane
+                && (seriesVisibilityMap == null || seriesVisibilityMap.equals(
+                        lastPhasePlotMsg.getObsAndMeanChartPane().getObsModel().getSeriesVisibilityMap()))) {
+            return updatePhasePlotArtefacts(lastPhasePlotMsg, period, epoch, subTitle);
         }
 
+        // Here we modify the underlying ValidObservation objects which will
+        // affect both validObsList and validObservationCategoryMap. All
+        // observations in the main observation list are also in the map, along
+        // with some that are only in the map (e.g. model, residuals, filtered
+        // obs).
+        //
+        // The phase engine duplicates the valid observation category map's
+        // series, sorted by phase, so that they can vary from the main plot's
+        // over time.
+        PhaseEngine engine = new PhaseEngine(validObservationCategoryMap);
+        engine.setPhases(epoch, period);
+        engine.sortSeries();
+
+        Map<SeriesType, List<ValidObservation>> phasedValidObservationCategoryMap = engine.getPhasedSeriesMap();
+
         // TODO:
         // o fix occurrences of obs doubling and just copy and sort
         // o indeed: is this needed now anyway? see plot model/pane code
@@ -1621,6 +1655,59 @@ public class Mediator {
 
         analysisTypeMap.put(AnalysisType.PHASE_PLOT, phasePlotMsg);
 
+        phaseEngine = engine;
+
+        analysisTypeChangeNotifier.notifyListeners(phasePlotMsg);
+
+        return phasePlotMsg;
+    }
+
+    /**
+     * Update the existing phase plot artefacts in place for a new period and
+     * epoch, rather than creating new ones. Phases are computed here; the
+     * observation series shared with the plot and table models are re-sorted
+     * and the models updated on the event dispatching thread.
+     * 
+     * @param phasePlotMsg The existing phase plot's analysis type message.
+     * @param period       The requested period of the phase plot.
+     * @param epoch        The epoch (first Julian Date) for the phase plot.
+     * @param subTitle     The phase plot's new sub-title.
+     * @return The existing phase plot's analysis type message.
+     */
+    private AnalysisTypeChangeMessage updatePhasePlotArtefacts(final AnalysisTypeChangeMessage phasePlotMsg,
+            final double period, final double epoch, final String subTitle) throws Exception {
+
+        phaseEngine.setPhases(epoch, period);
+
+        final PhaseAndMeanPlotPane obsAndMeanChartPane = (PhaseAndMeanPlotPane) phasePlotMsg.getObsAndMeanChartPane();
+
+        Runnable update = new Runnable() {
+            @Override
+            public void run() {
+                phaseEngine.sortSeries();
+
+                for (ObservationAndMeanPlotModel model : obsAndMeanChartPane.getObsModels()) {
+                    ((PhasedObservationAndMeanPlotModel) model).updatePhases();
+                }
+
+                obsAndMeanChartPane.setPhaseParameters(epoch, period, subTitle);
+
+                phasePlotMsg.getObsListPane().getValidDataModel().fireTableDataChanged();
+            }
+        };
+
+        if (SwingUtilities.isEventDispatchThread()) {
+            update.run();
+        } else {
+            SwingUtilities.invokeAndWait(update);
+        }
+
+        obsAndMeanPlotModel = obsAndMeanChartPane.getObsModel();
+
+        PhaseChangeMessage phaseChangeMessage = new PhaseChangeMessage(this, period, epoch,
+                obsAndMeanPlotModel.getSeriesVisibilityMap());
+        phaseChangeNotifier.notifyListeners(phaseChangeMessage);
+
         analysisTypeChangeNotifier.notifyListeners(phasePlotMsg);
 
         return phasePlotMsg;
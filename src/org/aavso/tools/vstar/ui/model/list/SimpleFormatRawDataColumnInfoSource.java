@@ -138,19 +138,16 @@ public class SimpleFormatRawDataColumnInfoSource implements
 
 		switch (index) {
 		case TIME_COLUMN:
-			value = NumericPrecisionPrefs.formatTime(ob.getDateInfo()
-					.getJulianDay());
+			value = NumericPrecisionPrefs.formatTime(ob.getJD());
 			break;
 		case CALENDAR_DATE_COLUMN:
 			value = ob.getDateInfo().getCalendarDate();
 			break;
 		case MAGNITUDE_COLUMN:
-			value = NumericPrecisionPrefs.formatMag(ob.getMagnitude()
-					.getMagValue());
+			value = NumericPrecisionPrefs.formatMag(ob.getMag());
 			break;
 		case UNCERTAINTY_COLUMN:
-			value = NumericPrecisionPrefs.formatMag(ob.getMagnitude()
-					.getUncertainty());
+			value = NumericPrecisionPrefs.formatMag(ob.getMagUncertainty());
 			break;
 		case OBSERVER_CODE_COLUMN:
 			value = ob.getObsCode();
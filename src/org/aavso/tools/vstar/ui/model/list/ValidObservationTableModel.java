@@ -17,9 +17,9 @@
  */
 package org.aavso.tools.vstar.ui.model.list;
 
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
 import java.util.logging.Level;
 
 import javax.swing.table.AbstractTableModel;
@@ -55,11 +55,11 @@ public class ValidObservationTableModel extends AbstractTableModel implements IO
 	private List<ValidObservation> validObservations;
 
 	/**
-	 * A weak reference hash map from observations to row indices. We only want this
-	 * map's entries to exist if they (ValidObservation instances in particular) are
-	 * in use elsewhere.
+	 * A map from observations to row indices. Observations are compared by
+	 * identity since their hash codes change with their phases, which are
+	 * updated in place when a phase plot's period or epoch changes.
 	 */
-	private WeakHashMap<ValidObservation, Integer> validObservationToRowIndexMap;
+	private IdentityHashMap<ValidObservation, Integer> validObservationToRowIndexMap;
 
 	private ObservationInserter obsInserter;
 
@@ -288,7 +288,7 @@ public class ValidObservationTableModel extends AbstractTableModel implements IO
 //		validObservations = obsInserter.getValidObservations();
 
 		// re-map *all* observations to row indices
-		validObservationToRowIndexMap = new WeakHashMap<ValidObservation, Integer>();
+		validObservationToRowIndexMap = new IdentityHashMap<ValidObservation, Integer>();
 		for (int i = 0; i < validObservations.size(); i++) {
 			validObservationToRowIndexMap.put(validObservations.get(i), i);
 		}
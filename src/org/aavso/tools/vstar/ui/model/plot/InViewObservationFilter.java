@@ -18,6 +18,7 @@
 package org.aavso.tools.vstar.ui.model.plot;
 
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.aavso.tools.vstar.data.SeriesType;
@@ -28,6 +29,7 @@ import org.aavso.tools.vstar.ui.mediator.AnalysisType;
 import org.aavso.tools.vstar.ui.mediator.Mediator;
 import org.aavso.tools.vstar.ui.mediator.message.FilteredObservationMessage;
 import org.aavso.tools.vstar.ui.pane.plot.ObservationAndMeanPlotPane;
+import org.aavso.tools.vstar.util.ObservationRangeQuery;
 import org.aavso.tools.vstar.util.prefs.NumericPrecisionPrefs;
 
 /**
@@ -144,20 +146,19 @@ public class InViewObservationFilter {
 		for (SeriesType series : model.getVisibleSeries()) {
 			seriesListStr += series.getShortName() + ", ";
 
-			for (ValidObservation ob : model.getObservations(series)) {
-				// Skip to the start of the time range and stop when we exceed
-				// the upper bound of the time range.
-				if (ob.getJD() < lowerTimeBound) {
-					continue;
-				} else if (ob.getJD() > upperTimeBound) {
-					break;
-				} else {
-					// Include observation in filtered subset if in the
-					// view's magnitude range.
-					if (ob.getMag() >= lowerMagBound
-							&& ob.getMag() <= upperMagBound) {
-						filteredObs.add(ob);
-					}
+			// Each series is sorted by JD, so go straight to the observations
+			// in the time range.
+			List<ValidObservation> obsInTimeRange = ObservationRangeQuery
+					.subList(model.getObservations(series),
+							ObservationRangeQuery.JD, lowerTimeBound,
+							upperTimeBound);
+
+			for (ValidObservation ob : obsInTimeRange) {
+				// Include observation in filtered subset if in the view's
+				// magnitude range.
+				if (ob.getMag() >= lowerMagBound
+						&& ob.getMag() <= upperMagBound) {
+					filteredObs.add(ob);
 				}
 			}
 		}
@@ -56,8 +56,7 @@ public class JDCoordSource implements ICoordSource {
 	public double getXCoord(int series, int item,
 			Map<Integer, List<ValidObservation>> seriesNumToObSrcListMap) {
 		
-		return seriesNumToObSrcListMap.get(series).get(item).getDateInfo()
-				.getJulianDay();
+		return seriesNumToObSrcListMap.get(series).get(item).getJD();
 	}
 
 	/**
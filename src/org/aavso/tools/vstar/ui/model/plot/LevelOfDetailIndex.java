@@ -0,0 +1,405 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.ui.model.plot;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jfree.data.xy.IntervalXYDataset;
+
+/**
+ * <p>
+ * A level-of-detail index over the series of a plot dataset, used to decide
+ * which items of a series are worth drawing for a given view.
+ * </p>
+ *
+ * <p>
+ * The coordinates of each series are captured in primitive arrays the first
+ * time the series is drawn. For a view containing many more items than pixel
+ * columns, only items that can be seen are selected: the items with the
+ * lowest and highest values and error bar ends in each pixel column, which
+ * preserve the envelope of the series, plus the first item to fall in each
+ * cell of a grid whose cells are the size of a plotted point. Other items would
+ * be drawn over by those selected. Once the view is narrow enough, all items
+ * are drawn.
+ * </p>
+ *
+ * <p>
+ * Selected items keep their indices in the dataset. The same coordinates are
+ * used to find the item nearest to a point, e.g. for selection and tooltips,
+ * and the item at a given position; for a series sorted by domain value, such
+ * as JD or phase, these are binary searches rather than a walk over all items.
+ * </p>
+ */
+public class LevelOfDetailIndex {
+
+	/**
+	 * The number of items per pixel column in view up to which all items are
+	 * drawn.
+	 */
+	public final static int MAX_ITEMS_PER_COLUMN = 2;
+
+	private IntervalXYDataset dataset;
+
+	private Map<Integer, SeriesCoords> seriesCoordsMap;
+
+	/**
+	 * Constructor
+	 *
+	 * @param dataset
+	 *            The dataset to be indexed.
+	 */
+	public LevelOfDetailIndex(IntervalXYDataset dataset) {
+		this.dataset = dataset;
+		seriesCoordsMap = new HashMap<Integer, SeriesCoords>();
+	}
+
+	/**
+	 * Discard the captured coordinates of all series, e.g. because the dataset
+	 * has changed.
+	 */
+	public void invalidate() {
+		seriesCoordsMap.clear();
+	}
+
+	/**
+	 * Select the items of a series to be drawn for a view.
+	 *
+	 * @param series
+	 *            The series number.
+	 * @param source
+	 *            The object from which the series' items come, e.g. a list of
+	 *            observations; if this differs from the last call for the same
+	 *            series, the series' coordinates are captured again.
+	 * @param xLower
+	 *            The lower bound of the view's domain.
+	 * @param xUpper
+	 *            The upper bound of the view's domain.
+	 * @param yLower
+	 *            The lower bound of the view's range.
+	 * @param yUpper
+	 *            The upper bound of the view's range.
+	 * @param width
+	 *            The width of the view in pixels.
+	 * @param height
+	 *            The height of the view in pixels.
+	 * @param cellSize
+	 *            The size of a plotted point in pixels.
+	 * @return The items to be drawn, or null if all items should be drawn.
+	 */
+	public BitSet selectItems(int series, Object source, double xLower,
+			double xUpper, double yLower, double yUpper, int width,
+			int height, int cellSize) {
+
+		if (width <= 0 || height <= 0 || !(xUpper > xLower)
+				|| !(yUpper > yLower)) {
+			return null;
+		}
+
+		SeriesCoords coords = getSeriesCoords(series, source);
+
+		int first = 0;
+		int last = coords.count;
+
+		if (coords.sorted) {
+			first = coords.lowerBound(xLower);
+			last = coords.upperBound(xUpper);
+		}
+
+		if (last - first <= width * MAX_ITEMS_PER_COLUMN) {
+			return null;
+		}
+
+		cellSize = Math.max(cellSize, 1);
+
+		double xScale = width / (xUpper - xLower);
+		double yScale = height / (yUpper - yLower);
+
+		int gridWidth = (width + cellSize - 1) / cellSize;
+		int gridHeight = (height + cellSize - 1) / cellSize;
+		BitSet occupiedCells = new BitSet(gridWidth * gridHeight);
+
+		int[] minYItems = newItemArray(width);
+		int[] maxYItems = newItemArray(width);
+		int[] minStartYItems = newItemArray(width);
+		int[] maxEndYItems = newItemArray(width);
+
+		BitSet selectedItems = new BitSet(coords.count);
+
+		for (int item = first; item < last; item++) {
+			double x = coords.x[item];
+
+			if (x < xLower || x > xUpper) {
+				// Only possible for an unsorted series.
+				continue;
+			}
+
+			int column = Math.min((int) ((x - xLower) * xScale), width - 1);
+
+			double y = coords.y[item];
+
+			if (minYItems[column] == -1 || y < coords.y[minYItems[column]]) {
+				minYItems[column] = item;
+			}
+
+			if (maxYItems[column] == -1 || y > coords.y[maxYItems[column]]) {
+				maxYItems[column] = item;
+			}
+
+			if (minStartYItems[column] == -1
+					|| coords.startY[item] < coords.startY[minStartYItems[column]]) {
+				minStartYItems[column] = item;
+			}
+
+			if (maxEndYItems[column] == -1
+					|| coords.endY[item] > coords.endY[maxEndYItems[column]]) {
+				maxEndYItems[column] = item;
+			}
+
+			if (y >= yLower && y <= yUpper) {
+				int row = Math.min((int) ((y - yLower) * yScale), height - 1);
+				int cell = (row / cellSize) * gridWidth + column / cellSize;
+
+				if (!occupiedCells.get(cell)) {
+					occupiedCells.set(cell);
+					selectedItems.set(item);
+				}
+			}
+		}
+
+		for (int column = 0; column < width; column++) {
+			if (minYItems[column] != -1) {
+				selectedItems.set(minYItems[column]);
+				selectedItems.set(maxYItems[column]);
+				selectedItems.set(minStartYItems[column]);
+				selectedItems.set(maxEndYItems[column]);
+			}
+		}
+
+		return selectedItems;
+	}
+
+	/**
+	 * Find the item of a series nearest to a point.
+	 *
+	 * @param series
+	 *            The series number.
+	 * @param source
+	 *            The object from which the series' items come; see
+	 *            selectItems().
+	 * @param x
+	 *            The domain value of the point.
+	 * @param y
+	 *            The range value of the point.
+	 * @param xScale
+	 *            The number of pixels per unit of domain.
+	 * @param yScale
+	 *            The number of pixels per unit of range.
+	 * @param maxDistance
+	 *            The maximum distance in pixels of an item from the point.
+	 * @return The nearest item, or -1 if there is no item within the maximum
+	 *         distance.
+	 */
+	public int findNearestItem(int series, Object source, double x, double y,
+			double xScale, double yScale, double maxDistance) {
+
+		SeriesCoords coords = getSeriesCoords(series, source);
+
+		int nearestItem = -1;
+		double nearestDistance = maxDistance;
+
+		if (coords.sorted) {
+			// Search outwards from the point's domain value, stopping in each
+			// direction once the domain distance alone is too great.
+			int start = coords.lowerBound(x);
+
+			for (int item = start; item < coords.count; item++) {
+				double dx = (coords.x[item] - x) * xScale;
+				if (dx > nearestDistance) {
+					break;
+				}
+
+				double distance = Math.hypot(dx, (coords.y[item] - y) * yScale);
+				if (isNearer(distance, nearestDistance, nearestItem)) {
+					nearestItem = item;
+					nearestDistance = distance;
+				}
+			}
+
+			for (int item = start - 1; item >= 0; item--) {
+				double dx = (x - coords.x[item]) * xScale;
+				if (dx > nearestDistance) {
+					break;
+				}
+
+				double distance = Math.hypot(dx, (coords.y[item] - y) * yScale);
+				if (isNearer(distance, nearestDistance, nearestItem)) {
+					nearestItem = item;
+					nearestDistance = distance;
+				}
+			}
+		} else {
+			for (int item = 0; item < coords.count; item++) {
+				double distance = Math.hypot((coords.x[item] - x) * xScale,
+						(coords.y[item] - y) * yScale);
+				if (isNearer(distance, nearestDistance, nearestItem)) {
+					nearestItem = item;
+					nearestDistance = distance;
+				}
+			}
+		}
+
+		return nearestItem;
+	}
+
+	/**
+	 * Find the item of a series with the specified domain and range values.
+	 *
+	 * @param series
+	 *            The series number.
+	 * @param source
+	 *            The object from which the series' items come; see
+	 *            selectItems().
+	 * @param x
+	 *            The domain value, e.g. JD or phase.
+	 * @param y
+	 *            The range value, e.g. magnitude.
+	 * @return The first such item, or -1 if there is none.
+	 */
+	public int findItem(int series, Object source, double x, double y) {
+		SeriesCoords coords = getSeriesCoords(series, source);
+
+		int first = 0;
+		int last = coords.count;
+
+		if (coords.sorted) {
+			first = coords.lowerBound(x);
+			last = coords.upperBound(x);
+		}
+
+		for (int item = first; item < last; item++) {
+			if (coords.x[item] == x && coords.y[item] == y) {
+				return item;
+			}
+		}
+
+		return -1;
+	}
+
+	// Helpers
+
+	private boolean isNearer(double distance, double nearestDistance,
+			int nearestItem) {
+		return distance < nearestDistance
+				|| (nearestItem == -1 && distance <= nearestDistance);
+	}
+
+	private SeriesCoords getSeriesCoords(int series, Object source) {
+		SeriesCoords coords = seriesCoordsMap.get(series);
+
+		int count = dataset.getItemCount(series);
+
+		if (coords == null || coords.source != source || coords.count != count) {
+			coords = new SeriesCoords(dataset, series, source, count);
+			seriesCoordsMap.put(series, coords);
+		}
+
+		return coords;
+	}
+
+	private int[] newItemArray(int size) {
+		int[] items = new int[size];
+		Arrays.fill(items, -1);
+		return items;
+	}
+
+	// The coordinates of a series' items.
+	private static class SeriesCoords {
+		Object source;
+		int count;
+
+		double[] x;
+		double[] y;
+		double[] startY;
+		double[] endY;
+
+		boolean sorted;
+
+		SeriesCoords(IntervalXYDataset dataset, int series, Object source,
+				int count) {
+			this.source = source;
+			this.count = count;
+
+			x = new double[count];
+			y = new double[count];
+			startY = new double[count];
+			endY = new double[count];
+
+			sorted = true;
+
+			for (int item = 0; item < count; item++) {
+				x[item] = dataset.getXValue(series, item);
+				y[item] = dataset.getYValue(series, item);
+				startY[item] = dataset.getStartYValue(series, item);
+				endY[item] = dataset.getEndYValue(series, item);
+
+				// NaN values, e.g. missing phases, defeat a binary search.
+				if (Double.isNaN(x[item])
+						|| (item > 0 && x[item - 1] > x[item])) {
+					sorted = false;
+				}
+			}
+		}
+
+		// The index of the first item whose x value is not less than value.
+		int lowerBound(double value) {
+			int low = 0;
+			int high = count;
+
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (x[mid] < value) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+
+			return low;
+		}
+
+		// The index of the first item whose x value is greater than value.
+		int upperBound(double value) {
+			int low = 0;
+			int high = count;
+
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (x[mid] <= value) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+
+			return low;
+		}
+	}
+}
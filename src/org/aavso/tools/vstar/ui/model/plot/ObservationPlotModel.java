@@ -18,6 +18,7 @@
 package org.aavso.tools.vstar.ui.model.plot;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -124,6 +125,12 @@ abstract public class ObservationPlotModel extends AbstractIntervalXYDataset
 	protected int residualsSeriesNum = NO_SERIES;
 	protected int filterSeriesNum = NO_SERIES;
 
+	/**
+	 * Level-of-detail index used to decide which items to draw and to find
+	 * items by position.
+	 */
+	private LevelOfDetailIndex levelOfDetailIndex;
+
 	/**
 	 * Common constructor.
 	 * 
@@ -141,6 +148,7 @@ abstract public class ObservationPlotModel extends AbstractIntervalXYDataset
 		this.atLeastOneVisualBandPresent = false;
 		this.seriesToBeJoinedVisually = new HashSet<Integer>();
 		this.lastSinglySelectedSeries = null;
+		this.levelOfDetailIndex = new LevelOfDetailIndex(this);
 
 		Mediator.getInstance().getSeriesCreationNotifier()
 				.addListener(createSeriesCreationListener());
@@ -557,6 +565,111 @@ abstract public class ObservationPlotModel extends AbstractIntervalXYDataset
 		return seriesToBeJoinedVisually;
 	}
 
+	/**
+	 * Select the items of a series worth drawing in a view of the specified
+	 * domain and range bounds and size in pixels. Items of series whose
+	 * elements are joined visually are always drawn.
+	 * 
+	 * @param series
+	 *            The series number.
+	 * @param xLower
+	 *            The lower bound of the view's domain.
+	 * @param xUpper
+	 *            The upper bound of the view's domain.
+	 * @param yLower
+	 *            The lower bound of the view's range.
+	 * @param yUpper
+	 *            The upper bound of the view's range.
+	 * @param width
+	 *            The width of the view in pixels.
+	 * @param height
+	 *            The height of the view in pixels.
+	 * @param pointSize
+	 *            The size of a plotted point in pixels.
+	 * @return The items to be drawn, or null if all items should be drawn.
+	 * @see LevelOfDetailIndex
+	 */
+	public BitSet selectItemsToDraw(int series, double xLower, double xUpper,
+			double yLower, double yUpper, int width, int height, int pointSize) {
+		BitSet items = null;
+
+		List<ValidObservation> obs = seriesNumToObSrcListMap.get(series);
+
+		if (obs != null && !seriesToBeJoinedVisually.contains(series)) {
+			items = levelOfDetailIndex.selectItems(series, obs, xLower, xUpper,
+					yLower, yUpper, width, height, pointSize);
+		}
+
+		return items;
+	}
+
+	/**
+	 * Find the item of a series nearest to a point, e.g. one clicked on.
+	 * 
+	 * @param series
+	 *            The series number.
+	 * @param x
+	 *            The domain value of the point.
+	 * @param y
+	 *            The range value of the point.
+	 * @param xScale
+	 *            The number of pixels per unit of domain.
+	 * @param yScale
+	 *            The number of pixels per unit of range.
+	 * @param maxDistance
+	 *            The maximum distance in pixels of an item from the point.
+	 * @return The nearest item, or -1 if there is no item within the maximum
+	 *         distance.
+	 * @see LevelOfDetailIndex
+	 */
+	public int findNearestItem(int series, double x, double y, double xScale,
+			double yScale, double maxDistance) {
+		int item = -1;
+
+		List<ValidObservation> obs = seriesNumToObSrcListMap.get(series);
+
+		if (obs != null) {
+			item = levelOfDetailIndex.findNearestItem(series, obs, x, y,
+					xScale, yScale, maxDistance);
+		}
+
+		return item;
+	}
+
+	/**
+	 * Find the item of a series with the specified domain and range values,
+	 * e.g. the item corresponding to an observation.
+	 * 
+	 * @param series
+	 *            The series number.
+	 * @param x
+	 *            The domain value, e.g. JD or phase.
+	 * @param y
+	 *            The range value, e.g. magnitude.
+	 * @return The first such item, or -1 if there is none.
+	 * @see LevelOfDetailIndex
+	 */
+	public int findItem(int series, double x, double y) {
+		int item = -1;
+
+		List<ValidObservation> obs = seriesNumToObSrcListMap.get(series);
+
+		if (obs != null) {
+			item = levelOfDetailIndex.findItem(series, obs, x, y);
+		}
+
+		return item;
+	}
+
+	/**
+	 * @see org.jfree.data.general.AbstractDataset#fireDatasetChanged()
+	 */
+	@Override
+	protected void fireDatasetChanged() {
+		levelOfDetailIndex.invalidate();
+		super.fireDatasetChanged();
+	}
+
 	// AbstractIntervalXYDataSet methods.
 	// To be used for error bar handling.
 
@@ -598,8 +711,7 @@ abstract public class ObservationPlotModel extends AbstractIntervalXYDataset
 	 * @return The magnitude value.
 	 */
 	public double getMagAsYCoord(int series, int item) {
-		return this.seriesNumToObSrcListMap.get(series).get(item)
-				.getMagnitude().getMagValue();
+		return this.seriesNumToObSrcListMap.get(series).get(item).getMag();
 	}
 
 	/**
@@ -628,7 +740,7 @@ abstract public class ObservationPlotModel extends AbstractIntervalXYDataset
 			error = hqUncertainty;
 		} else {
 			error = this.seriesNumToObSrcListMap.get(series).get(item)
-					.getMagnitude().getUncertainty();
+					.getMagUncertainty();
 		}
 
 		return error;
@@ -72,6 +72,28 @@ public class PhasedObservationAndMeanPlotModel extends
 		this.modelFunctionSeriesNum = modelFunctionSeriesNum;
 	}
 
+	/**
+	 * Update this model in place after the phases of its observations have
+	 * been changed, e.g. due to a new period or epoch: each observation series
+	 * is re-sorted if necessary, then the means series is recomputed and the
+	 * view updated.
+	 *
+	 * Must be called from the event dispatching thread.
+	 */
+	public void updatePhases() {
+		for (Map.Entry<Integer, List<ValidObservation>> entry : seriesNumToObSrcListMap
+				.entrySet()) {
+			// The sort is linear for an already sorted series, e.g. one
+			// shared with another model and sorted by it.
+			if (seriesNumToSrcTypeMap.get(entry.getKey()) != SeriesType.MEANS) {
+				entry.getValue().sort(obComparator);
+			}
+		}
+
+		setMeanSeries(false);
+		fireDatasetChanged();
+	}
+
 	/**
 	 * @see org.aavso.tools.vstar.ui.model.plot.ObservationPlotModel#createModelSelectionListener()
 	 */
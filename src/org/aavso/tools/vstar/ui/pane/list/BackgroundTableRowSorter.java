@@ -0,0 +1,839 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.ui.pane.list;
+
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntToDoubleFunction;
+import java.util.logging.Level;
+import java.util.stream.IntStream;
+
+import javax.swing.RowFilter;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.SwingWorker;
+import javax.swing.table.TableModel;
+
+import org.aavso.tools.vstar.ui.VStar;
+
+/**
+ * <p>
+ * A table row sorter that sorts and filters rows off the event dispatch
+ * thread, for tables with many rows.
+ * </p>
+ *
+ * <p>
+ * Rows are sorted by a single column. A column of numbers, or one for which a
+ * key function has been set, is sorted by primitive double keys, e.g. numbers
+ * formatted as strings by the model can be sorted by the numbers themselves. A
+ * column of strings is sorted by collation key and any other column by its
+ * comparator or natural order. Rows with equal keys remain in model order. The
+ * ascending order of a column's rows is cached until the model's data changes,
+ * so reversing the sort order or changing the row filter does not sort again.
+ * </p>
+ *
+ * <p>
+ * A row filter that implements IConcurrentRowFilter is evaluated over batches
+ * of rows in parallel; any other row filter is evaluated sequentially.
+ * </p>
+ *
+ * <p>
+ * The model's values are only read on the event dispatch thread, since models
+ * and the formatting of their values are not in general thread-safe. So a
+ * column is read there before being sorted in the background, unless it has a
+ * key function, and a row filter that does not implement IConcurrentRowFilter
+ * is evaluated there. Key functions, comparators and concurrent row filters
+ * may be called on other threads.
+ * </p>
+ *
+ * <p>
+ * The resulting view is swapped in on the event dispatch thread in a single
+ * step, superseding any view requested earlier; until then, the previous view
+ * remains. If rows are inserted or deleted, the previous view's remaining rows
+ * are shown until the new view is ready, so the view never refers to rows that
+ * no longer exist, nor shows rows that the row filter may exclude. Tables with
+ * fewer than a minimum number of rows are sorted and filtered synchronously,
+ * as by TableRowSorter. A view being computed in the background can also be
+ * completed synchronously (see flush()).
+ * </p>
+ */
+public class BackgroundTableRowSorter<M extends TableModel> extends
+		RowSorter<M> {
+
+	/**
+	 * The number of model rows from which rows are sorted and filtered in the
+	 * background.
+	 */
+	public final static int MIN_BACKGROUND_ROW_COUNT = 20000;
+
+	private final static int FILTER_BATCH_SIZE = 4096;
+
+	private M model;
+
+	private int minBackgroundRowCount;
+
+	private List<SortKey> sortKeys;
+	private RowFilter<? super M, ? super Integer> rowFilter;
+	private Map<Integer, IntToDoubleFunction> keyFunctions;
+	private Map<Integer, Comparator<?>> comparators;
+
+	// The ascending order of rows by column.
+	private Map<Integer, ColumnOrder> columnOrders;
+
+	private View view;
+
+	// Incremented by each request for a new view, so that the result of a
+	// superseded request can be discarded.
+	private int generation;
+
+	private boolean updating;
+
+	/**
+	 * Constructor
+	 *
+	 * @param model
+	 *            The table model whose rows are to be sorted and filtered.
+	 */
+	public BackgroundTableRowSorter(M model) {
+		this(model, MIN_BACKGROUND_ROW_COUNT);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param model
+	 *            The table model whose rows are to be sorted and filtered.
+	 * @param minBackgroundRowCount
+	 *            The number of model rows from which rows are sorted and
+	 *            filtered in the background.
+	 */
+	public BackgroundTableRowSorter(M model, int minBackgroundRowCount) {
+		this.model = model;
+		this.minBackgroundRowCount = minBackgroundRowCount;
+
+		sortKeys = Collections.emptyList();
+		rowFilter = null;
+		keyFunctions = new HashMap<Integer, IntToDoubleFunction>();
+		comparators = new HashMap<Integer, Comparator<?>>();
+		columnOrders = new HashMap<Integer, ColumnOrder>();
+
+		view = new View(null, null, model.getRowCount());
+		generation = 0;
+		updating = false;
+	}
+
+	/**
+	 * Set a function from model rows to the keys by which a column is sorted.
+	 * The function may be called on a thread other than the event dispatch
+	 * thread.
+	 *
+	 * @param column
+	 *            The column.
+	 * @param keyFunction
+	 *            The key function, or null to sort the column's values
+	 *            themselves.
+	 */
+	public void setKeyFunction(int column, IntToDoubleFunction keyFunction) {
+		checkColumn(column);
+		keyFunctions.put(column, keyFunction);
+		columnChanged(column);
+	}
+
+	/**
+	 * Set the comparator by which a column without a key function is sorted.
+	 * The comparator may be called on a thread other than the event dispatch
+	 * thread.
+	 *
+	 * @param column
+	 *            The column.
+	 * @param comparator
+	 *            The comparator, or null to use the default ordering.
+	 */
+	public void setComparator(int column, Comparator<?> comparator) {
+		checkColumn(column);
+		comparators.put(column, comparator);
+		columnChanged(column);
+	}
+
+	/**
+	 * @return The row filter; may be null.
+	 */
+	public RowFilter<? super M, ? super Integer> getRowFilter() {
+		return rowFilter;
+	}
+
+	/**
+	 * Set the row filter.
+	 *
+	 * @param rowFilter
+	 *            The row filter, or null to include all rows.
+	 */
+	public void setRowFilter(RowFilter<? super M, ? super Integer> rowFilter) {
+		this.rowFilter = rowFilter;
+		update();
+	}
+
+	/**
+	 * @return Whether a view is being computed in the background.
+	 */
+	public boolean isUpdating() {
+		return updating;
+	}
+
+	/**
+	 * If a view is being computed in the background, compute it now instead,
+	 * so that the view reflects the current model, sort keys and row filter,
+	 * e.g. before the rows in view are read by a caller other than the table.
+	 * This must be called on the event dispatch thread.
+	 */
+	public void flush() {
+		if (updating) {
+			// Supersede the background request.
+			generation++;
+			updating = false;
+			install(new Request().compute());
+		}
+	}
+
+	// RowSorter methods.
+
+	@Override
+	public M getModel() {
+		return model;
+	}
+
+	@Override
+	public void toggleSortOrder(int column) {
+		checkColumn(column);
+
+		SortOrder order = SortOrder.ASCENDING;
+
+		if (!sortKeys.isEmpty() && sortKeys.get(0).getColumn() == column
+				&& sortKeys.get(0).getSortOrder() == SortOrder.ASCENDING) {
+			order = SortOrder.DESCENDING;
+		}
+
+		setSortKeys(Collections.singletonList(new SortKey(column, order)));
+	}
+
+	/**
+	 * Only the primary sort key is used.
+	 *
+	 * @see javax.swing.RowSorter#setSortKeys(java.util.List)
+	 */
+	@Override
+	public void setSortKeys(List<? extends SortKey> keys) {
+		List<SortKey> newKeys = Collections.emptyList();
+
+		if (keys != null && !keys.isEmpty()) {
+			SortKey key = keys.get(0);
+			if (key == null || key.getColumn() < 0
+					|| key.getColumn() >= model.getColumnCount()) {
+				throw new IllegalArgumentException("Invalid SortKey");
+			}
+			newKeys = Collections.singletonList(key);
+		}
+
+		if (!newKeys.equals(sortKeys)) {
+			sortKeys = newKeys;
+			fireSortOrderChanged();
+			update();
+		}
+	}
+
+	@Override
+	public List<? extends SortKey> getSortKeys() {
+		return sortKeys;
+	}
+
+	@Override
+	public int convertRowIndexToModel(int index) {
+		if (index < 0 || index >= view.getRowCount()) {
+			throw new IndexOutOfBoundsException("Invalid index");
+		}
+
+		return view.viewToModel == null ? index : view.viewToModel[index];
+	}
+
+	@Override
+	public int convertRowIndexToView(int index) {
+		if (index < 0 || index >= view.modelRowCount) {
+			throw new IndexOutOfBoundsException("Invalid index");
+		}
+
+		return view.modelToView == null ? index : view.modelToView[index];
+	}
+
+	@Override
+	public int getViewRowCount() {
+		return view.getRowCount();
+	}
+
+	@Override
+	public int getModelRowCount() {
+		return model.getRowCount();
+	}
+
+	@Override
+	public void modelStructureChanged() {
+		columnOrders.clear();
+
+		if (!sortKeys.isEmpty()) {
+			sortKeys = Collections.emptyList();
+			fireSortOrderChanged();
+		}
+
+		modelChanged();
+	}
+
+	@Override
+	public void allRowsChanged() {
+		columnOrders.clear();
+		modelChanged();
+	}
+
+	@Override
+	public void rowsInserted(int firstRow, int endRow) {
+		columnOrders.clear();
+		modelChanged(firstRow, endRow - firstRow + 1);
+	}
+
+	@Override
+	public void rowsDeleted(int firstRow, int endRow) {
+		columnOrders.clear();
+		modelChanged(firstRow, -(endRow - firstRow + 1));
+	}
+
+	@Override
+	public void rowsUpdated(int firstRow, int endRow) {
+		columnOrders.clear();
+		modelChanged();
+	}
+
+	@Override
+	public void rowsUpdated(int firstRow, int endRow, int column) {
+		columnOrders.remove(column);
+		modelChanged();
+	}
+
+	// Helpers
+
+	private void checkColumn(int column) {
+		if (column < 0 || column >= model.getColumnCount()) {
+			throw new IndexOutOfBoundsException("column beyond range of TableModel");
+		}
+	}
+
+	private void columnChanged(int column) {
+		columnOrders.remove(column);
+
+		if (!sortKeys.isEmpty() && sortKeys.get(0).getColumn() == column) {
+			update();
+		}
+	}
+
+	private void modelChanged() {
+		modelChanged(0, 0);
+	}
+
+	// The model has changed, with count rows inserted (if positive) or
+	// deleted (if negative) from firstRow.
+	private void modelChanged(int firstRow, int count) {
+		int rowCount = model.getRowCount();
+
+		if (rowCount != view.modelRowCount) {
+			// Until the new view is ready, show the rows of the previous view
+			// that remain, or no rows if it is not known which remain.
+			if (count != 0 && view.modelRowCount + count == rowCount) {
+				setView(view.rebase(firstRow, count));
+			} else {
+				setView(View.empty(rowCount));
+			}
+		}
+
+		update();
+	}
+
+	// Request a new view, computing it in the background if there are enough
+	// rows.
+	private void update() {
+		final int requestGeneration = ++generation;
+		final Request request = new Request();
+
+		if (request.rowCount < minBackgroundRowCount) {
+			updating = false;
+			install(request.compute());
+		} else {
+			updating = true;
+
+			new SwingWorker<Result, Void>() {
+				@Override
+				protected Result doInBackground() {
+					return request.compute();
+				}
+
+				@Override
+				protected void done() {
+					if (requestGeneration == generation) {
+						updating = false;
+
+						try {
+							install(get());
+						} catch (InterruptedException e) {
+							// Nothing to do.
+						} catch (ExecutionException e) {
+							VStar.LOGGER.log(Level.WARNING,
+									"Table sort error", e.getCause());
+						}
+					}
+				}
+			}.execute();
+		}
+	}
+
+	private void install(Result result) {
+		if (result.columnOrder != null) {
+			columnOrders.put(result.column, result.columnOrder);
+		}
+
+		setView(result.view);
+	}
+
+	private void setView(View newView) {
+		int[] lastViewToModel = view.getViewToModel();
+		view = newView;
+		fireRowSorterChanged(lastViewToModel);
+	}
+
+	// Sort rows[from..to) by the specified row comparison, stably.
+	private static void mergeSort(int[] rows, int[] temp, int from, int to,
+			IntBinaryOperator comparison) {
+
+		if (to - from < 16) {
+			// Insertion sort.
+			for (int i = from + 1; i < to; i++) {
+				int row = rows[i];
+				int j = i;
+				while (j > from && comparison.applyAsInt(rows[j - 1], row) > 0) {
+					rows[j] = rows[j - 1];
+					j--;
+				}
+				rows[j] = row;
+			}
+		} else {
+			int mid = (from + to) >>> 1;
+
+			mergeSort(rows, temp, from, mid, comparison);
+			mergeSort(rows, temp, mid, to, comparison);
+
+			if (comparison.applyAsInt(rows[mid - 1], rows[mid]) > 0) {
+				System.arraycopy(rows, from, temp, from, to - from);
+
+				int i = from;
+				int j = mid;
+
+				for (int k = from; k < to; k++) {
+					if (j >= to
+							|| (i < mid && comparison.applyAsInt(temp[i],
+									temp[j]) <= 0)) {
+						rows[k] = temp[i++];
+					} else {
+						rows[k] = temp[j++];
+					}
+				}
+			}
+		}
+	}
+
+	// A request for a view, capturing the sorter's state at the time of the
+	// request, so that the view can be computed on another thread.
+	private class Request {
+		int rowCount;
+
+		// The sort column, or -1 if rows are not sorted.
+		int column;
+		SortOrder sortOrder;
+
+		// A concurrent row filter, evaluated by compute().
+		RowFilter<? super M, ? super Integer> filter;
+
+		// The rows included by a row filter evaluated by the constructor.
+		boolean[] included;
+
+		Class<?> columnClass;
+		IntToDoubleFunction keyFunction;
+		Comparator<?> comparator;
+		ColumnOrder columnOrder;
+
+		// The sort column's values, read by the constructor if the column
+		// must be sorted without a key function; strings to be collated are
+		// converted by the constructor too.
+		Object[] values;
+		boolean collated;
+
+		// Called on the event dispatch thread.
+		Request() {
+			rowCount = model.getRowCount();
+
+			column = -1;
+
+			if (!sortKeys.isEmpty()
+					&& sortKeys.get(0).getSortOrder() != SortOrder.UNSORTED) {
+				column = sortKeys.get(0).getColumn();
+				sortOrder = sortKeys.get(0).getSortOrder();
+				columnClass = model.getColumnClass(column);
+				keyFunction = keyFunctions.get(column);
+				comparator = comparators.get(column);
+				columnOrder = columnOrders.get(column);
+
+				if (!isColumnOrdered() && keyFunction == null) {
+					readColumn();
+				}
+			}
+
+			if (rowFilter instanceof IConcurrentRowFilter) {
+				filter = rowFilter;
+			} else if (rowFilter != null) {
+				included = new boolean[rowCount];
+				filterRows(rowFilter, 0, rowCount, included);
+			}
+		}
+
+		// May be called on any thread.
+		Result compute() {
+			int[] order = null;
+			ColumnOrder newColumnOrder = null;
+
+			if (column != -1) {
+				if (!isColumnOrdered()) {
+					newColumnOrder = sortColumn();
+					order = newColumnOrder.getOrder(sortOrder);
+				} else {
+					order = columnOrder.getOrder(sortOrder);
+				}
+			}
+
+			if (filter != null) {
+				included = filterRows();
+			}
+
+			return new Result(column, newColumnOrder, createView(order,
+					included));
+		}
+
+		private boolean isColumnOrdered() {
+			return columnOrder != null && columnOrder.size() == rowCount;
+		}
+
+		private void readColumn() {
+			collated = comparator == null
+					&& !Number.class.isAssignableFrom(columnClass)
+					&& (columnClass == String.class || !Comparable.class
+							.isAssignableFrom(columnClass));
+
+			values = new Object[rowCount];
+
+			for (int row = 0; row < rowCount; row++) {
+				Object value = model.getValueAt(row, column);
+				values[row] = collated && value != null ? value.toString()
+						: value;
+			}
+		}
+
+		private ColumnOrder sortColumn() {
+			IntBinaryOperator comparison = createComparison();
+
+			int[] rows = new int[rowCount];
+			for (int row = 0; row < rowCount; row++) {
+				rows[row] = row;
+			}
+
+			mergeSort(rows, new int[rowCount], 0, rowCount, comparison);
+
+			BitSet groupStarts = new BitSet(rowCount);
+			for (int i = 0; i < rowCount; i++) {
+				if (i == 0 || comparison.applyAsInt(rows[i - 1], rows[i]) != 0) {
+					groupStarts.set(i);
+				}
+			}
+
+			return new ColumnOrder(rows, groupStarts);
+		}
+
+		// Extract the sort column's keys and return a comparison of rows by
+		// key.
+		@SuppressWarnings("unchecked")
+		private IntBinaryOperator createComparison() {
+			IntToDoubleFunction doubleKey = keyFunction;
+
+			if (doubleKey == null && comparator == null
+					&& Number.class.isAssignableFrom(columnClass)) {
+				doubleKey = row -> {
+					Number value = (Number) values[row];
+					return value != null ? value.doubleValue() : Double.NaN;
+				};
+			}
+
+			if (doubleKey != null) {
+				double[] keys = new double[rowCount];
+
+				for (int row = 0; row < rowCount; row++) {
+					keys[row] = doubleKey.applyAsDouble(row);
+				}
+
+				return (row1, row2) -> Double.compare(keys[row1], keys[row2]);
+			} else {
+				Object[] keys;
+				Comparator<Object> keyComparator;
+
+				if (comparator != null) {
+					keyComparator = (Comparator<Object>) comparator;
+					keys = values;
+				} else if (!collated) {
+					keyComparator = (key1, key2) -> ((Comparable<Object>) key1)
+							.compareTo(key2);
+					keys = values;
+				} else {
+					// This collator is confined to the current thread.
+					Collator collator = Collator.getInstance();
+					keyComparator = (key1, key2) -> ((Comparable<Object>) key1)
+							.compareTo(key2);
+					keys = new Object[rowCount];
+					for (int row = 0; row < rowCount; row++) {
+						String value = (String) values[row];
+						keys[row] = value != null ? collator
+								.getCollationKey(value) : null;
+					}
+				}
+
+				// Null values come first.
+				return (row1, row2) -> {
+					Object key1 = keys[row1];
+					Object key2 = keys[row2];
+					if (key1 == null) {
+						return key2 == null ? 0 : -1;
+					} else if (key2 == null) {
+						return 1;
+					} else {
+						return keyComparator.compare(key1, key2);
+					}
+				};
+			}
+		}
+
+		// Evaluate the concurrent row filter over batches of rows in
+		// parallel.
+		private boolean[] filterRows() {
+			boolean[] included = new boolean[rowCount];
+
+			int batchCount = (rowCount + FILTER_BATCH_SIZE - 1)
+					/ FILTER_BATCH_SIZE;
+
+			IntStream.range(0, batchCount).parallel().forEach(
+					batch -> filterRows(filter, batch * FILTER_BATCH_SIZE, Math
+							.min(rowCount, (batch + 1) * FILTER_BATCH_SIZE),
+							included));
+
+			return included;
+		}
+
+		private void filterRows(RowFilter<? super M, ? super Integer> filter,
+				int from, int to, boolean[] included) {
+			RowEntry entry = new RowEntry();
+
+			for (int row = from; row < to; row++) {
+				entry.row = row;
+				included[row] = filter.include(entry);
+			}
+		}
+
+		// Create a view of the rows in the specified order (null for model
+		// order) that are included (null for all).
+		private View createView(int[] order, boolean[] included) {
+			if (order == null && included == null) {
+				return new View(null, null, rowCount);
+			}
+
+			int[] viewToModel = new int[rowCount];
+			int[] modelToView = new int[rowCount];
+			int viewRowCount = 0;
+
+			for (int i = 0; i < rowCount; i++) {
+				int row = order != null ? order[i] : i;
+
+				if (included == null || included[row]) {
+					modelToView[row] = viewRowCount;
+					viewToModel[viewRowCount++] = row;
+				} else {
+					modelToView[row] = -1;
+				}
+			}
+
+			return new View(Arrays.copyOf(viewToModel, viewRowCount),
+					modelToView, rowCount);
+		}
+	}
+
+	// The result of a request: a view and, if the sort column was sorted,
+	// its order.
+	private static class Result {
+		int column;
+		ColumnOrder columnOrder;
+		View view;
+
+		Result(int column, ColumnOrder columnOrder, View view) {
+			this.column = column;
+			this.columnOrder = columnOrder;
+			this.view = view;
+		}
+	}
+
+	// The rows of a column in ascending order, with the start of each group
+	// of rows with equal keys.
+	private static class ColumnOrder {
+		int[] ascending;
+		BitSet groupStarts;
+
+		ColumnOrder(int[] ascending, BitSet groupStarts) {
+			this.ascending = ascending;
+			this.groupStarts = groupStarts;
+		}
+
+		int size() {
+			return ascending.length;
+		}
+
+		int[] getOrder(SortOrder sortOrder) {
+			if (sortOrder != SortOrder.DESCENDING) {
+				return ascending;
+			}
+
+			// Reverse the order of the groups, keeping the rows of each group
+			// in model order, as a stable sort would.
+			int[] rows = new int[ascending.length];
+			int count = 0;
+			int end = ascending.length;
+
+			while (end > 0) {
+				int start = groupStarts.previousSetBit(end - 1);
+				System.arraycopy(ascending, start, rows, count, end - start);
+				count += end - start;
+				end = start;
+			}
+
+			return rows;
+		}
+	}
+
+	// A mapping between model and view rows; null arrays denote the identity
+	// mapping over all model rows.
+	private static class View {
+		final int[] viewToModel;
+		final int[] modelToView;
+		final int modelRowCount;
+
+		View(int[] viewToModel, int[] modelToView, int modelRowCount) {
+			this.viewToModel = viewToModel;
+			this.modelToView = modelToView;
+			this.modelRowCount = modelRowCount;
+		}
+
+		static View empty(int modelRowCount) {
+			int[] modelToView = new int[modelRowCount];
+			Arrays.fill(modelToView, -1);
+			return new View(new int[0], modelToView, modelRowCount);
+		}
+
+		int getRowCount() {
+			return viewToModel != null ? viewToModel.length : modelRowCount;
+		}
+
+		// Return this view of the model after count rows have been inserted
+		// (if positive) or deleted (if negative) from firstRow, without any
+		// inserted rows.
+		View rebase(int firstRow, int count) {
+			int[] lastViewToModel = getViewToModel();
+			int newModelRowCount = modelRowCount + count;
+			int[] newViewToModel = new int[lastViewToModel.length];
+			int[] newModelToView = new int[newModelRowCount];
+			Arrays.fill(newModelToView, -1);
+			int viewRowCount = 0;
+
+			for (int row : lastViewToModel) {
+				if (row >= firstRow) {
+					if (row < firstRow - count) {
+						// Deleted.
+						continue;
+					}
+					row += count;
+				}
+
+				newModelToView[row] = viewRowCount;
+				newViewToModel[viewRowCount++] = row;
+			}
+
+			return new View(Arrays.copyOf(newViewToModel, viewRowCount),
+					newModelToView, newModelRowCount);
+		}
+
+		int[] getViewToModel() {
+			if (viewToModel != null) {
+				return viewToModel;
+			}
+
+			int[] rows = new int[modelRowCount];
+			for (int row = 0; row < modelRowCount; row++) {
+				rows[row] = row;
+			}
+			return rows;
+		}
+	}
+
+	// A model row presented to a row filter.
+	private class RowEntry extends RowFilter.Entry<M, Integer> {
+		int row;
+
+		@Override
+		public M getModel() {
+			return model;
+		}
+
+		@Override
+		public int getValueCount() {
+			return model.getColumnCount();
+		}
+
+		@Override
+		public Object getValue(int index) {
+			return model.getValueAt(row, index);
+		}
+
+		@Override
+		public Integer getIdentifier() {
+			return row;
+		}
+	}
+}
@@ -1,6 +1,6 @@
 /**
  * VStar: a statistical analysis tool for variable star data.
- * Copyright (C) 2016  AAVSO (http://www.aavso.org/)
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
  *
  * This program is free software: you can redistribute it and/or modify
  * it under the terms of the GNU Affero General Public License as
@@ -13,19 +13,16 @@
  * GNU Affero General Public License for more details.
  *
  * You should have received a copy of the GNU Affero General Public License
- * along with this program.  If not, see <http://www.gnu.org/licenses/>. 
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
-package org.aavso.tools.vstar.plugin.ob.src.impl;
-
-import org.w3c.dom.Node;
+package org.aavso.tools.vstar.ui.pane.list;
 
 /**
- * This interface represents a sequence of nodes.
+ * This interface marks a row filter whose include() method may be called
+ * concurrently from multiple threads, allowing BackgroundTableRowSorter to
+ * evaluate it over batches of rows in parallel. Since include() is not called
+ * on the event dispatch thread, it should identify the row's data via the
+ * entry's identifier rather than read the model's values via getValue().
  */
-public interface INodeSequence {
-
-	public int getLength();
-	
-	public Node item(int n);
-	
+public interface IConcurrentRowFilter {
 }
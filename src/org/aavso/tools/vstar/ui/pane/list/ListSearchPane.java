@@ -31,7 +31,6 @@ import javax.swing.JTextField;
 import javax.swing.RowFilter;
 import javax.swing.table.AbstractTableModel;
 import javax.swing.table.TableModel;
-import javax.swing.table.TableRowSorter;
 
 import org.aavso.tools.vstar.ui.dialog.MessageBox;
 import org.aavso.tools.vstar.util.locale.LocaleProps;
@@ -45,7 +44,7 @@ public class ListSearchPane<S extends TableModel> extends JPanel {
 
 	private final static int ALL_COLUMNS = -1;
 
-	private TableRowSorter<S> rowSorter;
+	private BackgroundTableRowSorter<S> rowSorter;
 	private RowFilter defaultRowFilter;
 
 	private JButton searchButton;
@@ -56,7 +55,7 @@ public class ListSearchPane<S extends TableModel> extends JPanel {
 
 	private int searchColumnIndex;
 
-	public ListSearchPane(AbstractTableModel model, TableRowSorter<S> rowSorter) {
+	public ListSearchPane(AbstractTableModel model, BackgroundTableRowSorter<S> rowSorter) {
 		super();
 
 		this.setLayout(new BoxLayout(this, BoxLayout.LINE_AXIS));
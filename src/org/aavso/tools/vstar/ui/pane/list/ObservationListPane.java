@@ -22,6 +22,7 @@ import java.awt.CardLayout;
 import java.awt.Rectangle;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -40,10 +41,10 @@ import javax.swing.JSplitPane;
 import javax.swing.JTable;
 import javax.swing.ListSelectionModel;
 import javax.swing.RowFilter;
+import javax.swing.SwingUtilities;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 import javax.swing.table.TableColumnModel;
-import javax.swing.table.TableRowSorter;
 
 import org.aavso.tools.vstar.data.IOrderedObservationSource;
 import org.aavso.tools.vstar.data.SeriesType;
@@ -60,7 +61,6 @@ import org.aavso.tools.vstar.ui.mediator.message.MultipleObservationSelectionMes
 import org.aavso.tools.vstar.ui.mediator.message.ObservationSelectionMessage;
 import org.aavso.tools.vstar.ui.model.list.InvalidObservationTableModel;
 import org.aavso.tools.vstar.ui.model.list.ValidObservationTableModel;
-import org.aavso.tools.vstar.util.comparator.DoubleAsStringComparator;
 import org.aavso.tools.vstar.util.locale.LocaleProps;
 import org.aavso.tools.vstar.util.notification.Listener;
 import org.aavso.tools.vstar.util.prefs.NumericPrecisionPrefs;
@@ -80,7 +80,7 @@ public class ObservationListPane extends JPanel implements
 	private JTable validDataTable;
 	private JTable invalidDataTable;
 	private ValidObservationTableModel validDataModel;
-	private TableRowSorter<ValidObservationTableModel> rowSorter;
+	private BackgroundTableRowSorter<ValidObservationTableModel> rowSorter;
 	private VisibleSeriesRowFilter rowFilter;
 	private RowFilter<IOrderedObservationSource, Integer> currFilter;
 	private JButton selectAllButton;
@@ -137,21 +137,23 @@ public class ObservationListPane extends JPanel implements
 			validDataTable.setColumnSelectionAllowed(false);
 			validDataTable.setRowSelectionAllowed(true);
 
-			// Enable table sorting by clicking on a column.
-			// We need to treat JD, magnitude, and uncertainty as doubles.
-			rowSorter = new TableRowSorter<ValidObservationTableModel>(
+			// Enable table sorting by clicking on a column, in the background
+			// for large tables. We sort JD, magnitude, and uncertainty by the
+			// observations' values rather than the formatted strings.
+			rowSorter = new BackgroundTableRowSorter<ValidObservationTableModel>(
 					validDataModel);
 			int jdColIndex = validDataModel.getColumnInfoSource()
 					.getColumnIndexByName(LocaleProps.get("TIME"));
-			rowSorter.setComparator(jdColIndex, new DoubleAsStringComparator());
+			rowSorter.setKeyFunction(jdColIndex, row -> validDataModel
+					.getObservations().get(row).getJD());
 			int magColIndex = validDataModel.getColumnInfoSource()
 					.getColumnIndexByName("Magnitude");
-			rowSorter
-					.setComparator(magColIndex, new DoubleAsStringComparator());
+			rowSorter.setKeyFunction(magColIndex, row -> validDataModel
+					.getObservations().get(row).getMag());
 			int uncertaintyColIndex = validDataModel.getColumnInfoSource()
 					.getColumnIndexByName("Uncertainty");
-			rowSorter.setComparator(uncertaintyColIndex,
-					new DoubleAsStringComparator());
+			rowSorter.setKeyFunction(uncertaintyColIndex, row -> validDataModel
+					.getObservations().get(row).getMagUncertainty());
 			validDataTable.setRowSorter(rowSorter);
 
 			// Add a row filter that shows data from series that are visible in
@@ -387,6 +389,13 @@ public class ObservationListPane extends JPanel implements
 				selModel.getMaxSelectionIndex(), false));
 	}
 
+	/**
+	 * @return the validDataModel
+	 */
+	public ValidObservationTableModel getValidDataModel() {
+		return validDataModel;
+	}
+
 	/**
 	 * @return the validDataTable
 	 */
@@ -410,19 +419,41 @@ public class ObservationListPane extends JPanel implements
 
 	/**
 	 * Retrieve the valid observations that are currently in the table's view.
+	 * Any view being computed in the background is completed first, so the
+	 * observations reflect the current series visibility, search and sort
+	 * order. This may be called from any thread, e.g. by the scripting API.
 	 * 
 	 * @return The observation list.
 	 */
 	public List<ValidObservation> getObservationsInView() {
 		List<ValidObservation> obs = new ArrayList<ValidObservation>();
 
-		// TODO: Is there some other way of getting the in-view objects? Ask the
-		// rowfilter for or to keep a list of the current indices?
-		validDataTable.selectAll();
+		Runnable collector = () -> {
+			rowSorter.flush();
+
+			int rowCount = validDataTable.getRowCount();
 
-		for (int row : validDataTable.getSelectedRows()) {
-			row = validDataTable.convertRowIndexToModel(row);
-			obs.add(validDataModel.getObservations().get(row));
+			// The rows in view are those that passed the row filter, so visit
+			// just those rather than selecting all rows and reading back the
+			// selection, which would also notify selection listeners.
+			List<ValidObservation> modelObs = validDataModel.getObservations();
+
+			for (int row = 0; row < rowCount; row++) {
+				obs.add(modelObs.get(validDataTable.convertRowIndexToModel(row)));
+			}
+		};
+
+		if (SwingUtilities.isEventDispatchThread()) {
+			collector.run();
+		} else {
+			try {
+				SwingUtilities.invokeAndWait(collector);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				obs.clear();
+			} catch (InvocationTargetException e) {
+				throw new IllegalStateException(e.getCause());
+			}
 		}
 
 		return obs;
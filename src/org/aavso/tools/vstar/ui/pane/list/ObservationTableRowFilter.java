@@ -27,7 +27,8 @@ import org.aavso.tools.vstar.ui.mediator.message.FilteredObservationMessage;
  * An observation table row filter.
  */
 public class ObservationTableRowFilter extends
-		RowFilter<IOrderedObservationSource, Integer> {
+		RowFilter<IOrderedObservationSource, Integer> implements
+		IConcurrentRowFilter {
 
 	private FilteredObservationMessage filteredObsMsg;
 
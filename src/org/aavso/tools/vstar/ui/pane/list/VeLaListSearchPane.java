@@ -29,14 +29,17 @@ import javax.swing.JPanel;
 import javax.swing.JTextArea;
 import javax.swing.RowFilter;
 import javax.swing.table.TableModel;
-import javax.swing.table.TableRowSorter;
 
 import org.aavso.tools.vstar.data.ValidObservation;
+import org.aavso.tools.vstar.ui.dialog.MessageBox;
 import org.aavso.tools.vstar.ui.model.list.ValidObservationTableModel;
 import org.aavso.tools.vstar.util.Logic;
+import org.aavso.tools.vstar.vela.AST;
 import org.aavso.tools.vstar.vela.Operand;
 import org.aavso.tools.vstar.vela.Type;
+import org.aavso.tools.vstar.vela.VeLaEvalError;
 import org.aavso.tools.vstar.vela.VeLaInterpreter;
+import org.aavso.tools.vstar.vela.VeLaParseError;
 import org.aavso.tools.vstar.vela.VeLaValidObservationEnvironment;
 
 /**
@@ -47,7 +50,7 @@ public class VeLaListSearchPane<S extends TableModel> extends JPanel {
 
 	private ValidObservationTableModel model;
 
-	private TableRowSorter<S> rowSorter;
+	private BackgroundTableRowSorter<S> rowSorter;
 	private RowFilter defaultRowFilter;
 
 	private JButton searchButton;
@@ -58,7 +61,7 @@ public class VeLaListSearchPane<S extends TableModel> extends JPanel {
 	private JCheckBox includeExcludedObservationCheckbox;
 
 	public VeLaListSearchPane(ValidObservationTableModel model,
-			TableRowSorter<S> rowSorter) {
+			BackgroundTableRowSorter<S> rowSorter) {
 		super();
 
 		this.model = model;
@@ -98,8 +101,13 @@ public class VeLaListSearchPane<S extends TableModel> extends JPanel {
 		searchButton.addActionListener(new ActionListener() {
 			@Override
 			public void actionPerformed(ActionEvent e) {
-				setRowFilter(new VeLaRowFilter(new VeLaInterpreter(),
-						velaSearchPane));
+				try {
+					AST ast = new VeLaInterpreter()
+							.compile(getVeLaExpression());
+					setRowFilter(new VeLaRowFilter(ast, velaSearchPane));
+				} catch (VeLaParseError ex) {
+					MessageBox.showErrorDialog("VeLa Search", ex);
+				}
 			}
 		});
 		applyResetPane.add(searchButton);
@@ -170,14 +178,26 @@ public class VeLaListSearchPane<S extends TableModel> extends JPanel {
 
 	// VeLa row filter class
 
-	class VeLaRowFilter extends RowFilter<Object, Object> {
-		private VeLaInterpreter vela;
-		private VeLaListSearchPane<? extends TableModel> searchPane;
-
-		public VeLaRowFilter(VeLaInterpreter vela,
+	/**
+	 * A row filter that includes the observations for which a compiled VeLa
+	 * expression is true. The expression is evaluated by one interpreter per
+	 * thread, so rows may be filtered concurrently.
+	 */
+	class VeLaRowFilter extends RowFilter<Object, Object> implements
+			IConcurrentRowFilter {
+		private AST ast;
+		private ThreadLocal<VeLaInterpreter> vela;
+		private boolean includeFainterThan;
+		private boolean includeDiscrepant;
+		private boolean includeExcluded;
+
+		public VeLaRowFilter(AST ast,
 				VeLaListSearchPane<? extends TableModel> searchPane) {
-			this.vela = vela;
-			this.searchPane = searchPane;
+			this.ast = ast;
+			this.vela = ThreadLocal.withInitial(VeLaInterpreter::new);
+			includeFainterThan = searchPane.includeFainterThan();
+			includeDiscrepant = searchPane.includeDiscrepant();
+			includeExcluded = searchPane.includeExcluded();
 		}
 
 		@Override
@@ -190,12 +210,24 @@ public class VeLaListSearchPane<S extends TableModel> extends JPanel {
 
 			if (rowIndex != null) {
 				ValidObservation ob = model.getObservations().get(rowIndex);
-				vela.pushEnvironment(new VeLaValidObservationEnvironment(ob));
-				Optional<Operand> value = vela.program(searchPane
-						.getVeLaExpression());
-				result = value.isPresent()
-						&& value.get().getType() == Type.BOOLEAN
-						&& value.get().booleanVal();
+
+				VeLaInterpreter interpreter = vela.get();
+				interpreter.pushEnvironment(new VeLaValidObservationEnvironment(
+						ob));
+				try {
+					Optional<Operand> value = interpreter.program(ast);
+					result = value.isPresent()
+							&& value.get().getType() == Type.BOOLEAN
+							&& value.get().booleanVal();
+				} catch (VeLaEvalError e) {
+					// Exclude the observation and start afresh with another
+					// interpreter in case this one was left with a partial
+					// result.
+					result = false;
+					vela.remove();
+				} finally {
+					interpreter.popEnvironment();
+				}
 
 				/**
 				 * Use logical implication, p => q, where p is the observation's
@@ -204,13 +236,9 @@ public class VeLaListSearchPane<S extends TableModel> extends JPanel {
 				 * this observation.
 				 */
 				result &= Logic.imp(ob.getMagnitude().isFainterThan(),
-						searchPane.includeFainterThan());
-				result &= Logic.imp(ob.isDiscrepant(),
-						searchPane.includeDiscrepant());
-				result &= Logic.imp(ob.isExcluded(),
-						searchPane.includeExcluded());
-
-				vela.popEnvironment();
+						includeFainterThan);
+				result &= Logic.imp(ob.isDiscrepant(), includeDiscrepant);
+				result &= Logic.imp(ob.isExcluded(), includeExcluded);
 			}
 
 			return result;
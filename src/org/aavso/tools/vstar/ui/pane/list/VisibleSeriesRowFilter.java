@@ -42,7 +42,8 @@ import org.aavso.tools.vstar.util.notification.Listener;
  * This class filters observations by whether or not they are visible in the
  * plot, information obtained from the model.
  */
-public class VisibleSeriesRowFilter extends RowFilter<IOrderedObservationSource, Integer> {
+public class VisibleSeriesRowFilter extends RowFilter<IOrderedObservationSource, Integer>
+		implements IConcurrentRowFilter {
 
 	private ValidObservationTableModel tableModel;
 	private Set<SeriesType> visibleSeries;
@@ -20,12 +20,12 @@ package org.aavso.tools.vstar.ui.pane.plot;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
+import java.awt.Shape;
+import java.awt.event.MouseEvent;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.logging.Level;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
@@ -37,7 +37,6 @@ import javax.swing.SwingUtilities;
 import org.aavso.tools.vstar.data.SeriesType;
 import org.aavso.tools.vstar.data.ValidObservation;
 import org.aavso.tools.vstar.input.AbstractObservationRetriever;
-import org.aavso.tools.vstar.ui.VStar;
 import org.aavso.tools.vstar.ui.dialog.ObservationDetailsDialog;
 import org.aavso.tools.vstar.ui.mediator.Mediator;
 import org.aavso.tools.vstar.ui.mediator.message.ObservationSelectionMessage;
@@ -45,6 +44,7 @@ import org.aavso.tools.vstar.ui.mediator.message.PanRequestMessage;
 import org.aavso.tools.vstar.ui.mediator.message.ZoomRequestMessage;
 import org.aavso.tools.vstar.ui.mediator.message.ZoomType;
 import org.aavso.tools.vstar.ui.model.plot.ObservationAndMeanPlotModel;
+import org.aavso.tools.vstar.ui.model.plot.ObservationPlotModel;
 import org.aavso.tools.vstar.util.locale.LocaleProps;
 import org.aavso.tools.vstar.util.notification.Listener;
 import org.aavso.tools.vstar.util.prefs.ChartPropertiesPrefs;
@@ -55,19 +55,22 @@ import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.StandardChartTheme;
 import org.jfree.chart.axis.NumberAxis;
-import org.jfree.chart.entity.EntityCollection;
+import org.jfree.chart.axis.ValueAxis;
 import org.jfree.chart.entity.XYItemEntity;
 import org.jfree.chart.plot.PlotOrientation;
 import org.jfree.chart.plot.PlotRenderingInfo;
 import org.jfree.chart.plot.SeriesRenderingOrder;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYErrorRenderer;
+import org.jfree.chart.renderer.xy.XYItemRenderer;
 import org.jfree.chart.title.TextTitle;
 import org.jfree.chart.ui.RectangleInsets;
+import org.jfree.chart.util.ShapeUtils;
 import org.jfree.data.Range;
 import org.jfree.data.general.Dataset;
 import org.jfree.data.general.DatasetChangeEvent;
 import org.jfree.data.general.DatasetChangeListener;
+import org.jfree.data.xy.XYDataset;
 
 /**
  * This class is the base class for chart panes containing a plot of a set of
@@ -77,6 +80,10 @@ import org.jfree.data.general.DatasetChangeListener;
 abstract public class AbstractObservationPlotPane<T extends ObservationAndMeanPlotModel> extends JPanel
         implements ChartMouseListener, DatasetChangeListener {
 
+    // The maximum distance in pixels from the mouse of a plot point for which
+    // a tool-tip is shown.
+    private static final double MAX_TOOLTIP_DISTANCE = 20;
+
     protected T obsModel;
 
     protected Dimension bounds;
@@ -146,7 +153,26 @@ abstract public class AbstractObservationPlotPane<T extends ObservationAndMeanPl
         // Create a chart with legend, tooltips, and URLs showing
         // and add it to the panel.
         this.chartPanel = new ChartPanel(ChartFactory.createScatterPlot(title, domainTitle, rangeTitle, obsModel,
-                PlotOrientation.VERTICAL, true, true, true));
+                PlotOrientation.VERTICAL, true, true, true)) {
+            // Plot points have no entities from which to take a tool-tip, so
+            // look up the one under the mouse, if any.
+            @Override
+            public String getToolTipText(MouseEvent e) {
+                String text = super.getToolTipText(e);
+
+                if (text == null) {
+                    Point2D point = translateScreenToJava2D(e.getPoint());
+                    XYItemEntity entity = findNearestItemEntity(point, MAX_TOOLTIP_DISTANCE);
+
+                    if (entity != null && entity.getArea().contains(point)) {
+                        ObservationPlotModel model = (ObservationPlotModel) entity.getDataset();
+                        text = createToolTipText(model.getValidObservation(entity.getSeriesIndex(), entity.getItem()));
+                    }
+                }
+
+                return text;
+            }
+        };
 
         this.chartPanel.setPreferredSize(bounds);
 
@@ -159,6 +185,10 @@ abstract public class AbstractObservationPlotPane<T extends ObservationAndMeanPl
         this.renderer = new VStarPlotDataRenderer();
         this.renderer.setDrawYError(this.showErrorBars);
 
+        // Plot points are looked up in the plot models when clicked on or
+        // hovered over, so there is no need to create an entity for each.
+        this.renderer.setItemEntitiesCreated(false);
+
         this.lastPointClicked = null;
         this.lastObSelected = null;
         this.lastDatasetSelected = null;
@@ -415,65 +445,21 @@ abstract public class AbstractObservationPlotPane<T extends ObservationAndMeanPl
     // message and open an information dialog. Also record the selection.
     public void chartMouseClicked(ChartMouseEvent event) {
 
-        // Now, have we selected an observation?
-        if (event.getEntity() instanceof XYItemEntity) {
-            // The trigger point should correspond to the XYItemEntity's
-            // position.
-            lastPointClicked = event.getTrigger().getPoint();
+        // Where are the cross hairs pointing?
+        lastPointClicked = chartPanel.getAnchor();
 
-            XYItemEntity entity = (XYItemEntity) event.getEntity();
-            lastDatasetSelected = entity.getDataset();
-            int series = entity.getSeriesIndex();
-            int item = entity.getItem();
-            lastObSelected = obsModel.getValidObservation(series, item);
+        // Select the observation closest to the cross hairs. This is looked up
+        // by domain value in the plot models rather than by searching the
+        // chart's entities, of which there are none for plot points.
+        XYItemEntity entity = findNearestItemEntity(lastPointClicked, Double.POSITIVE_INFINITY);
 
-            if (event.getTrigger().getClickCount() == 2) {
-                new ObservationDetailsDialog(lastObSelected);
-            }
-        } else {
-            // ...else if not XYItemEntity as subject of the event, select a
-            // valid observation by asking: which XYItemEntity is closest to the
-            // cross hairs?
-
-            // Where are the cross hairs pointing?
-            lastPointClicked = chartPanel.getAnchor();
-
-            EntityCollection entities = chartPanel.getChartRenderingInfo().getEntityCollection();
-
-            double closestDist = Double.MAX_VALUE;
-
-            // Note: This operation is linear in the number of visible
-            // observations!
-            // Unfortunately, the list of XYItemEntities must always be searched
-            // exhaustively since we don't know which XYItemEntity will turn out
-            // to be closest to the mouse selection. Actually, this may not be
-            // the case if we can assume an ordering of XYItemEntities by domain
-            // (X). If so, once itemBounds.getCenterX() is greater than
-            // lastPointClicked.getX(), we could terminate the loop. But I don't
-            // know if we can make that assumption.
-            @SuppressWarnings("unchecked")
-            Iterator it = entities.iterator();
-            while (it.hasNext()) {
-                Object o = it.next();
-                if (o instanceof XYItemEntity) {
-                    XYItemEntity entity = (XYItemEntity) o;
-                    Rectangle2D itemBounds = entity.getArea().getBounds2D();
-                    Point2D centerPt = new Point2D.Double(itemBounds.getCenterX(), itemBounds.getCenterY());
-
-                    double dist = centerPt.distance(lastPointClicked);
-                    if (dist < closestDist) {
-                        closestDist = dist;
-                        lastDatasetSelected = entity.getDataset();
-                        lastObSelected = obsModel.getValidObservation(entity.getSeriesIndex(), entity.getItem());
-                    }
+        if (entity != null) {
+            ObservationPlotModel model = (ObservationPlotModel) entity.getDataset();
+            lastDatasetSelected = model;
+            lastObSelected = model.getValidObservation(entity.getSeriesIndex(), entity.getItem());
 
-                    // Note: The approach below definitely does not work.
-                    // if (item.getArea().contains(lastPointClicked)) {
-                    // lastObSelected = obsModel.getValidObservation(item
-                    // .getSeriesIndex(), item.getItem());
-                    //
-                    // }
-                }
+            if (event.getTrigger().getClickCount() == 2 && entity.getArea().contains(lastPointClicked)) {
+                new ObservationDetailsDialog(lastObSelected);
             }
         }
 
@@ -485,6 +471,12 @@ abstract public class AbstractObservationPlotPane<T extends ObservationAndMeanPl
         }
     }
 
+    // From ChartMouseListener interface.
+    // Tool-tips for plot points are looked up by the chart panel as the mouse
+    // moves; see createToolTipText().
+    public void chartMouseMoved(ChartMouseEvent event) {
+    }
+
     /**
      * @return The time axis label.
      */
@@ -519,48 +511,119 @@ abstract public class AbstractObservationPlotPane<T extends ObservationAndMeanPl
     protected void updateSelectionFromObservation(ValidObservation ob) {
         lastObSelected = ob;
 
-        EntityCollection entities = chartPanel.getChartRenderingInfo().getEntityCollection();
-
-        // Note: This operation is linear in the number of observations!
-        // However, the loop will on average terminate before exhaustively
-        // searching all entries, i.e. when the observation is matched up
-        // with the corresponding XYItemEntity. It's still O(n) though.
-        // TODO: Use RendererUtilities method to return a list of entity indices
-        // that lie in a given x (JD/phase) range; this would reduce n.
-        Iterator it = entities.iterator();
-        while (it.hasNext()) {
-            Object o = it.next();
-            if (o instanceof XYItemEntity) {
-                XYItemEntity item = (XYItemEntity) o;
-                // Dataset may not be same as primary observation model, e.g.
-                // could be model function dataset (continuous model).
-                if (item.getDataset() == obsModel) {
-                    try {
-                        double domainValue = obsModel.getXValue(item.getSeriesIndex(), item.getItem());
-                        double mag = obsModel.getYValue(item.getSeriesIndex(), item.getItem());
-
-                        // Since the data in the observations and in the
-                        // XYItemEntities should be the same, using equality
-                        // here ought to be safe.
-                        List<ValidObservation> obs = obsModel.getSeriesNumToObSrcListMap().get(item.getSeriesIndex());
-                        if (obsModel.getTimeElementEntity().getTimeElement(obs, item.getItem()) == domainValue
-                                && ob.getMag() == mag) {
-                            Rectangle2D itemBounds = item.getArea().getBounds2D();
-                            Point2D centerPt = new Point2D.Double(itemBounds.getCenterX(), itemBounds.getCenterY());
-
-                            lastPointClicked = centerPt;
-                            break;
-                        }
-                    } catch (IndexOutOfBoundsException e) {
-                        // Sometimes the series-index, item-index pair will have
-                        // changed or have become non-existent. Ignore but log.
-                        VStar.LOGGER.log(Level.WARNING, "Observation selection error", e);
+        double domainValue = getDomainValue(ob);
+        double mag = ob.getMag();
+
+        XYPlot plot = chart.getXYPlot();
+        Rectangle2D dataArea = chartPanel.getChartRenderingInfo().getPlotInfo().getDataArea();
+
+        // Look for a visible plot point with the observation's domain value
+        // and magnitude. Each series is searched by domain value, so this is
+        // logarithmic rather than linear in the number of observations.
+        for (int i = 0; i < plot.getDatasetCount(); i++) {
+            XYDataset dataset = plot.getDataset(i);
+            if (dataset instanceof ObservationPlotModel) {
+                ObservationPlotModel model = (ObservationPlotModel) dataset;
+                XYItemRenderer itemRenderer = plot.getRendererForDataset(dataset);
+
+                for (int series = 0; series < model.getSeriesCount(); series++) {
+                    if (itemRenderer.isSeriesVisible(series) && model.findItem(series, domainValue, mag) != -1) {
+                        double x = plot.getDomainAxisForDataset(i).valueToJava2D(domainValue, dataArea,
+                                plot.getDomainAxisEdge());
+                        double y = plot.getRangeAxisForDataset(i).valueToJava2D(mag, dataArea,
+                                plot.getRangeAxisEdge());
+
+                        lastPointClicked = new Point2D.Double(x, y);
+                        return;
                     }
                 }
             }
         }
     }
 
+    /**
+     * Find the visible plot point nearest to a point in the chart.
+     * 
+     * Rather than searching the chart's entities, each visible series of each
+     * observation plot model is searched by domain value; see
+     * ObservationPlotModel.findNearestItem().
+     * 
+     * @param point       The point in Java2D coordinates.
+     * @param maxDistance The maximum distance in pixels of a plot point from
+     *                    the point.
+     * @return An entity for the nearest plot point, whose area is the point's
+     *         shape, or null if there is no plot point within the maximum
+     *         distance.
+     */
+    protected XYItemEntity findNearestItemEntity(Point2D point, double maxDistance) {
+        XYItemEntity nearestEntity = null;
+
+        XYPlot plot = chart.getXYPlot();
+        Rectangle2D dataArea = chartPanel.getChartRenderingInfo().getPlotInfo().getDataArea();
+
+        if (point == null || dataArea.isEmpty()) {
+            return null;
+        }
+
+        double nearestDistance = maxDistance;
+
+        for (int i = 0; i < plot.getDatasetCount(); i++) {
+            XYDataset dataset = plot.getDataset(i);
+            if (dataset instanceof ObservationPlotModel) {
+                ObservationPlotModel model = (ObservationPlotModel) dataset;
+                XYItemRenderer itemRenderer = plot.getRendererForDataset(dataset);
+
+                ValueAxis domainAxis = plot.getDomainAxisForDataset(i);
+                ValueAxis rangeAxis = plot.getRangeAxisForDataset(i);
+
+                double x = domainAxis.java2DToValue(point.getX(), dataArea, plot.getDomainAxisEdge());
+                double y = rangeAxis.java2DToValue(point.getY(), dataArea, plot.getRangeAxisEdge());
+                double xScale = dataArea.getWidth() / domainAxis.getRange().getLength();
+                double yScale = dataArea.getHeight() / rangeAxis.getRange().getLength();
+
+                for (int series = 0; series < model.getSeriesCount(); series++) {
+                    if (!itemRenderer.isSeriesVisible(series)) {
+                        continue;
+                    }
+
+                    int item = model.findNearestItem(series, x, y, xScale, yScale, nearestDistance);
+
+                    if (item != -1) {
+                        double itemX = domainAxis.valueToJava2D(model.getXValue(series, item), dataArea,
+                                plot.getDomainAxisEdge());
+                        double itemY = rangeAxis.valueToJava2D(model.getYValue(series, item), dataArea,
+                                plot.getRangeAxisEdge());
+
+                        Shape area = ShapeUtils.createTranslatedShape(itemRenderer.getItemShape(series, item), itemX,
+                                itemY);
+
+                        nearestEntity = new XYItemEntity(area, model, series, item, null, null);
+                        nearestDistance = point.distance(itemX, itemY);
+                    }
+                }
+            }
+        }
+
+        return nearestEntity;
+    }
+
+    /**
+     * Return the domain value of an observation in this plot, e.g. JD or
+     * phase.
+     * 
+     * @param ob The observation.
+     * @return The domain value.
+     */
+    abstract protected double getDomainValue(ValidObservation ob);
+
+    /**
+     * Return the tool-tip text for an observation's plot point.
+     * 
+     * @param ob The observation.
+     * @return The tool-tip text.
+     */
+    abstract protected String createToolTipText(ValidObservation ob);
+
     // Returns an observation selection listener specific to the concrete plot.
     abstract protected Listener<ObservationSelectionMessage> createObservationSelectionListener();
 
@@ -664,8 +727,8 @@ abstract public class AbstractObservationPlotPane<T extends ObservationAndMeanPl
                 List<ValidObservation> obs = seriesNumToObsMap.get(seriesNum);
                 int index = 0;
                 for (ValidObservation ob : obs) {
-                    double mag = ob.getMagnitude().getMagValue();
-                    double uncert = ob.getMagnitude().getUncertainty();
+                    double mag = ob.getMag();
+                    double uncert = ob.getMagUncertainty();
                     // If uncertainty not given, get HQ uncertainty if present.
                     if (uncert == 0.0 && ob.getHqUncertainty() != null) {
                         uncert = ob.getHqUncertainty();
@@ -36,9 +36,6 @@ import org.aavso.tools.vstar.ui.mediator.message.ZoomRequestMessage;
 import org.aavso.tools.vstar.ui.model.plot.ObservationAndMeanPlotModel;
 import org.aavso.tools.vstar.util.notification.Listener;
 import org.aavso.tools.vstar.util.prefs.NumericPrecisionPrefs;
-import org.jfree.chart.ChartMouseEvent;
-import org.jfree.chart.entity.ChartEntity;
-import org.jfree.chart.entity.XYItemEntity;
 import org.jfree.chart.plot.PlotRenderingInfo;
 import org.jfree.chart.plot.SeriesRenderingOrder;
 import org.jfree.chart.plot.XYPlot;
@@ -190,23 +187,25 @@ public class ObservationAndMeanPlotPane extends AbstractObservationPlotPane<Obse
 	// }
 	// }
 
-	// From ChartMouseListener interface.
-	// If the mouse is over a data point, set its tool-tip with JD and
-	// magnitude.
-	public void chartMouseMoved(ChartMouseEvent event) {
-		ChartEntity entity = event.getEntity();
-		if (entity instanceof XYItemEntity) {
-			XYItemEntity item = (XYItemEntity) entity;
-			// Dataset may not be same as primary observation model, e.g.
-			// could be model function dataset (continuous model).
-			if (item.getDataset() == obsModel) {
-				ValidObservation ob = obsModel.getValidObservation(item.getSeriesIndex(), item.getItem());
-
-				String xyMsg = String.format(xyMsgFormat, NumericPrecisionPrefs.formatTime(ob.getJD()),
-						ob.getDateInfo().getCalendarDate(), NumericPrecisionPrefs.formatMag(ob.getMag()));
-				item.setToolTipText(xyMsg);
-			}
-		}
+	/**
+	 * The domain of this plot is JD.
+	 * 
+	 * @see org.aavso.tools.vstar.ui.pane.plot.AbstractObservationPlotPane#getDomainValue(org.aavso.tools.vstar.data.ValidObservation)
+	 */
+	@Override
+	protected double getDomainValue(ValidObservation ob) {
+		return ob.getJD();
+	}
+
+	/**
+	 * The tool-tip for a data point contains JD and magnitude.
+	 * 
+	 * @see org.aavso.tools.vstar.ui.pane.plot.AbstractObservationPlotPane#createToolTipText(org.aavso.tools.vstar.data.ValidObservation)
+	 */
+	@Override
+	protected String createToolTipText(ValidObservation ob) {
+		return String.format(xyMsgFormat, NumericPrecisionPrefs.formatTime(ob.getJD()),
+				ob.getDateInfo().getCalendarDate(), NumericPrecisionPrefs.formatMag(ob.getMag()));
 	}
 
 	// Returns an observation selection listener.
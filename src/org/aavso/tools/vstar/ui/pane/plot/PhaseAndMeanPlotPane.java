@@ -36,11 +36,9 @@ import org.aavso.tools.vstar.util.locale.LocaleProps;
 import org.aavso.tools.vstar.util.notification.Listener;
 import org.aavso.tools.vstar.util.prefs.NumericPrecisionPrefs;
 import org.aavso.tools.vstar.util.stats.BinningResult;
-import org.jfree.chart.ChartMouseEvent;
-import org.jfree.chart.entity.ChartEntity;
-import org.jfree.chart.entity.XYItemEntity;
 import org.jfree.chart.plot.PlotRenderingInfo;
 import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.title.TextTitle;
 import org.jfree.data.general.Dataset;
 
 /**
@@ -122,6 +120,33 @@ public class PhaseAndMeanPlotPane extends ObservationAndMeanPlotPane {
 		return period;
 	}
 
+	/**
+	 * Change the phase parameters shown by this pane, after its models have
+	 * been updated in place.
+	 * 
+	 * @param epoch
+	 *            The new epoch.
+	 * @param period
+	 *            The new period.
+	 * @param subTitle
+	 *            The new sub-title, which replaces the current one.
+	 */
+	public void setPhaseParameters(double epoch, double period,
+			String subTitle) {
+		this.epoch = epoch;
+		this.period = period;
+
+		for (Object title : chart.getSubtitles()) {
+			if (title instanceof TextTitle
+					&& ((TextTitle) title).getText().equals(this.subTitle)) {
+				((TextTitle) title).setText(subTitle);
+				break;
+			}
+		}
+
+		this.subTitle = subTitle;
+	}
+
 	/**
 	 * @return the obsAndMeanModels
 	 */
@@ -212,20 +237,27 @@ public class PhaseAndMeanPlotPane extends ObservationAndMeanPlotPane {
 	// }
 	// }
 
-	// From ChartMouseListener interface.
-	// If the mouse is over a data point, set its tool-tip with phase and
-	// magnitude.
-	public void chartMouseMoved(ChartMouseEvent event) {
-		ChartEntity entity = event.getEntity();
-		if (entity instanceof XYItemEntity) {
-			XYItemEntity item = (XYItemEntity) entity;
-			ValidObservation ob = obsModel.getValidObservation(item
-					.getSeriesIndex(), item.getItem());
-			String xyMsg = String.format(xyMsgFormat, NumericPrecisionPrefs
-					.formatTime(ob.getStandardPhase()), NumericPrecisionPrefs
-					.formatMag(ob.getMag()));
-			item.setToolTipText(xyMsg);
-		}
+	/**
+	 * The domain of this plot is standard phase.
+	 * 
+	 * @see org.aavso.tools.vstar.ui.pane.plot.ObservationAndMeanPlotPane#getDomainValue(org.aavso.tools.vstar.data.ValidObservation)
+	 */
+	@Override
+	protected double getDomainValue(ValidObservation ob) {
+		Double phase = ob.getStandardPhase();
+		return phase != null ? phase : Double.NaN;
+	}
+
+	/**
+	 * The tool-tip for a data point contains phase and magnitude.
+	 * 
+	 * @see org.aavso.tools.vstar.ui.pane.plot.ObservationAndMeanPlotPane#createToolTipText(org.aavso.tools.vstar.data.ValidObservation)
+	 */
+	@Override
+	protected String createToolTipText(ValidObservation ob) {
+		return String.format(xyMsgFormat, NumericPrecisionPrefs
+				.formatTime(ob.getStandardPhase()), NumericPrecisionPrefs
+				.formatMag(ob.getMag()));
 	}
 
 	// Returns a series visibility change listener to update the chart legends
@@ -17,11 +17,23 @@
  */
 package org.aavso.tools.vstar.ui.pane.plot;
 
+import java.awt.Graphics2D;
 import java.awt.Shape;
 import java.awt.geom.Ellipse2D;
+import java.awt.geom.Rectangle2D;
+import java.util.BitSet;
 
+import org.aavso.tools.vstar.ui.model.plot.ObservationPlotModel;
 import org.jfree.chart.LegendItem;
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.entity.EntityCollection;
+import org.jfree.chart.plot.CrosshairState;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.plot.PlotRenderingInfo;
+import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYErrorRenderer;
+import org.jfree.chart.renderer.xy.XYItemRendererState;
+import org.jfree.data.xy.XYDataset;
 
 /**
  * This is VStar's plot data-point renderer.
@@ -29,10 +41,23 @@ import org.jfree.chart.renderer.xy.XYErrorRenderer;
  * We subclass XYErrorRenderer in order to be able to plot error bars.<br/>
  * TODO: Should we instead use StatisticalLineAndShapeRenderer (at least for
  * means plot)?
+ * 
+ * For an observation plot model, only the items of each series that can be
+ * seen at the current zoom level are drawn; see LevelOfDetailIndex. Entities
+ * need not be created for its items, since they can be looked up by position
+ * in the model instead.
  */
 @SuppressWarnings("serial")
 public class VStarPlotDataRenderer extends XYErrorRenderer {
 
+	// The dataset currently being drawn and the items of each of its series
+	// to be drawn; a null item set means all items.
+	private XYDataset currentDataset;
+	private BitSet[] itemsToDraw;
+
+	// Should an entity be created for each observation plot model item drawn?
+	private boolean itemEntitiesCreated = true;
+
 	/**
 	 * Set the size of the series.
 	 * 
@@ -47,6 +72,26 @@ public class VStarPlotDataRenderer extends XYErrorRenderer {
 		setSeriesShape(seriesNum, datapointShape);
 	}
 
+	/**
+	 * @return Whether an entity is created for each observation plot model
+	 *         item drawn.
+	 */
+	public boolean getItemEntitiesCreated() {
+		return itemEntitiesCreated;
+	}
+
+	/**
+	 * Set whether an entity is created for each observation plot model item
+	 * drawn. Items of other datasets, e.g. model functions, always have
+	 * entities.
+	 * 
+	 * @param itemEntitiesCreated
+	 *            Whether to create item entities.
+	 */
+	public void setItemEntitiesCreated(boolean itemEntitiesCreated) {
+		this.itemEntitiesCreated = itemEntitiesCreated;
+	}
+
 	/* (non-Javadoc)
 	 * @see org.jfree.chart.renderer.xy.XYLineAndShapeRenderer#getLegendItem(int, int)
 	 */
@@ -63,4 +108,98 @@ public class VStarPlotDataRenderer extends XYErrorRenderer {
 		
 		return item;
 	}
+
+	/**
+	 * Select the items to be drawn for each series of the dataset about to be
+	 * drawn.
+	 * 
+	 * @see org.jfree.chart.renderer.xy.XYLineAndShapeRenderer#initialise(java.awt.Graphics2D,
+	 *      java.awt.geom.Rectangle2D, org.jfree.chart.plot.XYPlot,
+	 *      org.jfree.data.xy.XYDataset,
+	 *      org.jfree.chart.plot.PlotRenderingInfo)
+	 */
+	@Override
+	public XYItemRendererState initialise(Graphics2D g2, Rectangle2D dataArea,
+			XYPlot plot, XYDataset dataset, PlotRenderingInfo info) {
+
+		currentDataset = dataset;
+		itemsToDraw = null;
+
+		if (dataset instanceof ObservationPlotModel
+				&& plot.getOrientation() == PlotOrientation.VERTICAL) {
+			ObservationPlotModel obsModel = (ObservationPlotModel) dataset;
+
+			int datasetIndex = plot.indexOf(dataset);
+			ValueAxis domainAxis = plot.getDomainAxisForDataset(datasetIndex);
+			ValueAxis rangeAxis = plot.getRangeAxisForDataset(datasetIndex);
+
+			itemsToDraw = new BitSet[dataset.getSeriesCount()];
+
+			for (int series = 0; series < itemsToDraw.length; series++) {
+				if (isSeriesVisible(series) && !getItemLineVisible(series, 0)) {
+					Shape shape = lookupSeriesShape(series);
+					int pointSize = (int) Math.ceil(shape.getBounds2D()
+							.getWidth());
+
+					itemsToDraw[series] = obsModel.selectItemsToDraw(series,
+							domainAxis.getLowerBound(), domainAxis
+									.getUpperBound(), rangeAxis
+									.getLowerBound(), rangeAxis
+									.getUpperBound(), (int) dataArea
+									.getWidth(), (int) dataArea.getHeight(),
+							pointSize);
+				}
+			}
+		}
+
+		return super.initialise(g2, dataArea, plot, dataset, info);
+	}
+
+	/**
+	 * Draw an item only if it was selected to be drawn.
+	 * 
+	 * @see org.jfree.chart.renderer.xy.XYErrorRenderer#drawItem(java.awt.Graphics2D,
+	 *      org.jfree.chart.renderer.xy.XYItemRendererState,
+	 *      java.awt.geom.Rectangle2D,
+	 *      org.jfree.chart.plot.PlotRenderingInfo,
+	 *      org.jfree.chart.plot.XYPlot, org.jfree.chart.axis.ValueAxis,
+	 *      org.jfree.chart.axis.ValueAxis, org.jfree.data.xy.XYDataset, int,
+	 *      int, org.jfree.chart.plot.CrosshairState, int)
+	 */
+	@Override
+	public void drawItem(Graphics2D g2, XYItemRendererState state,
+			Rectangle2D dataArea, PlotRenderingInfo info, XYPlot plot,
+			ValueAxis domainAxis, ValueAxis rangeAxis, XYDataset dataset,
+			int series, int item, CrosshairState crosshairState, int pass) {
+
+		if (dataset == currentDataset && itemsToDraw != null
+				&& series < itemsToDraw.length) {
+			BitSet items = itemsToDraw[series];
+			if (items != null && !items.get(item)) {
+				return;
+			}
+		}
+
+		super.drawItem(g2, state, dataArea, info, plot, domainAxis, rangeAxis,
+				dataset, series, item, crosshairState, pass);
+	}
+
+	/**
+	 * Add an entity for an item unless it belongs to an observation plot model
+	 * and item entities are not being created.
+	 * 
+	 * @see org.jfree.chart.renderer.xy.AbstractXYItemRenderer#addEntity(org.jfree.chart.entity.EntityCollection,
+	 *      java.awt.Shape, org.jfree.data.xy.XYDataset, int, int, double,
+	 *      double)
+	 */
+	@Override
+	protected void addEntity(EntityCollection entities, Shape hotspot,
+			XYDataset dataset, int series, int item, double entityX,
+			double entityY) {
+
+		if (itemEntitiesCreated || !(dataset instanceof ObservationPlotModel)) {
+			super.addEntity(entities, hotspot, dataset, series, item, entityX,
+					entityY);
+		}
+	}
 }
@@ -0,0 +1,211 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * A thread-safe cache with a maximum size. When the cache is full, the least
+ * recently used entry is evicted. Hits and misses are counted.
+ */
+public class BoundedCache<K, V> {
+
+	private LinkedHashMap<K, V> map;
+	private int maxSize;
+
+	private AtomicLong hits;
+	private AtomicLong misses;
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxSize
+	 *            The maximum number of entries; must be positive.
+	 */
+	public BoundedCache(int maxSize) {
+		checkMaxSize(maxSize);
+		this.maxSize = maxSize;
+
+		// An access ordered map, so the eldest entry is the least recently
+		// used.
+		map = new LinkedHashMap<K, V>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+				return size() > BoundedCache.this.maxSize;
+			}
+		};
+
+		hits = new AtomicLong();
+		misses = new AtomicLong();
+	}
+
+	/**
+	 * Return the value for the specified key, counting a hit or a miss.
+	 *
+	 * @param key
+	 *            The key.
+	 * @return The value, or null if the key is not in the cache.
+	 */
+	public V get(K key) {
+		V value;
+
+		synchronized (map) {
+			value = map.get(key);
+		}
+
+		if (value != null) {
+			hits.incrementAndGet();
+		} else {
+			misses.incrementAndGet();
+		}
+
+		return value;
+	}
+
+	/**
+	 * Return the value for the specified key, computing and adding it if the
+	 * key is not in the cache. The value is computed outside the cache's lock,
+	 * so two threads may compute a value for the same key, in which case the
+	 * first value added is kept.
+	 *
+	 * @param key
+	 *            The key.
+	 * @param valueFunction
+	 *            A function that computes the value for a key; if null is
+	 *            returned, nothing is added.
+	 * @return The value, or null.
+	 */
+	public V get(K key, Function<K, V> valueFunction) {
+		V value = get(key);
+
+		if (value == null) {
+			value = valueFunction.apply(key);
+			if (value != null) {
+				synchronized (map) {
+					V existing = map.get(key);
+					if (existing != null) {
+						value = existing;
+					} else {
+						map.put(key, value);
+					}
+				}
+			}
+		}
+
+		return value;
+	}
+
+	/**
+	 * Add a value to the cache.
+	 *
+	 * @param key
+	 *            The key.
+	 * @param value
+	 *            The value; must not be null.
+	 */
+	public void put(K key, V value) {
+		synchronized (map) {
+			map.put(key, value);
+		}
+	}
+
+	/**
+	 * @return The number of entries in the cache.
+	 */
+	public int size() {
+		synchronized (map) {
+			return map.size();
+		}
+	}
+
+	/**
+	 * @return The maximum number of entries.
+	 */
+	public int getMaxSize() {
+		synchronized (map) {
+			return maxSize;
+		}
+	}
+
+	/**
+	 * Set the maximum number of entries, evicting the least recently used
+	 * entries if the cache is now too large.
+	 *
+	 * @param maxSize
+	 *            The maximum number of entries; must be positive.
+	 */
+	public void setMaxSize(int maxSize) {
+		checkMaxSize(maxSize);
+
+		synchronized (map) {
+			this.maxSize = maxSize;
+
+			Iterator<K> keys = map.keySet().iterator();
+			while (map.size() > maxSize) {
+				keys.next();
+				keys.remove();
+			}
+		}
+	}
+
+	/**
+	 * @return The number of lookups that found a value.
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return The number of lookups that did not find a value.
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Remove all entries and reset the hit and miss counts.
+	 */
+	public void clear() {
+		synchronized (map) {
+			map.clear();
+		}
+
+		hits.set(0);
+		misses.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("size: %d/%d, hits: %d, misses: %d", size(),
+				getMaxSize(), getHits(), getMisses());
+	}
+
+	// Helpers
+
+	private void checkMaxSize(int maxSize) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("Maximum cache size must be positive: " + maxSize);
+		}
+	}
+}
@@ -0,0 +1,157 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.util;
+
+import java.util.List;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+import java.util.function.ToDoubleFunction;
+
+import org.aavso.tools.vstar.data.ValidObservation;
+
+/**
+ * <p>
+ * Range queries over a list of observations sorted by a time element, e.g. JD
+ * or standard phase.
+ * </p>
+ *
+ * <p>
+ * The bounds of a range are found by binary search, so a query costs O(log n)
+ * plus whatever the caller does with the k observations in range. Observations
+ * in range are returned as a view of the list rather than a copy. A list
+ * without random access is searched linearly.
+ * </p>
+ */
+public class ObservationRangeQuery {
+
+	/**
+	 * The JD of an observation.
+	 */
+	public static final ToDoubleFunction<ValidObservation> JD = ValidObservation::getJD;
+
+	/**
+	 * The standard phase of an observation, or NaN if it has none. NaN is
+	 * greater than any value here, as for Double.compare(), so observations
+	 * without a phase are expected at the end of a list sorted by phase.
+	 */
+	public static final ToDoubleFunction<ValidObservation> STANDARD_PHASE = ob -> {
+		Double phase = ob.getStandardPhase();
+		return phase != null ? phase : Double.NaN;
+	};
+
+	/**
+	 * Return the index of the first observation whose time element is not less
+	 * than the specified value.
+	 *
+	 * @param obs
+	 *            A list of observations sorted by time element.
+	 * @param timeElement
+	 *            The time element of an observation, e.g. JD.
+	 * @param value
+	 *            The value.
+	 * @return The index, which is the size of the list if there is no such
+	 *         observation.
+	 */
+	public static int lowerBound(List<ValidObservation> obs,
+			ToDoubleFunction<ValidObservation> timeElement, double value) {
+		return search(obs, timeElement, value, false);
+	}
+
+	/**
+	 * Return the index of the first observation whose time element is greater
+	 * than the specified value.
+	 *
+	 * @param obs
+	 *            A list of observations sorted by time element.
+	 * @param timeElement
+	 *            The time element of an observation, e.g. JD.
+	 * @param value
+	 *            The value.
+	 * @return The index, which is the size of the list if there is no such
+	 *         observation.
+	 */
+	public static int upperBound(List<ValidObservation> obs,
+			ToDoubleFunction<ValidObservation> timeElement, double value) {
+		return search(obs, timeElement, value, true);
+	}
+
+	/**
+	 * Return the observations whose time element is in a range.
+	 *
+	 * @param obs
+	 *            A list of observations sorted by time element.
+	 * @param timeElement
+	 *            The time element of an observation, e.g. JD.
+	 * @param lowerBound
+	 *            The inclusive lower bound of the range.
+	 * @param upperBound
+	 *            The inclusive upper bound of the range.
+	 * @return A view of the observations in range, backed by the list.
+	 */
+	public static List<ValidObservation> subList(List<ValidObservation> obs,
+			ToDoubleFunction<ValidObservation> timeElement, double lowerBound,
+			double upperBound) {
+
+		int from = lowerBound(obs, timeElement, lowerBound);
+		int to = Math.max(from, upperBound(obs, timeElement, upperBound));
+
+		return obs.subList(from, to);
+	}
+
+	// Helpers
+
+	// Return the index of the first observation whose time element is greater
+	// than the value, or not less than the value if inclusive is false.
+	private static int search(List<ValidObservation> obs,
+			ToDoubleFunction<ValidObservation> timeElement, double value,
+			boolean inclusive) {
+
+		if (obs instanceof RandomAccess) {
+			int low = 0;
+			int high = obs.size();
+
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (isBefore(timeElement.applyAsDouble(obs.get(mid)), value,
+						inclusive)) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+
+			return low;
+		} else {
+			ListIterator<ValidObservation> iter = obs.listIterator();
+
+			while (iter.hasNext()) {
+				if (!isBefore(timeElement.applyAsDouble(iter.next()), value,
+						inclusive)) {
+					return iter.previousIndex();
+				}
+			}
+
+			return obs.size();
+		}
+	}
+
+	private static boolean isBefore(double element, double value,
+			boolean inclusive) {
+		return inclusive ? element <= value : element < value;
+	}
+}
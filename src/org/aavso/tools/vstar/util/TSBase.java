@@ -38,7 +38,7 @@ public class TSBase {
 	protected double damp;
 	protected double damp2;
 	protected double dave;
-	protected double dcoef[] = new double[51];
+	protected double dcoef[];
 	protected double dfouramp2;
 	protected double dfpow;
 	protected double dfre[] = new double[MAX_TOP_HITS];
@@ -53,7 +53,7 @@ public class TSBase {
 	protected double dlper;
 	protected double dlpower;
 	protected double dlamplitude; // dbenn (semi-amplitude?)
-	protected double dmat[][] = new double[51][51];
+	protected double dmat[][];
 	protected double dpower;
 	protected double dsig;
 	protected double dt0;
@@ -63,7 +63,7 @@ public class TSBase {
 	protected double dtvar;
 	protected double dtzero;
 	protected double dvar;
-	protected double dvec[] = new double[51];
+	protected double dvec[];
 	protected double dweight;
 	protected double ff;
 	protected double hifre;
@@ -95,7 +95,9 @@ public class TSBase {
 	protected double wvec[];
 	protected double xvec[];
 
-	protected boolean interrupted;
+	protected volatile boolean interrupted;
+
+	private Projection projection;
 
 	/**
 	 * Constructor.
@@ -115,6 +117,12 @@ public class TSBase {
 		this.xvec = new double[sz];
 		this.wvec = new double[sz];
 
+		// The projection matrices are those of the default evaluation context.
+		projection = new Projection();
+		this.dmat = projection.dmat;
+		this.dvec = projection.dvec;
+		this.dcoef = projection.dcoef;
+
 		interrupted = false;
 	}
 
@@ -297,307 +305,405 @@ public class TSBase {
 	}
 
 	protected void project() throws InterruptedException {
-		double dpow[] = new double[51]; // TODO just 50 (0:50); same for others
-		// below?
-		double drad[] = new double[51];
-		double dcc[] = new double[51];
-		double dss[] = new double[51];
-		double dt, dx, dphase, twopi;
-		int n, n1, n2, nf, nf2, nb, np;
-
-		int ii, jj;
-
-		twopi = 6.283185307179586;
-
-		for (ii = 0; ii <= 50; ii++) {
-			for (jj = 0; jj <= 50; jj++) {
-				dmat[ii][jj] = 0.0;
-			}
-			dvec[ii] = 0.0;
-
-			if (interrupted) {
-				throw new InterruptedException();
-			}
+		projection.nbias = nbias;
+
+		ProjectionOutcome outcome = projection.project(nfre, dfre);
+
+		ndim2 = projection.ndim2;
+		ndim = projection.ndim;
+		nbias = projection.nbias;
+		dweight = projection.dweight;
+
+		// Only copy what the projection assigned, leaving stale values as
+		// they were, as per the original single context code.
+		switch (outcome) {
+		case BELOW_CUTOFF:
+			dfpow = projection.dfpow;
+			dpower = projection.dpower;
+			break;
+		case DUPLICATE_FREQUENCY:
+			dpower = projection.dpower;
+			break;
+		case COMPLETE:
+			damp2 = projection.damp2;
+			dpower = projection.dpower;
+			dfpow = projection.dfpow;
+			damp = projection.damp;
+			break;
 		}
+	}
 
-		ndim2 = npoly + (2 * nfre);
-		ndim = ndim2 + nbias;
-		dweight = 0.0;
+	// -------------------------------------------------------------------------------
 
-		// TODO: why do we zero dmat and dvec again here? we just did it above!
-		for (n1 = 0; n1 <= ndim; n1++) {
-			dvec[n1] = 0.0;
-			for (n2 = 0; n2 <= ndim; n2++) {
-				dmat[n1][n2] = 0.0;
-			}
+	/**
+	 * The outcome of a projection.
+	 */
+	protected enum ProjectionOutcome {
+		/**
+		 * The projection completed, so all results are valid.
+		 */
+		COMPLETE,
+
+		/**
+		 * A frequency was below the cutoff, so only the power values (zero)
+		 * are valid.
+		 */
+		BELOW_CUTOFF,
+
+		/**
+		 * Two frequencies were (almost) the same, so only dpower (zero) is
+		 * valid.
+		 */
+		DUPLICATE_FREQUENCY
+	}
 
-			if (interrupted) {
-				throw new InterruptedException();
-			}
+	/**
+	 * A projection evaluation context. This holds the matrices, work arrays
+	 * and results of projecting the current data onto a set of frequencies,
+	 * only reading the (otherwise unchanging) input data and statistics of the
+	 * enclosing instance. Separate contexts can therefore be used from
+	 * different threads to evaluate different frequencies concurrently, e.g.
+	 * over a frequency scan.
+	 * 
+	 * A context is not itself thread-safe.
+	 */
+	protected class Projection {
+		public double dmat[][] = new double[51][51];
+		public double dvec[] = new double[51];
+		public double dcoef[] = new double[51];
+
+		public int ndim;
+		public int ndim2;
+		public int nbias;
+		public double dweight;
+		public double damp2;
+		public double dpower;
+		public double dfpow;
+		public double damp;
+
+		// TODO just 50 (0:50); same for others below?
+		private double dpow[] = new double[51];
+		private double drad[] = new double[51];
+		private double dcc[] = new double[51];
+		private double dss[] = new double[51];
+		private double dsol[][] = new double[101][101];
+
+		/**
+		 * Constructor
+		 */
+		public Projection() {
+			nbias = TSBase.this.nbias;
 		}
 
-		for (nf = 1; nf <= nfre; nf++) {
-			if (dfre[nf] < dangcut) {
-				dfpow = 0.0;
-				dpower = 0.0;
-				return;
-			}
-
-			drad[nf] = twopi * dfre[nf] * dtscale;
-			for (nf2 = nf + 1; nf2 <= nfre; nf2++) {
-				if (Math.abs(dfre[nf] - dfre[nf2]) < 1E-8) {
-					dpower = 0.0;
-					return;
+		/**
+		 * Project the data onto the specified frequencies.
+		 * 
+		 * @param nfre
+		 *            The number of frequencies.
+		 * @param dfre
+		 *            The frequencies, from index 1 to nfre inclusive.
+		 * @return The outcome of the projection, determining which results
+		 *         are valid.
+		 */
+		public ProjectionOutcome project(int nfre, double[] dfre) throws InterruptedException {
+			double dt, dx, dphase, twopi;
+			int n, n1, n2, nf, nf2, nb, np;
+
+			int ii, jj;
+
+			twopi = 6.283185307179586;
+
+			for (ii = 0; ii <= 50; ii++) {
+				for (jj = 0; jj <= 50; jj++) {
+					dmat[ii][jj] = 0.0;
 				}
-			}
+				dvec[ii] = 0.0;
 
-			if (interrupted) {
-				throw new InterruptedException();
+				if (interrupted) {
+					throw new InterruptedException();
+				}
 			}
-		}
 
-		dpow[0] = 1.0;
-
-		// main loop for summation
-		for (n = nlolim; n <= nuplim; n++) {
-			if (wvec[n] > 0.0) {
-				dweight = dweight + 1.0;
-				dt = tvec[n];
-				dt = (dt - dtzero) / dtscale;
-				dx = xvec[n];
+			ndim2 = npoly + (2 * nfre);
+			ndim = ndim2 + nbias;
+			dweight = 0.0;
 
-				// compute powers of time
-				for (np = 1; np <= npoly; np++) {
-					dpow[np] = dpow[np - 1] * dt;
+			// TODO: why do we zero dmat and dvec again here? we just did it above!
+			for (n1 = 0; n1 <= ndim; n1++) {
+				dvec[n1] = 0.0;
+				for (n2 = 0; n2 <= ndim; n2++) {
+					dmat[n1][n2] = 0.0;
 				}
 
 				if (interrupted) {
 					throw new InterruptedException();
 				}
+			}
+
+			for (nf = 1; nf <= nfre; nf++) {
+				if (dfre[nf] < dangcut) {
+					dfpow = 0.0;
+					dpower = 0.0;
+					return ProjectionOutcome.BELOW_CUTOFF;
+				}
 
-				// compute trig functions
-				for (nf = 1; nf <= nfre; nf++) {
-					dphase = drad[nf] * dt;
-					dcc[nf] = Math.cos(dphase);
-					dss[nf] = Math.sin(dphase);
+				drad[nf] = twopi * dfre[nf] * dtscale;
+				for (nf2 = nf + 1; nf2 <= nfre; nf2++) {
+					if (Math.abs(dfre[nf] - dfre[nf2]) < 1E-8) {
+						dpower = 0.0;
+						return ProjectionOutcome.DUPLICATE_FREQUENCY;
+					}
 				}
 
 				if (interrupted) {
 					throw new InterruptedException();
 				}
+			}
 
-				// compute matrix coefficients for polynomials...
-				for (np = 0; np <= npoly; np++) {
-					dmat[0][np] = dmat[0][np] + dpow[np];
-					if (np > 0) {
-						dmat[np][npoly] = dmat[np][npoly]
-								+ (dpow[np] * dpow[npoly]);
-					}
+			dpow[0] = 1.0;
 
-					// TODO: dmat screws up somewhere between here...
-					// dependent upon dpow, dcc, and dss arrays
+			// main loop for summation
+			for (n = nlolim; n <= nuplim; n++) {
+				if (wvec[n] > 0.0) {
+					dweight = dweight + 1.0;
+					dt = tvec[n];
+					dt = (dt - dtzero) / dtscale;
+					dx = xvec[n];
 
-					dvec[np] = dvec[np] + (dx * dpow[np]);
-					n2 = npoly;
-					// ...and for products of polynomials with trig functions
-					for (nf = 1; nf <= nfre; nf++) {
-						n2 = n2 + 2;
-						dmat[np][n2 - 1] = dmat[np][n2 - 1]
-								+ (dpow[np] * dcc[nf]);
-						dmat[np][n2] = dmat[np][n2] + (dpow[np] * dss[nf]);
+					// compute powers of time
+					for (np = 1; np <= npoly; np++) {
+						dpow[np] = dpow[np - 1] * dt;
 					}
 
 					if (interrupted) {
 						throw new InterruptedException();
 					}
-				}
 
-				// compute matrix values for products of trig functions
-				n1 = npoly;
-				for (nf = 1; nf <= nfre; nf++) {
-					n2 = n1;
-					n1 = n1 + 2;
-					dvec[n1 - 1] = dvec[n1 - 1] + (dx * dcc[nf]);
-					dvec[n1] = dvec[n1] + (dx * dss[nf]);
-					for (nf2 = nf; nf2 <= nfre; nf2++) {
-						n2 = n2 + 2;
-						dmat[n1 - 1][n2 - 1] = dmat[n1 - 1][n2 - 1]
-								+ (dcc[nf] * dcc[nf2]);
-						dmat[n1 - 1][n2] = dmat[n1 - 1][n2]
-								+ (dcc[nf] * dss[nf2]);
-						dmat[n1][n2 - 1] = dmat[n1][n2 - 1]
-								+ (dss[nf] * dcc[nf2]);
-						dmat[n1][n2] = dmat[n1][n2] + (dss[nf] * dss[nf2]);
+					// compute trig functions
+					for (nf = 1; nf <= nfre; nf++) {
+						dphase = drad[nf] * dt;
+						dcc[nf] = Math.cos(dphase);
+						dss[nf] = Math.sin(dphase);
 					}
 
 					if (interrupted) {
 						throw new InterruptedException();
 					}
-				}
 
-				// compute matrix entries for observer bias functions
-				for (nb = 1; nb <= nbias; nb++) {
-					// TODO: equals() vs '==' ?
-					if (obs[n] == obias[nb]) {
-						n2 = ndim2 + nb;
-						dmat[n2][n2] = dmat[n2][n2] + 1.0;
-						dvec[n2] = dvec[n2] + dx;
-						for (np = 0; np <= npoly; np++) {
-							dmat[np][n2] = dmat[np][n2] + dpow[np];
+					// compute matrix coefficients for polynomials...
+					for (np = 0; np <= npoly; np++) {
+						dmat[0][np] = dmat[0][np] + dpow[np];
+						if (np > 0) {
+							dmat[np][npoly] = dmat[np][npoly]
+									+ (dpow[np] * dpow[npoly]);
 						}
-						n1 = npoly;
+
+						// TODO: dmat screws up somewhere between here...
+						// dependent upon dpow, dcc, and dss arrays
+
+						dvec[np] = dvec[np] + (dx * dpow[np]);
+						n2 = npoly;
+						// ...and for products of polynomials with trig functions
 						for (nf = 1; nf <= nfre; nf++) {
-							n1 = n1 + 2;
-							dmat[n1 - 1][n2] = dmat[n1 - 1][n2] + dcc[nf];
-							dmat[n1][n2] = dmat[n1][n2] + dss[nf];
+							n2 = n2 + 2;
+							dmat[np][n2 - 1] = dmat[np][n2 - 1]
+									+ (dpow[np] * dcc[nf]);
+							dmat[np][n2] = dmat[np][n2] + (dpow[np] * dss[nf]);
+						}
+
+						if (interrupted) {
+							throw new InterruptedException();
 						}
 					}
 
-					if (interrupted) {
-						throw new InterruptedException();
+					// compute matrix values for products of trig functions
+					n1 = npoly;
+					for (nf = 1; nf <= nfre; nf++) {
+						n2 = n1;
+						n1 = n1 + 2;
+						dvec[n1 - 1] = dvec[n1 - 1] + (dx * dcc[nf]);
+						dvec[n1] = dvec[n1] + (dx * dss[nf]);
+						for (nf2 = nf; nf2 <= nfre; nf2++) {
+							n2 = n2 + 2;
+							dmat[n1 - 1][n2 - 1] = dmat[n1 - 1][n2 - 1]
+									+ (dcc[nf] * dcc[nf2]);
+							dmat[n1 - 1][n2] = dmat[n1 - 1][n2]
+									+ (dcc[nf] * dss[nf2]);
+							dmat[n1][n2 - 1] = dmat[n1][n2 - 1]
+									+ (dss[nf] * dcc[nf2]);
+							dmat[n1][n2] = dmat[n1][n2] + (dss[nf] * dss[nf2]);
+						}
+
+						if (interrupted) {
+							throw new InterruptedException();
+						}
 					}
-				}
-			}
-		}
-		// end of summation loop
-
-		// check for absent bias observers
-		// TODO: needed?
-		for (n = 1; n <= nbias; n++) {
-			if (dmat[ndim2 + n][ndim2 + n] < 1.0) {
-				// write(6,*) 'absent BIAS Obs: ',obias(n)
-				ndim = ndim2;
-				nbias = 0;
-			}
-		}
 
-		if (interrupted) {
-			throw new InterruptedException();
-		}
+					// compute matrix entries for observer bias functions
+					for (nb = 1; nb <= nbias; nb++) {
+						// TODO: equals() vs '==' ?
+						if (obs[n] == obias[nb]) {
+							n2 = ndim2 + nb;
+							dmat[n2][n2] = dmat[n2][n2] + 1.0;
+							dvec[n2] = dvec[n2] + dx;
+							for (np = 0; np <= npoly; np++) {
+								dmat[np][n2] = dmat[np][n2] + dpow[np];
+							}
+							n1 = npoly;
+							for (nf = 1; nf <= nfre; nf++) {
+								n1 = n1 + 2;
+								dmat[n1 - 1][n2] = dmat[n1 - 1][n2] + dcc[nf];
+								dmat[n1][n2] = dmat[n1][n2] + dss[nf];
+							}
+						}
 
-		for (n1 = 1; n1 <= npoly - 1; n1++) {
-			for (n2 = n1; n2 <= npoly - 1; n2++) {
-				dmat[n1][n2] = dmat[n1 - 1][n2 + 1];
+						if (interrupted) {
+							throw new InterruptedException();
+						}
+					}
+				}
+			}
+			// end of summation loop
+
+			// check for absent bias observers
+			// TODO: needed?
+			for (n = 1; n <= nbias; n++) {
+				if (dmat[ndim2 + n][ndim2 + n] < 1.0) {
+					// write(6,*) 'absent BIAS Obs: ',obias(n)
+					ndim = ndim2;
+					nbias = 0;
+				}
 			}
 
 			if (interrupted) {
 				throw new InterruptedException();
 			}
-		}
 
-		for (n1 = 0; n1 <= ndim; n1++) {
-			dvec[n1] = dvec[n1] / dweight;
-			for (n2 = n1; n2 <= ndim; n2++) {
-				dmat[n1][n2] = dmat[n1][n2] / dweight;
-			}
+			for (n1 = 1; n1 <= npoly - 1; n1++) {
+				for (n2 = n1; n2 <= npoly - 1; n2++) {
+					dmat[n1][n2] = dmat[n1 - 1][n2 + 1];
+				}
 
-			if (interrupted) {
-				throw new InterruptedException();
+				if (interrupted) {
+					throw new InterruptedException();
+				}
 			}
-		}
 
-		dmat[0][0] = 1.0;
-		for (n1 = 1; n1 <= ndim; n1++) {
-			for (n2 = 0; n2 <= n1 - 1; n2++) {
-				dmat[n1][n2] = dmat[n2][n1];
-			}
+			for (n1 = 0; n1 <= ndim; n1++) {
+				dvec[n1] = dvec[n1] / dweight;
+				for (n2 = n1; n2 <= ndim; n2++) {
+					dmat[n1][n2] = dmat[n1][n2] / dweight;
+				}
 
-			if (interrupted) {
-				throw new InterruptedException();
+				if (interrupted) {
+					throw new InterruptedException();
+				}
 			}
-		}
 
-		matinv();
+			dmat[0][0] = 1.0;
+			for (n1 = 1; n1 <= ndim; n1++) {
+				for (n2 = 0; n2 <= n1 - 1; n2++) {
+					dmat[n1][n2] = dmat[n2][n1];
+				}
 
-		damp2 = 0.0;
-		for (n1 = 0; n1 <= ndim; n1++) {
-			dcoef[n1] = 0.0;
-			for (n2 = 0; n2 <= ndim; n2++) {
-				dcoef[n1] = dcoef[n1] + (dmat[n1][n2] * dvec[n2]);
+				if (interrupted) {
+					throw new InterruptedException();
+				}
 			}
-			damp2 = damp2 + (dcoef[n1] * dvec[n1]);
 
-			if (interrupted) {
-				throw new InterruptedException();
-			}
-		}
+			matinv();
 
-		damp2 = damp2 - (dave * dave);
-		if (damp2 < 0.0)
 			damp2 = 0.0;
-		if (ndim > 0) {
-			dpower = (double) (numact - 1) * damp2 / dvar / (double) (ndim);
-		} else {
-			dpower = 0.0;
-		}
+			for (n1 = 0; n1 <= ndim; n1++) {
+				dcoef[n1] = 0.0;
+				for (n2 = 0; n2 <= ndim; n2++) {
+					dcoef[n1] = dcoef[n1] + (dmat[n1][n2] * dvec[n2]);
+				}
+				damp2 = damp2 + (dcoef[n1] * dvec[n1]);
 
-		// compute Fourier power, amplitude squared
+				if (interrupted) {
+					throw new InterruptedException();
+				}
+			}
 
-		dfpow = (double) (numact - 1) * (damp2 - dfouramp2);
-		dfpow = dfpow / (dvar - dfouramp2) / 2.0;
-		damp = 2.0 * (damp2 - dfouramp2);
-		if (damp < 0.0)
-			damp = 0.0;
-		damp = Math.sqrt(damp);
-	}
+			damp2 = damp2 - (dave * dave);
+			if (damp2 < 0.0)
+				damp2 = 0.0;
+			if (ndim > 0) {
+				dpower = (double) (numact - 1) * damp2 / dvar / (double) (ndim);
+			} else {
+				dpower = 0.0;
+			}
 
-	// -------------------------------------------------------------------------------
+			// compute Fourier power, amplitude squared
 
-	protected void matinv() {
-		double dsol[][] = new double[101][101];
-		double dfac = 0;
-		int ni = 0;
-		int nj = 0;
-		int nk = 0;
+			dfpow = (double) (numact - 1) * (damp2 - dfouramp2);
+			dfpow = dfpow / (dvar - dfouramp2) / 2.0;
+			damp = 2.0 * (damp2 - dfouramp2);
+			if (damp < 0.0)
+				damp = 0.0;
+			damp = Math.sqrt(damp);
 
-		for (ni = 0; ni <= ndim; ni++) {
-			for (nj = 0; nj <= ndim; nj++) {
-				dsol[ni][nj] = 0.0;
-			}
-			dsol[ni][ni] = 1.0;
+			return ProjectionOutcome.COMPLETE;
 		}
 
-		for (ni = 0; ni <= ndim; ni++) {
-			if (dmat[ni][ni] == 0.0) {
-				if (ni == ndim)
-					return;
-				boolean exit_and_carry_on = false;
-				for (nj = ni + 1; nj <= ndim; nj++) {
-					if (dmat[nj][ni] != 0.0) {
-						exit_and_carry_on = true;
-						break;
-					}
-				}
+		// -------------------------------------------------------------------------------
 
-				if (!exit_and_carry_on)
-					return;
+		private void matinv() {
+			double dfac = 0;
+			int ni = 0;
+			int nj = 0;
+			int nk = 0;
 
-				for (nk = 0; nk <= ndim; nk++) {
-					dmat[ni][nk] = dmat[ni][nk] + dmat[nj][nk];
-					dsol[ni][nk] = dsol[ni][nk] + dsol[nj][nk];
+			for (ni = 0; ni <= ndim; ni++) {
+				for (nj = 0; nj <= ndim; nj++) {
+					dsol[ni][nj] = 0.0;
 				}
+				dsol[ni][ni] = 1.0;
 			}
 
-			dfac = dmat[ni][ni];
-			for (nj = 0; nj <= ndim; nj++) {
-				dmat[ni][nj] = dmat[ni][nj] / dfac;
-				dsol[ni][nj] = dsol[ni][nj] / dfac;
-			}
+			for (ni = 0; ni <= ndim; ni++) {
+				if (dmat[ni][ni] == 0.0) {
+					if (ni == ndim)
+						return;
+					boolean exit_and_carry_on = false;
+					for (nj = ni + 1; nj <= ndim; nj++) {
+						if (dmat[nj][ni] != 0.0) {
+							exit_and_carry_on = true;
+							break;
+						}
+					}
+
+					if (!exit_and_carry_on)
+						return;
 
-			for (nj = 0; nj <= ndim; nj++) {
-				if (nj != ni) {
-					dfac = dmat[nj][ni];
 					for (nk = 0; nk <= ndim; nk++) {
-						dmat[nj][nk] = dmat[nj][nk] - (dmat[ni][nk] * dfac);
-						dsol[nj][nk] = dsol[nj][nk] - (dsol[ni][nk] * dfac);
+						dmat[ni][nk] = dmat[ni][nk] + dmat[nj][nk];
+						dsol[ni][nk] = dsol[ni][nk] + dsol[nj][nk];
+					}
+				}
+
+				dfac = dmat[ni][ni];
+				for (nj = 0; nj <= ndim; nj++) {
+					dmat[ni][nj] = dmat[ni][nj] / dfac;
+					dsol[ni][nj] = dsol[ni][nj] / dfac;
+				}
+
+				for (nj = 0; nj <= ndim; nj++) {
+					if (nj != ni) {
+						dfac = dmat[nj][ni];
+						for (nk = 0; nk <= ndim; nk++) {
+							dmat[nj][nk] = dmat[nj][nk] - (dmat[ni][nk] * dfac);
+							dsol[nj][nk] = dsol[nj][nk] - (dsol[ni][nk] * dfac);
+						}
 					}
 				}
 			}
-		}
 
-		for (ni = 0; ni <= ndim; ni++) {
-			for (nj = 0; nj <= ndim; nj++) {
-				dmat[ni][nj] = dsol[ni][nj];
+			for (ni = 0; ni <= ndim; ni++) {
+				for (nj = 0; nj <= ndim; nj++) {
+					dmat[ni][nj] = dsol[ni][nj];
+				}
 			}
 		}
 	}
@@ -0,0 +1,190 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.util;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * A thread-safe interner of immutable value objects, such that equal values
+ * may share a single instance. Interned values are weakly held, so a value is
+ * discarded once it is no longer used elsewhere.
+ * </p>
+ *
+ * <p>
+ * Values are spread over a number of independently locked stripes by hash
+ * code, so threads interning different values rarely contend. Hits and misses
+ * are counted, from which the number of bytes saved by sharing instances is
+ * estimated.
+ * </p>
+ */
+public class WeakInterner<T> {
+
+	private final static int MAX_STRIPES = 64;
+
+	private String name;
+	private long instanceSize;
+
+	private WeakHashMap<T, WeakReference<T>>[] stripes;
+
+	private LongAdder hits;
+	private LongAdder misses;
+
+	/**
+	 * Constructor
+	 *
+	 * @param name
+	 *            The name of the interner, e.g. the type of its values.
+	 * @param instanceSize
+	 *            The approximate size in bytes of a value instance, used to
+	 *            estimate the number of bytes saved.
+	 */
+	@SuppressWarnings("unchecked")
+	public WeakInterner(String name, long instanceSize) {
+		this.name = name;
+		this.instanceSize = instanceSize;
+
+		// A power of two number of stripes, a few per processor.
+		int stripeCount = Integer.highestOneBit(Math.min(MAX_STRIPES, Runtime
+				.getRuntime().availableProcessors() * 4) * 2 - 1);
+
+		stripes = new WeakHashMap[stripeCount];
+		for (int i = 0; i < stripeCount; i++) {
+			stripes[i] = new WeakHashMap<T, WeakReference<T>>();
+		}
+
+		hits = new LongAdder();
+		misses = new LongAdder();
+	}
+
+	/**
+	 * Return the interned instance equal to the specified value, interning the
+	 * value if there is none.
+	 *
+	 * @param value
+	 *            The value; may be null.
+	 * @return The interned value, or null if the value is null.
+	 */
+	public T intern(T value) {
+		if (value == null) {
+			return null;
+		}
+
+		WeakHashMap<T, WeakReference<T>> stripe = getStripe(value);
+
+		T interned;
+
+		synchronized (stripe) {
+			WeakReference<T> ref = stripe.get(value);
+			interned = ref != null ? ref.get() : null;
+
+			if (interned == null) {
+				stripe.put(value, new WeakReference<T>(value));
+			}
+		}
+
+		if (interned != null) {
+			hits.increment();
+		} else {
+			misses.increment();
+			interned = value;
+		}
+
+		return interned;
+	}
+
+	/**
+	 * @return The name of the interner.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return The number of interned values not yet discarded.
+	 */
+	public int size() {
+		int size = 0;
+
+		for (WeakHashMap<T, WeakReference<T>> stripe : stripes) {
+			synchronized (stripe) {
+				size += stripe.size();
+			}
+		}
+
+		return size;
+	}
+
+	/**
+	 * @return The number of values for which an interned instance was found.
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return The number of values that were interned.
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return The proportion of values for which an interned instance was
+	 *         found, or 0 if no values have been interned.
+	 */
+	public double getHitRate() {
+		long hitCount = getHits();
+		long total = hitCount + getMisses();
+		return total != 0 ? (double) hitCount / total : 0;
+	}
+
+	/**
+	 * @return The approximate number of bytes saved by returning interned
+	 *         instances in place of equal values, ignoring any objects
+	 *         referred to by the values.
+	 */
+	public long getBytesSaved() {
+		return getHits() * instanceSize;
+	}
+
+	/**
+	 * Reset the hit and miss counts.
+	 */
+	public void resetStatistics() {
+		hits.reset();
+		misses.reset();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: size: %d, hits: %d, misses: %d, "
+				+ "hit rate: %.2f, bytes saved: %d", name, size(), getHits(),
+				getMisses(), getHitRate(), getBytesSaved());
+	}
+
+	// Helpers
+
+	private WeakHashMap<T, WeakReference<T>> getStripe(T value) {
+		int hash = value.hashCode();
+		hash ^= hash >>> 16;
+		return stripes[hash & (stripes.length - 1)];
+	}
+}
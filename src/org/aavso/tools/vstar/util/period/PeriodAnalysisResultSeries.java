@@ -0,0 +1,223 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.util.period;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * A columnar period analysis result series, consisting of one growable
+ * primitive double column per coordinate type.
+ *
+ * An algorithm adds values to columns as primitives, so a large sweep costs 8
+ * bytes per value rather than a boxed Double and a list reference. Existing
+ * consumers of IPeriodAnalysisAlgorithm.getResultSeries() (e.g. table and plot
+ * models) use the map view returned by asMap(), whose lists box values only
+ * on access.
+ */
+public class PeriodAnalysisResultSeries {
+
+	private final static int INITIAL_CAPACITY = 64;
+
+	private Map<PeriodAnalysisCoordinateType, Column> columns;
+	private Map<PeriodAnalysisCoordinateType, List<Double>> view;
+
+	/**
+	 * Constructor
+	 *
+	 * @param types
+	 *            The coordinate types, in column order.
+	 */
+	public PeriodAnalysisResultSeries(PeriodAnalysisCoordinateType... types) {
+		columns = new LinkedHashMap<PeriodAnalysisCoordinateType, Column>();
+		Map<PeriodAnalysisCoordinateType, List<Double>> lists = new LinkedHashMap<PeriodAnalysisCoordinateType, List<Double>>();
+
+		for (PeriodAnalysisCoordinateType type : types) {
+			Column column = new Column();
+			columns.put(type, column);
+			lists.put(type, column);
+		}
+
+		view = Collections.unmodifiableMap(lists);
+	}
+
+	/**
+	 * Return the column for the specified coordinate type.
+	 *
+	 * @param type
+	 *            The coordinate type.
+	 * @return The column, or null if there is no column of this type.
+	 */
+	public Column getColumn(PeriodAnalysisCoordinateType type) {
+		return columns.get(type);
+	}
+
+	/**
+	 * @return A map view of the columns, in column order, suitable for
+	 *         returning from IPeriodAnalysisAlgorithm.getResultSeries(). The
+	 *         map cannot be modified but its lists reflect column changes.
+	 */
+	public Map<PeriodAnalysisCoordinateType, List<Double>> asMap() {
+		return view;
+	}
+
+	/**
+	 * Remove all values from all columns.
+	 */
+	public void clear() {
+		for (Column column : columns.values()) {
+			column.clear();
+		}
+	}
+
+	/**
+	 * A growable primitive double column that is also a list of Doubles.
+	 */
+	public static class Column extends AbstractList<Double> implements
+			RandomAccess {
+
+		private double[] values;
+		private int size;
+
+		/**
+		 * Constructor
+		 */
+		public Column() {
+			values = new double[INITIAL_CAPACITY];
+			size = 0;
+		}
+
+		/**
+		 * Add a value to the end of the column.
+		 *
+		 * @param value
+		 *            The value to add.
+		 */
+		public void add(double value) {
+			ensureCapacity(size + 1);
+			values[size++] = value;
+			modCount++;
+		}
+
+		/**
+		 * Add values to the end of the column.
+		 *
+		 * @param source
+		 *            The source array.
+		 * @param from
+		 *            The first index of the source array to add.
+		 * @param count
+		 *            The number of values to add.
+		 */
+		public void addAll(double[] source, int from, int count) {
+			ensureCapacity(size + count);
+			System.arraycopy(source, from, values, size, count);
+			size += count;
+			modCount++;
+		}
+
+		/**
+		 * Return the value at the specified index without boxing it.
+		 *
+		 * @param index
+		 *            The index.
+		 * @return The value.
+		 */
+		public double getDouble(int index) {
+			checkIndex(index);
+			return values[index];
+		}
+
+		/**
+		 * @return A copy of the column's values.
+		 */
+		public double[] toDoubleArray() {
+			return Arrays.copyOf(values, size);
+		}
+
+		@Override
+		public Double get(int index) {
+			return getDouble(index);
+		}
+
+		@Override
+		public Double set(int index, Double value) {
+			checkIndex(index);
+			double old = values[index];
+			values[index] = value;
+			return old;
+		}
+
+		@Override
+		public void add(int index, Double value) {
+			if (index < 0 || index > size) {
+				throw new IndexOutOfBoundsException("Index: " + index
+						+ ", Size: " + size);
+			}
+
+			ensureCapacity(size + 1);
+			System.arraycopy(values, index, values, index + 1, size - index);
+			values[index] = value;
+			size++;
+			modCount++;
+		}
+
+		@Override
+		public Double remove(int index) {
+			checkIndex(index);
+			double old = values[index];
+			System.arraycopy(values, index + 1, values, index, size - index - 1);
+			size--;
+			modCount++;
+			return old;
+		}
+
+		@Override
+		public void clear() {
+			size = 0;
+			modCount++;
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		// Helpers
+
+		private void checkIndex(int index) {
+			if (index < 0 || index >= size) {
+				throw new IndexOutOfBoundsException("Index: " + index
+						+ ", Size: " + size);
+			}
+		}
+
+		private void ensureCapacity(int capacity) {
+			if (capacity > values.length) {
+				int newCapacity = Math.max(capacity, values.length
+						+ (values.length >> 1));
+				values = Arrays.copyOf(values, newCapacity);
+			}
+		}
+	}
+}
@@ -0,0 +1,173 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.util.period;
+
+/**
+ * A fixed-capacity heap that tracks the top hits of a period analysis sweep.
+ *
+ * Each offered hit consists of a ranking value (e.g. F-statistic, power,
+ * scatter) and the index of the corresponding trial in the algorithm's result
+ * series. The heap's root is always the worst hit retained so far, so each
+ * offer is O(log k) for a capacity of k, and the result series need only be
+ * indexed to create ordered top hit lists once a sweep has finished.
+ *
+ * Where two hits have the same value, the one with the lower index ranks
+ * higher. NaN values are never retained.
+ */
+public class TopHitsHeap {
+
+	private double[] values;
+	private int[] indices;
+	private int size;
+	private boolean largestFirst;
+
+	/**
+	 * Constructor
+	 *
+	 * @param capacity
+	 *            The maximum number of hits to retain.
+	 * @param largestFirst
+	 *            Do larger values rank higher than smaller values?
+	 */
+	public TopHitsHeap(int capacity, boolean largestFirst) {
+		assert capacity >= 0;
+
+		values = new double[capacity];
+		indices = new int[capacity];
+		size = 0;
+		this.largestFirst = largestFirst;
+	}
+
+	/**
+	 * Offer a hit to the heap. It is retained if the heap is not yet full or
+	 * if it ranks higher than the worst hit retained so far.
+	 *
+	 * @param value
+	 *            The ranking value.
+	 * @param index
+	 *            The result series index corresponding to the value.
+	 */
+	public void offer(double value, int index) {
+		if (Double.isNaN(value) || values.length == 0) {
+			return;
+		}
+
+		if (size < values.length) {
+			values[size] = value;
+			indices[size] = index;
+			siftUp(size++);
+		} else if (ranksHigher(value, index, values[0], indices[0])) {
+			values[0] = value;
+			indices[0] = index;
+			siftDown(0, size);
+		}
+	}
+
+	/**
+	 * @return The number of hits retained.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return The result series indices of the retained hits, from highest to
+	 *         lowest ranked.
+	 */
+	public int[] getOrderedIndices() {
+		// Heap sort a copy by repeatedly moving the worst remaining hit to
+		// the end, leaving the best hit first.
+		TopHitsHeap sorted = new TopHitsHeap(this);
+		for (int end = size - 1; end > 0; end--) {
+			sorted.swap(0, end);
+			sorted.siftDown(0, end);
+		}
+
+		int[] ordered = new int[size];
+		System.arraycopy(sorted.indices, 0, ordered, 0, size);
+
+		return ordered;
+	}
+
+	// Helpers
+
+	// Copy constructor
+	private TopHitsHeap(TopHitsHeap other) {
+		values = other.values.clone();
+		indices = other.indices.clone();
+		size = other.size;
+		largestFirst = other.largestFirst;
+	}
+
+	// Does hit a rank higher than hit b?
+	private boolean ranksHigher(double valueA, int indexA, double valueB, int indexB) {
+		if (valueA != valueB) {
+			return largestFirst ? valueA > valueB : valueA < valueB;
+		} else {
+			return indexA < indexB;
+		}
+	}
+
+	// Is the hit at heap position i worse than that at j?
+	private boolean worse(int i, int j) {
+		return ranksHigher(values[j], indices[j], values[i], indices[i]);
+	}
+
+	private void siftUp(int i) {
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (!worse(i, parent)) {
+				break;
+			}
+			swap(i, parent);
+			i = parent;
+		}
+	}
+
+	private void siftDown(int i, int end) {
+		while (true) {
+			int left = 2 * i + 1;
+			if (left >= end) {
+				break;
+			}
+
+			int child = left;
+			int right = left + 1;
+			if (right < end && worse(right, left)) {
+				child = right;
+			}
+
+			if (!worse(child, i)) {
+				break;
+			}
+
+			swap(i, child);
+			i = child;
+		}
+	}
+
+	private void swap(int i, int j) {
+		double value = values[i];
+		values[i] = values[j];
+		values[j] = value;
+
+		int index = indices[i];
+		indices[i] = indices[j];
+		indices[j] = index;
+	}
+}
@@ -0,0 +1,360 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.util.period.aov;
+
+import org.aavso.tools.vstar.util.stats.PhaseCalcs;
+import org.apache.commons.math.MathException;
+import org.apache.commons.math.special.Beta;
+
+/**
+ * An Analysis of Variance (AoV) engine that computes the one-way ANOVA
+ * F-statistic and p-value of phase binned magnitudes for a trial period.
+ *
+ * Magnitudes are binned exactly as per
+ * DescStats.createSymmetricBinnedObservations() applied to observations sorted
+ * by standard phase: bins are anchored on observations, working leftwards and
+ * then rightwards from the middle of the phase ordered data, each bin spanning
+ * at most 1/bins of a cycle. Rather than phasing, sorting and binning copies of
+ * ValidObservation objects, phases, sort order and per-bin sums are computed
+ * in primitive arrays that are allocated once at construction time.
+ *
+ * F and p values are computed as per BinningResult (Apache Commons Math's
+ * OneWayAnovaImpl): bins whose mean is NaN are ignored and a bin containing a
+ * single magnitude is treated as containing that magnitude twice (see
+ * DescStats.createMeanObservationForRange()).
+ *
+ * An instance holds mutable accumulators so is not thread-safe; a separate
+ * instance should be created for each worker thread.
+ *
+ * Reference: Schwarzenberg-Czerny, A. (1989), MNRAS 241, 153
+ */
+public class AoVEngine {
+
+	private double[] times;
+	private double[] mags;
+	private double[] phases;
+	private double binWidth;
+
+	// Phase sort order (stable, so that equal phases retain time order) and
+	// the phases and magnitudes in that order.
+	private int[] order;
+	private int[] scratch;
+	private double[] sortedPhases;
+	private double[] sortedMags;
+
+	// Per-trial-period group accumulators.
+	private int groups;
+	private int n;
+	private double totalSum;
+	private double totalSumSq;
+	private double withinSS;
+
+	private double fValue;
+	private double pValue;
+	private int betweenGroupDF;
+	private int withinGroupDF;
+
+	/**
+	 * Constructor
+	 *
+	 * @param times
+	 *            The observation times (e.g. JD); these are copied.
+	 * @param mags
+	 *            The corresponding magnitudes; these are copied.
+	 * @param bins
+	 *            The number of phase bins per cycle, i.e. each bin spans at
+	 *            most 1/bins of a cycle.
+	 */
+	public AoVEngine(double[] times, double[] mags, int bins) {
+		// Pre-conditions.
+		assert times.length == mags.length;
+		assert bins > 0;
+
+		this.times = times.clone();
+		this.phases = new double[times.length];
+		this.binWidth = 1.0 / bins;
+
+		// Magnitudes are centred on their mean to avoid loss of precision when
+		// computing sums of squares; this does not change F or p.
+		double total = 0;
+		for (int i = 0; i < mags.length; i++) {
+			total += mags[i];
+		}
+		double mean = mags.length == 0 ? 0 : total / mags.length;
+
+		this.mags = new double[mags.length];
+		for (int i = 0; i < mags.length; i++) {
+			this.mags[i] = mags[i] - mean;
+		}
+
+		order = new int[times.length];
+		scratch = new int[times.length];
+		sortedPhases = new double[times.length];
+		sortedMags = new double[times.length];
+
+		reset();
+	}
+
+	/**
+	 * Compute the F-statistic and p-value for the specified trial period.
+	 *
+	 * @param epoch
+	 *            An epoch (starting JD).
+	 * @param period
+	 *            The trial period.
+	 */
+	public void analyse(double epoch, double period) {
+		reset();
+
+		int count = times.length;
+
+		// As per createSymmetricBinnedObservations(), there must be more than
+		// one observation to bin.
+		if (count < 2) {
+			return;
+		}
+
+		// Calculate phases on this thread, since trial periods are normally
+		// analysed in parallel.
+		PhaseCalcs.calcStandardPhases(times, 0, count, epoch, period, phases);
+
+		sortByPhase();
+
+		for (int i = 0; i < count; i++) {
+			sortedPhases[i] = phases[order[i]];
+			sortedMags[i] = mags[order[i]];
+		}
+
+		groups = 0;
+		n = 0;
+		totalSum = 0;
+		totalSumSq = 0;
+		withinSS = 0;
+
+		binLeftmost(count / 2 - 1);
+		binRightmost(count / 2, count);
+
+		if (groups >= 2) {
+			double totalSS = totalSumSq - totalSum * totalSum / n;
+			double betweenSS = totalSS - withinSS;
+
+			betweenGroupDF = groups - 1;
+			withinGroupDF = n - groups;
+
+			fValue = (betweenSS / betweenGroupDF) / (withinSS / withinGroupDF);
+			pValue = calcPValue(fValue, betweenGroupDF, withinGroupDF);
+		}
+	}
+
+	/**
+	 * @return the F-statistic for the most recent trial period, or NaN if
+	 *         there was insufficient data
+	 */
+	public double getFValue() {
+		return fValue;
+	}
+
+	/**
+	 * @return the p-value for the most recent trial period, or NaN if there
+	 *         was insufficient data
+	 */
+	public double getPValue() {
+		return pValue;
+	}
+
+	/**
+	 * @return the between-group degrees of freedom: K-1 where K is the number
+	 *         of bins
+	 */
+	public int getBetweenGroupDF() {
+		return betweenGroupDF;
+	}
+
+	/**
+	 * @return the within-group degrees of freedom: N-K where N is the number
+	 *         of binned magnitudes
+	 */
+	public int getWithinGroupDF() {
+		return withinGroupDF;
+	}
+
+	/**
+	 * Does the most recent trial period have sane F-test and p-values?
+	 *
+	 * @return Whether or not the ANOVA values are valid.
+	 */
+	public boolean hasValidAnovaValues() {
+		return !Double.isNaN(fValue);
+	}
+
+	// Helpers
+
+	private void reset() {
+		fValue = Double.NaN;
+		pValue = Double.NaN;
+		betweenGroupDF = 0;
+		withinGroupDF = 0;
+	}
+
+	// Bin sorted phases from the start index leftwards, as per
+	// DescStats.createLeftmostBinnedObservations().
+	private void binLeftmost(int startIndex) {
+		int maxIndex = startIndex;
+		double maxPhase = sortedPhases[maxIndex];
+
+		int i = startIndex - 1;
+
+		boolean finished = false;
+
+		while (!finished) {
+			if (i >= 0 && sortedPhases[i] + binWidth > maxPhase) {
+				i--;
+			} else {
+				addBin(i + 1, maxIndex);
+
+				if (i >= 0) {
+					maxIndex = i;
+					maxPhase = sortedPhases[maxIndex];
+					i--;
+				} else {
+					finished = true;
+				}
+			}
+		}
+	}
+
+	// Bin sorted phases from the start index rightwards, as per
+	// DescStats.createRightmostBinnedObservations().
+	private void binRightmost(int startIndex, int count) {
+		int minIndex = startIndex;
+		double minPhase = sortedPhases[minIndex];
+
+		int i = startIndex + 1;
+
+		boolean finished = false;
+
+		while (!finished) {
+			if (i < count && minPhase + binWidth > sortedPhases[i]) {
+				i++;
+			} else {
+				addBin(minIndex, i - 1);
+
+				if (i < count) {
+					minIndex = i;
+					minPhase = sortedPhases[minIndex];
+					i++;
+				} else {
+					finished = true;
+				}
+			}
+		}
+	}
+
+	// Accumulate the sorted magnitudes in the inclusive index range as one
+	// group of the analysis of variance.
+	private void addBin(int minIndex, int maxIndex) {
+		int count = maxIndex - minIndex + 1;
+		double sum = 0;
+		double sumSq = 0;
+
+		for (int i = minIndex; i <= maxIndex; i++) {
+			double mag = sortedMags[i];
+			sum += mag;
+			sumSq += mag * mag;
+		}
+
+		// A bin whose mean is NaN is excluded.
+		if (Double.isNaN(sum)) {
+			return;
+		}
+
+		if (count == 1) {
+			count = 2;
+			sum *= 2;
+			sumSq *= 2;
+		}
+
+		groups++;
+		n += count;
+		totalSum += sum;
+		totalSumSq += sumSq;
+		withinSS += sumSq - sum * sum / count;
+	}
+
+	// A stable bottom-up merge sort of observation indices by phase, leaving
+	// the result in the order array. This has the same ordering as sorting
+	// observations with StandardPhaseComparator.
+	private void sortByPhase() {
+		int count = order.length;
+
+		for (int i = 0; i < count; i++) {
+			order[i] = i;
+		}
+
+		int[] src = order;
+		int[] dst = scratch;
+
+		for (int width = 1; width < count; width *= 2) {
+			for (int lo = 0; lo < count; lo += 2 * width) {
+				int mid = Math.min(lo + width, count);
+				int hi = Math.min(lo + 2 * width, count);
+
+				int i = lo;
+				int j = mid;
+
+				for (int k = lo; k < hi; k++) {
+					if (i < mid
+							&& (j >= hi || Double.compare(phases[src[i]],
+									phases[src[j]]) <= 0)) {
+						dst[k] = src[i++];
+					} else {
+						dst[k] = src[j++];
+					}
+				}
+			}
+
+			int[] tmp = src;
+			src = dst;
+			dst = tmp;
+		}
+
+		if (src != order) {
+			System.arraycopy(src, 0, order, 0, count);
+		}
+	}
+
+	// The upper tail probability of the F distribution, computed directly from
+	// the regularized incomplete beta function as per FDistributionImpl, but
+	// without creating a distribution object per trial period.
+	private static double calcPValue(double f, int numeratorDF, int denominatorDF) {
+		if (Double.isNaN(f)) {
+			return Double.NaN;
+		} else if (f <= 0) {
+			return 1.0;
+		}
+
+		double n = numeratorDF;
+		double m = denominatorDF;
+
+		try {
+			return 1.0 - Beta.regularizedBeta((n * f) / (m + n * f), 0.5 * n, 0.5 * m);
+		} catch (MathException e) {
+			return Double.NaN;
+		}
+	}
+}
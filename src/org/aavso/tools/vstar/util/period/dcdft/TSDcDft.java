@@ -21,6 +21,8 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.aavso.tools.vstar.data.DateInfo;
 import org.aavso.tools.vstar.data.Magnitude;
@@ -33,6 +35,7 @@ import org.aavso.tools.vstar.util.model.PeriodAnalysisDerivedMultiPeriodicModel;
 import org.aavso.tools.vstar.util.model.PeriodFitParameters;
 import org.aavso.tools.vstar.util.period.IPeriodAnalysisAlgorithm;
 import org.aavso.tools.vstar.util.period.PeriodAnalysisCoordinateType;
+import org.aavso.tools.vstar.util.period.PeriodAnalysisResultSeries;
 
 /**
  * This class computes a Date Compensated Discrete Fourier Transform over an
@@ -66,6 +69,11 @@ import org.aavso.tools.vstar.util.period.PeriodAnalysisCoordinateType;
 
 public class TSDcDft extends TSBase implements IPeriodAnalysisAlgorithm {
 
+	// Evaluate the frequencies of a scan concurrently?
+	private final static boolean USE_MULTI_THREAD_VERSION = true;
+
+	private boolean multiThreaded;
+
 	private DcDftAnalysisType analysisType;
 
 	private PeriodAnalysisCoordinateType[] coordTypes;
@@ -81,7 +89,11 @@ public class TSDcDft extends TSBase implements IPeriodAnalysisAlgorithm {
 
 	private int nbest;
 
-	private Map<PeriodAnalysisCoordinateType, List<Double>> resultSeries;
+	private PeriodAnalysisResultSeries resultSeries;
+	private PeriodAnalysisResultSeries.Column frequencies;
+	private PeriodAnalysisResultSeries.Column periods;
+	private PeriodAnalysisResultSeries.Column powers;
+	private PeriodAnalysisResultSeries.Column semiAmplitudes;
 	private Map<PeriodAnalysisCoordinateType, List<Double>> topHits;
 	private List<PeriodAnalysisDataPoint> deltaTopHits;
 
@@ -96,6 +108,8 @@ public class TSDcDft extends TSBase implements IPeriodAnalysisAlgorithm {
 	public TSDcDft(List<ValidObservation> observations) {
 		super(observations);
 
+		this.multiThreaded = USE_MULTI_THREAD_VERSION;
+
 		this.analysisType = DcDftAnalysisType.STANDARD_SCAN;
 
 		coordTypes = new PeriodAnalysisCoordinateType[] {
@@ -104,10 +118,13 @@ public class TSDcDft extends TSBase implements IPeriodAnalysisAlgorithm {
 				PeriodAnalysisCoordinateType.POWER,
 				PeriodAnalysisCoordinateType.SEMI_AMPLITUDE };
 
-		resultSeries = new LinkedHashMap<PeriodAnalysisCoordinateType, List<Double>>();
-		for (PeriodAnalysisCoordinateType type : coordTypes) {
-			resultSeries.put(type, new ArrayList<Double>());
-		}
+		resultSeries = new PeriodAnalysisResultSeries(coordTypes);
+		frequencies = resultSeries
+				.getColumn(PeriodAnalysisCoordinateType.FREQUENCY);
+		periods = resultSeries.getColumn(PeriodAnalysisCoordinateType.PERIOD);
+		powers = resultSeries.getColumn(PeriodAnalysisCoordinateType.POWER);
+		semiAmplitudes = resultSeries
+				.getColumn(PeriodAnalysisCoordinateType.SEMI_AMPLITUDE);
 
 		deltaTopHits = new ArrayList<PeriodAnalysisDataPoint>();
 
@@ -167,6 +184,17 @@ public class TSDcDft extends TSBase implements IPeriodAnalysisAlgorithm {
 		interrupted = true;
 	}
 
+	/**
+	 * Set whether the frequencies of a scan are evaluated concurrently (the
+	 * default) or one at a time, as per the original Fortran code.
+	 * 
+	 * @param multiThreaded
+	 *            Evaluate the frequencies of a scan concurrently?
+	 */
+	void setMultiThreaded(boolean multiThreaded) {
+		this.multiThreaded = multiThreaded;
+	}
+
 	// -------------------------------------------------------------------------------
 
 	/**
@@ -269,7 +297,7 @@ public class TSDcDft extends TSBase implements IPeriodAnalysisAlgorithm {
 	 * @return the resultSeries
 	 */
 	public Map<PeriodAnalysisCoordinateType, List<Double>> getResultSeries() {
-		return resultSeries;
+		return resultSeries.asMap();
 	}
 
 	// -------------------------------------------------------------------------------
@@ -420,13 +448,22 @@ public class TSDcDft extends TSBase implements IPeriodAnalysisAlgorithm {
 	protected void standard_scan() throws InterruptedException {
 		nfre = 1;
 		hifre = (double) numact * dang0;
-		for (nj = 1 + npoly; nj <= numact; nj++) {
-			ff = (double) nj * dang0;
-			fft(ff);
-			// TODO: nbrake is never set to anything other than 0!!
-			if (nbrake < 0) {
-				statcomp();
-				return;
+		if (multiThreaded) {
+			double[] freqs = new double[Math.max(0, numact - npoly)];
+			for (nj = 1 + npoly; nj <= numact; nj++) {
+				ff = (double) nj * dang0;
+				freqs[nj - 1 - npoly] = ff;
+			}
+			scan(freqs);
+		} else {
+			for (nj = 1 + npoly; nj <= numact; nj++) {
+				ff = (double) nj * dang0;
+				fft(ff);
+				// TODO: nbrake is never set to anything other than 0!!
+				if (nbrake < 0) {
+					statcomp();
+					return;
+				}
 			}
 		}
 	}
@@ -463,12 +500,21 @@ public class TSDcDft extends TSBase implements IPeriodAnalysisAlgorithm {
 			// call lognow
 			// write(1,201)
 			iff = (int) ((hifre - xlofre) / res) + 1;
-			for (ixx = 1; ixx <= iff; ixx++) {
-				ff = xlofre + (double) (ixx - 1) * res;
-				fft(ff);
-				if (nbrake < 0) {
-					statcomp();
-					return;
+			if (multiThreaded) {
+				double[] freqs = new double[Math.max(0, iff)];
+				for (ixx = 1; ixx <= iff; ixx++) {
+					ff = xlofre + (double) (ixx - 1) * res;
+					freqs[ixx - 1] = ff;
+				}
+				scan(freqs);
+			} else {
+				for (ixx = 1; ixx <= iff; ixx++) {
+					ff = xlofre + (double) (ixx - 1) * res;
+					fft(ff);
+					if (nbrake < 0) {
+						statcomp();
+						return;
+					}
 				}
 			}
 		} else {
@@ -519,18 +565,32 @@ public class TSDcDft extends TSBase implements IPeriodAnalysisAlgorithm {
 
 		if (hiper >= (xloper + res)) {
 			ipp = (int) ((hiper - xloper) / res) + 1;
-			for (ixx = 1; ixx <= ipp; ixx++) {
-				pper = xloper + ((double) (ixx - 1) * res);
+			if (multiThreaded) {
+				double[] freqs = new double[Math.max(0, ipp)];
+				for (ixx = 1; ixx <= ipp; ixx++) {
+					pper = xloper + ((double) (ixx - 1) * res);
+
+					if (pper != 0.0) {
+						ff = 1.0 / pper;
+					}
 
-				if (pper != 0.0) {
-					ff = 1.0 / pper;
+					freqs[ixx - 1] = ff;
 				}
+				scan(freqs);
+			} else {
+				for (ixx = 1; ixx <= ipp; ixx++) {
+					pper = xloper + ((double) (ixx - 1) * res);
 
-				fft(ff);
+					if (pper != 0.0) {
+						ff = 1.0 / pper;
+					}
 
-				if (nbrake < 0) {
-					statcomp();
-					break;
+					fft(ff);
+
+					if (nbrake < 0) {
+						statcomp();
+						break;
+					}
 				}
 			}
 		} else {
@@ -548,13 +608,9 @@ public class TSDcDft extends TSBase implements IPeriodAnalysisAlgorithm {
 	 *            The frequency.
 	 */
 	protected void fft(double ff) throws InterruptedException {
-		double pp = 0;
-
 		int na, nb;
 		double dd;
 
-		if (ff != 0.0)
-			pp = 1.0 / ff; // TODO: what should the default/else pp value be?
 		dfre[nfre] = ff;
 		project();
 		// G. Foster bugfix, May 2003
@@ -563,10 +619,28 @@ public class TSDcDft extends TSBase implements IPeriodAnalysisAlgorithm {
 		dd = Math.sqrt(dcoef[na] * dcoef[na] + dcoef[nb] * dcoef[nb]);
 		// System.out.println(String.format("%14.9f%10.4f%10.4f%10.4f", ff, pp,
 		// dfpow, dd));
-		collect_datapoint(ff, pp, dfpow, dd);
+		fft_result(ff, dd);
 		// end of bugfix
 		// dbenn Note: without seeing the previous revision, it's
 		// not possible to know what this fix was.
+	}
+
+	/**
+	 * Collect the result of a FFT, given the current dfpow and damp values,
+	 * adding the previous frequency to the top hits if its amplitude was a
+	 * local maximum.
+	 * 
+	 * @param ff
+	 *            The frequency.
+	 * @param dd
+	 *            The semi-amplitude.
+	 */
+	private void fft_result(double ff, double dd) {
+		double pp = 0;
+
+		if (ff != 0.0)
+			pp = 1.0 / ff; // TODO: what should the default/else pp value be?
+		collect_datapoint(ff, pp, dfpow, dd);
 		if (damp < dlamp && dlamp >= dllamp)
 			tablit();
 		dllamp = dlamp;
@@ -577,6 +651,140 @@ public class TSDcDft extends TSBase implements IPeriodAnalysisAlgorithm {
 		dlamplitude = dd;
 	}
 
+	/**
+	 * Compute a FFT for each of the specified frequencies, splitting the
+	 * projections over a fork-join pool, each worker having its own projection
+	 * context.
+	 * 
+	 * The results are then merged in frequency order as per successive fft()
+	 * calls, so that the result series and top hits are identical to those of
+	 * the serial scan. Where a projection did not complete, the power and
+	 * amplitude values it would have left unchanged are carried forward from
+	 * the previous frequency.
+	 * 
+	 * @param freqs
+	 *            The frequencies, in scan order.
+	 */
+	protected void scan(double[] freqs) throws InterruptedException {
+		int n = freqs.length;
+
+		if (n == 0) {
+			return;
+		}
+
+		ScanResults results = new ScanResults(n);
+
+		int threshold = Math.max(1, n
+				/ (Runtime.getRuntime().availableProcessors() * 4));
+
+		FrequencyScanTask task = new FrequencyScanTask(freqs, results, 0, n,
+				threshold);
+
+		ForkJoinPool pool = new ForkJoinPool();
+		try {
+			pool.invoke(task);
+		} finally {
+			pool.shutdown();
+		}
+
+		if (interrupted) {
+			throw new InterruptedException();
+		}
+
+		// Merge the results in frequency order.
+		int na = npoly + 1;
+		int nb = na + 1;
+		double dd = Math.sqrt(dcoef[na] * dcoef[na] + dcoef[nb] * dcoef[nb]);
+
+		for (int i = 0; i < n; i++) {
+			switch (results.outcomes[i]) {
+			case COMPLETE:
+				dfpow = results.powers[i];
+				damp = results.damps[i];
+				dd = results.amplitudes[i];
+				break;
+			case BELOW_CUTOFF:
+				dfpow = 0.0;
+				break;
+			case DUPLICATE_FREQUENCY:
+				break;
+			}
+
+			fft_result(freqs[i], dd);
+		}
+
+		dfre[nfre] = freqs[n - 1];
+	}
+
+	// Per-frequency scan results.
+	private static class ScanResults {
+		ProjectionOutcome[] outcomes;
+		double[] powers;
+		double[] damps;
+		double[] amplitudes;
+
+		ScanResults(int n) {
+			outcomes = new ProjectionOutcome[n];
+			powers = new double[n];
+			damps = new double[n];
+			amplitudes = new double[n];
+		}
+	}
+
+	// A fork-join task that projects a contiguous range of scan frequencies.
+	private class FrequencyScanTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private double[] freqs;
+		private ScanResults results;
+		private int from;
+		private int to;
+		private int threshold;
+
+		FrequencyScanTask(double[] freqs, ScanResults results, int from,
+				int to, int threshold) {
+			this.freqs = freqs;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= threshold) {
+				scanRange();
+			} else {
+				int mid = (from + to) >>> 1;
+				invokeAll(new FrequencyScanTask(freqs, results, from, mid,
+						threshold), new FrequencyScanTask(freqs, results, mid,
+						to, threshold));
+			}
+		}
+
+		private void scanRange() {
+			Projection projection = new Projection();
+			double[] fre = dfre.clone();
+			int na = npoly + 1;
+			int nb = na + 1;
+
+			try {
+				for (int i = from; i < to && !interrupted; i++) {
+					fre[nfre] = freqs[i];
+					results.outcomes[i] = projection.project(nfre, fre);
+					results.powers[i] = projection.dfpow;
+					results.damps[i] = projection.damp;
+					results.amplitudes[i] = Math.sqrt(projection.dcoef[na]
+							* projection.dcoef[na] + projection.dcoef[nb]
+							* projection.dcoef[nb]);
+				}
+			} catch (InterruptedException e) {
+				// Checked for once the scan is complete.
+			}
+		}
+	}
+
 	/**
 	 * Collect a single <frequency, period, power, amplitude> tuple result as a
 	 * data-point.
@@ -592,11 +800,10 @@ public class TSDcDft extends TSBase implements IPeriodAnalysisAlgorithm {
 	 */
 	private void collect_datapoint(double freq, double period, double power,
 			double amplitude) {
-		this.resultSeries.get(PeriodAnalysisCoordinateType.FREQUENCY).add(freq);
-		this.resultSeries.get(PeriodAnalysisCoordinateType.PERIOD).add(period);
-		this.resultSeries.get(PeriodAnalysisCoordinateType.POWER).add(power);
-		this.resultSeries.get(PeriodAnalysisCoordinateType.SEMI_AMPLITUDE).add(
-				amplitude);
+		frequencies.add(freq);
+		periods.add(period);
+		powers.add(power);
+		semiAmplitudes.add(amplitude);
 	}
 
 	// -------------------------------------------------------------------------------
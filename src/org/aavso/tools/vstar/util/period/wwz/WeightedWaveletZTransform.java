@@ -19,6 +19,8 @@ package org.aavso.tools.vstar.util.period.wwz;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.aavso.tools.vstar.data.ValidObservation;
 import org.aavso.tools.vstar.exception.AlgorithmError;
@@ -55,6 +57,13 @@ import org.aavso.tools.vstar.util.IAlgorithm;
  */
 public class WeightedWaveletZTransform implements IAlgorithm {
 
+	// Evaluate tau rows concurrently?
+	private final static boolean USE_MULTI_THREAD_VERSION = true;
+
+	// The weight at or below which a data point is considered to make no
+	// contribution to a tau-frequency cell.
+	private final static double WEIGHT_CUTOFF = 1.0e-9;
+
 	// Observations to be analysed.
 	private List<ValidObservation> obs;
 
@@ -71,7 +80,6 @@ public class WeightedWaveletZTransform implements IAlgorithm {
 	private double maxWWZ;
 
 	private double dcon;
-	private double dmat[][] = new double[3][3];
 	private double dt[];
 	private double dx[];
 	private double fhi;
@@ -82,7 +90,11 @@ public class WeightedWaveletZTransform implements IAlgorithm {
 	private int numdat;
 	private double tau[];
 
-	private boolean interrupted;
+	private boolean timesSorted;
+	private boolean windowed;
+	private boolean multiThreaded;
+
+	private volatile boolean interrupted;
 
 	/**
 	 * Constructor
@@ -115,6 +127,9 @@ public class WeightedWaveletZTransform implements IAlgorithm {
 
 		maketau(timeDivisions);
 
+		windowed = true;
+		multiThreaded = USE_MULTI_THREAD_VERSION;
+
 		interrupted = false;
 	}
 
@@ -157,6 +172,30 @@ public class WeightedWaveletZTransform implements IAlgorithm {
 		interrupted = true;
 	}
 
+	/**
+	 * Set whether tau rows are evaluated concurrently (the default) or one at
+	 * a time.
+	 * 
+	 * @param multiThreaded
+	 *            Evaluate tau rows concurrently?
+	 */
+	void setMultiThreaded(boolean multiThreaded) {
+		this.multiThreaded = multiThreaded;
+	}
+
+	/**
+	 * Set whether only the data points within the time window about each tau
+	 * whose weights may exceed the weight cutoff are visited (the default),
+	 * rather than all data points. Data points outside the window make no
+	 * contribution either way, so the results are the same.
+	 * 
+	 * @param windowed
+	 *            Visit only the data points within each tau's time window?
+	 */
+	void setWindowed(boolean windowed) {
+		this.windowed = windowed;
+	}
+
 	/**
 	 * @return the stats
 	 */
@@ -286,13 +325,47 @@ public class WeightedWaveletZTransform implements IAlgorithm {
 		dt = new double[numdat + 1];
 		dx = new double[numdat + 1];
 
+		timesSorted = true;
+
 		for (int i = 1; i <= observations.size(); i++) {
 			ValidObservation ob = observations.get(i - 1);
 			dt[i] = ob.getJD();
 			dx[i] = ob.getMag();
+
+			if (i > 1 && dt[i] < dt[i - 1]) {
+				timesSorted = false;
+			}
 		}
 	}
 
+	/**
+	 * Return the index of the first data point whose time is greater than or
+	 * equal to (or if strict, greater than) the specified time, or numdat+1 if
+	 * there is no such data point. The data must be in time order.
+	 * 
+	 * @param time
+	 *            The time to search for.
+	 * @param strict
+	 *            Whether a data point at exactly the specified time should be
+	 *            skipped.
+	 * @return The data point index.
+	 */
+	private int searchTime(double time, boolean strict) {
+		int lo = 1;
+		int hi = numdat + 1;
+
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (dt[mid] < time || (strict && dt[mid] == time)) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+
+		return lo;
+	}
+
 	/**
 	 * Make an array of time lags, tau, here.
 	 */
@@ -399,106 +472,58 @@ public class WeightedWaveletZTransform implements IAlgorithm {
 	}
 
 	/**
-	 * Invert the matrix of the wwz equations...
+	 * Evaluate the WWZ over the tau-frequency grid and collect the statistics.
+	 * 
+	 * Each tau row of the grid is independent of the others, so rows are
+	 * evaluated across cores, each worker with its own matrices. The weighted
+	 * variance accumulator is carried from one cell to the next however (as per
+	 * the original Fortran code), so the statistics are created from the
+	 * evaluated cells in a final serial pass, in the same order as before.
 	 */
-	private void matinv() throws InterruptedException {
-		double dsol[][] = new double[3][3];// (0:2,0:2);
-		double dfac;
+	private void wwt() throws InterruptedException {
+		WWZCells cells = new WWZCells(ntau * nfreq);
 
-		int ndim = 2;
+		int threshold = Math.max(1, ntau
+				/ (Runtime.getRuntime().availableProcessors() * 4));
 
-		for (int i = 0; i <= 2; i++) {
-			for (int j = 0; j <= 2; j++) {
-				dsol[i][j] = 0.0;
-			}
-			dsol[i][i] = 1.0;
-			
-			if (interrupted) {
-				throw new InterruptedException();
-			}
-		}
+		WWZTask task = new WWZTask(cells, 1, ntau + 1, threshold);
 
-		for (int i = 0; i <= ndim; i++) {
-			if (dmat[i][i] == 0.0) {
-				if (i == ndim)
-					return;
-				for (int j = i + 1; j <= ndim; j++) {
-					if (dmat[j][i] != 0.0) {
-						for (int k = 0; k <= ndim; k++) {
-							dmat[i][k] = dmat[i][k] + dmat[j][k];
-							dsol[i][j] = dsol[i][j] + dsol[j][k];
-						}
-					}
-				}
-				
-				if (interrupted) {
-					throw new InterruptedException();
-				}
-			}
-			
-			dfac = dmat[i][i];
-			for (int j = 0; j <= ndim; j++) {
-				dmat[i][j] = dmat[i][j] / dfac;
-				dsol[i][j] = dsol[i][j] / dfac;
-			}
-			for (int j = 0; j <= ndim; j++) {
-				if (j != i) {
-					dfac = dmat[j][i];
-					for (int k = 0; k <= ndim; k++) {
-						dmat[j][k] = dmat[j][k] - (dmat[i][k] * dfac);
-						dsol[j][k] = dsol[j][k] - (dsol[i][k] * dfac);
-					}
-					
-					if (interrupted) {
-						throw new InterruptedException();
-					}
-				}
+		if (multiThreaded && ntau > 1) {
+			ForkJoinPool pool = new ForkJoinPool();
+			try {
+				pool.invoke(task);
+			} finally {
+				pool.shutdown();
 			}
+		} else {
+			task.evaluate();
 		}
-		for (int i = 0; i <= ndim; i++) {
-			for (int j = 0; j <= ndim; j++) {
-				dmat[i][j] = dsol[i][j];
-			}
-			
-			if (interrupted) {
-				throw new InterruptedException();
-			}
+
+		if (interrupted) {
+			throw new InterruptedException();
 		}
-	}
 
-	private void wwt() throws InterruptedException {
-		double dvec[] = new double[3];
-		double dcoef[] = new double[3];
-		int itau, ifreq, idat;
-		double domega, dweight2, dz, dweight;
-		double dcc, dcw, dss, dsw, dxw, dvarw;
-		double dtau;
-		double dpower, dpowz, damp, dneff, davew;
-		double dfre;
-		// dnefff should probably be dneff, but we'll keep it for strict
-		// consistency...
-		// TODO: Is the use of this variable a bug? It is set to zero once below
-		// but never used otherwise. It may be that it should be dneff indeed!
-		double dnefff;
-		int n1, n2;
+		collect(cells);
+	}
 
+	/**
+	 * Create the WWZ statistics and maximal statistics from the evaluated
+	 * cells, in tau then frequency order.
+	 * 
+	 * @param cells
+	 *            The evaluated cells.
+	 */
+	private void collect(WWZCells cells) {
+		int itau, ifreq;
+		double dtau, dfre;
+		double dvarw, dpower, dpowz, damp, dneff, davew;
 		double dmz, dmfre, dmamp, dmcon, dmneff;
 
 		dvarw = 0.0; // TODO: added
-		dweight2 = 0.0; // TODO: added
-		dfre = 0.0; // TODO: added
 
-		double twopi = 2.0 * Math.PI;
+		int cell = 0;
 
-		int ndim = 2;
-		int itau1 = 1;
-		int itau2 = ntau;
-		int ifreq1 = 1;
-		int ifreq2 = nfreq;
-		int nstart = 1;
-
-		for (itau = itau1; itau <= itau2; itau++) {
-			nstart = 1;
+		for (itau = 1; itau <= ntau; itau++) {
 			dtau = tau[itau];
 
 			// TODO: added
@@ -509,7 +534,176 @@ public class WeightedWaveletZTransform implements IAlgorithm {
 			dmneff = 0.0;
 			dmz = -1.0; // less than the smallest WWZ
 
-			for (ifreq = ifreq1; ifreq <= ifreq2; ifreq++) {
+			for (ifreq = 1; ifreq <= nfreq; ifreq++, cell++) {
+				dfre = freq[ifreq];
+				damp = cells.amp[cell];
+				dneff = cells.neff[cell];
+
+				// TODO: dvarw is never reset per cell, so one cell's weighted
+				// variance leaks into the next; kept for consistency with the
+				// Fortran code and its output.
+				dvarw = dvarw + cells.varSum[cell];
+
+				if (cells.fitted[cell]) {
+					dpower = cells.power[cell];
+					davew = cells.ave[cell];
+					if (cells.weightSum[cell] > 0.0) {
+						dvarw = dvarw / cells.weightSum[cell];
+					} else {
+						dvarw = 0.0;
+					}
+					dvarw = dvarw - (davew * davew);
+					if (dvarw <= 0.0)
+						dvarw = 1.0e-12;
+					dpowz = (dneff - 3.0) * dpower / (dvarw - dpower) / 2.0;
+				} else {
+					dpowz = 0.0;
+				}
+
+				if (damp < 1.0e-9)
+					damp = 0.0;
+				if (dpowz < 1.0e-9)
+					dpowz = 0.0;
+
+				// Record one WWZ statistic per frequency per tau.
+				//
+				// Also record one WWZ statistic per tau-frequency pair for
+				// efficient retrieval in some scenarios.
+
+				WWZStatistic stat = new WWZStatistic(dtau, dfre, dpowz, damp,
+						cells.mave[cell], dneff);
+
+				stats.add(stat);
+
+				if (dpowz > dmz) {
+					dmz = dpowz;
+					dmfre = dfre;
+					dmamp = damp;
+					dmcon = cells.mave[cell];
+					dmneff = dneff;
+				}
+			}
+
+			// Record the frequency for which the WWZ is maximal.
+			WWZStatistic maximalStat = new WWZStatistic(dtau, dmfre, dmz,
+					dmamp, dmcon, dmneff);
+
+			maximalStats.add(maximalStat);
+		}
+	}
+
+	// The per-cell values of an evaluated tau-frequency grid, indexed by
+	// (itau - 1) * nfreq + (ifreq - 1).
+	private static class WWZCells {
+		// Was a fit possible (effective number of points > 3)?
+		boolean[] fitted;
+		// Sum of weighted squared magnitudes.
+		double[] varSum;
+		// Sum of weights.
+		double[] weightSum;
+		// Weighted average magnitude.
+		double[] ave;
+		// Fitted power, less the squared weighted average.
+		double[] power;
+		double[] amp;
+		double[] mave;
+		double[] neff;
+
+		WWZCells(int n) {
+			fitted = new boolean[n];
+			varSum = new double[n];
+			weightSum = new double[n];
+			ave = new double[n];
+			power = new double[n];
+			amp = new double[n];
+			mave = new double[n];
+			neff = new double[n];
+		}
+	}
+
+	// A fork-join task that evaluates a contiguous range of tau rows, split
+	// until the range is small enough to evaluate directly with a single
+	// evaluator (and so a single set of matrices).
+	@SuppressWarnings("serial")
+	private class WWZTask extends RecursiveAction {
+
+		private WWZCells cells;
+		private int from;
+		private int to;
+		private int threshold;
+
+		WWZTask(WWZCells cells, int from, int to, int threshold) {
+			this.cells = cells;
+			this.from = from;
+			this.to = to;
+			this.threshold = threshold;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= threshold) {
+				try {
+					evaluate();
+				} catch (InterruptedException e) {
+					// Checked for once all tasks are complete.
+				}
+			} else {
+				int mid = (from + to) >>> 1;
+				invokeAll(new WWZTask(cells, from, mid, threshold),
+						new WWZTask(cells, mid, to, threshold));
+			}
+		}
+
+		void evaluate() throws InterruptedException {
+			WWZCellEvaluator evaluator = new WWZCellEvaluator();
+
+			for (int itau = from; itau < to; itau++) {
+				evaluator.evaluate(itau, cells);
+			}
+		}
+	}
+
+	// Evaluates the cells of a tau row, with its own matrices so that rows may
+	// be evaluated concurrently.
+	private class WWZCellEvaluator {
+
+		private double dmat[][] = new double[3][3];
+		private double dsol[][] = new double[3][3];// (0:2,0:2);
+		private double dvec[] = new double[3];
+		private double dcoef[] = new double[3];
+
+		void evaluate(int itau, WWZCells cells) throws InterruptedException {
+			int ifreq, idat;
+			double domega, dweight2, dz, dweight;
+			double dcc, dcw, dss, dsw, dxw, dvarw;
+			double dtau;
+			double dpower, damp, dneff, davew;
+			double dfre;
+			// dnefff should probably be dneff, but we'll keep it for strict
+			// consistency...
+			// TODO: Is the use of this variable a bug? It is set to zero once
+			// below but never used otherwise. It may be that it should be dneff
+			// indeed!
+			double dnefff;
+			int n1, n2;
+
+			double twopi = 2.0 * Math.PI;
+
+			int ndim = 2;
+			int nstart, nend;
+
+			// The weighted phase distance from tau beyond which a weight is
+			// at or below the cutoff, i.e. exp(-dcon * dz^2) <=
+			// WEIGHT_CUTOFF, widened slightly so that rounding cannot exclude a
+			// data point whose computed weight exceeds the cutoff.
+			double dzcut = Math.sqrt(-Math.log(WEIGHT_CUTOFF) / dcon)
+					* (1.0 + 1.0e-9);
+
+			dtau = tau[itau];
+
+			int cell = (itau - 1) * nfreq;
+
+			for (ifreq = 1; ifreq <= nfreq; ifreq++, cell++) {
 				dfre = freq[ifreq];
 				domega = dfre * twopi;
 				for (int i = 0; i <= ndim; i++) {
@@ -524,10 +718,26 @@ public class WeightedWaveletZTransform implements IAlgorithm {
 				}
 				dweight2 = 0.0;
 
-				for (idat = nstart; idat <= numdat; idat++) {
+				// This cell's contribution to the weighted variance
+				// accumulator; see collect().
+				dvarw = 0.0;
+
+				// Only visit the data points in the time window about tau
+				// whose weights may exceed the cutoff.
+				double dtcut = dzcut / Math.abs(domega);
+				if (windowed && timesSorted && !Double.isInfinite(dtcut)
+						&& !Double.isNaN(dtcut)) {
+					nstart = searchTime(dtau - dtcut, false);
+					nend = searchTime(dtau + dtcut, true) - 1;
+				} else {
+					nstart = 1;
+					nend = numdat;
+				}
+
+				for (idat = nstart; idat <= nend; idat++) {
 					dz = domega * (dt[idat] - dtau);
 					dweight = Math.exp(-1.0 * dcon * dz * dz);
-					if (dweight > 1.0e-9) {
+					if (dweight > WEIGHT_CUTOFF) {
 						dcc = Math.cos(dz);
 						dcw = dweight * dcc;
 						dss = Math.sin(dz);
@@ -544,10 +754,6 @@ public class WeightedWaveletZTransform implements IAlgorithm {
 						dvarw = dvarw + (dxw * dx[idat]);
 						dvec[1] = dvec[1] + (dcw * dx[idat]);
 						dvec[2] = dvec[2] + (dsw * dx[idat]);
-					} else if (dz > 0.0) {
-						break;
-					} else {
-						nstart = idat + 1;
 					}
 				}
 
@@ -565,6 +771,10 @@ public class WeightedWaveletZTransform implements IAlgorithm {
 				} else {
 					dneff = 0.0;
 				}
+
+				cells.varSum[cell] = dvarw;
+				cells.weightSum[cell] = dmat[0][0];
+
 				if (dneff > 3.0) {
 					for (n1 = 0; n1 <= ndim; n1++) {
 						dvec[n1] = dvec[n1] / dmat[0][0];
@@ -576,16 +786,8 @@ public class WeightedWaveletZTransform implements IAlgorithm {
 							throw new InterruptedException();
 						}
 					}
-					if (dmat[0][0] > 0.0) {
-						dvarw = dvarw / dmat[0][0];
-					} else {
-						dvarw = 0.0;
-					}
 					dmat[0][0] = 1.0;
 					davew = dvec[0];
-					dvarw = dvarw - (davew * davew);
-					if (dvarw <= 0.0)
-						dvarw = 1.0e-12;
 					for (n1 = 1; n1 <= ndim; n1++) {
 						for (n2 = 0; n2 <= n1 - 1; n2++) {
 							dmat[n1][n2] = dmat[n2][n1];
@@ -609,54 +811,89 @@ public class WeightedWaveletZTransform implements IAlgorithm {
 						}
 					}
 					dpower = dpower - (davew * davew);
-					dpowz = (dneff - 3.0) * dpower / (dvarw - dpower) / 2.0;
-					dpower = (dneff - 1.0) * dpower / dvarw / 2.0;
 					damp = Math.sqrt(dcoef[1] * dcoef[1] + dcoef[2] * dcoef[2]);
+
+					cells.fitted[cell] = true;
+					cells.ave[cell] = davew;
+					cells.power[cell] = dpower;
 				} else {
-					dpowz = 0.0;
-					dpower = 0.0;
-					damp = 0.0;
 					if (dneff < 1.0e-9)
 						// TODO: this looks like a bug! should be dneff
 						// dnefff = 0.0;
 						dneff = 0.0;
 				}
 
+				cells.amp[cell] = damp;
+				cells.mave[cell] = dcoef[0];
+				cells.neff[cell] = dneff;
+			}
+		}
+
+		/**
+		 * Invert the matrix of the wwz equations...
+		 */
+		private void matinv() throws InterruptedException {
+			double dfac;
+
+			int ndim = 2;
+
+			for (int i = 0; i <= 2; i++) {
+				for (int j = 0; j <= 2; j++) {
+					dsol[i][j] = 0.0;
+				}
+				dsol[i][i] = 1.0;
+
 				if (interrupted) {
 					throw new InterruptedException();
 				}
+			}
 
-				if (damp < 1.0e-9)
-					damp = 0.0;
-				if (dpower < 1.0e-9)
-					dpower = 0.0;
-				if (dpowz < 1.0e-9)
-					dpowz = 0.0;
-
-				// Record one WWZ statistic per frequency per tau.
-				//
-				// Also record one WWZ statistic per tau-frequency pair for
-				// efficient retrieval in some scenarios.
+			for (int i = 0; i <= ndim; i++) {
+				if (dmat[i][i] == 0.0) {
+					if (i == ndim)
+						return;
+					for (int j = i + 1; j <= ndim; j++) {
+						if (dmat[j][i] != 0.0) {
+							for (int k = 0; k <= ndim; k++) {
+								dmat[i][k] = dmat[i][k] + dmat[j][k];
+								dsol[i][j] = dsol[i][j] + dsol[j][k];
+							}
+						}
+					}
 
-				WWZStatistic stat = new WWZStatistic(dtau, dfre, dpowz, damp,
-						dcoef[0], dneff);
+					if (interrupted) {
+						throw new InterruptedException();
+					}
+				}
 
-				stats.add(stat);
+				dfac = dmat[i][i];
+				for (int j = 0; j <= ndim; j++) {
+					dmat[i][j] = dmat[i][j] / dfac;
+					dsol[i][j] = dsol[i][j] / dfac;
+				}
+				for (int j = 0; j <= ndim; j++) {
+					if (j != i) {
+						dfac = dmat[j][i];
+						for (int k = 0; k <= ndim; k++) {
+							dmat[j][k] = dmat[j][k] - (dmat[i][k] * dfac);
+							dsol[j][k] = dsol[j][k] - (dsol[i][k] * dfac);
+						}
 
-				if (dpowz > dmz) {
-					dmz = dpowz;
-					dmfre = dfre;
-					dmamp = damp;
-					dmcon = dcoef[0];
-					dmneff = dneff;
+						if (interrupted) {
+							throw new InterruptedException();
+						}
+					}
 				}
 			}
+			for (int i = 0; i <= ndim; i++) {
+				for (int j = 0; j <= ndim; j++) {
+					dmat[i][j] = dsol[i][j];
+				}
 
-			// Record the frequency for which the WWZ is maximal.
-			WWZStatistic maximalStat = new WWZStatistic(dtau, dmfre, dmz,
-					dmamp, dmcon, dmneff);
-
-			maximalStats.add(maximalStat);
+				if (interrupted) {
+					throw new InterruptedException();
+				}
+			}
 		}
 	}
 }
@@ -0,0 +1,129 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.util.prefs;
+
+import java.util.prefs.Preferences;
+
+import org.aavso.tools.vstar.input.AbstractObservationRetriever;
+
+/**
+ * Observation input preferences.
+ */
+public class ObservationInputPrefs {
+
+	public final static int MIN_INVALID_OBSERVATION_LIMIT = 100;
+	public final static int MAX_INVALID_OBSERVATION_LIMIT = 10000000;
+
+	/**
+	 * The limit offered when a user chooses to limit invalid observations.
+	 */
+	public final static int SUGGESTED_INVALID_OBSERVATION_LIMIT = 10000;
+
+	private final static int DEFAULT_INVALID_OBSERVATION_LIMIT = AbstractObservationRetriever.UNLIMITED_INVALID_OBSERVATIONS;
+
+	private final static boolean DEFAULT_WRITE_UNLISTED_INVALID_OBSERVATIONS = false;
+
+	private static int invalidObservationLimit = DEFAULT_INVALID_OBSERVATION_LIMIT;
+
+	private static boolean writeUnlistedInvalidObservations = DEFAULT_WRITE_UNLISTED_INVALID_OBSERVATIONS;
+
+	/**
+	 * @return The maximum number of invalid observations retained in memory
+	 *         when reading an observation source, or
+	 *         AbstractObservationRetriever.UNLIMITED_INVALID_OBSERVATIONS (the
+	 *         default).
+	 */
+	public static int getInvalidObservationLimit() {
+		return invalidObservationLimit;
+	}
+
+	/**
+	 * @param invalidObservationLimit
+	 *            the invalidObservationLimit to set
+	 */
+	public static void setInvalidObservationLimit(int invalidObservationLimit) {
+		ObservationInputPrefs.invalidObservationLimit = invalidObservationLimit;
+	}
+
+	/**
+	 * @return Whether invalid observations beyond the invalid observation
+	 *         limit are written to a file rather than discarded.
+	 */
+	public static boolean getWriteUnlistedInvalidObservations() {
+		return writeUnlistedInvalidObservations;
+	}
+
+	/**
+	 * @param writeUnlistedInvalidObservations
+	 *            the writeUnlistedInvalidObservations to set
+	 */
+	public static void setWriteUnlistedInvalidObservations(
+			boolean writeUnlistedInvalidObservations) {
+		ObservationInputPrefs.writeUnlistedInvalidObservations = writeUnlistedInvalidObservations;
+	}
+
+	// Preferences members.
+
+	private final static String PREFS_PREFIX = "OBS_INPUT_";
+
+	private static Preferences prefs;
+
+	static {
+		// Create preferences node for observation input.
+		try {
+			prefs = Preferences.userNodeForPackage(ObservationInputPrefs.class);
+			retrieveObservationInputPrefs();
+		} catch (Throwable t) {
+			// We need VStar to function in the absence of prefs.
+		}
+	}
+
+	private static void retrieveObservationInputPrefs() {
+		invalidObservationLimit = prefs.getInt(PREFS_PREFIX
+				+ "invalid_observation_limit",
+				DEFAULT_INVALID_OBSERVATION_LIMIT);
+
+		if (invalidObservationLimit != AbstractObservationRetriever.UNLIMITED_INVALID_OBSERVATIONS
+				&& (invalidObservationLimit < MIN_INVALID_OBSERVATION_LIMIT || invalidObservationLimit > MAX_INVALID_OBSERVATION_LIMIT)) {
+			invalidObservationLimit = DEFAULT_INVALID_OBSERVATION_LIMIT;
+		}
+
+		writeUnlistedInvalidObservations = prefs.getBoolean(PREFS_PREFIX
+				+ "write_unlisted_invalid_observations",
+				DEFAULT_WRITE_UNLISTED_INVALID_OBSERVATIONS);
+	}
+
+	public static void storeObservationInputPrefs() {
+		try {
+			prefs.putInt(PREFS_PREFIX + "invalid_observation_limit",
+					invalidObservationLimit);
+			prefs.putBoolean(PREFS_PREFIX
+					+ "write_unlisted_invalid_observations",
+					writeUnlistedInvalidObservations);
+			prefs.flush();
+		} catch (Throwable t) {
+			// We need VStar to function in the absence of prefs.
+		}
+	}
+
+	public static void setDefaultObservationInputPrefs() {
+		invalidObservationLimit = DEFAULT_INVALID_OBSERVATION_LIMIT;
+		writeUnlistedInvalidObservations = DEFAULT_WRITE_UNLISTED_INVALID_OBSERVATIONS;
+		storeObservationInputPrefs();
+	}
+}
@@ -0,0 +1,88 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.util.prefs;
+
+import java.util.prefs.Preferences;
+
+/**
+ * VeLa interpreter preferences.
+ */
+public class VeLaPrefs {
+
+	public final static int MIN_CACHE_SIZE = 10;
+	public final static int MAX_CACHE_SIZE = 100000;
+
+	private final static int DEFAULT_CACHE_SIZE = 1000;
+
+	private static int cacheSize = DEFAULT_CACHE_SIZE;
+
+	/**
+	 * @return The maximum number of entries in each of the VeLa interpreter's
+	 *         caches (abstract syntax trees, regular expressions).
+	 */
+	public static int getCacheSize() {
+		return cacheSize;
+	}
+
+	/**
+	 * @param cacheSize
+	 *            the cacheSize to set
+	 */
+	public static void setCacheSize(int cacheSize) {
+		VeLaPrefs.cacheSize = cacheSize;
+	}
+
+	// Preferences members.
+
+	private final static String PREFS_PREFIX = "VELA_";
+
+	private static Preferences prefs;
+
+	static {
+		// Create preferences node for VeLa.
+		try {
+			prefs = Preferences.userNodeForPackage(VeLaPrefs.class);
+			retrieveVeLaPrefs();
+		} catch (Throwable t) {
+			// We need VStar to function in the absence of prefs.
+		}
+	}
+
+	private static void retrieveVeLaPrefs() {
+		cacheSize = prefs.getInt(PREFS_PREFIX + "cache_size",
+				DEFAULT_CACHE_SIZE);
+
+		if (cacheSize < MIN_CACHE_SIZE || cacheSize > MAX_CACHE_SIZE) {
+			cacheSize = DEFAULT_CACHE_SIZE;
+		}
+	}
+
+	public static void storeVeLaPrefs() {
+		try {
+			prefs.putInt(PREFS_PREFIX + "cache_size", cacheSize);
+			prefs.flush();
+		} catch (Throwable t) {
+			// We need VStar to function in the absence of prefs.
+		}
+	}
+
+	public static void setDefaultVeLaPrefs() {
+		cacheSize = DEFAULT_CACHE_SIZE;
+		storeVeLaPrefs();
+	}
+}
@@ -20,6 +20,8 @@ package org.aavso.tools.vstar.util.stats;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.aavso.tools.vstar.data.ValidObservation;
 import org.aavso.tools.vstar.util.stats.epoch.AlphaOmegaMeanJDEpochStrategy;
@@ -32,6 +34,10 @@ import org.aavso.tools.vstar.util.stats.epoch.MinMagEpochStrategy;
  */
 public class PhaseCalcs {
 
+	// Number of phases below which a batch phase calculation is not split
+	// across threads.
+	private static final int PARALLEL_THRESHOLD = 1 << 14;
+
 	// Map of epoch determination strategies.
 	public static Map<String, IEpochStrategy> epochStrategyMap;
 	
@@ -58,10 +64,78 @@ public class PhaseCalcs {
 	public static void setPhases(List<ValidObservation> obs, double epoch,
 			double period) {
 
-		for (ValidObservation ob : obs) {
-			double phase = calcStandardPhase(ob.getJD(), epoch, period);
-			ob.setStandardPhase(phase);
-			ob.setPreviousCyclePhase(phase - 1);
+		int count = obs.size();
+
+		double[] jds = new double[count];
+		for (int i = 0; i < count; i++) {
+			jds[i] = obs.get(i).getJD();
+		}
+
+		double[] phases = new double[count];
+		calcStandardPhases(jds, count, epoch, period, phases);
+
+		for (int i = 0; i < count; i++) {
+			ValidObservation ob = obs.get(i);
+			ob.setStandardPhase(phases[i]);
+			ob.setPreviousCyclePhase(phases[i] - 1);
+		}
+	}
+
+	/**
+	 * Calculate the standard phase for each of a number of Julian Dates. Large
+	 * arrays are split across the common fork-join pool. Observations are not
+	 * modified; see setPhases() for that.
+	 * 
+	 * @param jds
+	 *            An array of Julian Dates.
+	 * @param count
+	 *            The number of Julian Dates, from the start of the array, for
+	 *            which to calculate phases.
+	 * @param epoch
+	 *            An epoch (starting JD).
+	 * @param period
+	 *            A period on which to base the phases.
+	 * @param phases
+	 *            The array into which standard phases are stored, at the same
+	 *            indices as the corresponding Julian Dates. The previous cycle
+	 *            phase is one less than the standard phase.
+	 */
+	public static void calcStandardPhases(double[] jds, int count,
+			double epoch, double period, double[] phases) {
+
+		if (count < PARALLEL_THRESHOLD) {
+			calcStandardPhases(jds, 0, count, epoch, period, phases);
+		} else {
+			ForkJoinPool.commonPool().invoke(
+					new PhaseTask(jds, 0, count, epoch, period, phases));
+		}
+	}
+
+	/**
+	 * Calculate the standard phase for each of a range of Julian Dates on the
+	 * current thread, e.g. for callers that are already running in parallel.
+	 * 
+	 * @param jds
+	 *            An array of Julian Dates.
+	 * @param from
+	 *            The index of the first Julian Date (inclusive).
+	 * @param to
+	 *            The index of the last Julian Date (exclusive).
+	 * @param epoch
+	 *            An epoch (starting JD).
+	 * @param period
+	 *            A period on which to base the phases.
+	 * @param phases
+	 *            The array into which standard phases are stored, at the same
+	 *            indices as the corresponding Julian Dates.
+	 */
+	public static void calcStandardPhases(double[] jds, int from, int to,
+			double epoch, double period, double[] phases) {
+
+		// Kept free of calls and branches so that it may be vectorised.
+		for (int i = from; i < to; i++) {
+			double phase = (jds[i] - epoch) / period;
+			phases[i] = phase - Math.floor(phase);
 		}
 	}
 
@@ -88,4 +162,37 @@ public class PhaseCalcs {
 
 		return phase;
 	}
+
+	// A batch phase calculation over a range of Julian Dates, split in half
+	// until small enough to be calculated directly.
+	@SuppressWarnings("serial")
+	private static class PhaseTask extends RecursiveAction {
+		private double[] jds;
+		private int from;
+		private int to;
+		private double epoch;
+		private double period;
+		private double[] phases;
+
+		PhaseTask(double[] jds, int from, int to, double epoch, double period,
+				double[] phases) {
+			this.jds = jds;
+			this.from = from;
+			this.to = to;
+			this.epoch = epoch;
+			this.period = period;
+			this.phases = phases;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from < PARALLEL_THRESHOLD) {
+				calcStandardPhases(jds, from, to, epoch, period, phases);
+			} else {
+				int mid = (from + to) >>> 1;
+				invokeAll(new PhaseTask(jds, from, mid, epoch, period, phases),
+						new PhaseTask(jds, mid, to, epoch, period, phases));
+			}
+		}
+	}
 }
@@ -0,0 +1,197 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.util.stats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.aavso.tools.vstar.data.SeriesType;
+import org.aavso.tools.vstar.data.ValidObservation;
+import org.aavso.tools.vstar.util.comparator.StandardPhaseComparator;
+
+/**
+ * <p>
+ * An incremental phase engine for a set of observation series.
+ * </p>
+ *
+ * <p>
+ * The engine holds a phase-ordered copy of each series of a source series map
+ * along with primitive time and phase arrays for each series. When the period
+ * or epoch changes, phases are recomputed over the primitive arrays (in
+ * parallel for large series) and stored in the observations, after which each
+ * series can be re-sorted in place. Sorting starts from the previous phase
+ * order, so when the period or epoch changes only a little, each series is
+ * already sorted or consists of a small number of sorted runs, which the sort
+ * merges in close to linear time.
+ * </p>
+ *
+ * <p>
+ * The phase-ordered series may be shared with plot models, which may move an
+ * observation from one of these series to another; each series' phases are
+ * set for the observations it then contains. A change to the source series
+ * themselves, e.g. an observation marked as discrepant on the raw plot, makes
+ * the engine no longer current (see isCurrent()), in which case a new engine
+ * must be created.
+ * </p>
+ */
+public class PhaseEngine {
+
+	private Map<SeriesType, PhasedSeries> seriesMap;
+	private Map<SeriesType, List<ValidObservation>> phasedSeriesMap;
+
+	/**
+	 * Constructor
+	 *
+	 * @param sourceSeriesMap
+	 *            A mapping from series type to observations in any order.
+	 */
+	public PhaseEngine(Map<SeriesType, List<ValidObservation>> sourceSeriesMap) {
+		seriesMap = new TreeMap<SeriesType, PhasedSeries>();
+		phasedSeriesMap = new TreeMap<SeriesType, List<ValidObservation>>();
+
+		for (SeriesType type : sourceSeriesMap.keySet()) {
+			PhasedSeries series = new PhasedSeries(sourceSeriesMap.get(type));
+			seriesMap.put(type, series);
+			phasedSeriesMap.put(type, series.obs);
+		}
+	}
+
+	/**
+	 * Is this engine current with respect to the specified source series map,
+	 * i.e. does the map contain the same series lists, of the same size, as
+	 * when this engine was created?
+	 *
+	 * @param sourceSeriesMap
+	 *            A mapping from series type to observations.
+	 * @return Whether this engine is current.
+	 */
+	public boolean isCurrent(
+			Map<SeriesType, List<ValidObservation>> sourceSeriesMap) {
+		boolean current = sourceSeriesMap.keySet().equals(seriesMap.keySet());
+
+		if (current) {
+			for (SeriesType type : sourceSeriesMap.keySet()) {
+				if (!seriesMap.get(type).isCopyOf(sourceSeriesMap.get(type))) {
+					current = false;
+					break;
+				}
+			}
+		}
+
+		return current;
+	}
+
+	/**
+	 * @return A mapping from series type to phase-ordered observations, as of
+	 *         the last call to sortSeries().
+	 */
+	public Map<SeriesType, List<ValidObservation>> getPhasedSeriesMap() {
+		return phasedSeriesMap;
+	}
+
+	/**
+	 * Set the standard and previous cycle phases for the observations of each
+	 * series given the specified epoch and period. The series are not
+	 * re-ordered.
+	 *
+	 * @param epoch
+	 *            An epoch (starting JD).
+	 * @param period
+	 *            A period on which to base the phases.
+	 */
+	public void setPhases(double epoch, double period) {
+		for (PhasedSeries series : seriesMap.values()) {
+			series.setPhases(epoch, period);
+		}
+	}
+
+	/**
+	 * Sort each series by standard phase (and so also previous cycle phase),
+	 * following a call to setPhases().
+	 */
+	public void sortSeries() {
+		for (PhasedSeries series : seriesMap.values()) {
+			series.sort();
+		}
+	}
+
+	// A phase-ordered series and its time and phase arrays. The arrays are
+	// index aligned with the series as of the last call to setPhases() and
+	// are only reallocated when the series grows.
+	private static class PhasedSeries {
+		List<ValidObservation> source;
+		int sourceSize;
+
+		List<ValidObservation> obs;
+
+		double[] jds;
+		double[] phases;
+		boolean sorted;
+
+		PhasedSeries(List<ValidObservation> source) {
+			this.source = source;
+			sourceSize = source.size();
+			obs = new ArrayList<ValidObservation>(source);
+			jds = new double[sourceSize];
+			phases = new double[sourceSize];
+			sorted = false;
+		}
+
+		boolean isCopyOf(List<ValidObservation> list) {
+			return list == source && list.size() == sourceSize;
+		}
+
+		void setPhases(double epoch, double period) {
+			int n = obs.size();
+
+			if (jds.length < n) {
+				jds = new double[n];
+				phases = new double[n];
+			}
+
+			for (int i = 0; i < n; i++) {
+				jds[i] = obs.get(i).getJD();
+			}
+
+			PhaseCalcs.calcStandardPhases(jds, n, epoch, period, phases);
+
+			// The plot and table models need the phases.
+			for (int i = 0; i < n; i++) {
+				ValidObservation ob = obs.get(i);
+				ob.setStandardPhase(phases[i]);
+				ob.setPreviousCyclePhase(phases[i] - 1);
+			}
+
+			sorted = true;
+			for (int i = 1; i < n && sorted; i++) {
+				sorted = phases[i - 1] <= phases[i];
+			}
+		}
+
+		void sort() {
+			if (!sorted) {
+				// A stable, adaptive merge sort starting from the previous
+				// phase order.
+				obs.sort(StandardPhaseComparator.instance);
+				sorted = true;
+			}
+		}
+	}
+}
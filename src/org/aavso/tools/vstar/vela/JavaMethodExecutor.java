@@ -60,6 +60,13 @@ public class JavaMethodExecutor extends FunctionExecutor {
         }
     }
 
+    /**
+     * @return The underlying Java method.
+     */
+    public Method getMethod() {
+        return method;
+    }
+
     @Override
     public Optional<Operand> apply(List<Operand> operands) throws VeLaEvalError {
         return invokeJavaMethod(method, operands, getReturnType());
@@ -0,0 +1,378 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.vela;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * <p>
+ * Compiles a user-defined VeLa function of one real parameter into a tree of
+ * Java closures, so that it can be evaluated without walking the AST or
+ * allocating operands, e.g. for each point of a model curve.
+ * </p>
+ * <p>
+ * Only a numeric subset of VeLa is compiled: real and integer literals, the
+ * function's parameter, numeric constants, arithmetic operators, a whitelist
+ * of java.lang.Math functions, and calls to other compilable functions of
+ * one real parameter. Symbols other than the parameter are bound when the
+ * function is compiled: from the function's captured environment or from
+ * constants of the global scope. Anything else yields no compiled function,
+ * in which case the function must be interpreted.
+ * </p>
+ * <p>
+ * Closures are used rather than MethodHandle combinators (java.lang.invoke)
+ * or generated bytecode since they are simpler to build, read and debug, and
+ * removing the interpreter's overhead is what matters here.
+ * </p>
+ */
+class RealFunctionCompiler {
+
+    private static Map<String, DoubleUnaryOperator> unaryMathFunctions;
+    private static Map<String, DoubleBinaryOperator> binaryMathFunctions;
+
+    static {
+        unaryMathFunctions = new HashMap<String, DoubleUnaryOperator>();
+        unaryMathFunctions.put("SIN", Math::sin);
+        unaryMathFunctions.put("COS", Math::cos);
+        unaryMathFunctions.put("TAN", Math::tan);
+        unaryMathFunctions.put("ASIN", Math::asin);
+        unaryMathFunctions.put("ACOS", Math::acos);
+        unaryMathFunctions.put("ATAN", Math::atan);
+        unaryMathFunctions.put("SINH", Math::sinh);
+        unaryMathFunctions.put("COSH", Math::cosh);
+        unaryMathFunctions.put("TANH", Math::tanh);
+        unaryMathFunctions.put("EXP", Math::exp);
+        unaryMathFunctions.put("LOG", Math::log);
+        unaryMathFunctions.put("LOG10", Math::log10);
+        unaryMathFunctions.put("SQRT", Math::sqrt);
+        unaryMathFunctions.put("CBRT", Math::cbrt);
+        unaryMathFunctions.put("ABS", Math::abs);
+        unaryMathFunctions.put("FLOOR", Math::floor);
+        unaryMathFunctions.put("CEIL", Math::ceil);
+        unaryMathFunctions.put("TORADIANS", Math::toRadians);
+        unaryMathFunctions.put("TODEGREES", Math::toDegrees);
+
+        binaryMathFunctions = new HashMap<String, DoubleBinaryOperator>();
+        binaryMathFunctions.put("ATAN2", Math::atan2);
+        binaryMathFunctions.put("POW", Math::pow);
+        binaryMathFunctions.put("HYPOT", Math::hypot);
+        binaryMathFunctions.put("MIN", Math::min);
+        binaryMathFunctions.put("MAX", Math::max);
+    }
+
+    private VeLaInterpreter vela;
+
+    // Functions being compiled, to detect recursion.
+    private Set<FunctionExecutor> activeFunctions;
+
+    /**
+     * Constructor
+     *
+     * @param vela The interpreter in which functions are defined.
+     */
+    RealFunctionCompiler(VeLaInterpreter vela) {
+        this.vela = vela;
+        activeFunctions = new HashSet<FunctionExecutor>();
+    }
+
+    /**
+     * Compile the named function.
+     *
+     * @param funcName The name of the function.
+     * @return The compiled function, or empty if it cannot be compiled.
+     */
+    Optional<DoubleUnaryOperator> compile(String funcName) {
+        Optional<DoubleUnaryOperator> result = Optional.empty();
+
+        Optional<List<FunctionExecutor>> functions = vela.lookupFunctions(funcName.toUpperCase());
+
+        if (functions.isPresent() && functions.get().size() == 1) {
+            DoubleUnaryOperator function = compileFunction(functions.get().get(0));
+            if (function != null) {
+                result = Optional.of(function);
+            }
+        }
+
+        return result;
+    }
+
+    // Helpers
+
+    // A compiled expression of the function's parameter, and whether its
+    // VeLa type would be integer rather than real.
+    private static class Node {
+        DoubleUnaryOperator op;
+        boolean isInteger;
+
+        Node(DoubleUnaryOperator op, boolean isInteger) {
+            this.op = op;
+            this.isInteger = isInteger;
+        }
+    }
+
+    // Compile a user-defined function of one real parameter, returning null
+    // if this is not possible.
+    private DoubleUnaryOperator compileFunction(FunctionExecutor function) {
+        if (!(function instanceof UserDefinedFunctionExecutor) || activeFunctions.contains(function)) {
+            return null;
+        }
+
+        UserDefinedFunctionExecutor userFunction = (UserDefinedFunctionExecutor) function;
+
+        if (userFunction.getParameterTypes().size() != 1 || userFunction.getParameterTypes().get(0) != Type.REAL
+                || !userFunction.getBody().isPresent()) {
+            return null;
+        }
+
+        Optional<Type> returnType = userFunction.getReturnType();
+        if (returnType.isPresent() && returnType.get() != Type.REAL) {
+            return null;
+        }
+
+        activeFunctions.add(function);
+        try {
+            Node body = compile(userFunction.getBody().get(), userFunction);
+
+            // An integer result is converted to a declared real return type.
+            if (body == null || (body.isInteger && !returnType.isPresent())) {
+                return null;
+            }
+
+            return body.op;
+        } finally {
+            activeFunctions.remove(function);
+        }
+    }
+
+    // Compile an AST from the body of the specified function, returning null
+    // if this is not possible.
+    private Node compile(AST ast, UserDefinedFunctionExecutor function) {
+        Node node = null;
+
+        if (ast.isLiteral()) {
+            node = constant(ast.getOperand());
+        } else if (ast.getOp() == Operation.SEQUENCE) {
+            if (ast.hasChildren() && ast.getChildren().size() == 1) {
+                node = compile(ast.head(), function);
+            }
+        } else if (ast.getOp() == Operation.SYMBOL) {
+            node = compileSymbol(ast.getToken(), function);
+        } else if (ast.getOp() == Operation.NEG) {
+            Node operand = compile(ast.head(), function);
+            if (operand != null && !operand.isInteger) {
+                DoubleUnaryOperator a = operand.op;
+                node = new Node(t -> -a.applyAsDouble(t), false);
+            }
+        } else if (ast.getOp().arity() == 2) {
+            node = compileBinaryOperation(ast, function);
+        } else if (ast.getOp() == Operation.FUNCALL) {
+            node = compileFuncall(ast, function);
+        }
+
+        return node;
+    }
+
+    // Compile a symbol: the function's parameter or a numeric binding.
+    private Node compileSymbol(String name, UserDefinedFunctionExecutor function) {
+        if (function.getParameterNames().get(0).equalsIgnoreCase(name)) {
+            return new Node(t -> t, false);
+        }
+
+        // A binding captured when the function was defined is fixed...
+        Optional<Operand> value = function.getEnvironment().lookup(name);
+
+        if (!value.isPresent()) {
+            // ...as is a constant in the global scope, as long as nothing
+            // else currently binds the name.
+            VeLaScope globalScope = vela.getScopes().get(0);
+            value = vela.lookupBinding(name);
+            if (!value.isPresent() || !globalScope.isConstant(name)
+                    || value.get() != globalScope.lookup(name).get()) {
+                return null;
+            }
+        }
+
+        return constant(value.get());
+    }
+
+    private Node constant(Operand operand) {
+        Node node = null;
+
+        switch (operand.getType()) {
+        case INTEGER:
+            double intVal = operand.intVal();
+            node = new Node(t -> intVal, true);
+            break;
+        case REAL:
+            double doubleVal = operand.doubleVal();
+            node = new Node(t -> doubleVal, false);
+            break;
+        default:
+            break;
+        }
+
+        return node;
+    }
+
+    // Compile an arithmetic operation. An integer operand of a real operation
+    // is converted, but integer operations are left to the interpreter.
+    private Node compileBinaryOperation(AST ast, UserDefinedFunctionExecutor function) {
+        Node left = compile(ast.left(), function);
+        Node right = compile(ast.right(), function);
+
+        if (left == null || right == null || (left.isInteger && right.isInteger)) {
+            return null;
+        }
+
+        DoubleUnaryOperator a = left.op;
+        DoubleUnaryOperator b = right.op;
+        DoubleUnaryOperator op = null;
+
+        switch (ast.getOp()) {
+        case ADD:
+            op = t -> a.applyAsDouble(t) + b.applyAsDouble(t);
+            break;
+        case SUB:
+            op = t -> a.applyAsDouble(t) - b.applyAsDouble(t);
+            break;
+        case MUL:
+            op = t -> a.applyAsDouble(t) * b.applyAsDouble(t);
+            break;
+        case DIV:
+            op = t -> divide(a.applyAsDouble(t), b.applyAsDouble(t));
+            break;
+        case POW:
+            op = t -> Math.pow(a.applyAsDouble(t), b.applyAsDouble(t));
+            break;
+        default:
+            break;
+        }
+
+        return op != null ? new Node(op, false) : null;
+    }
+
+    // Real division, failing as the interpreter does for an infinite result.
+    private static double divide(double a, double b) {
+        double result = a / b;
+
+        if (Double.isInfinite(result)) {
+            throw new VeLaEvalError(String.format("%s/%s: division by zero error", a, b));
+        }
+
+        return result;
+    }
+
+    // Compile a call to a whitelisted Math function or to another function of
+    // one real parameter.
+    private Node compileFuncall(AST ast, UserDefinedFunctionExecutor function) {
+        if (ast.head().getOp() != Operation.SYMBOL) {
+            return null;
+        }
+
+        String name = ast.head().getToken().toUpperCase();
+        List<AST> children = ast.getChildren();
+        int arity = children.size() - 1;
+
+        Node[] args = new Node[arity];
+        for (int i = 0; i < arity; i++) {
+            args[i] = compile(children.get(i + 1), function);
+            if (args[i] == null || args[i].isInteger) {
+                return null;
+            }
+        }
+
+        // As for symbols, functions captured when the calling function was
+        // defined are found first.
+        Optional<List<FunctionExecutor>> functions = function.getEnvironment().lookupFunction(name);
+        if (!functions.isPresent()) {
+            functions = vela.lookupFunctions(name);
+        }
+
+        if (!functions.isPresent() || functions.get().isEmpty()) {
+            return null;
+        }
+
+        Node node = null;
+
+        if (isMathFunction(functions.get(), name, arity)) {
+            if (arity == 1) {
+                DoubleUnaryOperator f = unaryMathFunctions.get(name);
+                DoubleUnaryOperator a = args[0].op;
+                node = new Node(t -> f.applyAsDouble(a.applyAsDouble(t)), false);
+            } else {
+                DoubleBinaryOperator f = binaryMathFunctions.get(name);
+                DoubleUnaryOperator a = args[0].op;
+                DoubleUnaryOperator b = args[1].op;
+                node = new Node(t -> f.applyAsDouble(a.applyAsDouble(t), b.applyAsDouble(t)), false);
+            }
+        } else if (arity == 1 && functions.get().size() == 1) {
+            DoubleUnaryOperator f = compileFunction(functions.get().get(0));
+            if (f != null) {
+                DoubleUnaryOperator a = args[0].op;
+                node = new Node(t -> f.applyAsDouble(a.applyAsDouble(t)), false);
+            }
+        }
+
+        return node;
+    }
+
+    // Would the interpreter apply the whitelisted java.lang.Math function of
+    // the specified name to real arguments? It applies the first function
+    // that conforms to the arguments.
+    private boolean isMathFunction(List<FunctionExecutor> functions, String name, int arity) {
+        boolean whitelisted = (arity == 1 && unaryMathFunctions.containsKey(name))
+                || (arity == 2 && binaryMathFunctions.containsKey(name));
+
+        if (!whitelisted) {
+            return false;
+        }
+
+        for (FunctionExecutor function : functions) {
+            List<Type> types = function.getParameterTypes();
+            if (types.size() == arity && types.stream().allMatch(type -> type == Type.REAL || type == Type.STRING)) {
+                if (!(function instanceof JavaMethodExecutor)) {
+                    return false;
+                }
+
+                Method method = ((JavaMethodExecutor) function).getMethod();
+                if (method.getDeclaringClass() != Math.class || !method.getName().equalsIgnoreCase(name)
+                        || method.getReturnType() != double.class) {
+                    return false;
+                }
+
+                for (Class<?> type : method.getParameterTypes()) {
+                    if (type != double.class) {
+                        return false;
+                    }
+                }
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -115,6 +115,20 @@ public class UserDefinedFunctionExecutor extends FunctionExecutor {
         return result;
     }
 
+    /**
+     * @return The AST corresponding to the body of the function.
+     */
+    public Optional<AST> getBody() {
+        return ast;
+    }
+
+    /**
+     * @return The environment captured when the function was defined.
+     */
+    public VeLaScope getEnvironment() {
+        return env;
+    }
+
     /**
      * Is the function body tail recursive?
      */
@@ -114,6 +114,16 @@ public class VeLaEnvironment<T> {
         }
     }
 
+    /**
+     * Is the specified name a constant binding in this environment?
+     * 
+     * @param name The name of the binding.
+     * @return Whether the name is bound to a constant.
+     */
+    public boolean isConstant(String name) {
+        return constants.contains(name.toUpperCase());
+    }
+
     /**
      * Add all symbol bindings from another scope to this one.
      *
@@ -28,7 +28,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -36,14 +35,17 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.Stack;
 import java.util.TreeMap;
+import java.util.function.DoubleUnaryOperator;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.aavso.tools.vstar.scripting.VStarScriptingAPI;
 import org.aavso.tools.vstar.ui.VStar;
+import org.aavso.tools.vstar.util.BoundedCache;
 import org.aavso.tools.vstar.util.Pair;
 import org.aavso.tools.vstar.util.date.AbstractDateUtil;
+import org.aavso.tools.vstar.util.prefs.VeLaPrefs;
 import org.antlr.v4.runtime.ANTLRInputStream;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CommonTokenStream;
@@ -63,13 +65,17 @@ public class VeLaInterpreter {
 
     private Stack<VeLaEnvironment<Operand>> environments;
 
-    // AST and result caches.
-    private static Map<String, AST> exprToAST = new HashMap<String, AST>();
+    // AST cache, shared by interpreters that may run on different threads.
+    private static BoundedCache<String, AST> exprToAST = new BoundedCache<String, AST>(VeLaPrefs.getCacheSize());
 
     // Regular expression pattern cache.
-    private static Map<String, Pattern> regexPatterns = new HashMap<String, Pattern>();
+    private static BoundedCache<String, Pattern> regexPatterns = new BoundedCache<String, Pattern>(
+            VeLaPrefs.getCacheSize());
 
-    private static List<FunctionExecutor> javaClassFunctionExecutors = null;
+    // Functions from reflection over Java classes, shared by all interpreters.
+    // The list is never modified once published, but replaced by a copy with
+    // any added functions, so it can be iterated on any thread without locking.
+    private static volatile List<FunctionExecutor> javaClassFunctionExecutors = null;
 
     private VeLaErrorListener errorListener;
 
@@ -107,16 +113,26 @@ public class VeLaInterpreter {
             permittedTypes.add(VStarScriptingAPI.class);
         }
 
+        // Interpreters may be constructed on different threads, so the list
+        // is fully populated before being published.
         if (javaClassFunctionExecutors == null) {
-            javaClassFunctionExecutors = new ArrayList<FunctionExecutor>();
-            addFunctionExecutorsFromClass(Math.class, null, permittedTypes, Collections.emptySet());
+            synchronized (VeLaInterpreter.class) {
+                if (javaClassFunctionExecutors == null) {
+                    List<FunctionExecutor> executors = new ArrayList<FunctionExecutor>();
 
-            addFunctionExecutorsFromClass(String.class, null, permittedTypes,
-                    new HashSet<String>(Arrays.asList("JOIN", "FORMAT")));
+                    collectFunctionExecutorsFromClass(executors, Math.class, null, permittedTypes,
+                            Collections.emptySet());
 
-            if (addVStarAPI) {
-                addFunctionExecutorsFromClass(VStarScriptingAPI.class, VStarScriptingAPI.getInstance(), permittedTypes,
-                        Collections.emptySet());
+                    collectFunctionExecutorsFromClass(executors, String.class, null, permittedTypes,
+                            new HashSet<String>(Arrays.asList("JOIN", "FORMAT")));
+
+                    if (addVStarAPI) {
+                        collectFunctionExecutorsFromClass(executors, VStarScriptingAPI.class,
+                                VStarScriptingAPI.getInstance(), permittedTypes, Collections.emptySet());
+                    }
+
+                    javaClassFunctionExecutors = executors;
+                }
             }
         }
 
@@ -278,6 +294,74 @@ public class VeLaInterpreter {
         return commonInterpreter(prog, tree);
     }
 
+    /**
+     * Compile a VeLa program string to an abstract syntax tree that can be
+     * evaluated many times via program(AST), e.g. once per observation, without
+     * being parsed again.
+     * 
+     * @param prog The VeLa program string to be compiled.
+     * @return The abstract syntax tree, or null if the program contains no code.
+     * @throws VeLaParseError If a parse error occurs.
+     */
+    public AST compile(String prog) throws VeLaParseError {
+        VeLaParser.SequenceContext tree = getParser(prog).sequence();
+        return commonParseTreeWalker(prog, tree);
+    }
+
+    /**
+     * Compiled VeLa program interpreter entry point.
+     * 
+     * @param ast The abstract syntax tree returned by compile(); may be null.
+     * @return An optional result, depending upon whether a value was left on the
+     *         stack.
+     * @throws VeLaEvalError If an evaluation error occurs.
+     */
+    public Optional<Operand> program(AST ast) throws VeLaEvalError {
+        Optional<Operand> result = Optional.empty();
+
+        if (ast != null) {
+            eval(ast);
+            if (!stack.isEmpty()) {
+                result = Optional.of(stack.pop());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Compile the named user-defined function of one real parameter to a Java
+     * function, e.g. a model function to be evaluated many times. Only numeric
+     * code is compiled (see RealFunctionCompiler); bindings other than the
+     * parameter are fixed at the time of compilation.
+     * 
+     * @param funcName The name of the function.
+     * @return The compiled function, or empty if the function must be
+     *         interpreted.
+     */
+    public Optional<DoubleUnaryOperator> compileRealFunction(String funcName) {
+        return new RealFunctionCompiler(this).compile(funcName);
+    }
+
+    /**
+     * Set the maximum number of entries in each of the caches shared by all
+     * interpreters, evicting least recently used entries as necessary.
+     * 
+     * @param size The maximum number of entries; must be positive.
+     */
+    public static void setCacheSize(int size) {
+        exprToAST.setMaxSize(size);
+        regexPatterns.setMaxSize(size);
+    }
+
+    /**
+     * @return A summary of the size and hit/miss counts of the caches shared
+     *         by all interpreters.
+     */
+    public static String getCacheStatistics() {
+        return String.format("AST cache: %s; regex cache: %s", exprToAST, regexPatterns);
+    }
+
     /**
      * Expression interpreter entry point.
      * 
@@ -387,19 +471,10 @@ public class VeLaInterpreter {
      */
     public Pair<Optional<Operand>, AST> commonInterpreter(String prog, ParserRuleContext tree) throws VeLaEvalError {
 
-        Optional<Operand> result = Optional.empty();
-
         AST ast = commonParseTreeWalker(prog, tree);
 
-        if (ast != null) {
-            // Evaluate the abstract syntax tree and cache the result.
-            eval(ast);
-            if (!stack.isEmpty()) {
-                result = Optional.of(stack.pop());
-            } else {
-                result = Optional.empty();
-            }
-        }
+        // Evaluate the abstract syntax tree.
+        Optional<Operand> result = program(ast);
 
         return new Pair<Optional<Operand>, AST>(result, ast);
     }
@@ -421,20 +496,9 @@ public class VeLaInterpreter {
         prog = prog.replace(" ", "").replace("\t", "").toUpperCase();
 
         // We cache abstract syntax trees by top-level program string
-        // to improve performance.
-        // boolean astCached = false;
-        if (exprToAST.containsKey(prog)) {
-            ast = exprToAST.get(prog);
-            // astCached = true;
-        } else {
-            ExpressionVisitor visitor = new ExpressionVisitor(this);
-            ast = visitor.visit(tree);
-
-            if (ast != null) {
-                // This relates a VeLa program or expression to an AST.
-                exprToAST.put(prog, ast);
-            }
-        }
+        // to improve performance. This relates a VeLa program or expression
+        // to an AST.
+        ast = exprToAST.get(prog, key -> new ExpressionVisitor(this).visit(tree));
 
 //		if (verbose && ast != null) {
 //			if (astCached) {
@@ -1002,13 +1066,7 @@ public class VeLaInterpreter {
                 break;
             case APPROXIMATELY_EQUAL:
                 if (type == Type.STRING) {
-                    Pattern pattern;
-                    String regex = operand2.stringVal();
-                    if (!regexPatterns.containsKey(regex)) {
-                        pattern = Pattern.compile(regex);
-                        regexPatterns.put(regex, pattern);
-                    }
-                    pattern = regexPatterns.get(regex);
+                    Pattern pattern = regexPatterns.get(operand2.stringVal(), Pattern::compile);
                     stack.push(new Operand(Type.BOOLEAN, pattern.matcher(operand1.stringVal()).matches()));
                 } else {
                     binaryOpError(op, Type.STRING);
@@ -2060,6 +2118,16 @@ public class VeLaInterpreter {
      */
     public void addFunctionExecutorsFromClass(Class<?> clazz, Object instance, Set<Class<?>> permittedTypes,
             Set<String> exclusions) {
+        synchronized (VeLaInterpreter.class) {
+            List<FunctionExecutor> executors = new ArrayList<FunctionExecutor>(javaClassFunctionExecutors);
+            collectFunctionExecutorsFromClass(executors, clazz, instance, permittedTypes, exclusions);
+            javaClassFunctionExecutors = executors;
+        }
+    }
+
+    // Add non zero-arity VeLa type-compatible functions of a class to a list.
+    private static void collectFunctionExecutorsFromClass(List<FunctionExecutor> executors, Class<?> clazz,
+            Object instance, Set<Class<?>> permittedTypes, Set<String> exclusions) {
         Method[] declaredMethods = clazz.getDeclaredMethods();
 
         for (Method declaredMethod : declaredMethods) {
@@ -2087,7 +2155,7 @@ public class VeLaInterpreter {
                 function = new JavaMethodExecutor(instance, declaredMethod, Optional.of(funcName), names, types,
                         Optional.of(Type.java2Vela(returnType)), helpString);
 
-                javaClassFunctionExecutors.add(function);
+                executors.add(function);
             }
         }
     }
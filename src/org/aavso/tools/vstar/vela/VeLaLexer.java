@@ -0,0 +1,276 @@
+// Generated from /root/project/src/org/aavso/tools/vstar/vela/VeLa.g4 by ANTLR 4.5.3
+package org.aavso.tools.vstar.vela;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.*;
+import org.antlr.v4.runtime.atn.*;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.antlr.v4.runtime.misc.*;
+
+@SuppressWarnings({"all", "warnings", "unchecked", "unused", "cast"})
+public class VeLaLexer extends Lexer {
+	static { RuntimeMetaData.checkVersion("4.5.3", RuntimeMetaData.VERSION); }
+
+	protected static final DFA[] _decisionToDFA;
+	protected static final PredictionContextCache _sharedContextCache =
+		new PredictionContextCache();
+	public static final int
+		BACK_ARROW=1, IS=2, COLON=3, ARROW=4, IF=5, THEN=6, ELSE=7, WHEN=8, WHILE=9, 
+		FUN=10, LAMBDA=11, INT_T=12, REAL_T=13, BOOL_T=14, STR_T=15, LIST_T=16, 
+		MINUS=17, PLUS=18, MULT=19, DIV=20, POW=21, EQUAL=22, NOT_EQUAL=23, GREATER_THAN=24, 
+		LESS_THAN=25, GREATER_THAN_OR_EQUAL=26, LESS_THAN_OR_EQUAL=27, APPROXIMATELY_EQUAL=28, 
+		SHIFT_LEFT=29, SHIFT_RIGHT=30, IN=31, LPAREN=32, RPAREN=33, LBRACKET=34, 
+		RBRACKET=35, LBRACE=36, RBRACE=37, PERIOD=38, COMMA=39, AND=40, XOR=41, 
+		OR=42, NOT=43, INTEGER=44, REAL=45, BOOLEAN=46, IDENT=47, STRING=48, WS=49, 
+		HELP_COMMENT=50, COMMENT=51;
+	public static String[] modeNames = {
+		"DEFAULT_MODE"
+	};
+
+	public static final String[] ruleNames = {
+		"BACK_ARROW", "IS", "COLON", "ARROW", "IF", "THEN", "ELSE", "WHEN", "WHILE", 
+		"FUN", "LAMBDA", "INT_T", "REAL_T", "BOOL_T", "STR_T", "LIST_T", "MINUS", 
+		"PLUS", "MULT", "DIV", "POW", "EQUAL", "NOT_EQUAL", "GREATER_THAN", "LESS_THAN", 
+		"GREATER_THAN_OR_EQUAL", "LESS_THAN_OR_EQUAL", "APPROXIMATELY_EQUAL", 
+		"SHIFT_LEFT", "SHIFT_RIGHT", "IN", "LPAREN", "RPAREN", "LBRACKET", "RBRACKET", 
+		"LBRACE", "RBRACE", "PERIOD", "COMMA", "AND", "XOR", "OR", "NOT", "INTEGER", 
+		"REAL", "BOOLEAN", "TRUE", "FALSE", "DEC_DIGIT", "HEX_DIGIT", "BIN_DIGIT", 
+		"POINT", "EXPONENT_INDICATOR", "IDENT", "LETTER", "UNDERSCORE", "SYMBOL", 
+		"STRING", "WS", "HELP_COMMENT", "COMMENT"
+	};
+
+	private static final String[] _LITERAL_NAMES = {
+		null, "'<-'", null, "':'", "'->'", null, null, null, null, null, null, 
+		null, null, null, null, null, null, "'-'", "'+'", "'*'", "'/'", "'^'", 
+		"'='", "'<>'", "'>'", "'<'", "'>='", "'<='", "'=~'", "'<<'", "'>>'", null, 
+		"'('", "')'", "'['", "']'", "'{'", "'}'", "'.'", "','"
+	};
+	private static final String[] _SYMBOLIC_NAMES = {
+		null, "BACK_ARROW", "IS", "COLON", "ARROW", "IF", "THEN", "ELSE", "WHEN", 
+		"WHILE", "FUN", "LAMBDA", "INT_T", "REAL_T", "BOOL_T", "STR_T", "LIST_T", 
+		"MINUS", "PLUS", "MULT", "DIV", "POW", "EQUAL", "NOT_EQUAL", "GREATER_THAN", 
+		"LESS_THAN", "GREATER_THAN_OR_EQUAL", "LESS_THAN_OR_EQUAL", "APPROXIMATELY_EQUAL", 
+		"SHIFT_LEFT", "SHIFT_RIGHT", "IN", "LPAREN", "RPAREN", "LBRACKET", "RBRACKET", 
+		"LBRACE", "RBRACE", "PERIOD", "COMMA", "AND", "XOR", "OR", "NOT", "INTEGER", 
+		"REAL", "BOOLEAN", "IDENT", "STRING", "WS", "HELP_COMMENT", "COMMENT"
+	};
+	public static final Vocabulary VOCABULARY = new VocabularyImpl(_LITERAL_NAMES, _SYMBOLIC_NAMES);
+
+	/**
+	 * @deprecated Use {@link #VOCABULARY} instead.
+	 */
+	@Deprecated
+	public static final String[] tokenNames;
+	static {
+		tokenNames = new String[_SYMBOLIC_NAMES.length];
+		for (int i = 0; i < tokenNames.length; i++) {
+			tokenNames[i] = VOCABULARY.getLiteralName(i);
+			if (tokenNames[i] == null) {
+				tokenNames[i] = VOCABULARY.getSymbolicName(i);
+			}
+
+			if (tokenNames[i] == null) {
+				tokenNames[i] = "<INVALID>";
+			}
+		}
+	}
+
+	@Override
+	@Deprecated
+	public String[] getTokenNames() {
+		return tokenNames;
+	}
+
+	@Override
+
+	public Vocabulary getVocabulary() {
+		return VOCABULARY;
+	}
+
+
+	public VeLaLexer(CharStream input) {
+		super(input);
+		_interp = new LexerATNSimulator(this,_ATN,_decisionToDFA,_sharedContextCache);
+	}
+
+	@Override
+	public String getGrammarFileName() { return "VeLa.g4"; }
+
+	@Override
+	public String[] getRuleNames() { return ruleNames; }
+
+	@Override
+	public String getSerializedATN() { return _serializedATN; }
+
+	@Override
+	public String[] getModeNames() { return modeNames; }
+
+	@Override
+	public ATN getATN() { return _ATN; }
+
+	public static final String _serializedATN =
+		"\3\u0430\ud6d1\u8206\uad2d\u4417\uaef1\u8d80\uaadd\2\65\u01b2\b\1\4\2"+
+		"\t\2\4\3\t\3\4\4\t\4\4\5\t\5\4\6\t\6\4\7\t\7\4\b\t\b\4\t\t\t\4\n\t\n\4"+
+		"\13\t\13\4\f\t\f\4\r\t\r\4\16\t\16\4\17\t\17\4\20\t\20\4\21\t\21\4\22"+
+		"\t\22\4\23\t\23\4\24\t\24\4\25\t\25\4\26\t\26\4\27\t\27\4\30\t\30\4\31"+
+		"\t\31\4\32\t\32\4\33\t\33\4\34\t\34\4\35\t\35\4\36\t\36\4\37\t\37\4 \t"+
+		" \4!\t!\4\"\t\"\4#\t#\4$\t$\4%\t%\4&\t&\4\'\t\'\4(\t(\4)\t)\4*\t*\4+\t"+
+		"+\4,\t,\4-\t-\4.\t.\4/\t/\4\60\t\60\4\61\t\61\4\62\t\62\4\63\t\63\4\64"+
+		"\t\64\4\65\t\65\4\66\t\66\4\67\t\67\48\t8\49\t9\4:\t:\4;\t;\4<\t<\4=\t"+
+		"=\4>\t>\3\2\3\2\3\2\3\3\3\3\3\3\3\4\3\4\3\5\3\5\3\5\3\6\3\6\3\6\3\7\3"+
+		"\7\3\7\3\7\3\7\3\b\3\b\3\b\3\b\3\b\3\t\3\t\3\t\3\t\3\t\3\n\3\n\3\n\3\n"+
+		"\3\n\3\n\3\13\3\13\3\13\3\13\3\13\3\13\3\13\3\13\3\13\3\f\3\f\3\r\3\r"+
+		"\3\r\3\r\3\r\3\r\3\r\3\r\3\16\3\16\3\16\3\16\3\16\3\17\3\17\3\17\3\17"+
+		"\3\17\3\17\3\17\3\17\3\20\3\20\3\20\3\20\3\20\3\20\3\20\3\21\3\21\3\21"+
+		"\3\21\3\21\3\22\3\22\3\23\3\23\3\24\3\24\3\25\3\25\3\26\3\26\3\27\3\27"+
+		"\3\30\3\30\3\30\3\31\3\31\3\32\3\32\3\33\3\33\3\33\3\34\3\34\3\34\3\35"+
+		"\3\35\3\35\3\36\3\36\3\36\3\37\3\37\3\37\3 \3 \3 \3!\3!\3\"\3\"\3#\3#"+
+		"\3$\3$\3%\3%\3&\3&\3\'\3\'\3(\3(\3)\3)\3)\3)\3*\3*\3*\3*\3+\3+\3+\3,\3"+
+		",\3,\3,\3-\6-\u0112\n-\r-\16-\u0113\3-\3-\3-\6-\u0119\n-\r-\16-\u011a"+
+		"\3-\3-\3-\6-\u0120\n-\r-\16-\u0121\5-\u0124\n-\3.\6.\u0127\n.\r.\16.\u0128"+
+		"\3.\3.\6.\u012d\n.\r.\16.\u012e\5.\u0131\n.\3.\3.\5.\u0135\n.\3.\6.\u0138"+
+		"\n.\r.\16.\u0139\5.\u013c\n.\3.\3.\6.\u0140\n.\r.\16.\u0141\3.\3.\5.\u0146"+
+		"\n.\3.\6.\u0149\n.\r.\16.\u014a\5.\u014d\n.\5.\u014f\n.\3/\3/\5/\u0153"+
+		"\n/\3\60\3\60\3\60\3\60\3\60\3\61\3\61\3\61\3\61\3\61\3\61\3\62\3\62\3"+
+		"\63\3\63\5\63\u0164\n\63\3\64\3\64\3\65\3\65\5\65\u016a\n\65\3\66\3\66"+
+		"\3\67\3\67\5\67\u0170\n\67\3\67\3\67\3\67\7\67\u0175\n\67\f\67\16\67\u0178"+
+		"\13\67\38\58\u017b\n8\39\39\3:\3:\5:\u0181\n:\3;\3;\7;\u0185\n;\f;\16"+
+		";\u0188\13;\3;\3;\3<\6<\u018d\n<\r<\16<\u018e\3<\3<\3=\3=\3=\7=\u0196"+
+		"\n=\f=\16=\u0199\13=\3=\7=\u019c\n=\f=\16=\u019f\13=\3=\7=\u01a2\n=\f"+
+		"=\16=\u01a5\13=\3=\3=\3=\3>\3>\7>\u01ac\n>\f>\16>\u01af\13>\3>\3>\2\2"+
+		"?\3\3\5\4\7\5\t\6\13\7\r\b\17\t\21\n\23\13\25\f\27\r\31\16\33\17\35\20"+
+		"\37\21!\22#\23%\24\'\25)\26+\27-\30/\31\61\32\63\33\65\34\67\359\36;\37"+
+		"= ?!A\"C#E$G%I&K\'M(O)Q*S+U,W-Y.[/]\60_\2a\2c\2e\2g\2i\2k\2m\61o\2q\2"+
+		"s\2u\62w\63y\64{\65\3\2\36\4\2KKkk\4\2UUuu\4\2HHhh\4\2VVvv\4\2JJjj\4\2"+
+		"GGgg\4\2PPpp\4\2NNnn\4\2YYyy\4\2WWww\4\2EEee\4\2QQqq\4\2\u039d\u039d\u03bd"+
+		"\u03bd\4\2IIii\4\2TTtt\4\2CCcc\4\2DDdd\4\2FFff\4\2ZZzz\3\2\62\62\3\2\62"+
+		";\4\2C\\c|\3\2\62\63\5\2C\\c|\u0082\1\5\2##%(AA\3\2$$\5\2\13\f\17\17\""+
+		"\"\4\2\f\f\17\17\u01c5\2\3\3\2\2\2\2\5\3\2\2\2\2\7\3\2\2\2\2\t\3\2\2\2"+
+		"\2\13\3\2\2\2\2\r\3\2\2\2\2\17\3\2\2\2\2\21\3\2\2\2\2\23\3\2\2\2\2\25"+
+		"\3\2\2\2\2\27\3\2\2\2\2\31\3\2\2\2\2\33\3\2\2\2\2\35\3\2\2\2\2\37\3\2"+
+		"\2\2\2!\3\2\2\2\2#\3\2\2\2\2%\3\2\2\2\2\'\3\2\2\2\2)\3\2\2\2\2+\3\2\2"+
+		"\2\2-\3\2\2\2\2/\3\2\2\2\2\61\3\2\2\2\2\63\3\2\2\2\2\65\3\2\2\2\2\67\3"+
+		"\2\2\2\29\3\2\2\2\2;\3\2\2\2\2=\3\2\2\2\2?\3\2\2\2\2A\3\2\2\2\2C\3\2\2"+
+		"\2\2E\3\2\2\2\2G\3\2\2\2\2I\3\2\2\2\2K\3\2\2\2\2M\3\2\2\2\2O\3\2\2\2\2"+
+		"Q\3\2\2\2\2S\3\2\2\2\2U\3\2\2\2\2W\3\2\2\2\2Y\3\2\2\2\2[\3\2\2\2\2]\3"+
+		"\2\2\2\2m\3\2\2\2\2u\3\2\2\2\2w\3\2\2\2\2y\3\2\2\2\2{\3\2\2\2\3}\3\2\2"+
+		"\2\5\u0080\3\2\2\2\7\u0083\3\2\2\2\t\u0085\3\2\2\2\13\u0088\3\2\2\2\r"+
+		"\u008b\3\2\2\2\17\u0090\3\2\2\2\21\u0095\3\2\2\2\23\u009a\3\2\2\2\25\u00a0"+
+		"\3\2\2\2\27\u00a9\3\2\2\2\31\u00ab\3\2\2\2\33\u00b3\3\2\2\2\35\u00b8\3"+
+		"\2\2\2\37\u00c0\3\2\2\2!\u00c7\3\2\2\2#\u00cc\3\2\2\2%\u00ce\3\2\2\2\'"+
+		"\u00d0\3\2\2\2)\u00d2\3\2\2\2+\u00d4\3\2\2\2-\u00d6\3\2\2\2/\u00d8\3\2"+
+		"\2\2\61\u00db\3\2\2\2\63\u00dd\3\2\2\2\65\u00df\3\2\2\2\67\u00e2\3\2\2"+
+		"\29\u00e5\3\2\2\2;\u00e8\3\2\2\2=\u00eb\3\2\2\2?\u00ee\3\2\2\2A\u00f1"+
+		"\3\2\2\2C\u00f3\3\2\2\2E\u00f5\3\2\2\2G\u00f7\3\2\2\2I\u00f9\3\2\2\2K"+
+		"\u00fb\3\2\2\2M\u00fd\3\2\2\2O\u00ff\3\2\2\2Q\u0101\3\2\2\2S\u0105\3\2"+
+		"\2\2U\u0109\3\2\2\2W\u010c\3\2\2\2Y\u0123\3\2\2\2[\u014e\3\2\2\2]\u0152"+
+		"\3\2\2\2_\u0154\3\2\2\2a\u0159\3\2\2\2c\u015f\3\2\2\2e\u0163\3\2\2\2g"+
+		"\u0165\3\2\2\2i\u0169\3\2\2\2k\u016b\3\2\2\2m\u016f\3\2\2\2o\u017a\3\2"+
+		"\2\2q\u017c\3\2\2\2s\u0180\3\2\2\2u\u0182\3\2\2\2w\u018c\3\2\2\2y\u0192"+
+		"\3\2\2\2{\u01a9\3\2\2\2}~\7>\2\2~\177\7/\2\2\177\4\3\2\2\2\u0080\u0081"+
+		"\t\2\2\2\u0081\u0082\t\3\2\2\u0082\6\3\2\2\2\u0083\u0084\7<\2\2\u0084"+
+		"\b\3\2\2\2\u0085\u0086\7/\2\2\u0086\u0087\7@\2\2\u0087\n\3\2\2\2\u0088"+
+		"\u0089\t\2\2\2\u0089\u008a\t\4\2\2\u008a\f\3\2\2\2\u008b\u008c\t\5\2\2"+
+		"\u008c\u008d\t\6\2\2\u008d\u008e\t\7\2\2\u008e\u008f\t\b\2\2\u008f\16"+
+		"\3\2\2\2\u0090\u0091\t\7\2\2\u0091\u0092\t\t\2\2\u0092\u0093\t\3\2\2\u0093"+
+		"\u0094\t\7\2\2\u0094\20\3\2\2\2\u0095\u0096\t\n\2\2\u0096\u0097\t\6\2"+
+		"\2\u0097\u0098\t\7\2\2\u0098\u0099\t\b\2\2\u0099\22\3\2\2\2\u009a\u009b"+
+		"\t\n\2\2\u009b\u009c\t\6\2\2\u009c\u009d\t\2\2\2\u009d\u009e\t\t\2\2\u009e"+
+		"\u009f\t\7\2\2\u009f\24\3\2\2\2\u00a0\u00a1\t\4\2\2\u00a1\u00a2\t\13\2"+
+		"\2\u00a2\u00a3\t\b\2\2\u00a3\u00a4\t\f\2\2\u00a4\u00a5\t\5\2\2\u00a5\u00a6"+
+		"\t\2\2\2\u00a6\u00a7\t\r\2\2\u00a7\u00a8\t\b\2\2\u00a8\26\3\2\2\2\u00a9"+
+		"\u00aa\t\16\2\2\u00aa\30\3\2\2\2\u00ab\u00ac\t\2\2\2\u00ac\u00ad\t\b\2"+
+		"\2\u00ad\u00ae\t\5\2\2\u00ae\u00af\t\7\2\2\u00af\u00b0\t\17\2\2\u00b0"+
+		"\u00b1\t\7\2\2\u00b1\u00b2\t\20\2\2\u00b2\32\3\2\2\2\u00b3\u00b4\t\20"+
+		"\2\2\u00b4\u00b5\t\7\2\2\u00b5\u00b6\t\21\2\2\u00b6\u00b7\t\t\2\2\u00b7"+
+		"\34\3\2\2\2\u00b8\u00b9\t\22\2\2\u00b9\u00ba\t\r\2\2\u00ba\u00bb\t\r\2"+
+		"\2\u00bb\u00bc\t\t\2\2\u00bc\u00bd\t\7\2\2\u00bd\u00be\t\21\2\2\u00be"+
+		"\u00bf\t\b\2\2\u00bf\36\3\2\2\2\u00c0\u00c1\t\3\2\2\u00c1\u00c2\t\5\2"+
+		"\2\u00c2\u00c3\t\20\2\2\u00c3\u00c4\t\2\2\2\u00c4\u00c5\t\b\2\2\u00c5"+
+		"\u00c6\t\17\2\2\u00c6 \3\2\2\2\u00c7\u00c8\t\t\2\2\u00c8\u00c9\t\2\2\2"+
+		"\u00c9\u00ca\t\3\2\2\u00ca\u00cb\t\5\2\2\u00cb\"\3\2\2\2\u00cc\u00cd\7"+
+		"/\2\2\u00cd$\3\2\2\2\u00ce\u00cf\7-\2\2\u00cf&\3\2\2\2\u00d0\u00d1\7,"+
+		"\2\2\u00d1(\3\2\2\2\u00d2\u00d3\7\61\2\2\u00d3*\3\2\2\2\u00d4\u00d5\7"+
+		"`\2\2\u00d5,\3\2\2\2\u00d6\u00d7\7?\2\2\u00d7.\3\2\2\2\u00d8\u00d9\7>"+
+		"\2\2\u00d9\u00da\7@\2\2\u00da\60\3\2\2\2\u00db\u00dc\7@\2\2\u00dc\62\3"+
+		"\2\2\2\u00dd\u00de\7>\2\2\u00de\64\3\2\2\2\u00df\u00e0\7@\2\2\u00e0\u00e1"+
+		"\7?\2\2\u00e1\66\3\2\2\2\u00e2\u00e3\7>\2\2\u00e3\u00e4\7?\2\2\u00e48"+
+		"\3\2\2\2\u00e5\u00e6\7?\2\2\u00e6\u00e7\7\u0080\2\2\u00e7:\3\2\2\2\u00e8"+
+		"\u00e9\7>\2\2\u00e9\u00ea\7>\2\2\u00ea<\3\2\2\2\u00eb\u00ec\7@\2\2\u00ec"+
+		"\u00ed\7@\2\2\u00ed>\3\2\2\2\u00ee\u00ef\t\2\2\2\u00ef\u00f0\t\b\2\2\u00f0"+
+		"@\3\2\2\2\u00f1\u00f2\7*\2\2\u00f2B\3\2\2\2\u00f3\u00f4\7+\2\2\u00f4D"+
+		"\3\2\2\2\u00f5\u00f6\7]\2\2\u00f6F\3\2\2\2\u00f7\u00f8\7_\2\2\u00f8H\3"+
+		"\2\2\2\u00f9\u00fa\7}\2\2\u00faJ\3\2\2\2\u00fb\u00fc\7\177\2\2\u00fcL"+
+		"\3\2\2\2\u00fd\u00fe\7\60\2\2\u00feN\3\2\2\2\u00ff\u0100\7.\2\2\u0100"+
+		"P\3\2\2\2\u0101\u0102\t\21\2\2\u0102\u0103\t\b\2\2\u0103\u0104\t\23\2"+
+		"\2\u0104R\3\2\2\2\u0105\u0106\t\24\2\2\u0106\u0107\t\r\2\2\u0107\u0108"+
+		"\t\20\2\2\u0108T\3\2\2\2\u0109\u010a\t\r\2\2\u010a\u010b\t\20\2\2\u010b"+
+		"V\3\2\2\2\u010c\u010d\t\b\2\2\u010d\u010e\t\r\2\2\u010e\u010f\t\5\2\2"+
+		"\u010fX\3\2\2\2\u0110\u0112\5c\62\2\u0111\u0110\3\2\2\2\u0112\u0113\3"+
+		"\2\2\2\u0113\u0111\3\2\2\2\u0113\u0114\3\2\2\2\u0114\u0124\3\2\2\2\u0115"+
+		"\u0116\t\25\2\2\u0116\u0118\t\24\2\2\u0117\u0119\5e\63\2\u0118\u0117\3"+
+		"\2\2\2\u0119\u011a\3\2\2\2\u011a\u0118\3\2\2\2\u011a\u011b\3\2\2\2\u011b"+
+		"\u0124\3\2\2\2\u011c\u011d\t\25\2\2\u011d\u011f\t\22\2\2\u011e\u0120\5"+
+		"g\64\2\u011f\u011e\3\2\2\2\u0120\u0121\3\2\2\2\u0121\u011f\3\2\2\2\u0121"+
+		"\u0122\3\2\2\2\u0122\u0124\3\2\2\2\u0123\u0111\3\2\2\2\u0123\u0115\3\2"+
+		"\2\2\u0123\u011c\3\2\2\2\u0124Z\3\2\2\2\u0125\u0127\5c\62\2\u0126\u0125"+
+		"\3\2\2\2\u0127\u0128\3\2\2\2\u0128\u0126\3\2\2\2\u0128\u0129\3\2\2\2\u0129"+
+		"\u0130\3\2\2\2\u012a\u012c\5i\65\2\u012b\u012d\5c\62\2\u012c\u012b\3\2"+
+		"\2\2\u012d\u012e\3\2\2\2\u012e\u012c\3\2\2\2\u012e\u012f\3\2\2\2\u012f"+
+		"\u0131\3\2\2\2\u0130\u012a\3\2\2\2\u0130\u0131\3\2\2\2\u0131\u013b\3\2"+
+		"\2\2\u0132\u0134\5k\66\2\u0133\u0135\5#\22\2\u0134\u0133\3\2\2\2\u0134"+
+		"\u0135\3\2\2\2\u0135\u0137\3\2\2\2\u0136\u0138\5c\62\2\u0137\u0136\3\2"+
+		"\2\2\u0138\u0139\3\2\2\2\u0139\u0137\3\2\2\2\u0139\u013a\3\2\2\2\u013a"+
+		"\u013c\3\2\2\2\u013b\u0132\3\2\2\2\u013b\u013c\3\2\2\2\u013c\u014f\3\2"+
+		"\2\2\u013d\u013f\5i\65\2\u013e\u0140\5c\62\2\u013f\u013e\3\2\2\2\u0140"+
+		"\u0141\3\2\2\2\u0141\u013f\3\2\2\2\u0141\u0142\3\2\2\2\u0142\u014c\3\2"+
+		"\2\2\u0143\u0145\5k\66\2\u0144\u0146\5#\22\2\u0145\u0144\3\2\2\2\u0145"+
+		"\u0146\3\2\2\2\u0146\u0148\3\2\2\2\u0147\u0149\5c\62\2\u0148\u0147\3\2"+
+		"\2\2\u0149\u014a\3\2\2\2\u014a\u0148\3\2\2\2\u014a\u014b\3\2\2\2\u014b"+
+		"\u014d\3\2\2\2\u014c\u0143\3\2\2\2\u014c\u014d\3\2\2\2\u014d\u014f\3\2"+
+		"\2\2\u014e\u0126\3\2\2\2\u014e\u013d\3\2\2\2\u014f\\\3\2\2\2\u0150\u0153"+
+		"\5_\60\2\u0151\u0153\5a\61\2\u0152\u0150\3\2\2\2\u0152\u0151\3\2\2\2\u0153"+
+		"^\3\2\2\2\u0154\u0155\t\5\2\2\u0155\u0156\t\20\2\2\u0156\u0157\t\13\2"+
+		"\2\u0157\u0158\t\7\2\2\u0158`\3\2\2\2\u0159\u015a\t\4\2\2\u015a\u015b"+
+		"\t\21\2\2\u015b\u015c\t\t\2\2\u015c\u015d\t\3\2\2\u015d\u015e\t\7\2\2"+
+		"\u015eb\3\2\2\2\u015f\u0160\t\26\2\2\u0160d\3\2\2\2\u0161\u0164\5c\62"+
+		"\2\u0162\u0164\t\27\2\2\u0163\u0161\3\2\2\2\u0163\u0162\3\2\2\2\u0164"+
+		"f\3\2\2\2\u0165\u0166\t\30\2\2\u0166h\3\2\2\2\u0167\u016a\5M\'\2\u0168"+
+		"\u016a\5O(\2\u0169\u0167\3\2\2\2\u0169\u0168\3\2\2\2\u016aj\3\2\2\2\u016b"+
+		"\u016c\t\7\2\2\u016cl\3\2\2\2\u016d\u0170\5o8\2\u016e\u0170\5q9\2\u016f"+
+		"\u016d\3\2\2\2\u016f\u016e\3\2\2\2\u0170\u0176\3\2\2\2\u0171\u0175\5o"+
+		"8\2\u0172\u0175\5c\62\2\u0173\u0175\5s:\2\u0174\u0171\3\2\2\2\u0174\u0172"+
+		"\3\2\2\2\u0174\u0173\3\2\2\2\u0175\u0178\3\2\2\2\u0176\u0174\3\2\2\2\u0176"+
+		"\u0177\3\2\2\2\u0177n\3\2\2\2\u0178\u0176\3\2\2\2\u0179\u017b\t\31\2\2"+
+		"\u017a\u0179\3\2\2\2\u017bp\3\2\2\2\u017c\u017d\7a\2\2\u017dr\3\2\2\2"+
+		"\u017e\u0181\5q9\2\u017f\u0181\t\32\2\2\u0180\u017e\3\2\2\2\u0180\u017f"+
+		"\3\2\2\2\u0181t\3\2\2\2\u0182\u0186\7$\2\2\u0183\u0185\n\33\2\2\u0184"+
+		"\u0183\3\2\2\2\u0185\u0188\3\2\2\2\u0186\u0184\3\2\2\2\u0186\u0187\3\2"+
+		"\2\2\u0187\u0189\3\2\2\2\u0188\u0186\3\2\2\2\u0189\u018a\7$\2\2\u018a"+
+		"v\3\2\2\2\u018b\u018d\t\34\2\2\u018c\u018b\3\2\2\2\u018d\u018e\3\2\2\2"+
+		"\u018e\u018c\3\2\2\2\u018e\u018f\3\2\2\2\u018f\u0190\3\2\2\2\u0190\u0191"+
+		"\b<\2\2\u0191x\3\2\2\2\u0192\u0193\5\63\32\2\u0193\u0197\5\63\32\2\u0194"+
+		"\u0196\t\34\2\2\u0195\u0194\3\2\2\2\u0196\u0199\3\2\2\2\u0197\u0195\3"+
+		"\2\2\2\u0197\u0198\3\2\2\2\u0198\u019d\3\2\2\2\u0199\u0197\3\2\2\2\u019a"+
+		"\u019c\n\35\2\2\u019b\u019a\3\2\2\2\u019c\u019f\3\2\2\2\u019d\u019b\3"+
+		"\2\2\2\u019d\u019e\3\2\2\2\u019e\u01a3\3\2\2\2\u019f\u019d\3\2\2\2\u01a0"+
+		"\u01a2\t\34\2\2\u01a1\u01a0\3\2\2\2\u01a2\u01a5\3\2\2\2\u01a3\u01a1\3"+
+		"\2\2\2\u01a3\u01a4\3\2\2\2\u01a4\u01a6\3\2\2\2\u01a5\u01a3\3\2\2\2\u01a6"+
+		"\u01a7\5\61\31\2\u01a7\u01a8\5\61\31\2\u01a8z\3\2\2\2\u01a9\u01ad\7%\2"+
+		"\2\u01aa\u01ac\n\35\2\2\u01ab\u01aa\3\2\2\2\u01ac\u01af\3\2\2\2\u01ad"+
+		"\u01ab\3\2\2\2\u01ad\u01ae\3\2\2\2\u01ae\u01b0\3\2\2\2\u01af\u01ad\3\2"+
+		"\2\2\u01b0\u01b1\b>\2\2\u01b1|\3\2\2\2 \2\u0113\u011a\u0121\u0123\u0128"+
+		"\u012e\u0130\u0134\u0139\u013b\u0141\u0145\u014a\u014c\u014e\u0152\u0163"+
+		"\u0169\u016f\u0174\u0176\u017a\u0180\u0186\u018e\u0197\u019d\u01a3\u01ad"+
+		"\3\b\2\2";
+	public static final ATN _ATN =
+		new ATNDeserializer().deserialize(_serializedATN.toCharArray());
+	static {
+		_decisionToDFA = new DFA[_ATN.getNumberOfDecisions()];
+		for (int i = 0; i < _ATN.getNumberOfDecisions(); i++) {
+			_decisionToDFA[i] = new DFA(_ATN.getDecisionState(i), i);
+		}
+	}
+}
\ No newline at end of file
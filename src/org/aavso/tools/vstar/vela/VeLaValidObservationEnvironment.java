@@ -36,13 +36,15 @@ import org.aavso.tools.vstar.ui.model.list.ITableColumnInfoSource;
  */
 public class VeLaValidObservationEnvironment extends VeLaEnvironment<Operand> {
 
-    private static Map<String, String> symbol2CanonicalSymbol;
+    // The symbol map and column information source are replaced rather than
+    // modified, since filters may be evaluated on several threads.
+    private static volatile Map<String, String> symbol2CanonicalSymbol;
 
     static {
         symbol2CanonicalSymbol = new TreeMap<String, String>();
     }
 
-    private static ITableColumnInfoSource columnInfoSource = null;
+    private static volatile ITableColumnInfoSource columnInfoSource = null;
 
     private ValidObservation ob;
 
@@ -59,10 +61,11 @@ public class VeLaValidObservationEnvironment extends VeLaEnvironment<Operand> {
 
         name = name.toUpperCase();
 
-        contained = symbol2CanonicalSymbol.containsKey(name);
+        String canonicalName = symbol2CanonicalSymbol.get(name);
+        contained = canonicalName != null;
 
         if (contained) {
-            name = symbol2CanonicalSymbol.get(name);
+            name = canonicalName;
         }
 
         if ("TIME".equals(name)) {
@@ -70,7 +73,7 @@ public class VeLaValidObservationEnvironment extends VeLaEnvironment<Operand> {
         } else if ("MAGNITUDE".equals(name)) {
             operand = operand(name, ob.getMag());
         } else if ("UNCERTAINTY".equals(name)) {
-            operand = operand(name, ob.getMagnitude().getUncertainty());
+            operand = operand(name, ob.getMagUncertainty());
         } else if ("BAND".equals(name)) {
             operand = operand(name, ob.getBand().getDescription());
         } else if ("SHORTBAND".equals(name)) {
@@ -88,10 +91,11 @@ public class VeLaValidObservationEnvironment extends VeLaEnvironment<Operand> {
                 operand = operand(name, ob.getPreviousCyclePhase());
             }
         } else {
-            if (columnInfoSource != null) {
+            ITableColumnInfoSource source = columnInfoSource;
+            if (source != null) {
                 try {
-                    int index = columnInfoSource.getColumnIndexByName(name);
-                    operand = objToOperand(name, columnInfoSource.getTableColumnValue(index, ob));
+                    int index = source.getColumnIndexByName(name);
+                    operand = objToOperand(name, source.getTableColumnValue(index, ob));
                 } catch (IllegalArgumentException e) {
                     // default to a null operand
                 }
@@ -197,9 +201,10 @@ public class VeLaValidObservationEnvironment extends VeLaEnvironment<Operand> {
     public static String[] symbols() {
         reset();
 
-        String[] symbols = new String[symbol2CanonicalSymbol.size()];
+        Map<String, String> symbolMap = symbol2CanonicalSymbol;
+        String[] symbols = new String[symbolMap.size()];
         int i = 0;
-        for (String symbol : symbol2CanonicalSymbol.keySet()) {
+        for (String symbol : symbolMap.keySet()) {
             symbols[i++] = symbol.toLowerCase();
         }
 
@@ -216,7 +221,8 @@ public class VeLaValidObservationEnvironment extends VeLaEnvironment<Operand> {
     // Helpers
 
     private static void populateMap() {
-        symbol2CanonicalSymbol.clear();
+        Map<String, String> symbolMap = new TreeMap<String, String>();
+        ITableColumnInfoSource source = null;
 
         // Use current observation list column names as VeLa variables
 
@@ -229,44 +235,47 @@ public class VeLaValidObservationEnvironment extends VeLaEnvironment<Operand> {
             NewStarType newStarType = newStarMsg.getNewStarType();
 
             if (analysisType == AnalysisType.RAW_DATA) {
-                columnInfoSource = newStarType.getRawDataTableColumnInfoSource();
+                source = newStarType.getRawDataTableColumnInfoSource();
             } else {
-                columnInfoSource = newStarType.getPhasePlotTableColumnInfoSource();
+                source = newStarType.getPhasePlotTableColumnInfoSource();
             }
 
-            if (columnInfoSource != null) {
-                Collection<String> columnNames = columnInfoSource.getColumnNames();
+            if (source != null) {
+                Collection<String> columnNames = source.getColumnNames();
 
                 for (String columnName : columnNames) {
                     if (columnName != null) {
                         String velaName = columnName.replace(" ", "_");
-                        symbol2CanonicalSymbol.put(velaName.toUpperCase(), columnName);
+                        symbolMap.put(velaName.toUpperCase(), columnName);
                     }
                 }
             }
         }
         // Add common variables
 
-        symbol2CanonicalSymbol.put("TIME", "TIME");
-        symbol2CanonicalSymbol.put("T", "TIME");
-        symbol2CanonicalSymbol.put("JD", "TIME");
+        symbolMap.put("TIME", "TIME");
+        symbolMap.put("T", "TIME");
+        symbolMap.put("JD", "TIME");
 
-        symbol2CanonicalSymbol.put("MAGNITUDE", "MAGNITUDE");
-        symbol2CanonicalSymbol.put("MAG", "MAGNITUDE");
+        symbolMap.put("MAGNITUDE", "MAGNITUDE");
+        symbolMap.put("MAG", "MAGNITUDE");
 
-        symbol2CanonicalSymbol.put("UNCERTAINTY", "UNCERTAINTY");
-        symbol2CanonicalSymbol.put("ERROR", "UNCERTAINTY");
+        symbolMap.put("UNCERTAINTY", "UNCERTAINTY");
+        symbolMap.put("ERROR", "UNCERTAINTY");
 
-        symbol2CanonicalSymbol.put("BAND", "BAND");
-        symbol2CanonicalSymbol.put("SERIES", "SERIES");
-        symbol2CanonicalSymbol.put("SHORTBAND", "SHORTBAND");
+        symbolMap.put("BAND", "BAND");
+        symbolMap.put("SERIES", "SERIES");
+        symbolMap.put("SHORTBAND", "SHORTBAND");
 
         // Add phase variables if we're in phase plot mode
 
         if (analysisType == AnalysisType.PHASE_PLOT) {
-            symbol2CanonicalSymbol.put("STANDARDPHASE", "STANDARDPHASE");
-            symbol2CanonicalSymbol.put("PHASE", "STANDARDPHASE");
-            symbol2CanonicalSymbol.put("PREVIOUSCYCLEPHASE", "PREVIOUSCYCLEPHASE");
+            symbolMap.put("STANDARDPHASE", "STANDARDPHASE");
+            symbolMap.put("PHASE", "STANDARDPHASE");
+            symbolMap.put("PREVIOUSCYCLEPHASE", "PREVIOUSCYCLEPHASE");
         }
+
+        columnInfoSource = source;
+        symbol2CanonicalSymbol = symbolMap;
     }
 }
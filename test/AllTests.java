@@ -20,6 +20,7 @@ import java.util.Locale;
 
 import org.aavso.tools.vstar.auth.AuthenticationSourceTest;
 import org.aavso.tools.vstar.auth.VSXWebServiceMemberInfoTest;
+import org.aavso.tools.vstar.data.ObservationStoreTest;
 import org.aavso.tools.vstar.data.filter.ObservationFilterTest;
 import org.aavso.tools.vstar.data.validation.CKMagValidationTest;
 import org.aavso.tools.vstar.data.validation.CommentCodeValidationTest;
@@ -30,19 +31,31 @@ import org.aavso.tools.vstar.input.database.VSXWebServiceAIDCSV2ObservationReade
 import org.aavso.tools.vstar.input.database.VSXWebServiceAIDCSVObservationReaderTest;
 import org.aavso.tools.vstar.input.database.VSXWebServiceAIDXMLAttributeObservationReaderTest;
 import org.aavso.tools.vstar.input.database.VSXWebServiceStarInfoSourceTest;
+import org.aavso.tools.vstar.input.text.MappedLineScannerTest;
 import org.aavso.tools.vstar.input.text.ObservationFieldSplitterTest;
 import org.aavso.tools.vstar.input.text.TextFormatObservationReaderTest;
 import org.aavso.tools.vstar.plugin.PluginManagerTest;
+import org.aavso.tools.vstar.plugin.ob.src.impl.AIDPageFetcherTest;
+import org.aavso.tools.vstar.ui.model.list.ValidObservationTableModelTest;
+import org.aavso.tools.vstar.ui.model.plot.LevelOfDetailIndexTest;
+import org.aavso.tools.vstar.ui.pane.list.BackgroundTableRowSorterTest;
+import org.aavso.tools.vstar.util.BoundedCacheTest;
 import org.aavso.tools.vstar.util.DecInfoTest;
+import org.aavso.tools.vstar.util.ObservationRangeQueryTest;
 import org.aavso.tools.vstar.util.RAInfoTest;
+import org.aavso.tools.vstar.util.WeakInternerTest;
 import org.aavso.tools.vstar.util.comparator.RankedIndexPairComparatorTest;
 import org.aavso.tools.vstar.util.date.B1950EpochHJDConverterTest;
 import org.aavso.tools.vstar.util.date.J2000EpochHJDConverterTest;
 import org.aavso.tools.vstar.util.date.MeeusDateUtilTest;
 import org.aavso.tools.vstar.util.locale.NumberParserTest;
+import org.aavso.tools.vstar.util.period.PeriodAnalysisResultSeriesTest;
+import org.aavso.tools.vstar.util.period.TopHitsHeapTest;
+import org.aavso.tools.vstar.util.period.aov.AoVEngineTest;
 import org.aavso.tools.vstar.util.period.dcdft.CleanestTest;
 import org.aavso.tools.vstar.util.period.dcdft.DcDftTest;
 import org.aavso.tools.vstar.util.period.dcdft.FreqRangeTopHitsDcDftTest;
+import org.aavso.tools.vstar.util.period.dcdft.MultiThreadedDcDftTest;
 import org.aavso.tools.vstar.util.period.dcdft.SinglePeriodModelDcDftTest;
 import org.aavso.tools.vstar.util.period.dcdft.StdScanTopHitsDcDftTest;
 import org.aavso.tools.vstar.util.period.dcdft.TwoPeriodModelDcDftTest;
@@ -50,8 +63,10 @@ import org.aavso.tools.vstar.util.period.wwz.WWZTUmi2420000To2425000Test;
 import org.aavso.tools.vstar.util.polyfit.TSPolynomialFitterTest;
 import org.aavso.tools.vstar.util.stats.DescStatsTest;
 import org.aavso.tools.vstar.util.stats.PhaseCalcsTest;
+import org.aavso.tools.vstar.util.stats.PhaseEngineTest;
 import org.aavso.tools.vstar.util.stats.anova.CommonsMathAnovaTest;
 import org.aavso.tools.vstar.util.stats.anova.EpsAurVisJD2454700ToJD2455000AnovaTest;
+import org.aavso.tools.vstar.vela.RealFunctionCompilerTest;
 import org.aavso.tools.vstar.vela.VeLaTest;
 
 import junit.framework.Test;
@@ -68,6 +83,7 @@ public class AllTests {
 		// $JUnit-BEGIN$
 		suite.addTestSuite(AuthenticationSourceTest.class);
 		suite.addTestSuite(VSXWebServiceMemberInfoTest.class);
+		suite.addTestSuite(ObservationStoreTest.class);
 		suite.addTestSuite(ObservationFilterTest.class);
 		suite.addTestSuite(CKMagValidationTest.class);
 		suite.addTestSuite(CommentCodeValidationTest.class);
@@ -78,9 +94,17 @@ public class AllTests {
 		suite.addTestSuite(VSXWebServiceAIDCSVObservationReaderTest.class);
 		suite.addTestSuite(VSXWebServiceAIDXMLAttributeObservationReaderTest.class);
 		suite.addTestSuite(VSXWebServiceStarInfoSourceTest.class);
+		suite.addTestSuite(MappedLineScannerTest.class);
 		suite.addTestSuite(ObservationFieldSplitterTest.class);
 		suite.addTestSuite(TextFormatObservationReaderTest.class);
 		suite.addTestSuite(PluginManagerTest.class);
+		suite.addTestSuite(AIDPageFetcherTest.class);
+		suite.addTestSuite(ValidObservationTableModelTest.class);
+		suite.addTestSuite(LevelOfDetailIndexTest.class);
+		suite.addTestSuite(BackgroundTableRowSorterTest.class);
+		suite.addTestSuite(BoundedCacheTest.class);
+		suite.addTestSuite(WeakInternerTest.class);
+		suite.addTestSuite(ObservationRangeQueryTest.class);
 		suite.addTestSuite(DecInfoTest.class);
 		suite.addTestSuite(RAInfoTest.class);
 		suite.addTestSuite(RankedIndexPairComparatorTest.class);
@@ -88,9 +112,13 @@ public class AllTests {
 		suite.addTestSuite(J2000EpochHJDConverterTest.class);
 		suite.addTestSuite(MeeusDateUtilTest.class);
 		suite.addTestSuite(NumberParserTest.class);
+		suite.addTestSuite(TopHitsHeapTest.class);
+		suite.addTestSuite(PeriodAnalysisResultSeriesTest.class);
+		suite.addTestSuite(AoVEngineTest.class);
 		suite.addTestSuite(CleanestTest.class);
 		suite.addTestSuite(DcDftTest.class);
 		suite.addTestSuite(FreqRangeTopHitsDcDftTest.class);
+		suite.addTestSuite(MultiThreadedDcDftTest.class);
 		suite.addTestSuite(SinglePeriodModelDcDftTest.class);
 		suite.addTestSuite(StdScanTopHitsDcDftTest.class);
 		suite.addTestSuite(TwoPeriodModelDcDftTest.class);
@@ -98,8 +126,10 @@ public class AllTests {
 		suite.addTestSuite(TSPolynomialFitterTest.class);
 		suite.addTestSuite(DescStatsTest.class);
 		suite.addTestSuite(PhaseCalcsTest.class);
+		suite.addTestSuite(PhaseEngineTest.class);
 		suite.addTestSuite(CommonsMathAnovaTest.class);
 		suite.addTestSuite(EpsAurVisJD2454700ToJD2455000AnovaTest.class);
+		suite.addTestSuite(RealFunctionCompilerTest.class);
 		suite.addTestSuite(VeLaTest.class);
 		// $JUnit-END$
 		
@@ -0,0 +1,332 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.data;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.aavso.tools.vstar.data.ValidObservation.JDflavour;
+
+/**
+ * Columnar observation store unit tests.
+ */
+public class ObservationStoreTest extends TestCase {
+
+	public ObservationStoreTest(String name) {
+		super(name);
+	}
+
+	// A compacted observation has the same values, hash code and details as
+	// an identical observation that is not backed by a store.
+	public void testCompactedObservationEqualsOriginal() {
+		List<ValidObservation> obs = createObs(100);
+		List<ValidObservation> originals = createObs(100);
+
+		Set<ValidObservation> obSet = new HashSet<ValidObservation>(obs);
+
+		ObservationStore store = ObservationStore.compact(obs);
+		assertEquals(100, store.size());
+
+		for (int i = 0; i < obs.size(); i++) {
+			ValidObservation ob = obs.get(i);
+			ValidObservation original = originals.get(i);
+
+			assertSame(store, ob.getStore());
+			assertNull(original.getStore());
+
+			assertEquals(original, ob);
+			assertEquals(original.hashCode(), ob.hashCode());
+			assertTrue(obSet.contains(ob));
+
+			assertEquals(original.getJD(), ob.getJD());
+			assertEquals(original.getMag(), ob.getMag());
+			assertEquals(original.getMagUncertainty(), ob.getMagUncertainty());
+			assertEquals(original.getMagnitude().getUncertainty(), ob
+					.getMagnitude().getUncertainty());
+			assertEquals(original.getMagnitude().isFainterThan(), ob
+					.getMagnitude().isFainterThan());
+			assertEquals(original.getHqUncertainty(), ob.getHqUncertainty());
+			assertSame(original.getBand(), ob.getBand());
+			assertSame(original.getSeries(), ob.getSeries());
+			assertEquals(original.getObsCode(), ob.getObsCode());
+			assertEquals(original.getCompStar1(), ob.getCompStar1());
+			assertEquals(original.getCharts(), ob.getCharts());
+			assertEquals(original.getCommentCode(), ob.getCommentCode());
+			assertEquals(original.getValidationType(), ob.getValidationType());
+			assertEquals(original.getMType(), ob.getMType());
+			assertEquals(original.getJDflavour(), ob.getJDflavour());
+			assertEquals(original.getObsType(), ob.getObsType());
+			assertEquals(original.isTransformed(), ob.isTransformed());
+			assertEquals(original.getDetails(), ob.getDetails());
+			assertEquals(original.getDetail("SNR"), ob.getDetail("SNR"));
+		}
+
+		// Absent values remain absent.
+		ValidObservation ob = obs.get(0);
+		assertNull(ob.getHJD());
+		assertNull(ob.getStandardPhase());
+		assertFalse(ob.detailExists("CREDIT"));
+		assertEquals(Property.NO_VALUE, ob.getDetail("CREDIT"));
+	}
+
+	// Changes to a compacted observation are made in the store.
+	public void testChangesWriteThrough() {
+		List<ValidObservation> obs = createObs(10);
+		ObservationStore.compact(obs);
+
+		ValidObservation ob = obs.get(3);
+
+		ob.setMag(12.5);
+		assertEquals(12.5, ob.getMag());
+		assertEquals(12.5, ob.getMagnitude().getMagValue());
+
+		ob.getMagnitude().setUncertainty(0.25);
+		assertEquals(0.25, ob.getMagnitude().getUncertainty());
+
+		ob.getMagnitude().setMagModifier(MagnitudeModifier.FAINTER_THAN);
+		assertTrue(ob.getMagnitude().isFainterThan());
+
+		ob.setStandardPhase(0.75);
+		ob.setPreviousCyclePhase(-0.25);
+		assertEquals(0.75, ob.getStandardPhase());
+		assertEquals(-0.25, ob.getPreviousCyclePhase());
+
+		ob.setDiscrepant(true);
+		assertTrue(ob.isDiscrepant());
+
+		ob.setExcluded(true);
+		assertTrue(ob.isExcluded());
+
+		ob.setBand(SeriesType.Johnson_B);
+		assertSame(SeriesType.Johnson_B, ob.getBand());
+		assertSame(SeriesType.Johnson_B, ob.getSeries());
+
+		ob.setSeries(SeriesType.Filtered);
+		assertSame(SeriesType.Johnson_B, ob.getBand());
+		assertSame(SeriesType.Filtered, ob.getSeries());
+
+		ob.setObsCode("XYZ");
+		ob.setCredit("AAVSO");
+		ob.addDetail("OTHER", 42, "Other");
+		assertEquals("XYZ", ob.getObsCode());
+		assertEquals("AAVSO", ob.getCredit());
+		assertEquals(42, ob.getDetail("OTHER").getIntVal());
+
+		ob.setHJD(new DateInfo(2450001.5));
+		assertEquals(2450001.5, ob.getHJD().getJulianDay());
+
+		// Other rows are unchanged.
+		ValidObservation other = obs.get(4);
+		assertFalse(other.getMag() == 12.5);
+		assertNull(other.getStandardPhase());
+		assertFalse(other.isExcluded());
+		assertEquals("ABC", other.getObsCode());
+		assertFalse(other.detailExists("OTHER"));
+	}
+
+	// A copy of a compacted observation is not backed by a store.
+	public void testCopy() {
+		List<ValidObservation> obs = createObs(10);
+		ObservationStore.compact(obs);
+
+		ValidObservation ob = obs.get(0);
+		ValidObservation copy = ob.copy();
+
+		assertNull(copy.getStore());
+		assertEquals(ob, copy);
+
+		copy.setMag(20);
+		assertFalse(ob.getMag() == 20);
+	}
+
+	// Observations may be moved from one store to another, e.g. when a dataset
+	// is added to one already loaded.
+	public void testRecompaction() {
+		List<ValidObservation> obs = createObs(10);
+		ObservationStore.compact(obs.subList(0, 5));
+
+		List<ValidObservation> originals = createObs(10);
+
+		ObservationStore store = ObservationStore.compact(obs);
+		assertEquals(10, store.size());
+
+		for (int i = 0; i < obs.size(); i++) {
+			assertSame(store, obs.get(i).getStore());
+			assertEquals(originals.get(i), obs.get(i));
+		}
+	}
+
+	// Rows may be added beyond the initial capacity.
+	public void testGrowth() {
+		List<ValidObservation> obs = createObs(1000);
+
+		ObservationStore store = new ObservationStore(1);
+		for (ValidObservation ob : obs) {
+			store.add(ob);
+		}
+
+		assertEquals(1000, store.size());
+
+		List<ValidObservation> originals = createObs(1000);
+		for (int i = 0; i < obs.size(); i++) {
+			assertEquals(originals.get(i), obs.get(i));
+		}
+	}
+
+	// The primitive accessors of a compacted observation, used by plot
+	// coordinate sources, do not create objects.
+	public void testPrimitiveAccessorsDoNotAllocate() {
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+		// Allocation measurement is a HotSpot extension.
+		if (!(threadBean instanceof com.sun.management.ThreadMXBean)) {
+			return;
+		}
+
+		com.sun.management.ThreadMXBean allocBean = (com.sun.management.ThreadMXBean) threadBean;
+
+		if (!allocBean.isThreadAllocatedMemorySupported()
+				|| !allocBean.isThreadAllocatedMemoryEnabled()) {
+			return;
+		}
+
+		List<ValidObservation> obs = createObs(10000);
+		ObservationStore.compact(obs);
+		ValidObservation[] obArray = obs.toArray(new ValidObservation[0]);
+
+		long threadId = Thread.currentThread().getId();
+
+		// Warm up, then measure.
+		double total = sumPrimitives(obArray);
+
+		long before = allocBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < 10; i++) {
+			total += sumPrimitives(obArray);
+		}
+		long allocated = allocBean.getThreadAllocatedBytes(threadId) - before;
+
+		assertFalse(Double.isNaN(total));
+
+		// 300,000 calls; allow for incidental allocation, e.g. by the
+		// measurement itself.
+		assertTrue("Allocated " + allocated + " bytes", allocated < 8192);
+	}
+
+	// Flag updates from different threads to different flags of the same row
+	// are not lost.
+	public void testConcurrentFlagUpdates() throws Exception {
+		List<ValidObservation> obs = createObs(1);
+		ObservationStore.compact(obs);
+
+		final ValidObservation ob = obs.get(0);
+		ob.setExcluded(false);
+		ob.setTransformed(false);
+
+		// Start both threads together so that their updates overlap.
+		final CyclicBarrier barrier = new CyclicBarrier(2);
+		final AtomicInteger lostUpdates = new AtomicInteger(0);
+
+		Thread excluder = new Thread() {
+			public void run() {
+				await(barrier);
+				for (int i = 0; i < 1000000; i++) {
+					boolean excluded = i % 2 == 0;
+					ob.setExcluded(excluded);
+					if (ob.isExcluded() != excluded) {
+						lostUpdates.incrementAndGet();
+					}
+				}
+			}
+		};
+
+		Thread transformer = new Thread() {
+			public void run() {
+				await(barrier);
+				for (int i = 0; i < 1000000; i++) {
+					boolean transformed = i % 2 == 0;
+					ob.setTransformed(transformed);
+					if (ob.isTransformed() != transformed) {
+						lostUpdates.incrementAndGet();
+					}
+				}
+			}
+		};
+
+		excluder.start();
+		transformer.start();
+		excluder.join();
+		transformer.join();
+
+		assertEquals(0, lostUpdates.get());
+	}
+
+	// Helpers
+
+	private List<ValidObservation> createObs(int count) {
+		List<ValidObservation> obs = new ArrayList<ValidObservation>();
+
+		for (int i = 0; i < count; i++) {
+			ValidObservation ob = new ValidObservation();
+			ob.setJD(2450000 + i * 0.5);
+			ob.setMagnitude(new Magnitude(10 + i * 0.01,
+					i % 7 == 0 ? MagnitudeModifier.FAINTER_THAN
+							: MagnitudeModifier.NO_DELTA, i % 5 == 0, 0.01));
+			if (i % 2 == 0) {
+				ob.setHqUncertainty(0.02);
+			}
+			ob.setBand(i % 3 == 0 ? SeriesType.Visual : SeriesType.Johnson_V);
+			ob.setObsCode(i % 4 == 0 ? "ABC" : "DEF");
+			ob.setCompStar1("105");
+			ob.setCharts("X12345");
+			ob.setCommentCode("B");
+			ob.setValidationType(ValidationType.GOOD);
+			ob.setJDflavour(JDflavour.JD);
+			ob.setTransformed(i % 2 == 1);
+			ob.addDetail("SNR", 10.0 + i, "SNR");
+			obs.add(ob);
+		}
+
+		return obs;
+	}
+
+	private double sumPrimitives(ValidObservation[] obs) {
+		double total = 0;
+
+		for (ValidObservation ob : obs) {
+			total += ob.getJD() + ob.getMag() + ob.getMagUncertainty();
+		}
+
+		return total;
+	}
+
+	private void await(CyclicBarrier barrier) {
+		try {
+			barrier.await();
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
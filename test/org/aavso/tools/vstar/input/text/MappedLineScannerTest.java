@@ -0,0 +1,256 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.input.text;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Memory-mapped line scanner unit tests.
+ */
+public class MappedLineScannerTest extends TestCase {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private File file;
+
+	public MappedLineScannerTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		file = File.createTempFile("vstar", ".txt");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		file.delete();
+	}
+
+	public void testLineTerminators() throws Exception {
+		commonLinesTest("a\nbb\r\nccc\rdddd\n\n\r\ne");
+		commonLinesTest("a\r\n");
+		commonLinesTest("\n");
+		commonLinesTest("");
+		commonLinesTest("2450001.5,10.0\r\n2450002.5,10.1\r\n\r\n# end");
+	}
+
+	// Lines crossing window boundaries, including "\r\n" split across two
+	// windows.
+	public void testSmallWindows() throws Exception {
+		String text = "abc\r\ndefgh\r\n12\n\r\n345678\rx\r\n";
+		for (int windowSize = 9; windowSize < 14; windowSize++) {
+			assertEquals(readLines(text), scanLines(text, windowSize));
+		}
+	}
+
+	// Lines that, excluding their terminators, fill a window, with "\r",
+	// "\n" or "\r\n" at or across the window's end.
+	public void testLinesFillingWindow() throws Exception {
+		String[] terminators = { "\r", "\n", "\r\n" };
+		for (int windowSize = 4; windowSize < 7; windowSize++) {
+			StringBuffer line = new StringBuffer();
+			for (int i = 0; i < windowSize - 1; i++) {
+				line.append((char) ('a' + i));
+			}
+			for (String first : terminators) {
+				for (String second : terminators) {
+					String text = line + first + line + second + line;
+					assertEquals(readLines(text), scanLines(text, windowSize));
+				}
+			}
+		}
+	}
+
+	// Windows are unmapped as the scan proceeds, leaving the current line's
+	// window mapped until the scanner is closed.
+	public void testClose() throws Exception {
+		MappedLineScanner scanner = createScanner("abc\r\ndefg\nhi", 5);
+		assertTrue(scanner.nextLine());
+		assertTrue(scanner.nextLine());
+		assertEquals(3, scanner.countLines());
+		assertEquals("defg", scanner.getLine());
+		assertEquals(2, scanner.split('e', false));
+		assertEquals("fg", scanner.getTrimmedField(1));
+		scanner.close();
+		scanner.close();
+	}
+
+	public void testLineTooLong() throws Exception {
+		try {
+			scanLines("abcdefghij\nk", 4);
+			fail();
+		} catch (IOException e) {
+			// We expect to get here.
+		}
+	}
+
+	public void testLineCount() throws Exception {
+		MappedLineScanner scanner = createScanner("a\nb\r\nc", 5);
+		assertTrue(scanner.nextLine());
+		assertEquals(3, scanner.countLines());
+		assertEquals("a", scanner.getLine());
+	}
+
+	public void testBlankLineAndStart() throws Exception {
+		MappedLineScanner scanner = createScanner(" \t\n#NAME=X\nx", 64);
+
+		assertTrue(scanner.nextLine());
+		assertTrue(scanner.isBlankLine());
+
+		assertTrue(scanner.nextLine());
+		assertFalse(scanner.isBlankLine());
+		assertTrue(scanner.lineStartsWith('#'));
+		assertTrue(scanner.lineContains('='));
+		assertFalse(scanner.lineContains(','));
+		assertEquals(2, scanner.getLineNumber());
+	}
+
+	public void testSplit() throws Exception {
+		MappedLineScanner scanner = createScanner(
+				"2450001.5, 10.0 ,,DJB,\n  1  2   3\nnon-ascii éè", 64);
+
+		assertTrue(scanner.nextLine());
+		assertEquals(5, scanner.split(',', false));
+		assertEquals("2450001.5", scanner.getTrimmedField(0));
+		assertEquals("10.0", scanner.getTrimmedField(1));
+		assertEquals("", scanner.getTrimmedField(2));
+		assertEquals("DJB", scanner.getTrimmedField(3));
+		assertEquals("", scanner.getTrimmedField(4));
+
+		assertTrue(scanner.nextLine());
+		assertEquals(4, scanner.split(' ', true));
+		assertEquals("", scanner.getTrimmedField(0));
+		assertEquals("3", scanner.getTrimmedField(3));
+
+		assertTrue(scanner.nextLine());
+		assertEquals(2, scanner.split(' ', false));
+		assertEquals("éè", scanner.getTrimmedField(1));
+	}
+
+	public void testParseDecimal() throws Exception {
+		Random random = new Random(42);
+		StringBuffer text = new StringBuffer();
+		List<String> values = new ArrayList<String>();
+
+		for (int i = 0; i < 2000; i++) {
+			String value;
+			switch (i % 4) {
+			case 0:
+				value = String.format(Locale.ENGLISH, "%.5f", 2400000 + random.nextDouble() * 100000);
+				break;
+			case 1:
+				value = String.format(Locale.ENGLISH, "%.3f", -2 + random.nextDouble() * 20);
+				break;
+			case 2:
+				value = Long.toString(random.nextInt(1000000));
+				break;
+			default:
+				value = String.format(Locale.ENGLISH, "%.15f", random.nextDouble());
+				break;
+			}
+			values.add(value);
+			text.append(" " + value + " ,x\n");
+		}
+
+		MappedLineScanner scanner = createScanner(text.toString(), 1000);
+		for (String value : values) {
+			assertTrue(scanner.nextLine());
+			scanner.split(',', false);
+			assertEquals(Double.parseDouble(value), scanner.parseDecimal(0, true));
+		}
+	}
+
+	public void testParseDecimalFallback() throws Exception {
+		String[] values = { "10.", ".5", "1e5", "<11.1", "11.1:", "-3.2",
+				"1.2.3", "", "99999999999999999", "0.12345678901234567890123" };
+
+		StringBuffer text = new StringBuffer();
+		for (String value : values) {
+			text.append(value + "\n");
+		}
+
+		MappedLineScanner scanner = createScanner(text.toString(), 64);
+		for (String value : values) {
+			assertTrue(scanner.nextLine());
+			scanner.split(',', false);
+			assertTrue(value, Double.isNaN(scanner.parseDecimal(0, false)));
+		}
+	}
+
+	public void testNegativeZero() throws Exception {
+		MappedLineScanner scanner = createScanner("-0.0", 64);
+		assertTrue(scanner.nextLine());
+		scanner.split(',', false);
+		assertEquals(Double.doubleToLongBits(-0.0),
+				Double.doubleToLongBits(scanner.parseDecimal(0, true)));
+	}
+
+	// Helpers
+
+	private void commonLinesTest(String text) throws IOException {
+		assertEquals(readLines(text), scanLines(text, 64));
+	}
+
+	private List<String> readLines(String text) throws IOException {
+		List<String> lines = new ArrayList<String>();
+		BufferedReader reader = new BufferedReader(new StringReader(text));
+		String line;
+		while ((line = reader.readLine()) != null) {
+			lines.add(line);
+		}
+		return lines;
+	}
+
+	private List<String> scanLines(String text, int windowSize)
+			throws IOException {
+		MappedLineScanner scanner = createScanner(text, windowSize);
+
+		List<String> lines = new ArrayList<String>();
+		while (scanner.nextLine()) {
+			lines.add(scanner.getLine());
+			assertEquals(lines.size(), scanner.getLineNumber());
+		}
+		return lines;
+	}
+
+	private MappedLineScanner createScanner(String text, int windowSize)
+			throws IOException {
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(text.getBytes(UTF8));
+		} finally {
+			out.close();
+		}
+
+		FileInputStream in = new FileInputStream(file);
+		return new MappedLineScanner(in.getChannel(), 0, UTF8, windowSize);
+	}
+}
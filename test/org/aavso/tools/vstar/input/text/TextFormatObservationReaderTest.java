@@ -17,13 +17,20 @@
  */
 package org.aavso.tools.vstar.input.text;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.io.LineNumberReader;
 import java.io.StringReader;
+import java.util.Arrays;
 import java.util.List;
 
 import junit.framework.TestCase;
 
+import org.aavso.tools.vstar.data.InvalidObservation;
 import org.aavso.tools.vstar.data.SeriesType;
 import org.aavso.tools.vstar.data.ValidObservation;
 import org.aavso.tools.vstar.data.ValidationType;
@@ -32,6 +39,7 @@ import org.aavso.tools.vstar.exception.ObservationValidationError;
 import org.aavso.tools.vstar.exception.ObservationValidationWarning;
 import org.aavso.tools.vstar.input.AbstractObservationRetriever;
 import org.aavso.tools.vstar.ui.mediator.NewStarType;
+import org.aavso.tools.vstar.util.prefs.ObservationInputPrefs;
 
 import com.csvreader.CsvReader;
 
@@ -230,6 +238,45 @@ public class TextFormatObservationReaderTest extends TestCase {
 		}
 	}
 
+	// Test that several sorted runs (e.g. per-band pages) are merged into one
+	// sequence, ordered by JD, and that observations with the same JD remain
+	// in the order in which they were read.
+	public void testOutOfOrderRuns() throws Exception {
+		StringBuffer lines = new StringBuffer();
+		for (int run = 0; run < 4; run++) {
+			for (int i = 0; i < 500; i++) {
+				lines.append(2450000 + i * 4 + (3 - run));
+				lines.append(",10.");
+				lines.append(run);
+				lines.append("\n");
+			}
+		}
+		lines.append("2450001,11.0\n");
+
+		TextFormatObservationReader reader = createReader(lines.toString(), "");
+		reader.retrieveObservations();
+
+		List<ValidObservation> obs = reader.getValidObservations();
+		assertEquals(2001, obs.size());
+
+		for (int i = 1; i < obs.size(); i++) {
+			assertTrue(obs.get(i - 1).getJD() <= obs.get(i).getJD());
+		}
+
+		assertEquals(2450001.0, obs.get(1).getJD());
+		assertEquals(10.2, obs.get(1).getMag());
+		assertEquals(2450001.0, obs.get(2).getJD());
+		assertEquals(11.0, obs.get(2).getMag());
+
+		for (List<ValidObservation> seriesObs : reader
+				.getValidObservationCategoryMap().values()) {
+			for (int i = 1; i < seriesObs.size(); i++) {
+				assertTrue(seriesObs.get(i - 1).getJD() <= seriesObs.get(i)
+						.getJD());
+			}
+		}
+	}
+
 	// Tests with invalid data.
 
 	// No digit after the magnitude decimal point. Although the format spec says
@@ -248,8 +295,281 @@ public class TextFormatObservationReaderTest extends TestCase {
 		commonInvalidTest("2450001.5\t10.0\tDJB\n");
 	}
 
+	// Tests of invalid observation retention.
+
+	public void testDefaultInvalidObservationLimit() throws Exception {
+		int limit = ObservationInputPrefs.getInvalidObservationLimit();
+
+		try {
+			ObservationInputPrefs.setInvalidObservationLimit(100);
+
+			TextFormatObservationReader reader = createReader(
+					createMixedLines(2000), "");
+			assertEquals(100, reader.getInvalidObservationLimit());
+			reader.retrieveObservations();
+
+			assertEquals(100, reader.getInvalidObservations().size());
+			assertEquals(400, reader.getInvalidObservationOverflowCount());
+		} finally {
+			ObservationInputPrefs.setInvalidObservationLimit(limit);
+		}
+	}
+
+	public void testInvalidObservationLimit() throws Exception {
+		TextFormatObservationReader reader = createReader(
+				createMixedLines(2000), "");
+		reader.setInvalidObservationLimit(10);
+		reader.retrieveObservations();
+
+		// Valid observations span more than one record batch.
+		assertEquals(1500, reader.getValidObservations().size());
+		assertEquals(10, reader.getInvalidObservations().size());
+		assertEquals(490, reader.getInvalidObservationOverflowCount());
+		assertEquals(4, reader.getInvalidObservations().get(0)
+				.getRecordNumber());
+	}
+
+	public void testInvalidObservationSpillFile() throws Exception {
+		File spillFile = File.createTempFile("vstar", ".txt");
+
+		try {
+			TextFormatObservationReader reader = createReader(
+					createMixedLines(40), "");
+			reader.setInvalidObservationLimit(2);
+			reader.setInvalidObservationSpillFile(spillFile);
+			reader.retrieveObservations();
+
+			assertEquals(30, reader.getValidObservations().size());
+			assertEquals(2, reader.getInvalidObservations().size());
+			assertEquals(8, reader.getInvalidObservationOverflowCount());
+
+			BufferedReader spillReader = new BufferedReader(new FileReader(
+					spillFile));
+			try {
+				String[] fields = spillReader.readLine().split("\t");
+				assertEquals("12", fields[0]);
+				assertEquals("Error", fields[1]);
+				assertEquals("2450012,x", fields[3]);
+
+				int lines = 1;
+				while (spillReader.readLine() != null) {
+					lines++;
+				}
+				assertEquals(8, lines);
+			} finally {
+				spillReader.close();
+			}
+		} finally {
+			spillFile.delete();
+		}
+	}
+
+	public void testUnlimitedInvalidObservations() throws Exception {
+		TextFormatObservationReader reader = createReader(
+				createMixedLines(2000), "");
+		reader.setInvalidObservationLimit(AbstractObservationRetriever.UNLIMITED_INVALID_OBSERVATIONS);
+		reader.retrieveObservations();
+
+		assertEquals(500, reader.getInvalidObservations().size());
+		assertEquals(0, reader.getInvalidObservationOverflowCount());
+	}
+
+	public void testUnlistedInvalidObservationsPreference() throws Exception {
+		boolean write = ObservationInputPrefs
+				.getWriteUnlistedInvalidObservations();
+
+		try {
+			ObservationInputPrefs.setWriteUnlistedInvalidObservations(false);
+			assertNull(createReader(createMixedLines(4), "")
+					.getInvalidObservationSpillFile());
+
+			ObservationInputPrefs.setWriteUnlistedInvalidObservations(true);
+			assertEquals(
+					new File(
+							AbstractObservationRetriever.UNLISTED_INVALID_OBSERVATIONS_PATH),
+					createReader(createMixedLines(4), "")
+							.getInvalidObservationSpillFile());
+		} finally {
+			ObservationInputPrefs.setWriteUnlistedInvalidObservations(write);
+		}
+	}
+
+	public void testVeLaFilterWithHeaderLine() throws Exception {
+		String lines = "JD,Magnitude\n" + createMixedLines(8);
+		TextFormatObservationReader reader = createReader(lines, "jd > 2450005");
+		reader.retrieveObservations();
+
+		// The filter rejects the first valid observations, but subsequent
+		// lines must not then be mistaken for a column header.
+		assertEquals(2, reader.getValidObservations().size());
+		assertEquals(2, reader.getInvalidObservations().size());
+	}
+
+	// A memory-mapped local file yields the same observations as a reader.
+	public void testMappedFile() throws Exception {
+		String lines = "#NAME=X\r\nJD,Magnitude\r\n\r\n" + createMixedLines(2500)
+				+ "   \n2452501,9.0";
+
+		File file = File.createTempFile("vstar", ".txt");
+		try {
+			FileWriter writer = new FileWriter(file);
+			try {
+				writer.write(lines);
+			} finally {
+				writer.close();
+			}
+
+			FileInputStream stream = new FileInputStream(file);
+			ObservationSourceAnalyser analyser = new ObservationSourceAnalyser(
+					MappedLineScanner.create(stream), "Some File");
+			analyser.analyse();
+
+			TextFormatObservationReader mappedReader = new TextFormatObservationReader(
+					MappedLineScanner.create(stream), stream, analyser, "");
+			mappedReader.retrieveObservations();
+
+			TextFormatObservationReader reader = createReader(lines, "");
+			reader.retrieveObservations();
+
+			assertEquals(reader.getNumberOfRecords(), mappedReader
+					.getNumberOfRecords());
+			assertEquals(1876, mappedReader.getValidObservations().size());
+			assertEquals(625, mappedReader.getInvalidObservations().size());
+
+			for (int i = 0; i < reader.getValidObservations().size(); i++) {
+				ValidObservation ob = reader.getValidObservations().get(i);
+				ValidObservation mappedOb = mappedReader.getValidObservations()
+						.get(i);
+				assertEquals(ob.getJD(), mappedOb.getJD());
+				assertEquals(ob.getMag(), mappedOb.getMag());
+				assertEquals(ob.getRecordNumber(), mappedOb.getRecordNumber());
+			}
+
+			assertEquals("X", mappedReader.getStarInfo().getDesignation());
+		} finally {
+			file.delete();
+		}
+	}
+
+	// The multi-threaded version yields the same valid and invalid
+	// observations, in the same order and with the same record numbers, as
+	// the single-threaded version.
+	public void testMultiThreadedMatchesSingleThreaded() throws Exception {
+		StringBuffer lines = new StringBuffer("#NAME=X\n");
+		for (int i = 1; i <= 5000; i++) {
+			switch (i % 7) {
+			case 0:
+				lines.append("# comment\n");
+				break;
+			case 1:
+				lines.append("\n");
+				break;
+			case 2:
+				lines.append((2450000 + i) + ",x\n");
+				break;
+			case 3:
+				lines.append("\"" + (2450000 + i) + "\", 10." + i % 10 + "\n");
+				break;
+			case 4:
+				lines.append("\"" + (2450000 + i) + ",10.0\n");
+				break;
+			default:
+				lines.append((2450000 + i) + ",1" + i % 10 + ".0,0.01\n");
+				break;
+			}
+		}
+
+		TextFormatObservationReader serialReader = createReader(
+				lines.toString(), "");
+		serialReader.setWorkerThreads(0);
+		serialReader.setInvalidObservationLimit(AbstractObservationRetriever.UNLIMITED_INVALID_OBSERVATIONS);
+		serialReader.retrieveObservations();
+
+		TextFormatObservationReader parallelReader = createReader(
+				lines.toString(), "");
+		parallelReader.setWorkerThreads(4);
+		parallelReader.setInvalidObservationLimit(AbstractObservationRetriever.UNLIMITED_INVALID_OBSERVATIONS);
+		parallelReader.retrieveObservations();
+
+		List<ValidObservation> serialObs = serialReader.getValidObservations();
+		List<ValidObservation> parallelObs = parallelReader
+				.getValidObservations();
+		assertEquals(2142, serialObs.size());
+		assertEquals(serialObs.size(), parallelObs.size());
+		for (int i = 0; i < serialObs.size(); i++) {
+			ValidObservation serialOb = serialObs.get(i);
+			ValidObservation parallelOb = parallelObs.get(i);
+			assertEquals(serialOb.getJD(), parallelOb.getJD());
+			assertEquals(serialOb.getMag(), parallelOb.getMag());
+			assertEquals(serialOb.getMagUncertainty(), parallelOb
+					.getMagUncertainty());
+			assertEquals(serialOb.getRecordNumber(), parallelOb
+					.getRecordNumber());
+		}
+
+		List<InvalidObservation> serialInvalidObs = serialReader
+				.getInvalidObservations();
+		List<InvalidObservation> parallelInvalidObs = parallelReader
+				.getInvalidObservations();
+		assertEquals(1429, serialInvalidObs.size());
+		assertEquals(serialInvalidObs.size(), parallelInvalidObs.size());
+		for (int i = 0; i < serialInvalidObs.size(); i++) {
+			InvalidObservation serialOb = serialInvalidObs.get(i);
+			InvalidObservation parallelOb = parallelInvalidObs.get(i);
+			assertEquals(serialOb.getRecordNumber(), parallelOb
+					.getRecordNumber());
+			assertEquals(serialOb.getInputLine(), parallelOb.getInputLine());
+			assertEquals(serialOb.getError(), parallelOb.getError());
+			assertEquals(serialOb.isWarning(), parallelOb.isWarning());
+		}
+
+		assertEquals("X", parallelReader.getStarInfo().getDesignation());
+	}
+
+	// A validator's reusable record reader splits records as a reader per
+	// record does, including those it cannot read in place.
+	public void testSplit() throws Exception {
+		String[] records = { "2450001.5,10.0", "\"2450001.5\",\"10,0\"",
+				"  a , b ,", "", "   ", "\"unterminated,10.0", "a,\"b\"\"c\"",
+				",,", "2450002.5,10.1,0.1,ABC,V" };
+
+		SimpleTextFormatValidator validator = new SimpleTextFormatValidator(
+				new CsvReader(new StringReader("")), 2, 5,
+				NewStarType.NEW_STAR_FROM_SIMPLE_FILE.getFieldInfoSource());
+
+		for (int i = 0; i < 3; i++) {
+			for (String record : records) {
+				CsvReader reader = CsvReader.parse(record);
+				String[] values = reader.readRecord() ? reader.getValues()
+						: new String[0];
+				assertTrue(record, Arrays.equals(values, validator
+						.split(record)));
+			}
+		}
+	}
+
 	// Helpers
 
+	// Every fourth line (record numbers 4, 8, ...) is invalid.
+	private String createMixedLines(int n) {
+		StringBuffer lines = new StringBuffer();
+		for (int i = 1; i <= n; i++) {
+			lines.append(2450000 + i);
+			lines.append(i % 4 == 0 ? ",x\n" : ",10.0\n");
+		}
+		return lines.toString();
+	}
+
+	private TextFormatObservationReader createReader(String str,
+			String velaFilterStr) throws Exception {
+		ObservationSourceAnalyser analyser = new ObservationSourceAnalyser(
+				new LineNumberReader(new StringReader(str)), "Some String");
+		analyser.analyse();
+
+		return new TextFormatObservationReader(new LineNumberReader(
+				new StringReader(str)), analyser, velaFilterStr);
+	}
+
 	private ValidObservation commonValidJulianDayAndMagTest(String line,
 			String delimiter) {
 		List<ValidObservation> obs = commonValidTest(line, delimiter, "");
@@ -0,0 +1,295 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.plugin.ob.src.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.aavso.tools.vstar.data.SeriesType;
+import org.aavso.tools.vstar.data.ValidObservation;
+import org.aavso.tools.vstar.input.AbstractObservationRetriever;
+import org.aavso.tools.vstar.ui.mediator.StarInfo;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * AID web service page fetcher unit tests. Pages are served by a local HTTP
+ * server standing in for the VSX web service.
+ */
+public class AIDPageFetcherTest extends TestCase {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final String CSV_HEADER = "obsID,JD,mag,uncert,band,by,val\n";
+
+	private HttpServer server;
+	private String baseUrl;
+
+	// Pages served, by path and page number; a missing page is an error.
+	private Map<String, String> pages;
+
+	// Number of requests per path and page number.
+	private Map<String, AtomicInteger> requestCounts;
+
+	private AtomicInteger activeRequests;
+	private AtomicInteger maxActiveRequests;
+
+	public AIDPageFetcherTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		pages = new ConcurrentHashMap<String, String>();
+		requestCounts = new ConcurrentHashMap<String, AtomicInteger>();
+		activeRequests = new AtomicInteger();
+		maxActiveRequests = new AtomicInteger();
+
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", new PageHandler());
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.start();
+
+		baseUrl = "http://localhost:" + server.getAddress().getPort();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		server.stop(0);
+	}
+
+	public void testPagesInOrder() throws Exception {
+		for (String series : Arrays.asList("a", "b", "c")) {
+			for (int page = 1; page <= 3; page++) {
+				addPage(series, page, "<Page name=\"" + series + page + "\"/>");
+			}
+		}
+
+		List<String> urlStrs = Arrays.asList(url("a"), url("b"), url("c"));
+		AIDPageFetcher<Document> fetcher = new AIDPageFetcher<Document>(
+				urlStrs, 3, AIDPageFetcher.DOCUMENT_READER);
+
+		try {
+			for (int urlIndex = 0; urlIndex < urlStrs.size(); urlIndex++) {
+				String series = "abc".substring(urlIndex, urlIndex + 1);
+
+				// Read a different number of pages from each URL.
+				for (int page = 1; page <= urlIndex + 1; page++) {
+					Document document = fetcher.getPage(urlIndex, page);
+					Element pageElt = (Element) document.getElementsByTagName(
+							"Page").item(0);
+					assertEquals(series + page, pageElt.getAttribute("name"));
+				}
+			}
+		} finally {
+			fetcher.shutdown();
+		}
+
+		assertTrue(maxActiveRequests.get() <= 3);
+
+		// No page was requested more than once.
+		for (AtomicInteger count : requestCounts.values()) {
+			assertEquals(1, count.get());
+		}
+	}
+
+	public void testSequentialFetching() throws Exception {
+		addPage("a", 1, "<Page/>");
+		addPage("a", 2, "<Page/>");
+
+		AIDPageFetcher<byte[]> fetcher = new AIDPageFetcher<byte[]>(
+				Arrays.asList(url("a")), 1, AIDPageFetcher.BYTES_READER);
+
+		try {
+			fetcher.getPage(0, 1);
+			fetcher.getPage(0, 2);
+		} finally {
+			fetcher.shutdown();
+		}
+
+		// Nothing is requested ahead of the caller.
+		assertEquals(2, requestCounts.size());
+	}
+
+	public void testMissingPage() throws Exception {
+		AIDPageFetcher<byte[]> fetcher = new AIDPageFetcher<byte[]>(
+				Arrays.asList(url("a")), 2, AIDPageFetcher.BYTES_READER);
+
+		try {
+			fetcher.getPage(0, 1);
+			fail();
+		} catch (IOException e) {
+			// We expect to get here.
+		} finally {
+			fetcher.shutdown();
+		}
+	}
+
+	// Read observations over several pages with a CSV2 observation retriever.
+	// The last page has no count.
+	public void testCSV2Retriever() throws Exception {
+		int obsPerPage = 100;
+		int pageCount = 5;
+
+		int id = 1;
+		for (int page = 1; page <= pageCount; page++) {
+			StringBuffer data = new StringBuffer(CSV_HEADER);
+			for (int i = 0; i < obsPerPage; i++) {
+				// Each page is in descending JD order.
+				double jd = 2450000 + page * obsPerPage - i;
+				data.append(String.format(Locale.ENGLISH,
+						"%d,%.1f,10.5,0.01,V,ABC,V\n", id++, jd));
+			}
+
+			String count = page < pageCount ? "<Count>"
+					+ (obsPerPage * pageCount) + "</Count>" : "";
+
+			addPage("api", page, count + "<Data><![CDATA[" + data
+					+ "]]></Data>");
+		}
+
+		AIDWebServiceCSV2ObservationSourcePlugin obsSource = new AIDWebServiceCSV2ObservationSourcePlugin();
+		obsSource.setInfo(new StarInfo("Test", "000-AAA-000"));
+		obsSource.setUrl(url("api"));
+
+		AbstractObservationRetriever retriever = obsSource
+				.getObservationRetriever();
+		retriever.retrieveObservations();
+
+		List<ValidObservation> obs = retriever.getValidObservations();
+		assertEquals(obsPerPage * pageCount, obs.size());
+
+		for (int i = 0; i < obs.size(); i++) {
+			assertEquals(2450001.0 + i, obs.get(i).getJD());
+			assertEquals(SeriesType.Johnson_V, obs.get(i).getBand());
+		}
+
+		assertTrue(maxActiveRequests.get() <= AIDWebServiceObservationSourcePluginBase
+				.MAX_CONCURRENT_PAGE_REQUESTS);
+	}
+
+	// Read observations over several pages with an XML attribute observation
+	// retriever. The last page has no count and one observation per page has
+	// a validation flag that makes it invalid.
+	public void testXMLAttributeRetriever() throws Exception {
+		int obsPerPage = 50;
+		int pageCount = 3;
+
+		int id = 1;
+		for (int page = 1; page <= pageCount; page++) {
+			String count = page < pageCount ? " Count=\""
+					+ (obsPerPage * pageCount) + "\"" : "";
+
+			StringBuffer data = new StringBuffer("<Data" + count + ">");
+			for (int i = 0; i < obsPerPage; i++) {
+				double jd = 2450000 + id;
+				String valflag = i == 0 ? "Y" : "V";
+				data.append(String.format(Locale.ENGLISH, "<Observation Id=\"%d\" "
+						+ "JD=\"%.1f\" Mag=\"10.5\" uncertainty=\"0.01\" "
+						+ "band=\"V\" obscode=\"ABC\" valflag=\"%s\" "
+						+ "comments=\"a &amp; b\"/>", id++, jd, valflag));
+			}
+			data.append("</Data>");
+
+			addPage("api", page, data.toString());
+		}
+
+		AIDWebServiceXMLAttributeObservationSourcePlugin obsSource = new AIDWebServiceXMLAttributeObservationSourcePlugin();
+		obsSource.setInfo(new StarInfo("Test", "000-AAA-000"));
+		obsSource.setUrl(url("api"));
+
+		AbstractObservationRetriever retriever = obsSource
+				.getObservationRetriever();
+		retriever.retrieveObservations();
+
+		List<ValidObservation> obs = retriever.getValidObservations();
+		assertEquals((obsPerPage - 1) * pageCount, obs.size());
+		assertEquals(pageCount, retriever.getInvalidObservations().size());
+
+		ValidObservation ob = obs.get(0);
+		assertEquals(2, ob.getRecordNumber());
+		assertEquals(2450002.0, ob.getJD());
+		assertEquals(10.5, ob.getMag());
+		assertEquals(0.01, ob.getMagnitude().getUncertainty());
+		assertEquals(SeriesType.Johnson_V, ob.getBand());
+		assertEquals("ABC", ob.getObsCode());
+		assertEquals("a & b", ob.getComments());
+	}
+
+	// Helpers
+
+	private String url(String path) {
+		return baseUrl + "/" + path + "?view=api.object";
+	}
+
+	private void addPage(String path, int page, String content) {
+		pages.put("/" + path + "&page=" + page, "<?xml version=\"1.0\"?>"
+				+ "<VSXObject>" + content + "</VSXObject>");
+	}
+
+	private class PageHandler implements HttpHandler {
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			int active = activeRequests.incrementAndGet();
+			maxActiveRequests.accumulateAndGet(active, Math::max);
+
+			try {
+				String query = exchange.getRequestURI().getQuery();
+				String page = query.substring(query.indexOf("&page="));
+				String key = exchange.getRequestURI().getPath() + page;
+
+				requestCounts.computeIfAbsent(key, k -> new AtomicInteger())
+						.incrementAndGet();
+
+				// Give the client time to issue concurrent requests.
+				Thread.sleep(10);
+
+				String content = pages.get(key);
+				if (content == null) {
+					exchange.sendResponseHeaders(404, -1);
+				} else {
+					byte[] bytes = content.getBytes(UTF8);
+					exchange.sendResponseHeaders(200, bytes.length);
+					OutputStream out = exchange.getResponseBody();
+					out.write(bytes);
+					out.close();
+				}
+			} catch (InterruptedException e) {
+				exchange.sendResponseHeaders(500, -1);
+			} finally {
+				activeRequests.decrementAndGet();
+				exchange.close();
+			}
+		}
+	}
+}
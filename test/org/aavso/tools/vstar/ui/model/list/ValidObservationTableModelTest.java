@@ -0,0 +1,75 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.ui.model.list;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import junit.framework.TestCase;
+
+import org.aavso.tools.vstar.data.DateInfo;
+import org.aavso.tools.vstar.data.Magnitude;
+import org.aavso.tools.vstar.data.SeriesType;
+import org.aavso.tools.vstar.data.ValidObservation;
+import org.aavso.tools.vstar.ui.mediator.NewStarType;
+import org.aavso.tools.vstar.util.stats.PhaseEngine;
+
+/**
+ * Valid observation table model UTs.
+ */
+public class ValidObservationTableModelTest extends TestCase {
+
+	public ValidObservationTableModelTest(String name) {
+		super(name);
+	}
+
+	// Observations' rows are found after their phases have been updated in
+	// place, as for a phase plot whose period changes.
+	public void testRowIndexAfterPhaseChange() {
+		List<ValidObservation> obs = new ArrayList<ValidObservation>();
+		for (int i = 0; i < 100; i++) {
+			ValidObservation ob = new ValidObservation();
+			ob.setDateInfo(new DateInfo(2450000 + i * 0.37));
+			ob.setMagnitude(new Magnitude(10 + (i % 7) * 0.1, 0));
+			obs.add(ob);
+		}
+
+		Map<SeriesType, List<ValidObservation>> seriesMap = new TreeMap<SeriesType, List<ValidObservation>>();
+		seriesMap.put(SeriesType.Visual, obs);
+
+		PhaseEngine engine = new PhaseEngine(seriesMap);
+		engine.setPhases(2450000, 3.1);
+		engine.sortSeries();
+
+		ValidObservationTableModel model = new ValidObservationTableModel(
+				engine.getPhasedSeriesMap(), obs,
+				NewStarType.NEW_STAR_FROM_SIMPLE_FILE
+						.getPhasePlotTableColumnInfoSource());
+
+		engine.setPhases(2450000, 5.7);
+		engine.sortSeries();
+
+		for (int i = 0; i < obs.size(); i++) {
+			ValidObservation ob = model.getObservations().get(i);
+			assertEquals(Integer.valueOf(i), model
+					.getRowIndexFromObservation(ob));
+		}
+	}
+}
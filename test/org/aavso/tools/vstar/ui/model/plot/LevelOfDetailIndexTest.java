@@ -0,0 +1,208 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.ui.model.plot;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.jfree.data.xy.DefaultIntervalXYDataset;
+
+/**
+ * Level-of-detail index unit tests.
+ */
+public class LevelOfDetailIndexTest extends TestCase {
+
+	private static final int WIDTH = 500;
+	private static final int HEIGHT = 300;
+	private static final int POINT_SIZE = 4;
+
+	private static final int COUNT = 100000;
+
+	private DefaultIntervalXYDataset dataset;
+	private double[][] data;
+	private LevelOfDetailIndex index;
+
+	public LevelOfDetailIndexTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		Random random = new Random(42);
+
+		// x, startX, endX, y, startY, endY
+		data = new double[6][COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			double y = 10 + random.nextGaussian();
+			double error = random.nextDouble() * 0.1;
+			data[0][i] = data[1][i] = data[2][i] = i;
+			data[3][i] = y;
+			data[4][i] = y - error;
+			data[5][i] = y + error;
+		}
+
+		dataset = new DefaultIntervalXYDataset();
+		dataset.addSeries("test", data);
+
+		index = new LevelOfDetailIndex(dataset);
+	}
+
+	// A wide view is decimated, keeping the extrema of each pixel column and
+	// at most one item per point-sized cell.
+	public void testWideViewIsDecimated() {
+		BitSet items = index.selectItems(0, data, 0, COUNT - 1, 5, 15, WIDTH,
+				HEIGHT, POINT_SIZE);
+
+		assertNotNull(items);
+		assertTrue(items.cardinality() < COUNT / 10);
+
+		int gridCells = (WIDTH / POINT_SIZE) * (HEIGHT / POINT_SIZE);
+		assertTrue(items.cardinality() <= gridCells + 4 * WIDTH);
+
+		// The overall extrema are kept.
+		assertTrue(items.get(indexOfExtremum(3, true)));
+		assertTrue(items.get(indexOfExtremum(3, false)));
+		assertTrue(items.get(indexOfExtremum(4, true)));
+		assertTrue(items.get(indexOfExtremum(5, false)));
+
+		// So is the extremum of a pixel column.
+		int columnItems = COUNT / WIDTH;
+		int minItem = 0;
+		for (int i = 1; i < columnItems; i++) {
+			if (data[3][i] < data[3][minItem]) {
+				minItem = i;
+			}
+		}
+		assertTrue(items.get(minItem));
+	}
+
+	// Only items in view are selected.
+	public void testItemsOutOfViewAreNotSelected() {
+		BitSet items = index.selectItems(0, data, 20000, 70000, 5, 15, WIDTH,
+				HEIGHT, POINT_SIZE);
+
+		assertNotNull(items);
+		assertTrue(items.nextSetBit(0) >= 20000);
+		assertTrue(items.previousSetBit(COUNT - 1) <= 70000);
+	}
+
+	// All items are drawn in a narrow view.
+	public void testNarrowViewIsNotDecimated() {
+		assertNull(index.selectItems(0, data, 5000, 5000 + WIDTH
+				* LevelOfDetailIndex.MAX_ITEMS_PER_COLUMN - 1, 5, 15, WIDTH,
+				HEIGHT, POINT_SIZE));
+	}
+
+	// A series whose source or size changes is indexed again.
+	public void testChangedSeriesIsIndexedAgain() {
+		BitSet items = index.selectItems(0, data, 0, COUNT - 1, 5, 15, WIDTH,
+				HEIGHT, POINT_SIZE);
+		assertNotNull(items);
+
+		// A point far below all others.
+		double[][] newData = new double[6][];
+		for (int i = 0; i < 6; i++) {
+			newData[i] = data[i].clone();
+		}
+		int item = COUNT / 2 + 17;
+		newData[3][item] = newData[4][item] = newData[5][item] = 0;
+		dataset.addSeries("test", newData);
+
+		items = index.selectItems(0, newData, 0, COUNT - 1, -1, 15, WIDTH,
+				HEIGHT, POINT_SIZE);
+		assertTrue(items.get(item));
+	}
+
+	// The nearest item found by searching outwards from a point's domain
+	// value is the one found by an exhaustive search.
+	public void testFindNearestItem() {
+		Random random = new Random(17);
+
+		double xScale = WIDTH / 1000.0;
+		double yScale = HEIGHT / 10.0;
+
+		for (int i = 0; i < 100; i++) {
+			double x = random.nextDouble() * COUNT;
+			double y = 5 + random.nextDouble() * 10;
+
+			int item = index.findNearestItem(0, data, x, y, xScale, yScale,
+					Double.POSITIVE_INFINITY);
+
+			assertEquals(distance(indexOfNearest(x, y, xScale, yScale), x, y,
+					xScale, yScale), distance(item, x, y, xScale, yScale));
+		}
+	}
+
+	// No item is found beyond the maximum distance.
+	public void testFindNearestItemWithinDistance() {
+		int item = COUNT / 3;
+
+		assertEquals(item, index.findNearestItem(0, data, data[0][item],
+				data[3][item], 1, 1, 0.5));
+
+		assertEquals(-1, index.findNearestItem(0, data, data[0][item] + 0.5,
+				100, 1, 1, 10));
+	}
+
+	// An item is found by its domain and range values.
+	public void testFindItem() {
+		int item = COUNT / 4 + 3;
+
+		assertEquals(item, index.findItem(0, data, data[0][item],
+				data[3][item]));
+
+		assertEquals(-1, index.findItem(0, data, data[0][item],
+				data[3][item] + 1));
+
+		assertEquals(-1, index.findItem(0, data, data[0][item] + 0.5,
+				data[3][item]));
+	}
+
+	// Helpers
+
+	private int indexOfNearest(double x, double y, double xScale,
+			double yScale) {
+		int result = 0;
+		for (int i = 1; i < COUNT; i++) {
+			if (distance(i, x, y, xScale, yScale) < distance(result, x, y,
+					xScale, yScale)) {
+				result = i;
+			}
+		}
+		return result;
+	}
+
+	private double distance(int item, double x, double y, double xScale,
+			double yScale) {
+		return Math.hypot((data[0][item] - x) * xScale, (data[3][item] - y)
+				* yScale);
+	}
+
+	private int indexOfExtremum(int dimension, boolean min) {
+		int result = 0;
+		for (int i = 1; i < COUNT; i++) {
+			if (min ? data[dimension][i] < data[dimension][result]
+					: data[dimension][i] > data[dimension][result]) {
+				result = i;
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,355 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.ui.pane.list;
+
+import java.util.Collections;
+
+import javax.swing.RowFilter;
+import javax.swing.RowSorter.SortKey;
+import javax.swing.SortOrder;
+import javax.swing.SwingUtilities;
+import javax.swing.table.DefaultTableModel;
+
+import junit.framework.TestCase;
+
+/**
+ * Background table row sorter unit tests.
+ */
+public class BackgroundTableRowSorterTest extends TestCase {
+
+	private static final int NAME_COLUMN = 0;
+	private static final int VALUE_COLUMN = 1;
+
+	public BackgroundTableRowSorterTest(String name) {
+		super(name);
+	}
+
+	// Rows with equal keys remain in model order in both sort orders.
+	public void testSortIsStable() {
+		DefaultTableModel model = createModel(new String[] { "a", "b", "c",
+				"d", "e" }, new double[] { 3, 1, 3, 2, 1 });
+
+		BackgroundTableRowSorter<DefaultTableModel> sorter = createSorter(model);
+
+		sorter.toggleSortOrder(VALUE_COLUMN);
+		assertEquals("bedac", viewNames(sorter, model));
+
+		sorter.toggleSortOrder(VALUE_COLUMN);
+		assertEquals(SortOrder.DESCENDING, sorter.getSortKeys().get(0)
+				.getSortOrder());
+		assertEquals("acdbe", viewNames(sorter, model));
+	}
+
+	// Strings are sorted by collation key and numbers by value.
+	public void testColumnTypes() {
+		DefaultTableModel model = createModel(new String[] { "b", "C", "a" },
+				new double[] { 10, 9, 100 });
+
+		BackgroundTableRowSorter<DefaultTableModel> sorter = createSorter(model);
+
+		sorter.toggleSortOrder(NAME_COLUMN);
+		assertEquals("abC", viewNames(sorter, model));
+
+		sorter.toggleSortOrder(VALUE_COLUMN);
+		assertEquals("Cba", viewNames(sorter, model));
+	}
+
+	// A key function determines the order of a column.
+	public void testKeyFunction() {
+		DefaultTableModel model = createModel(new String[] { "a", "b", "c" },
+				new double[] { 1, 2, 3 });
+
+		BackgroundTableRowSorter<DefaultTableModel> sorter = createSorter(model);
+		sorter.setKeyFunction(NAME_COLUMN, row -> -row);
+
+		sorter.toggleSortOrder(NAME_COLUMN);
+		assertEquals("cba", viewNames(sorter, model));
+	}
+
+	// Rows excluded by a filter have no view index.
+	public void testFilter() {
+		DefaultTableModel model = createModel(new String[] { "a", "b", "c",
+				"d" }, new double[] { 4, 3, 2, 1 });
+
+		BackgroundTableRowSorter<DefaultTableModel> sorter = createSorter(model);
+		sorter.setSortKeys(Collections.singletonList(new SortKey(VALUE_COLUMN,
+				SortOrder.ASCENDING)));
+		sorter.setRowFilter(new ConcurrentRowFilter(2.5));
+
+		assertEquals(2, sorter.getViewRowCount());
+		assertEquals("dc", viewNames(sorter, model));
+		assertEquals(0, sorter.convertRowIndexToView(3));
+		assertEquals(1, sorter.convertRowIndexToView(2));
+		assertEquals(-1, sorter.convertRowIndexToView(0));
+		assertEquals(3, sorter.convertRowIndexToModel(0));
+
+		try {
+			sorter.convertRowIndexToModel(2);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			// Expected.
+		}
+
+		sorter.setRowFilter(null);
+		assertEquals("dcba", viewNames(sorter, model));
+	}
+
+	// The remaining rows of the previous view are shown until the view of a
+	// changed model is ready.
+	public void testRowCountChange() throws Exception {
+		final DefaultTableModel model = createModel(new String[] { "a", "b" },
+				new double[] { 2, 1 });
+
+		final BackgroundTableRowSorter<DefaultTableModel> sorter = new BackgroundTableRowSorter<DefaultTableModel>(
+				model, 3);
+
+		SwingUtilities.invokeAndWait(() -> {
+			sorter.toggleSortOrder(VALUE_COLUMN);
+			assertEquals("ba", viewNames(sorter, model));
+
+			model.insertRow(0, new Object[] { "c", 0.0 });
+			sorter.rowsInserted(0, 0);
+
+			assertTrue(sorter.isUpdating());
+			assertEquals("ba", viewNames(sorter, model));
+			assertEquals(-1, sorter.convertRowIndexToView(0));
+			assertEquals(0, sorter.convertRowIndexToView(2));
+		});
+
+		waitForUpdate(sorter);
+
+		SwingUtilities.invokeAndWait(() -> {
+			assertEquals("cba", viewNames(sorter, model));
+
+			model.addRow(new Object[] { "d", 3.0 });
+			sorter.rowsInserted(3, 3);
+
+			assertTrue(sorter.isUpdating());
+			assertEquals("cba", viewNames(sorter, model));
+		});
+
+		waitForUpdate(sorter);
+
+		SwingUtilities.invokeAndWait(() -> {
+			assertEquals("cbad", viewNames(sorter, model));
+
+			// Delete "a".
+			model.removeRow(1);
+			sorter.rowsDeleted(1, 1);
+
+			assertTrue(sorter.isUpdating());
+			assertEquals("cbd", viewNames(sorter, model));
+			assertEquals(2, sorter.convertRowIndexToView(2));
+		});
+
+		waitForUpdate(sorter);
+
+		SwingUtilities.invokeAndWait(() -> {
+			assertEquals("cbd", viewNames(sorter, model));
+		});
+	}
+
+	// A view being computed in the background can be completed on demand.
+	public void testFlush() throws Exception {
+		final DefaultTableModel model = createModel(new String[] { "a", "b",
+				"c", "d" }, new double[] { 4, 3, 2, 1 });
+
+		final BackgroundTableRowSorter<DefaultTableModel> sorter = new BackgroundTableRowSorter<DefaultTableModel>(
+				model, 3);
+
+		SwingUtilities.invokeAndWait(() -> {
+			sorter.setRowFilter(new ConcurrentRowFilter(3.5));
+			sorter.toggleSortOrder(VALUE_COLUMN);
+			assertTrue(sorter.isUpdating());
+
+			sorter.flush();
+
+			assertFalse(sorter.isUpdating());
+			assertEquals("dcb", viewNames(sorter, model));
+		});
+
+		// The superseded background result is not installed.
+		Thread.sleep(100);
+
+		SwingUtilities.invokeAndWait(() -> {
+			assertFalse(sorter.isUpdating());
+			assertEquals("dcb", viewNames(sorter, model));
+		});
+	}
+
+	// Large tables are sorted and filtered in the background with the same
+	// result as small ones.
+	public void testBackgroundUpdate() throws Exception {
+		int count = 1000;
+		String[] names = new String[count];
+		double[] values = new double[count];
+		for (int i = 0; i < count; i++) {
+			names[i] = String.format("%04d", i);
+			values[i] = (i * 7919) % 97;
+		}
+
+		final DefaultTableModel model = createModel(names, values);
+
+		final BackgroundTableRowSorter<DefaultTableModel> syncSorter = createSorter(model);
+		final BackgroundTableRowSorter<DefaultTableModel> sorter = new BackgroundTableRowSorter<DefaultTableModel>(
+				model, 10);
+
+		SwingUtilities.invokeAndWait(() -> {
+			sorter.setRowFilter(new ConcurrentRowFilter(50));
+			sorter.toggleSortOrder(VALUE_COLUMN);
+			sorter.toggleSortOrder(VALUE_COLUMN);
+
+			syncSorter.setRowFilter(new ConcurrentRowFilter(50));
+			syncSorter.toggleSortOrder(VALUE_COLUMN);
+			syncSorter.toggleSortOrder(VALUE_COLUMN);
+		});
+
+		waitForUpdate(sorter);
+
+		SwingUtilities.invokeAndWait(() -> {
+			assertEquals(syncSorter.getViewRowCount(), sorter
+					.getViewRowCount());
+			assertEquals(viewNames(syncSorter, model), viewNames(sorter, model));
+		});
+	}
+
+	// Model values are only read on the event dispatch thread, including by a
+	// row filter that is not concurrent.
+	public void testModelReadOnEventDispatchThread() throws Exception {
+		int count = 1000;
+		String[] names = new String[count];
+		double[] values = new double[count];
+		for (int i = 0; i < count; i++) {
+			names[i] = String.format("%04d", i);
+			values[i] = (i * 7919) % 97;
+		}
+
+		final boolean[] readOffEDT = { false };
+
+		final DefaultTableModel model = new DefaultTableModel(new Object[] {
+				"Name", "Value" }, 0) {
+			@Override
+			public Class<?> getColumnClass(int column) {
+				return column == NAME_COLUMN ? String.class : Double.class;
+			}
+
+			@Override
+			public Object getValueAt(int row, int column) {
+				if (!SwingUtilities.isEventDispatchThread()) {
+					readOffEDT[0] = true;
+				}
+				return super.getValueAt(row, column);
+			}
+		};
+
+		for (int i = 0; i < count; i++) {
+			model.addRow(new Object[] { names[i], values[i] });
+		}
+
+		final BackgroundTableRowSorter<DefaultTableModel> syncSorter = createSorter(model);
+		final BackgroundTableRowSorter<DefaultTableModel> sorter = new BackgroundTableRowSorter<DefaultTableModel>(
+				model, 10);
+
+		SwingUtilities.invokeAndWait(() -> {
+			sorter.setRowFilter(RowFilter.regexFilter("1"));
+			sorter.toggleSortOrder(VALUE_COLUMN);
+
+			syncSorter.setRowFilter(RowFilter.regexFilter("1"));
+			syncSorter.toggleSortOrder(VALUE_COLUMN);
+		});
+
+		waitForUpdate(sorter);
+
+		SwingUtilities.invokeAndWait(() -> {
+			sorter.toggleSortOrder(NAME_COLUMN);
+			syncSorter.toggleSortOrder(NAME_COLUMN);
+		});
+
+		waitForUpdate(sorter);
+
+		SwingUtilities.invokeAndWait(() -> {
+			assertEquals(viewNames(syncSorter, model), viewNames(sorter, model));
+		});
+
+		assertFalse(readOffEDT[0]);
+	}
+
+	// Helpers
+
+	private DefaultTableModel createModel(String[] names, double[] values) {
+		DefaultTableModel model = new DefaultTableModel(new Object[] { "Name",
+				"Value" }, 0) {
+			@Override
+			public Class<?> getColumnClass(int column) {
+				return column == NAME_COLUMN ? String.class : Double.class;
+			}
+		};
+
+		for (int i = 0; i < names.length; i++) {
+			model.addRow(new Object[] { names[i], values[i] });
+		}
+
+		return model;
+	}
+
+	private BackgroundTableRowSorter<DefaultTableModel> createSorter(
+			DefaultTableModel model) {
+		return new BackgroundTableRowSorter<DefaultTableModel>(model,
+				Integer.MAX_VALUE);
+	}
+
+	private String viewNames(BackgroundTableRowSorter<DefaultTableModel> sorter,
+			DefaultTableModel model) {
+		StringBuffer names = new StringBuffer();
+		for (int i = 0; i < sorter.getViewRowCount(); i++) {
+			names.append(model.getValueAt(sorter.convertRowIndexToModel(i),
+					NAME_COLUMN));
+		}
+		return names.toString();
+	}
+
+	private void waitForUpdate(
+			final BackgroundTableRowSorter<DefaultTableModel> sorter)
+			throws Exception {
+		final boolean[] updating = { true };
+		for (int i = 0; i < 500 && updating[0]; i++) {
+			Thread.sleep(10);
+			SwingUtilities.invokeAndWait(() -> {
+				updating[0] = sorter.isUpdating();
+			});
+		}
+		assertFalse(updating[0]);
+	}
+
+	// Includes rows whose value is less than a maximum.
+	private static class ConcurrentRowFilter extends
+			RowFilter<DefaultTableModel, Integer> implements
+			IConcurrentRowFilter {
+		private double max;
+
+		ConcurrentRowFilter(double max) {
+			this.max = max;
+		}
+
+		@Override
+		public boolean include(
+				RowFilter.Entry<? extends DefaultTableModel, ? extends Integer> entry) {
+			return (Double) entry.getValue(VALUE_COLUMN) < max;
+		}
+	}
+}
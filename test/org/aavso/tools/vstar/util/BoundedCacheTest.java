@@ -0,0 +1,131 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+
+/**
+ * Bounded cache unit tests.
+ */
+public class BoundedCacheTest extends TestCase {
+
+	public BoundedCacheTest(String name) {
+		super(name);
+	}
+
+	public void testLeastRecentlyUsedEviction() {
+		BoundedCache<String, Integer> cache = new BoundedCache<String, Integer>(2);
+		cache.put("a", 1);
+		cache.put("b", 2);
+
+		// Make "b" the least recently used entry.
+		assertEquals(Integer.valueOf(1), cache.get("a"));
+
+		cache.put("c", 3);
+		assertEquals(2, cache.size());
+		assertNull(cache.get("b"));
+		assertEquals(Integer.valueOf(1), cache.get("a"));
+		assertEquals(Integer.valueOf(3), cache.get("c"));
+	}
+
+	public void testHitsAndMisses() {
+		BoundedCache<String, Integer> cache = new BoundedCache<String, Integer>(10);
+
+		assertEquals(Integer.valueOf(3), cache.get("abc", String::length));
+		assertEquals(Integer.valueOf(3), cache.get("abc", String::length));
+		assertNull(cache.get("xyz"));
+
+		assertEquals(1, cache.getHits());
+		assertEquals(2, cache.getMisses());
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getHits());
+		assertEquals(0, cache.getMisses());
+	}
+
+	public void testNullValueNotCached() {
+		BoundedCache<String, Integer> cache = new BoundedCache<String, Integer>(10);
+		assertNull(cache.get("a", key -> null));
+		assertEquals(0, cache.size());
+	}
+
+	public void testSetMaxSize() {
+		BoundedCache<Integer, Integer> cache = new BoundedCache<Integer, Integer>(10);
+		for (int i = 0; i < 10; i++) {
+			cache.put(i, i);
+		}
+
+		cache.setMaxSize(3);
+		assertEquals(3, cache.size());
+		assertEquals(3, cache.getMaxSize());
+
+		// The most recently added entries remain.
+		for (int i = 7; i < 10; i++) {
+			assertEquals(Integer.valueOf(i), cache.get(i));
+		}
+	}
+
+	public void testInvalidMaxSize() {
+		try {
+			new BoundedCache<String, String>(0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// We expect to get here.
+		}
+	}
+
+	public void testConcurrentAccess() throws Exception {
+		final BoundedCache<Integer, Integer> cache = new BoundedCache<Integer, Integer>(50);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+
+			for (int t = 0; t < 4; t++) {
+				results.add(executor.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() {
+						boolean ok = true;
+						for (int i = 0; i < 10000; i++) {
+							int key = i % 100;
+							ok &= cache.get(key, k -> k * 2) == key * 2;
+						}
+						return ok;
+					}
+				}));
+			}
+
+			for (Future<Boolean> result : results) {
+				assertTrue(result.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertTrue(cache.size() <= 50);
+		assertEquals(40000, cache.getHits() + cache.getMisses());
+	}
+}
@@ -0,0 +1,138 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.util;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.aavso.tools.vstar.data.Magnitude;
+import org.aavso.tools.vstar.data.ValidObservation;
+
+/**
+ * Observation range query unit tests.
+ */
+public class ObservationRangeQueryTest extends TestCase {
+
+	// JDs with repeated values.
+	private static final double[] JDS = { 2450000, 2450001, 2450001, 2450002,
+			2450003, 2450003, 2450003, 2450004 };
+
+	public ObservationRangeQueryTest(String name) {
+		super(name);
+	}
+
+	public void testBounds() {
+		checkBounds(createObs(new ArrayList<ValidObservation>()));
+	}
+
+	public void testBoundsWithoutRandomAccess() {
+		checkBounds(createObs(new LinkedList<ValidObservation>()));
+	}
+
+	public void testSubList() {
+		List<ValidObservation> obs = createObs(new ArrayList<ValidObservation>());
+
+		List<ValidObservation> inRange = ObservationRangeQuery.subList(obs,
+				ObservationRangeQuery.JD, 2450001, 2450003);
+		assertEquals(6, inRange.size());
+		assertSame(obs.get(1), inRange.get(0));
+		assertSame(obs.get(6), inRange.get(5));
+
+		// Bounds between observations.
+		inRange = ObservationRangeQuery.subList(obs, ObservationRangeQuery.JD,
+				2450001.5, 2450002.5);
+		assertEquals(1, inRange.size());
+		assertSame(obs.get(3), inRange.get(0));
+
+		// No observations in range.
+		assertTrue(ObservationRangeQuery.subList(obs, ObservationRangeQuery.JD,
+				2450002.2, 2450002.8).isEmpty());
+		assertTrue(ObservationRangeQuery.subList(obs, ObservationRangeQuery.JD,
+				2450010, 2450020).isEmpty());
+
+		// An inverted range is empty.
+		assertTrue(ObservationRangeQuery.subList(obs, ObservationRangeQuery.JD,
+				2450003, 2450001).isEmpty());
+	}
+
+	public void testStandardPhase() {
+		List<ValidObservation> obs = createObs(new ArrayList<ValidObservation>());
+		for (int i = 0; i < obs.size(); i++) {
+			obs.get(i).setStandardPhase(i / 10.0);
+		}
+
+		List<ValidObservation> inRange = ObservationRangeQuery.subList(obs,
+				ObservationRangeQuery.STANDARD_PHASE, 0.25, 0.5);
+		assertEquals(3, inRange.size());
+		assertSame(obs.get(3), inRange.get(0));
+	}
+
+	// Observations without a standard phase sort last and are never in range.
+	public void testMissingStandardPhase() {
+		List<ValidObservation> obs = createObs(new ArrayList<ValidObservation>());
+		for (int i = 0; i < obs.size() - 2; i++) {
+			obs.get(i).setStandardPhase(i / 10.0);
+		}
+
+		assertTrue(Double.isNaN(ObservationRangeQuery.STANDARD_PHASE
+				.applyAsDouble(obs.get(obs.size() - 1))));
+
+		List<ValidObservation> inRange = ObservationRangeQuery.subList(obs,
+				ObservationRangeQuery.STANDARD_PHASE, 0.25, 0.5);
+		assertEquals(3, inRange.size());
+
+		inRange = ObservationRangeQuery.subList(obs,
+				ObservationRangeQuery.STANDARD_PHASE, 0, 10);
+		assertEquals(obs.size() - 2, inRange.size());
+	}
+
+	// Helpers
+
+	private void checkBounds(List<ValidObservation> obs) {
+		assertEquals(0, ObservationRangeQuery.lowerBound(obs,
+				ObservationRangeQuery.JD, 2449999));
+		assertEquals(1, ObservationRangeQuery.lowerBound(obs,
+				ObservationRangeQuery.JD, 2450001));
+		assertEquals(3, ObservationRangeQuery.upperBound(obs,
+				ObservationRangeQuery.JD, 2450001));
+		assertEquals(4, ObservationRangeQuery.lowerBound(obs,
+				ObservationRangeQuery.JD, 2450002.5));
+		assertEquals(4, ObservationRangeQuery.upperBound(obs,
+				ObservationRangeQuery.JD, 2450002.5));
+		assertEquals(7, ObservationRangeQuery.upperBound(obs,
+				ObservationRangeQuery.JD, 2450003));
+		assertEquals(8, ObservationRangeQuery.upperBound(obs,
+				ObservationRangeQuery.JD, 2450004));
+		assertEquals(8, ObservationRangeQuery.lowerBound(obs,
+				ObservationRangeQuery.JD, 2450005));
+	}
+
+	private List<ValidObservation> createObs(List<ValidObservation> obs) {
+		for (double jd : JDS) {
+			ValidObservation ob = new ValidObservation();
+			ob.setJD(jd);
+			ob.setMagnitude(new Magnitude(10, 0));
+			obs.add(ob);
+		}
+
+		return obs;
+	}
+}
@@ -0,0 +1,122 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+
+import org.aavso.tools.vstar.data.DateInfo;
+
+/**
+ * Weak interner unit tests.
+ */
+public class WeakInternerTest extends TestCase {
+
+	public WeakInternerTest(String name) {
+		super(name);
+	}
+
+	public void testEqualValuesShareInstance() {
+		WeakInterner<DateInfo> interner = new WeakInterner<DateInfo>(
+				"DateInfo", 24);
+
+		DateInfo first = new DateInfo(2450000.5);
+		DateInfo second = new DateInfo(2450000.5);
+		DateInfo other = new DateInfo(2450001.5);
+
+		assertSame(first, interner.intern(first));
+		assertSame(first, interner.intern(second));
+		assertSame(other, interner.intern(other));
+		assertNull(interner.intern(null));
+
+		assertEquals(2, interner.size());
+		assertEquals(1, interner.getHits());
+		assertEquals(2, interner.getMisses());
+		assertEquals(1.0 / 3, interner.getHitRate(), 1e-9);
+		assertEquals(24, interner.getBytesSaved());
+
+		interner.resetStatistics();
+		assertEquals(0, interner.getHits());
+		assertEquals(0, interner.getMisses());
+		assertEquals(0.0, interner.getHitRate());
+		assertEquals(2, interner.size());
+	}
+
+	public void testUnusedValuesAreDiscarded() throws Exception {
+		WeakInterner<String> interner = new WeakInterner<String>("String", 24);
+
+		for (int i = 0; i < 1000; i++) {
+			interner.intern(new String("value" + i));
+		}
+
+		for (int i = 0; i < 10 && interner.size() != 0; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+
+		assertEquals(0, interner.size());
+	}
+
+	// Many threads interning overlapping values end up with a single instance
+	// per value.
+	public void testConcurrentInterning() throws Exception {
+		final WeakInterner<DateInfo> interner = new WeakInterner<DateInfo>(
+				"DateInfo", 24);
+
+		final int valueCount = 1000;
+		int threadCount = 8;
+
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+		List<Future<DateInfo[]>> futures = new ArrayList<Future<DateInfo[]>>();
+
+		try {
+			for (int t = 0; t < threadCount; t++) {
+				futures.add(executor.submit(new Callable<DateInfo[]>() {
+					@Override
+					public DateInfo[] call() {
+						DateInfo[] values = new DateInfo[valueCount];
+						for (int i = 0; i < valueCount; i++) {
+							values[i] = interner.intern(new DateInfo(i));
+						}
+						return values;
+					}
+				}));
+			}
+
+			DateInfo[] first = futures.get(0).get();
+			for (Future<DateInfo[]> future : futures) {
+				DateInfo[] values = future.get();
+				for (int i = 0; i < valueCount; i++) {
+					assertSame(first[i], values[i]);
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		assertEquals(valueCount, interner.getMisses());
+		assertEquals(valueCount * (threadCount - 1), interner.getHits());
+	}
+}
@@ -0,0 +1,103 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.util.period;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * Columnar period analysis result series unit tests.
+ */
+public class PeriodAnalysisResultSeriesTest extends TestCase {
+
+	public PeriodAnalysisResultSeriesTest(String name) {
+		super(name);
+	}
+
+	public void testGrowth() {
+		PeriodAnalysisResultSeries.Column column = new PeriodAnalysisResultSeries.Column();
+
+		for (int i = 0; i < 1000; i++) {
+			column.add(i * 0.5);
+		}
+
+		assertEquals(1000, column.size());
+		assertEquals(499.5, column.getDouble(999));
+		assertEquals(Double.valueOf(250.0), column.get(500));
+		assertEquals(1000, column.toDoubleArray().length);
+	}
+
+	public void testMapView() {
+		PeriodAnalysisResultSeries series = new PeriodAnalysisResultSeries(
+				PeriodAnalysisCoordinateType.FREQUENCY,
+				PeriodAnalysisCoordinateType.POWER);
+
+		series.getColumn(PeriodAnalysisCoordinateType.FREQUENCY).add(0.1);
+		series.getColumn(PeriodAnalysisCoordinateType.POWER).add(42.0);
+
+		Map<PeriodAnalysisCoordinateType, List<Double>> map = series.asMap();
+
+		Iterator<PeriodAnalysisCoordinateType> types = map.keySet().iterator();
+		assertEquals(PeriodAnalysisCoordinateType.FREQUENCY, types.next());
+		assertEquals(PeriodAnalysisCoordinateType.POWER, types.next());
+		assertFalse(types.hasNext());
+
+		assertEquals(Arrays.asList(0.1),
+				map.get(PeriodAnalysisCoordinateType.FREQUENCY));
+		assertEquals(Arrays.asList(42.0),
+				map.get(PeriodAnalysisCoordinateType.POWER));
+
+		// The view reflects later additions.
+		series.getColumn(PeriodAnalysisCoordinateType.POWER).add(43.0);
+		assertEquals(2, map.get(PeriodAnalysisCoordinateType.POWER).size());
+
+		series.clear();
+		assertTrue(map.get(PeriodAnalysisCoordinateType.FREQUENCY).isEmpty());
+		assertTrue(map.get(PeriodAnalysisCoordinateType.POWER).isEmpty());
+	}
+
+	public void testListOperations() {
+		PeriodAnalysisResultSeries.Column column = new PeriodAnalysisResultSeries.Column();
+
+		column.add(Double.valueOf(2.0));
+		column.add(0, Double.valueOf(1.0));
+		column.add(3.0);
+
+		assertEquals(Arrays.asList(1.0, 2.0, 3.0), column);
+
+		assertEquals(Double.valueOf(2.0), column.set(1, 5.0));
+		assertEquals(Double.valueOf(1.0), column.remove(0));
+		assertEquals(Arrays.asList(5.0, 3.0), column);
+	}
+
+	public void testIndexOutOfBounds() {
+		PeriodAnalysisResultSeries.Column column = new PeriodAnalysisResultSeries.Column();
+		column.add(1.0);
+
+		try {
+			column.getDouble(1);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			// Expected.
+		}
+	}
+}
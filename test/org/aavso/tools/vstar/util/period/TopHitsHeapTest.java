@@ -0,0 +1,83 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.util.period;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Top hits heap unit tests.
+ */
+public class TopHitsHeapTest extends TestCase {
+
+	private static final double[] VALUES = { 3.0, 9.5, 1.2, Double.NaN, 7.7, 9.5, 0.4, 5.1, 2.2 };
+
+	public TopHitsHeapTest(String name) {
+		super(name);
+	}
+
+	public void testLargestFirst() {
+		TopHitsHeap heap = createHeap(4, true);
+
+		assertEquals(4, heap.size());
+		assertTrue(Arrays.equals(new int[] { 1, 5, 4, 7 }, heap.getOrderedIndices()));
+	}
+
+	public void testSmallestFirst() {
+		TopHitsHeap heap = createHeap(3, false);
+
+		assertEquals(3, heap.size());
+		assertTrue(Arrays.equals(new int[] { 6, 2, 8 }, heap.getOrderedIndices()));
+	}
+
+	public void testFewerHitsThanCapacity() {
+		TopHitsHeap heap = createHeap(20, true);
+
+		// NaN is excluded.
+		assertEquals(8, heap.size());
+		assertTrue(Arrays.equals(new int[] { 1, 5, 4, 7, 0, 8, 2, 6 }, heap.getOrderedIndices()));
+	}
+
+	public void testOrderedIndicesDoNotDisturbHeap() {
+		TopHitsHeap heap = createHeap(2, true);
+		heap.getOrderedIndices();
+		heap.offer(10.0, 9);
+
+		assertTrue(Arrays.equals(new int[] { 9, 1 }, heap.getOrderedIndices()));
+	}
+
+	public void testZeroCapacity() {
+		TopHitsHeap heap = createHeap(0, true);
+
+		assertEquals(0, heap.size());
+		assertEquals(0, heap.getOrderedIndices().length);
+	}
+
+	// Helpers
+
+	private TopHitsHeap createHeap(int capacity, boolean largestFirst) {
+		TopHitsHeap heap = new TopHitsHeap(capacity, largestFirst);
+
+		for (int i = 0; i < VALUES.length; i++) {
+			heap.offer(VALUES[i], i);
+		}
+
+		return heap;
+	}
+}
@@ -0,0 +1,179 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.util.period.aov;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.aavso.tools.vstar.data.DateInfo;
+import org.aavso.tools.vstar.data.Magnitude;
+import org.aavso.tools.vstar.data.ValidObservation;
+import org.aavso.tools.vstar.ui.model.plot.PhaseTimeElementEntity;
+import org.aavso.tools.vstar.util.comparator.StandardPhaseComparator;
+import org.aavso.tools.vstar.util.stats.BinningResult;
+import org.aavso.tools.vstar.util.stats.DescStats;
+import org.aavso.tools.vstar.util.stats.PhaseCalcs;
+
+/**
+ * Tests for the primitive AoV engine, comparing its results with those of
+ * phasing, sorting and symmetrically binning observations via DescStats and
+ * BinningResult, as the AoV period search plug-in previously did.
+ */
+public class AoVEngineTest extends TestCase {
+
+	private static final double DELTA = 1e-9;
+
+	// Sums of squares are accumulated from mean centred magnitudes, so F values
+	// differ slightly from those of OneWayAnovaImpl for large series.
+	private static final double F_RELATIVE_DELTA = 1e-8;
+
+	public AoVEngineTest(String name) {
+		super(name);
+	}
+
+	// A noisy sinusoid sampled irregularly.
+	public void testSinusoid() {
+		int n = 500;
+		double[] times = new double[n];
+		double[] mags = new double[n];
+
+		for (int i = 0; i < n; i++) {
+			times[i] = 2450000 + i * 0.37 + 0.1 * Math.sin(i);
+			mags[i] = 10 + Math.sin(2 * Math.PI * times[i] / 3.3) + 0.05 * Math.cos(7 * i);
+		}
+
+		commonTest(times, mags, 2450100, 3.3, 10);
+		commonTest(times, mags, 2450100, 1.7, 10);
+		commonTest(times, mags, 2450100, 12.5, 7);
+	}
+
+	// Too few observations for some bins to have more than one magnitude.
+	public void testSparseBins() {
+		double[] times = { 0.05, 0.15, 0.16, 0.35, 0.55, 0.56, 0.57, 0.95 };
+		double[] mags = { 10.1, 10.5, 10.7, 11.2, 9.8, 9.9, 9.6, 10.4 };
+
+		commonTest(times, mags, 0, 1.0, 10);
+		commonTest(times, mags, 0, 0.3, 4);
+	}
+
+	// Equal phases straddling the middle of the phase ordered data.
+	public void testEqualPhases() {
+		double[] times = { 0.2, 1.2, 2.2, 3.2, 0.7, 1.7 };
+		double[] mags = { 10.1, 10.5, 10.7, 11.2, 9.8, 9.9 };
+
+		commonTest(times, mags, 0, 1.0, 5);
+	}
+
+	// Delta Cep visual observations (ignoring fainter-than and brighter-than
+	// observations), over a range of trial periods around the known period of
+	// 5.366 days.
+	public void testDeltaCep() throws Exception {
+		List<double[]> data = new ArrayList<double[]>();
+
+		BufferedReader reader = new BufferedReader(new FileReader("data/delta_cep_processed.tsv"));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] fields = line.trim().split("\\s+");
+				if (fields.length >= 2 && fields[1].matches("[0-9.]+")) {
+					data.add(new double[] { Double.parseDouble(fields[0]), Double.parseDouble(fields[1]) });
+				}
+			}
+		} finally {
+			reader.close();
+		}
+
+		double[] times = new double[data.size()];
+		double[] mags = new double[data.size()];
+
+		for (int i = 0; i < times.length; i++) {
+			times[i] = data.get(i)[0];
+			mags[i] = data.get(i)[1];
+		}
+
+		for (double period = 5.30; period < 5.43; period += 0.01) {
+			commonTest(times, mags, times[0], period, 10);
+		}
+	}
+
+	// A single observation cannot be binned.
+	public void testInsufficientObservations() {
+		double[] times = { 0.01 };
+		double[] mags = { 10 };
+
+		AoVEngine engine = new AoVEngine(times, mags, 10);
+		engine.analyse(0, 1.0);
+
+		assertFalse(engine.hasValidAnovaValues());
+		assertTrue(Double.isNaN(engine.getFValue()));
+		assertTrue(Double.isNaN(engine.getPValue()));
+	}
+
+	// The same engine can be used for successive trial periods.
+	public void testReuse() {
+		double[] times = { 0.05, 0.15, 0.16, 0.35, 0.55, 0.56, 0.57, 0.95 };
+		double[] mags = { 10.1, 10.5, 10.7, 11.2, 9.8, 9.9, 9.6, 10.4 };
+
+		AoVEngine engine = new AoVEngine(times, mags, 4);
+		engine.analyse(0, 0.3);
+		engine.analyse(0, 1.0);
+
+		BinningResult expected = createBinningResult(times, mags, 0, 1.0, 4);
+		assertEquals(expected.getFValue(), engine.getFValue(), DELTA);
+		assertEquals(expected.getPValue(), engine.getPValue(), DELTA);
+	}
+
+	// Helpers
+
+	private void commonTest(double[] times, double[] mags, double epoch, double period, int bins) {
+		AoVEngine engine = new AoVEngine(times, mags, bins);
+		engine.analyse(epoch, period);
+
+		BinningResult expected = createBinningResult(times, mags, epoch, period, bins);
+
+		assertTrue(engine.hasValidAnovaValues());
+		assertEquals(expected.getBetweenGroupDF(), engine.getBetweenGroupDF());
+		assertEquals(expected.getFValue(), engine.getFValue(), F_RELATIVE_DELTA * expected.getFValue());
+		assertEquals(expected.getPValue(), engine.getPValue(), DELTA);
+	}
+
+	// Phase, sort and symmetrically bin observations created from the
+	// specified times and magnitudes, as the AoV plug-in previously did.
+	private BinningResult createBinningResult(double[] times, double[] mags, double epoch, double period,
+			int bins) {
+		List<ValidObservation> obs = new ArrayList<ValidObservation>();
+
+		for (int i = 0; i < times.length; i++) {
+			ValidObservation ob = new ValidObservation();
+			ob.setDateInfo(new DateInfo(times[i]));
+			ob.setMagnitude(new Magnitude(mags[i], 0));
+			obs.add(ob);
+		}
+
+		PhaseCalcs.setPhases(obs, epoch, period);
+
+		Collections.sort(obs, StandardPhaseComparator.instance);
+
+		return DescStats.createSymmetricBinnedObservations(obs, PhaseTimeElementEntity.instance, 1.0 / bins);
+	}
+}
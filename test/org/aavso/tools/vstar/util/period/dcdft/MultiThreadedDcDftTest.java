@@ -0,0 +1,129 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.util.period.dcdft;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.aavso.tools.vstar.util.period.PeriodAnalysisCoordinateType;
+
+/**
+ * DC DFT unit tests that compare the multi-threaded frequency scan with the
+ * single-threaded one, for a synthetic two period series.
+ */
+public class MultiThreadedDcDftTest extends DataTestBase {
+
+	public MultiThreadedDcDftTest(String name) {
+		super(name, createData());
+	}
+
+	public void testStandardScan() throws Exception {
+		TSDcDft serial = new TSDcDft(obs);
+		serial.setMultiThreaded(false);
+		serial.execute();
+
+		TSDcDft parallel = new TSDcDft(obs);
+		parallel.execute();
+
+		commonTest(serial, parallel);
+	}
+
+	public void testFrequencyRange() throws Exception {
+		TSDcDft serial = new TSDcDft(obs, 0.001, 0.5, 0.0005);
+		serial.setMultiThreaded(false);
+		serial.execute();
+
+		TSDcDft parallel = new TSDcDft(obs, 0.001, 0.5, 0.0005);
+		parallel.execute();
+
+		commonTest(serial, parallel);
+	}
+
+	public void testPeriodRange() throws Exception {
+		TSDcDft serial = createPeriodRangeDcDft();
+		serial.setMultiThreaded(false);
+		serial.execute();
+
+		TSDcDft parallel = createPeriodRangeDcDft();
+		parallel.execute();
+
+		commonTest(serial, parallel);
+	}
+
+	// Helpers
+
+	// Two sinusoids (periods of 5.3 and 37 days) plus noise, unevenly
+	// sampled over 1500 days.
+	private static double[][] createData() {
+		Random random = new Random(42);
+
+		double[][] data = new double[1200][2];
+
+		double jd = 2450000.0;
+		for (int i = 0; i < data.length; i++) {
+			jd += random.nextDouble() * 2.5;
+			data[i][0] = jd;
+			data[i][1] = 10.0 + 0.8 * Math.sin(2 * Math.PI * jd / 5.3) + 0.3
+					* Math.cos(2 * Math.PI * jd / 37.0) + random.nextGaussian()
+					* 0.1;
+		}
+
+		return data;
+	}
+
+	private TSDcDft createPeriodRangeDcDft() {
+		TSDcDft dcdft = new TSDcDft(obs, DcDftAnalysisType.PERIOD_RANGE);
+		dcdft.setLoPeriodValue(2.0);
+		dcdft.setHiPeriodValue(60.0);
+		dcdft.setResolutionValue(0.01);
+		return dcdft;
+	}
+
+	private void commonTest(TSDcDft serial, TSDcDft parallel) {
+		Map<PeriodAnalysisCoordinateType, List<Double>> serialResults = serial
+				.getResultSeries();
+		Map<PeriodAnalysisCoordinateType, List<Double>> parallelResults = parallel
+				.getResultSeries();
+
+		assertTrue(serialResults.get(PeriodAnalysisCoordinateType.FREQUENCY)
+				.size() > 100);
+		checkSeries(serialResults, parallelResults);
+
+		checkSeries(serial.getTopHits(), parallel.getTopHits());
+	}
+
+	private void checkSeries(
+			Map<PeriodAnalysisCoordinateType, List<Double>> expected,
+			Map<PeriodAnalysisCoordinateType, List<Double>> actual) {
+		assertEquals(expected.keySet(), actual.keySet());
+
+		for (PeriodAnalysisCoordinateType type : expected.keySet()) {
+			List<Double> expectedValues = expected.get(type);
+			List<Double> actualValues = actual.get(type);
+
+			assertEquals(type.toString(), expectedValues.size(), actualValues
+					.size());
+
+			for (int i = 0; i < expectedValues.size(); i++) {
+				assertEquals(type + " " + i, expectedValues.get(i),
+						actualValues.get(i), 0.0);
+			}
+		}
+	}
+}
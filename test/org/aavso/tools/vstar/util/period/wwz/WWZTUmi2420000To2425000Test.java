@@ -72,8 +72,110 @@ public class WWZTUmi2420000To2425000Test extends DataTestBase {
 		}
 	}
 
+	/**
+	 * Visiting only the data points within each tau's time window yields the
+	 * same statistics as visiting all data points, over both a frequency range
+	 * (ascending frequencies) and a period range (descending frequencies).
+	 */
+	public void testWWZTUmiWindowedMatchesFullScan() throws Exception {
+		double decay = 0.01;
+		double timeDivisions = 50.0;
+
+		WeightedWaveletZTransform windowed = new WeightedWaveletZTransform(obs,
+				decay, timeDivisions);
+		windowed.make_freqs_from_freq_range(0.002, 0.05, 0.002);
+		windowed.execute();
+
+		WeightedWaveletZTransform fullScan = new WeightedWaveletZTransform(obs,
+				decay, timeDivisions);
+		fullScan.setWindowed(false);
+		fullScan.make_freqs_from_freq_range(0.002, 0.05, 0.002);
+		fullScan.execute();
+
+		checkWWZStatsWithinTolerance(fullScan.getStats(), windowed.getStats());
+		checkWWZStatsWithinTolerance(fullScan.getMaximalStats(), windowed
+				.getMaximalStats());
+
+		windowed = new WeightedWaveletZTransform(obs, decay, timeDivisions);
+		windowed.make_freqs_from_period_range(20, 500, 20);
+		windowed.execute();
+
+		fullScan = new WeightedWaveletZTransform(obs, decay, timeDivisions);
+		fullScan.setWindowed(false);
+		fullScan.make_freqs_from_period_range(20, 500, 20);
+		fullScan.execute();
+
+		checkWWZStatsWithinTolerance(fullScan.getStats(), windowed.getStats());
+		checkWWZStatsWithinTolerance(fullScan.getMaximalStats(), windowed
+				.getMaximalStats());
+	}
+
+	/**
+	 * Evaluating tau rows concurrently yields the same statistics, in the same
+	 * order, as evaluating them one at a time.
+	 */
+	public void testWWZTUmiMultiThreadedMatchesSingleThreaded()
+			throws Exception {
+		double minFreq = 0.002;
+		double maxFreq = 0.05;
+		double deltaFreq = 0.002;
+		double decay = 0.01;
+		double timeDivisions = 50.0;
+
+		WeightedWaveletZTransform serial = new WeightedWaveletZTransform(obs,
+				decay, timeDivisions);
+		serial.setMultiThreaded(false);
+		serial.make_freqs_from_freq_range(minFreq, maxFreq, deltaFreq);
+		serial.execute();
+
+		WeightedWaveletZTransform parallel = new WeightedWaveletZTransform(obs,
+				decay, timeDivisions);
+		parallel.make_freqs_from_freq_range(minFreq, maxFreq, deltaFreq);
+		parallel.execute();
+
+		assertTrue(serial.getMaximalStats().size() > 1);
+
+		checkWWZStats(serial.getStats(), parallel.getStats());
+		checkWWZStatsWithinTolerance(serial.getStats(), parallel.getStats());
+
+		checkWWZStats(serial.getMaximalStats(), parallel.getMaximalStats());
+		checkWWZStatsWithinTolerance(serial.getMaximalStats(), parallel
+				.getMaximalStats());
+
+		assertEquals(serial.getMinWWZ(), parallel.getMinWWZ());
+		assertEquals(serial.getMaxWWZ(), parallel.getMaxWWZ());
+		assertEquals(serial.getMinAmp(), parallel.getMinAmp());
+		assertEquals(serial.getMaxAmp(), parallel.getMaxAmp());
+	}
+
 	// Helpers
 
+	private void checkWWZStatsWithinTolerance(List<WWZStatistic> expectedStats,
+			List<WWZStatistic> actualStats) {
+		assertEquals(expectedStats.size(), actualStats.size());
+
+		for (int i = 0; i < expectedStats.size(); i++) {
+			WWZStatistic expected = expectedStats.get(i);
+			WWZStatistic actual = actualStats.get(i);
+
+			assertEquals(expected.getTau(), actual.getTau());
+			assertEquals(expected.getFrequency(), actual.getFrequency());
+			assertEquals(expected.getWwz(), actual.getWwz(),
+					tolerance(expected.getWwz()));
+			assertEquals(expected.getSemiAmplitude(), actual
+					.getSemiAmplitude(), tolerance(expected.getSemiAmplitude()));
+			assertEquals(expected.getMave(), actual.getMave(),
+					tolerance(expected.getMave()));
+			assertEquals(expected.getNeff(), actual.getNeff(),
+					tolerance(expected.getNeff()));
+		}
+	}
+
+	// A tolerance relative to the magnitude of the expected value.
+	private double tolerance(double expected) {
+		return 1e-9 * Math.max(1.0, Math.abs(expected));
+	}
+
 	private void checkWWZStats(List<WWZStatistic> expectedStats,
 			List<WWZStatistic> actualStats) {
 		for (int i = 0; i < expectedStats.size(); i++) {
@@ -96,6 +96,43 @@ public class PhaseCalcsTest extends TestCase implements WithQuickTheories {
 		assertEquals(-0.875, observations.get(3).getPreviousCyclePhase());
 	}
 	
+	public void testBatchPhases() {
+		double epoch = 2450003.25;
+		double period = 10;
+
+		double[] phases = new double[jds1.length];
+		PhaseCalcs.calcStandardPhases(jds1, jds1.length, epoch, period, phases);
+
+		assertEquals(0.875, phases[1]);
+		assertEquals(0.125, phases[3]);
+	}
+
+	// A batch large enough to be split across threads gives the same phases as
+	// the scalar calculation.
+	public void testParallelBatchPhases() {
+		double epoch = 2450000.3;
+		double period = 1.2345;
+
+		int count = 100000;
+		double[] jds = new double[count + 10];
+		for (int i = 0; i < jds.length; i++) {
+			jds[i] = 2450000 + i * 0.037;
+		}
+
+		double[] phases = new double[jds.length];
+		PhaseCalcs.calcStandardPhases(jds, count, epoch, period, phases);
+
+		for (int i = 0; i < count; i++) {
+			assertEquals(PhaseCalcs.calcStandardPhase(jds[i], epoch, period),
+					phases[i]);
+		}
+
+		// Elements beyond the count are left alone.
+		for (int i = count; i < jds.length; i++) {
+			assertEquals(0.0, phases[i]);
+		}
+	}
+
     // This says that given valid inputs, the phase should always
 	// be in the range 0..1 inclusive.
     public void testPhaseInRangeProperty() {
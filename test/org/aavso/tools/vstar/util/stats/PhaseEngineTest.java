@@ -0,0 +1,183 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.util.stats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import junit.framework.TestCase;
+
+import org.aavso.tools.vstar.data.DateInfo;
+import org.aavso.tools.vstar.data.Magnitude;
+import org.aavso.tools.vstar.data.SeriesType;
+import org.aavso.tools.vstar.data.ValidObservation;
+
+/**
+ * Phase engine UTs.
+ */
+public class PhaseEngineTest extends TestCase {
+
+	public PhaseEngineTest(String name) {
+		super(name);
+	}
+
+	public void testPhasesAndOrder() {
+		Map<SeriesType, List<ValidObservation>> seriesMap = createSeriesMap(
+				50000, 100);
+
+		PhaseEngine engine = new PhaseEngine(seriesMap);
+
+		// Successively small and large period changes, and an epoch change.
+		double[][] params = { { 2450000, 10.0 }, { 2450000, 10.01 },
+				{ 2450000, 3.7 }, { 2450002.5, 3.7 } };
+
+		for (double[] epochAndPeriod : params) {
+			double epoch = epochAndPeriod[0];
+			double period = epochAndPeriod[1];
+
+			engine.setPhases(epoch, period);
+			engine.sortSeries();
+
+			for (SeriesType type : seriesMap.keySet()) {
+				List<ValidObservation> phased = engine.getPhasedSeriesMap()
+						.get(type);
+
+				assertEquals(seriesMap.get(type).size(), phased.size());
+
+				for (int i = 0; i < phased.size(); i++) {
+					ValidObservation ob = phased.get(i);
+
+					double phase = PhaseCalcs.calcStandardPhase(ob.getJD(),
+							epoch, period);
+					assertEquals(phase, ob.getStandardPhase());
+					assertEquals(phase - 1, ob.getPreviousCyclePhase());
+
+					if (i > 0) {
+						assertTrue(phased.get(i - 1).getStandardPhase() <= ob
+								.getStandardPhase());
+					}
+				}
+			}
+		}
+	}
+
+	public void testPhasedSeriesAreCopies() {
+		Map<SeriesType, List<ValidObservation>> seriesMap = createSeriesMap(
+				100, 10);
+
+		List<ValidObservation> visual = seriesMap.get(SeriesType.Visual);
+		ValidObservation first = visual.get(0);
+
+		PhaseEngine engine = new PhaseEngine(seriesMap);
+		engine.setPhases(2450000, 7.3);
+		engine.sortSeries();
+
+		// The source series is left in time order.
+		assertSame(first, visual.get(0));
+		assertNotSame(visual, engine.getPhasedSeriesMap()
+				.get(SeriesType.Visual));
+	}
+
+	public void testObservationMovedBetweenSeries() {
+		Map<SeriesType, List<ValidObservation>> seriesMap = createSeriesMap(
+				100, 10);
+
+		PhaseEngine engine = new PhaseEngine(seriesMap);
+		engine.setPhases(2450000, 7.3);
+		engine.sortSeries();
+
+		// Move an observation, as a plot model does when an observation is
+		// marked as discrepant.
+		List<ValidObservation> visual = engine.getPhasedSeriesMap().get(
+				SeriesType.Visual);
+		ValidObservation ob = visual.remove(0);
+		engine.getPhasedSeriesMap().get(SeriesType.Johnson_V).add(ob);
+
+		engine.setPhases(2450000, 5.1);
+		engine.sortSeries();
+
+		assertEquals(PhaseCalcs.calcStandardPhase(ob.getJD(), 2450000, 5.1),
+				ob.getStandardPhase());
+
+		List<ValidObservation> johnsonV = engine.getPhasedSeriesMap().get(
+				SeriesType.Johnson_V);
+		for (int i = 1; i < johnsonV.size(); i++) {
+			assertTrue(johnsonV.get(i - 1).getStandardPhase() <= johnsonV
+					.get(i).getStandardPhase());
+		}
+	}
+
+	public void testIsCurrent() {
+		Map<SeriesType, List<ValidObservation>> seriesMap = createSeriesMap(
+				100, 10);
+
+		PhaseEngine engine = new PhaseEngine(seriesMap);
+		assertTrue(engine.isCurrent(seriesMap));
+
+		// A new list for an existing series.
+		Map<SeriesType, List<ValidObservation>> otherMap = new TreeMap<SeriesType, List<ValidObservation>>(
+				seriesMap);
+		otherMap.put(SeriesType.Visual, new ArrayList<ValidObservation>(
+				seriesMap.get(SeriesType.Visual)));
+		assertFalse(engine.isCurrent(otherMap));
+
+		// A new series.
+		seriesMap.put(SeriesType.Filtered, new ArrayList<ValidObservation>());
+		assertFalse(engine.isCurrent(seriesMap));
+		seriesMap.remove(SeriesType.Filtered);
+		assertTrue(engine.isCurrent(seriesMap));
+
+		// A changed series.
+		seriesMap.get(SeriesType.Johnson_V).remove(0);
+		assertFalse(engine.isCurrent(seriesMap));
+	}
+
+	// Helpers
+
+	// Create Visual and Johnson V series in JD order, with the specified
+	// number of observations.
+	private Map<SeriesType, List<ValidObservation>> createSeriesMap(
+			int visualCount, int johnsonVCount) {
+		Random random = new Random(42);
+
+		Map<SeriesType, List<ValidObservation>> seriesMap = new TreeMap<SeriesType, List<ValidObservation>>();
+		seriesMap.put(SeriesType.Visual, createObs(random, visualCount));
+		seriesMap.put(SeriesType.Johnson_V, createObs(random, johnsonVCount));
+
+		return seriesMap;
+	}
+
+	private List<ValidObservation> createObs(Random random, int count) {
+		List<ValidObservation> obs = new ArrayList<ValidObservation>();
+
+		double jd = 2450000;
+		for (int i = 0; i < count; i++) {
+			jd += random.nextDouble();
+
+			ValidObservation ob = new ValidObservation();
+			ob.setDateInfo(new DateInfo(jd));
+			ob.setMagnitude(new Magnitude(10 + random.nextDouble(), 0));
+			obs.add(ob);
+		}
+
+		return obs;
+	}
+}
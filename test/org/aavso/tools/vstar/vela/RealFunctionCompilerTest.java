@@ -0,0 +1,138 @@
+/**
+ * VStar: a statistical analysis tool for variable star data.
+ * Copyright (C) 2009  AAVSO (http://www.aavso.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.aavso.tools.vstar.vela;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.function.DoubleUnaryOperator;
+
+import junit.framework.TestCase;
+
+/**
+ * Compiled VeLa real function unit tests. Each compiled function is compared
+ * with the interpreted function.
+ */
+public class RealFunctionCompilerTest extends TestCase {
+
+    private static final double[] TIMES = { 2457849.1, 2457849.35, 2457850.0, 2457851.7 };
+
+    private VeLaInterpreter vela;
+
+    public RealFunctionCompilerTest(String name) {
+        super(name);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        vela = new VeLaInterpreter(false, false, Collections.emptyList());
+    }
+
+    public void testPolynomial() {
+        String prog = "zeroPoint is 2457849.0\n";
+        prog += "f(t:real) : real {\n";
+        prog += "    0.25*(t-zeroPoint)^3 +\n";
+        prog += "    -1.5*(t-zeroPoint)^2 +\n";
+        prog += "    2*(t-zeroPoint) +\n";
+        prog += "    11.2\n";
+        prog += "}";
+
+        commonCompiledTest(prog);
+    }
+
+    public void testFourier() {
+        String prog = "zeroPoint is 2457849.0\n";
+        prog += "f(t:real) : real {\n";
+        prog += "    11.5\n";
+        prog += "    + 0.3*sin(2*PI*0.1234*(t-zeroPoint))\n";
+        prog += "    - 0.2*cos(2*PI*0.1234*(t-zeroPoint))\n";
+        prog += "    + 0.01*atan2(t-zeroPoint 3.0)\n";
+        prog += "}";
+
+        commonCompiledTest(prog);
+    }
+
+    public void testNestedFunction() {
+        String prog = "g(x:real) : real { sqrt(abs(x)) / 2 }\n";
+        prog += "f(t:real) : real { g(t - 2457850.0) + -t }";
+
+        commonCompiledTest(prog);
+    }
+
+    public void testIntegerResultConvertedToReal() {
+        String prog = "f(t:real) : real { 42 }";
+
+        commonCompiledTest(prog);
+    }
+
+    public void testDivisionByZero() {
+        vela.program("f(t:real) : real { 1 / (t - t) }");
+        Optional<DoubleUnaryOperator> f = vela.compileRealFunction("f");
+        assertTrue(f.isPresent());
+
+        try {
+            f.get().applyAsDouble(1.0);
+            fail();
+        } catch (VeLaEvalError e) {
+            // We expect to get here.
+        }
+    }
+
+    public void testVariableIsNotCompiled() {
+        vela.program("c <- 1.0\nf(t:real) : real { t + c }");
+        assertFalse(vela.compileRealFunction("f").isPresent());
+    }
+
+    public void testUnknownSymbolIsNotCompiled() {
+        vela.program("f(t:real) : real { t + magnitude }");
+        assertFalse(vela.compileRealFunction("f").isPresent());
+    }
+
+    public void testNonNumericFunctionIsNotCompiled() {
+        vela.program("f(t:real) : real { if t > 0 then 1.0 else 2.0 }");
+        assertFalse(vela.compileRealFunction("f").isPresent());
+    }
+
+    public void testRecursiveFunctionIsNotCompiled() {
+        vela.program("f(t:real) : real { f(t - 1.0) }");
+        assertFalse(vela.compileRealFunction("f").isPresent());
+    }
+
+    public void testIntegerParameterIsNotCompiled() {
+        vela.program("f(n:integer) : real { n * 2.0 }");
+        assertFalse(vela.compileRealFunction("f").isPresent());
+    }
+
+    public void testUndefinedFunction() {
+        assertFalse(vela.compileRealFunction("nosuchfunction").isPresent());
+    }
+
+    // Helpers
+
+    private void commonCompiledTest(String prog) {
+        vela.program(prog);
+
+        Optional<DoubleUnaryOperator> f = vela.compileRealFunction("f");
+        assertTrue(f.isPresent());
+
+        for (double t : TIMES) {
+            Optional<Operand> expected = vela.program("f(" + t + ")");
+            assertTrue(expected.isPresent());
+            assertEquals(expected.get().doubleVal(), f.get().applyAsDouble(t));
+        }
+    }
+}
@@ -30,6 +30,9 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.DoubleUnaryOperator;
 import java.util.function.LongUnaryOperator;
 import java.util.stream.Collectors;
@@ -1955,6 +1958,72 @@ public class VeLaTest extends TestCase implements WithQuickTheories {
         assertEquals(1, filterObs(expr, obs).size());
     }
 
+    public void testCompiledFilter() {
+        List<ValidObservation> obs = commonObs();
+        String expr = "magnitude > 12 and (uncertainty > 0 and uncertainty <= 0.01)";
+        assertEquals(filterObs(expr, obs), filterObs(vela.compile(expr), obs));
+    }
+
+    public void testCompiledFilterWithFunction() {
+        List<ValidObservation> obs = commonObs();
+        String prog = "bright(mag:real):boolean { mag < 12 }\nbright(magnitude)";
+        assertEquals(2, filterObs(vela.compile(prog), obs).size());
+    }
+
+    public void testCompiledEmptyProgram() {
+        AST ast = vela.compile("# nothing to see here");
+        assertFalse(vela.program(ast).isPresent());
+    }
+
+    public void testCompileParseError() {
+        try {
+            vela.compile("magnitude >");
+            fail();
+        } catch (VeLaParseError e) {
+            // We expect to get here.
+        }
+    }
+
+    public void testConcurrentFilters() throws Exception {
+        List<ValidObservation> obs = commonObs();
+        String expr = "magnitude < 12.01 and band =~ \"Vis.*\"";
+        List<ValidObservation> expected = filterObs(expr, obs);
+        assertEquals(2, expected.size());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+
+            for (int t = 0; t < 4; t++) {
+                results.add(executor.submit(() -> {
+                    // Each thread has its own interpreter; caches are shared.
+                    VeLaInterpreter threadVeLa = new VeLaInterpreter(VERBOSE, ADD_VSTAR_API,
+                            Collections.emptyList());
+                    boolean ok = true;
+                    for (int i = 0; i < 200; i++) {
+                        List<ValidObservation> filteredObs = new ArrayList<ValidObservation>();
+                        for (ValidObservation ob : obs) {
+                            threadVeLa.pushEnvironment(new VeLaValidObservationEnvironment(ob));
+                            Optional<Operand> result = threadVeLa.program(expr);
+                            if (result.isPresent() && result.get().booleanVal()) {
+                                filteredObs.add(ob);
+                            }
+                            threadVeLa.popEnvironment();
+                        }
+                        ok &= expected.equals(filteredObs);
+                    }
+                    return ok;
+                }));
+            }
+
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     // Comments
 
     public void testComments1() {
@@ -2195,6 +2264,26 @@ public class VeLaTest extends TestCase implements WithQuickTheories {
         return filteredObs;
     }
 
+    private List<ValidObservation> filterObs(AST velaFilter, List<ValidObservation> obs) {
+
+        VeLaValidObservationEnvironment.reset();
+
+        List<ValidObservation> filteredObs = new ArrayList<ValidObservation>();
+
+        for (ValidObservation ob : obs) {
+            vela.pushEnvironment(new VeLaValidObservationEnvironment(ob));
+
+            Optional<Operand> result = vela.program(velaFilter);
+            if (result.isPresent() && result.get().booleanVal()) {
+                filteredObs.add(ob);
+            }
+
+            vela.popEnvironment();
+        }
+
+        return filteredObs;
+    }
+
     /**
      * Given an operator string and an integer, return a unary function that takes
      * an integer and returns the result of combining the integer with another using